@@ -43,6 +43,21 @@ public class SecurityConfig {
                         .requestMatchers(org.springframework.http.HttpMethod.POST, "/api/sweets/*/restock")
                         .hasRole("ADMIN")
                         .requestMatchers(org.springframework.http.HttpMethod.DELETE, "/api/sweets/*").hasRole("ADMIN")
+                        .requestMatchers(org.springframework.http.HttpMethod.PUT, "/api/sweets/*/flash-sale")
+                        .hasRole("ADMIN")
+                        .requestMatchers(org.springframework.http.HttpMethod.PUT, "/api/sweets/*/stock-slots")
+                        .hasRole("ADMIN")
+                        .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/sweets/facets",
+                                "/api/sweets/flash-sales")
+                        .hasRole("ADMIN")
+                        .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/purchases/all",
+                                "/api/purchases/export")
+                        .hasRole("ADMIN")
+                        .requestMatchers(org.springframework.http.HttpMethod.POST, "/api/purchases/summaries/rebuild")
+                        .hasRole("ADMIN")
+                        .requestMatchers("/api/sales/**").hasRole("ADMIN")
+                        // Metrics are tagged by sweet, e.g. sweet.update.conflicts
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .anyRequest().authenticated())
                 .addFilterBefore(clerkAuthFilter,
                         org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter.class);
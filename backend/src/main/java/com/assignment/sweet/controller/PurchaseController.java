@@ -1,37 +1,106 @@
 package com.assignment.sweet.controller;
 
+import com.assignment.sweet.dto.CursorPage;
+import com.assignment.sweet.dto.PurchaseSearchRequest;
+import com.assignment.sweet.model.CustomerSummary;
 import com.assignment.sweet.model.Purchase;
 import com.assignment.sweet.repository.PurchaseRepository;
+import com.assignment.sweet.service.CustomerSummaryService;
+import com.assignment.sweet.service.JsonRowStreamer;
+import com.assignment.sweet.service.PurchaseHistoryService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.util.Map;
 
+@Slf4j
 @RestController
 @RequestMapping("/api/purchases")
 public class PurchaseController {
 
     private final PurchaseRepository purchaseRepository;
+    private final PurchaseHistoryService purchaseHistoryService;
+    private final CustomerSummaryService customerSummaryService;
+    private final JsonRowStreamer jsonRowStreamer;
 
-    public PurchaseController(PurchaseRepository purchaseRepository) {
+    public PurchaseController(PurchaseRepository purchaseRepository, PurchaseHistoryService purchaseHistoryService,
+            CustomerSummaryService customerSummaryService, JsonRowStreamer jsonRowStreamer) {
         this.purchaseRepository = purchaseRepository;
+        this.purchaseHistoryService = purchaseHistoryService;
+        this.customerSummaryService = customerSummaryService;
+        this.jsonRowStreamer = jsonRowStreamer;
     }
 
+    /**
+     * One page of the customer's history, newest first. Pass the returned
+     * {@code nextCursor} back as {@code cursor} for the following page.
+     * Purchases are append-only and every one moves the customer's
+     * {@link CustomerSummary} in its own transaction, so the summary's order
+     * count and last purchase date identify every page of the history and
+     * are used as its ETag.
+     */
     @GetMapping("/my")
-    public ResponseEntity<List<Purchase>> getMyPurchases(Authentication authentication) {
+    public ResponseEntity<CursorPage<Purchase>> getMyPurchases(Authentication authentication,
+            @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit,
+            WebRequest webRequest) {
         String email = authentication.getName();
-        System.out.println("DEBUG: Fetching purchases for user: " + email);
-        List<Purchase> purchases = purchaseRepository.findByCustomerEmailOrderByCreatedDateDesc(email);
-        System.out.println("DEBUG: Found " + purchases.size() + " purchases for " + email);
-        return ResponseEntity.ok(purchases);
+        CustomerSummary summary = customerSummaryService.getSummary(email);
+        String etag = "\"" + summary.getOrderCount() + "-" + summary.getLastPurchaseDate() + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        CursorPage<Purchase> purchases = purchaseHistoryService.customerPage(email, cursor, limit);
+        log.debug("Found {} purchases for {}", purchases.getItems().size(), email);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(etag)
+                .body(purchases);
     }
 
+    /** The customer's order count, items bought and total spent, from one primary-key read. */
+    @GetMapping("/my/summary")
+    public ResponseEntity<CustomerSummary> getMySummary(Authentication authentication) {
+        return ResponseEntity.ok(customerSummaryService.getSummary(authentication.getName()));
+    }
+
+    /** Recomputes every customer's summary from the purchases table. */
+    @PostMapping("/summaries/rebuild")
+    @org.springframework.security.access.prepost.PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Integer>> rebuildSummaries() {
+        return ResponseEntity.ok(Map.of("customers", customerSummaryService.rebuild()));
+    }
+
+    /**
+     * One page of all purchases, newest first, filtered by customer, sweet
+     * and date range; paged like {@link #getMyPurchases}.
+     */
     @GetMapping("/all")
     @org.springframework.security.access.prepost.PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<Purchase>> getAllPurchases() {
-        return ResponseEntity.ok(purchaseRepository.findAll());
+    public ResponseEntity<CursorPage<Purchase>> getAllPurchases(@ModelAttribute PurchaseSearchRequest request) {
+        return ResponseEntity.ok(purchaseHistoryService.search(request));
+    }
+
+    @GetMapping("/export")
+    @org.springframework.security.access.prepost.PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportPurchases(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        // Streamed newest first from a database cursor; memory stays flat however many rows there are
+        boolean ndjson = accept != null && accept.contains(JsonRowStreamer.NDJSON_VALUE);
+        return ResponseEntity.ok()
+                .contentType(ndjson ? JsonRowStreamer.NDJSON : MediaType.APPLICATION_JSON)
+                .body(jsonRowStreamer.stream(purchaseRepository::streamAll, ndjson));
     }
 }
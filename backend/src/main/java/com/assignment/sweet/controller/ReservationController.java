@@ -0,0 +1,52 @@
+package com.assignment.sweet.controller;
+
+import com.assignment.sweet.dto.ReservationRequest;
+import com.assignment.sweet.model.Purchase;
+import com.assignment.sweet.model.StockReservation;
+import com.assignment.sweet.service.ReservationService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/reservations")
+public class ReservationController {
+
+    private final ReservationService reservationService;
+
+    public ReservationController(ReservationService reservationService) {
+        this.reservationService = reservationService;
+    }
+
+    /** Holds units of a sweet; they leave the available stock until confirmed, released or expired. */
+    @PostMapping
+    public ResponseEntity<StockReservation> reserve(@RequestBody ReservationRequest request,
+            Authentication authentication) {
+        return ResponseEntity.ok(reservationService.reserve(request.getSweetId(), request.getQuantity(),
+                authentication.getName()));
+    }
+
+    @GetMapping("/my")
+    public ResponseEntity<List<StockReservation>> getMyReservations(Authentication authentication) {
+        return ResponseEntity.ok(reservationService.getReservations(authentication.getName()));
+    }
+
+    @PostMapping("/{id}/confirm")
+    public ResponseEntity<Purchase> confirm(@PathVariable String id, Authentication authentication) {
+        return ResponseEntity.ok(reservationService.confirm(id, authentication.getName()));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> release(@PathVariable String id, Authentication authentication) {
+        reservationService.release(id, authentication.getName());
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,102 @@
+package com.assignment.sweet.controller;
+
+import com.assignment.sweet.dto.DailyBuyers;
+import com.assignment.sweet.dto.SalesBucket;
+import com.assignment.sweet.dto.SalesGrouping;
+import com.assignment.sweet.dto.SalesTotal;
+import com.assignment.sweet.dto.UniqueBuyerCount;
+import com.assignment.sweet.model.SalesRollup.Granularity;
+import com.assignment.sweet.service.SalesRollupService;
+import com.assignment.sweet.service.UniqueBuyerService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sales reports for the admin dashboard, read from the rollups in
+ * {@link SalesRollupService} and the buyer sketches in {@link UniqueBuyerService}.
+ */
+@RestController
+@RequestMapping("/api/sales")
+@PreAuthorize("hasRole('ADMIN')")
+public class SalesController {
+
+    private final SalesRollupService salesRollupService;
+    private final UniqueBuyerService uniqueBuyerService;
+
+    public SalesController(SalesRollupService salesRollupService, UniqueBuyerService uniqueBuyerService) {
+        this.salesRollupService = salesRollupService;
+        this.uniqueBuyerService = uniqueBuyerService;
+    }
+
+    /** Units, revenue and orders per sweet or category over {@code [from, to)}, to the minute. */
+    @GetMapping("/totals")
+    public ResponseEntity<List<SalesTotal>> getTotals(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "SWEET") SalesGrouping groupBy) {
+        return ResponseEntity.ok(salesRollupService.totals(from, to, groupBy));
+    }
+
+    /** Units, revenue and orders per hour, day or week, optionally of one sweet or category. */
+    @GetMapping("/series")
+    public ResponseEntity<List<SalesBucket>> getSeries(
+            @RequestParam(defaultValue = "DAY") Granularity granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Long sweetId,
+            @RequestParam(required = false) String category) {
+        return ResponseEntity.ok(salesRollupService.series(granularity, from, to, sweetId, category));
+    }
+
+    /** Recomputes every rollup from the purchases table. */
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<Map<String, Long>> rebuild() {
+        return ResponseEntity.ok(Map.of("purchases", salesRollupService.rebuild()));
+    }
+
+    /** Estimated distinct customers per sweet or category over the days in {@code [from, to)}. */
+    @GetMapping("/buyers")
+    public ResponseEntity<List<UniqueBuyerCount>> getUniqueBuyers(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "SWEET") SalesGrouping groupBy) {
+        return ResponseEntity.ok(uniqueBuyerService.countBy(from, to, groupBy));
+    }
+
+    /** Estimated distinct customers across the whole range, optionally of one sweet or category. */
+    @GetMapping("/buyers/total")
+    public ResponseEntity<Map<String, Long>> getUniqueBuyerTotal(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long sweetId,
+            @RequestParam(required = false) String category) {
+        return ResponseEntity.ok(Map.of("buyers", uniqueBuyerService.count(from, to, sweetId, category)));
+    }
+
+    /** Estimated distinct customers per day, optionally of one sweet or category. */
+    @GetMapping("/buyers/daily")
+    public ResponseEntity<List<DailyBuyers>> getDailyBuyers(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long sweetId,
+            @RequestParam(required = false) String category) {
+        return ResponseEntity.ok(uniqueBuyerService.daily(from, to, sweetId, category));
+    }
+
+    /** Recomputes every buyer sketch from the purchases table. */
+    @PostMapping("/buyers/rebuild")
+    public ResponseEntity<Map<String, Long>> rebuildBuyers() {
+        return ResponseEntity.ok(Map.of("purchases", uniqueBuyerService.rebuild()));
+    }
+}
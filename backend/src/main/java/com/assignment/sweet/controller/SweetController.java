@@ -1,26 +1,195 @@
 package com.assignment.sweet.controller;
 
+import com.assignment.sweet.dto.BestSeller;
+import com.assignment.sweet.dto.BestSellerView;
+import com.assignment.sweet.dto.CheckoutRequest;
+import com.assignment.sweet.dto.CheckoutResult;
+import com.assignment.sweet.dto.CursorPage;
+import com.assignment.sweet.dto.FlashSaleStats;
+import com.assignment.sweet.dto.SweetFacetCounts;
+import com.assignment.sweet.dto.SweetChangeSet;
+import com.assignment.sweet.dto.SweetFacetFilter;
+import com.assignment.sweet.dto.SweetSearchHit;
+import com.assignment.sweet.dto.SweetSearchRequest;
+import com.assignment.sweet.dto.SweetSummary;
 import com.assignment.sweet.model.Sweet;
+import com.assignment.sweet.service.BestSellerSketch;
+import com.assignment.sweet.service.CatalogSnapshot;
+import com.assignment.sweet.service.CatalogEventBroadcaster;
+import com.assignment.sweet.service.CatalogSnapshotCache;
+import com.assignment.sweet.service.FlashSaleGate;
+import com.assignment.sweet.service.IdempotencyStore;
+import com.assignment.sweet.service.JsonRowStreamer;
+import com.assignment.sweet.service.SweetChangeLog;
+import com.assignment.sweet.service.SweetFacetIndex;
 import com.assignment.sweet.service.SweetService;
+import com.assignment.sweet.service.SweetTextIndex;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/sweets")
 public class SweetController {
 
     private final SweetService sweetService;
+    private final CatalogSnapshotCache catalogSnapshotCache;
+    private final SweetTextIndex sweetTextIndex;
+    private final SweetFacetIndex sweetFacetIndex;
+    private final JsonRowStreamer jsonRowStreamer;
+    private final CatalogEventBroadcaster catalogEventBroadcaster;
+    private final SweetChangeLog sweetChangeLog;
+    private final IdempotencyStore idempotencyStore;
+    private final FlashSaleGate flashSaleGate;
+    private final BestSellerSketch bestSellerSketch;
 
-    public SweetController(SweetService sweetService) {
+    public SweetController(SweetService sweetService, CatalogSnapshotCache catalogSnapshotCache,
+            SweetTextIndex sweetTextIndex, SweetFacetIndex sweetFacetIndex, JsonRowStreamer jsonRowStreamer,
+            CatalogEventBroadcaster catalogEventBroadcaster, SweetChangeLog sweetChangeLog,
+            IdempotencyStore idempotencyStore, FlashSaleGate flashSaleGate, BestSellerSketch bestSellerSketch) {
         this.sweetService = sweetService;
+        this.catalogSnapshotCache = catalogSnapshotCache;
+        this.sweetTextIndex = sweetTextIndex;
+        this.sweetFacetIndex = sweetFacetIndex;
+        this.jsonRowStreamer = jsonRowStreamer;
+        this.catalogEventBroadcaster = catalogEventBroadcaster;
+        this.sweetChangeLog = sweetChangeLog;
+        this.idempotencyStore = idempotencyStore;
+        this.flashSaleGate = flashSaleGate;
+        this.bestSellerSketch = bestSellerSketch;
     }
 
+    /**
+     * Full catalog served from the in-memory snapshot as pre-encoded bytes,
+     * gzip-compressed when the client accepts it. The snapshot's catalog
+     * version is the ETag, so polling clients get a 304 without any work.
+     */
     @GetMapping
-    public ResponseEntity<List<Sweet>> getAllSweets() {
-        return ResponseEntity.ok(sweetService.getAllSweets());
+    public ResponseEntity<byte[]> getAllSweets(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest) {
+        CatalogSnapshot snapshot = catalogSnapshotCache.current();
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        // Each encoding is a distinct representation and needs its own strong validator
+        String etag = "\"" + snapshot.version() + (gzip ? "-gzip" : "") + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .eTag(etag)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.gzip());
+        }
+        return response.body(snapshot.json());
+    }
+
+    /**
+     * Full catalog read straight from the database and written row by row, as
+     * a JSON array or as NDJSON when the client accepts
+     * {@code application/x-ndjson}. For exports and tools that need the
+     * committed table rather than this instance's snapshot.
+     */
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamSweets(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        boolean ndjson = accept != null && accept.contains(JsonRowStreamer.NDJSON_VALUE);
+        return ResponseEntity.ok()
+                .contentType(ndjson ? JsonRowStreamer.NDJSON : MediaType.APPLICATION_JSON)
+                .body(jsonRowStreamer.stream(sweetService::streamAllSweets, ndjson));
+    }
+
+    /**
+     * Delta sync: sweets upserted or deleted since {@code since}, the
+     * {@code version} of the client's previous sync. Without {@code since}, or
+     * when it predates the change log, the whole catalog is returned with
+     * {@code fullSnapshot} set.
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<SweetChangeSet> getChanges(@RequestParam(required = false) Long since) {
+        return ResponseEntity.ok(sweetChangeLog.changesSince(since));
+    }
+
+    /**
+     * Server-Sent Events stream of committed catalog changes: {@code stock}
+     * events with the new quantity and price (or a deletion) of one sweet, and
+     * for admins a {@code purchase} event per recorded purchase. Clients that
+     * fall too far behind are disconnected and should refetch on reconnect.
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamEvents(org.springframework.security.core.Authentication authentication) {
+        boolean admin = authentication != null && authentication.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+        SseEmitter emitter = catalogEventBroadcaster.subscribe(admin);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok().header("X-Accel-Buffering", "no").body(emitter);
+    }
+
+    /**
+     * Server-side catalog query: name/category/price filters, sorting and
+     * cursor pagination. Pass the returned {@code nextCursor} back as
+     * {@code cursor} (with the same sort) to fetch the following page.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<CursorPage<SweetSummary>> searchSweets(@ModelAttribute SweetSearchRequest request) {
+        return ResponseEntity.ok(sweetService.searchSweets(request));
+    }
+
+    /**
+     * Relevance-ranked full-text search over name, category and description,
+     * tolerant of prefixes and single-character typos.
+     */
+    @GetMapping("/search/text")
+    public ResponseEntity<List<SweetSearchHit>> searchText(@RequestParam("q") String query,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(sweetTextIndex.search(query, limit));
+    }
+
+    /**
+     * Best-selling sweets of all time, or trending ones weighted towards recent
+     * sales, estimated from in-memory sketches of fixed size.
+     */
+    @GetMapping("/best-sellers")
+    public ResponseEntity<List<BestSeller>> getBestSellers(
+            @RequestParam(defaultValue = "ALL_TIME") BestSellerView view,
+            @RequestParam(defaultValue = "8") int limit) {
+        return ResponseEntity.ok(bestSellerSketch.top(view, limit));
+    }
+
+    /**
+     * Shop grid filter (category, price range, in stock) resolved on the facet
+     * bitmaps and rendered from the catalog snapshot's encoded entries.
+     */
+    @GetMapping("/filter")
+    public ResponseEntity<byte[]> filterSweets(@ModelAttribute SweetFacetFilter filter) {
+        byte[] body = catalogSnapshotCache.select(sweetFacetIndex.filter(filter));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @GetMapping("/facets")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<SweetFacetCounts> getFacetCounts(@ModelAttribute SweetFacetFilter filter) {
+        return ResponseEntity.ok(sweetFacetIndex.counts(filter));
+    }
+
+    /** Full record of one sweet, including the description the list views leave out. */
+    @GetMapping("/{id}")
+    public ResponseEntity<Sweet> getSweet(@PathVariable Long id) {
+        return ResponseEntity.ok(sweetService.getSweet(id));
     }
 
     @PostMapping(consumes = { "multipart/form-data" })
@@ -31,19 +200,53 @@ public class SweetController {
         return ResponseEntity.ok(sweetService.addSweet(sweet, image));
     }
 
+    /** Retries carrying the same {@code Idempotency-Key} get the first response instead of buying again. */
     @PostMapping("/{id}/purchase")
     public ResponseEntity<Sweet> purchaseSweet(@PathVariable Long id, @RequestBody(required = false) Integer quantity,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
             org.springframework.security.core.Authentication authentication) {
         String email = authentication.getName();
         // Default to 1 if quantity is null (backward compatibility or simple requests)
         int qty = (quantity != null) ? quantity : 1;
-        return ResponseEntity.ok(sweetService.purchaseSweet(id, qty, email));
+        return once(idempotencyKey, "purchase:" + email, id + ":" + qty, sweetService.purchaseJoinsTransaction(id),
+                () -> sweetService.purchaseSweet(id, qty, email));
+    }
+
+    /** Buys every line of a basket in one transaction; nothing is bought if any line is short. */
+    @PostMapping("/checkout")
+    public ResponseEntity<CheckoutResult> checkout(@RequestBody CheckoutRequest request,
+            org.springframework.security.core.Authentication authentication) {
+        return ResponseEntity.ok(sweetService.checkout(request.getLines(), authentication.getName()));
     }
 
     @PostMapping("/{id}/restock")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Sweet> restockSweet(@PathVariable Long id, @RequestBody Integer quantity) {
-        return ResponseEntity.ok(sweetService.restockSweet(id, quantity));
+    public ResponseEntity<Sweet> restockSweet(@PathVariable Long id, @RequestBody Integer quantity,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+            org.springframework.security.core.Authentication authentication) {
+        return once(idempotencyKey, "restock:" + authentication.getName(), id + ":" + quantity, true,
+                () -> sweetService.restockSweet(id, quantity));
+    }
+
+    /** Puts a sweet in or out of flash-sale mode; body is {@code true} or {@code false}. */
+    @PutMapping("/{id}/flash-sale")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Sweet> setFlashSale(@PathVariable Long id, @RequestBody Boolean enabled) {
+        return ResponseEntity.ok(sweetService.setFlashSale(id, Boolean.TRUE.equals(enabled)));
+    }
+
+    /** Splits a sweet's stock across that many counter slots (0 or 1 merges them); body is the count. */
+    @PutMapping("/{id}/stock-slots")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Sweet> setStockSlots(@PathVariable Long id, @RequestBody Integer slots) {
+        return ResponseEntity.ok(sweetService.setStockSlots(id, slots == null ? 0 : slots));
+    }
+
+    /** Queue depth and admission counts for every sweet in flash-sale mode on this instance. */
+    @GetMapping("/flash-sales")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<FlashSaleStats>> getFlashSaleStats() {
+        return ResponseEntity.ok(flashSaleGate.stats());
     }
 
     @PutMapping(value = "/{id}", consumes = { "multipart/form-data" })
@@ -61,4 +264,18 @@ public class SweetController {
         sweetService.deleteSweet(id);
         return ResponseEntity.noContent().build();
     }
+
+    private ResponseEntity<Sweet> once(String idempotencyKey, String scope, String fingerprint,
+            boolean sameTransaction, Supplier<Sweet> action) {
+        if (idempotencyKey == null) {
+            return ResponseEntity.ok(action.get());
+        }
+        IdempotencyStore.Outcome<Sweet> outcome = idempotencyStore.execute(idempotencyKey, scope, fingerprint,
+                Sweet.class, sameTransaction, action);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (outcome.replayed()) {
+            response.header("Idempotent-Replayed", "true");
+        }
+        return response.body(outcome.body());
+    }
 }
@@ -0,0 +1,25 @@
+package com.assignment.sweet.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * One sweet of a best-seller ranking. {@code score} is the estimated units
+ * sold (time-decayed for the trending view) and may be up to {@code error}
+ * above the true figure.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BestSeller {
+    private Long sweetId;
+    private String name;
+    private String category;
+    private BigDecimal price;
+    private String imageUrl;
+    private double score;
+    private double error;
+}
@@ -0,0 +1,9 @@
+package com.assignment.sweet.dto;
+
+/** Which ranking {@code GET /api/sweets/best-sellers} returns. */
+public enum BestSellerView {
+    /** Units sold since the shop opened. */
+    ALL_TIME,
+    /** Units sold, each weighted down by half per half-life of age. */
+    TRENDING
+}
@@ -0,0 +1,7 @@
+package com.assignment.sweet.dto;
+
+import java.time.LocalDate;
+
+/** The columns of a stored buyer sketch that unique-buyer queries merge. */
+public record BuyerSketchRow(LocalDate day, Long sweetId, String category, byte[] registers) {
+}
@@ -0,0 +1,13 @@
+package com.assignment.sweet.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CheckoutLine {
+    private Long sweetId;
+    private Integer quantity;
+}
@@ -0,0 +1,14 @@
+package com.assignment.sweet.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CheckoutRequest {
+    private List<CheckoutLine> lines;
+}
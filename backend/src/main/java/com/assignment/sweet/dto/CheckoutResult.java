@@ -0,0 +1,21 @@
+package com.assignment.sweet.dto;
+
+import com.assignment.sweet.model.Purchase;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * A completed checkout: one purchase per distinct sweet, in sweet id order.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CheckoutResult {
+    private List<Purchase> purchases;
+    private int totalQuantity;
+    private BigDecimal totalPrice;
+}
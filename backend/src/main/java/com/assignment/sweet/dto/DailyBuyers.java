@@ -0,0 +1,16 @@
+package com.assignment.sweet.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/** Estimated distinct customers on one day of a {@code GET /api/sales/buyers/daily} response. */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DailyBuyers {
+    private LocalDate day;
+    private long buyers;
+}
@@ -0,0 +1,22 @@
+package com.assignment.sweet.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Live state of one sweet's flash-sale gate: units still open to new buyers,
+ * units admitted but not yet bought, buyers waiting for their turn, and how
+ * many requests were let through or turned away so far.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FlashSaleStats {
+    private Long sweetId;
+    private int available;
+    private int inFlight;
+    private int waiting;
+    private long admitted;
+    private long rejected;
+}
@@ -0,0 +1,20 @@
+package com.assignment.sweet.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Number of sweets priced in {@code [minPrice, maxPrice)}; {@code maxPrice} is
+ * null for the open-ended top bucket.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PriceBucketCount {
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private int count;
+}
@@ -0,0 +1,28 @@
+package com.assignment.sweet.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Query parameters accepted by {@code GET /api/purchases/all}. All filters
+ * are optional; {@code from} is inclusive and {@code to} exclusive.
+ * {@code cursor} is the opaque value returned as {@code nextCursor} by the
+ * previous page, which must be requested with the same filters.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PurchaseSearchRequest {
+    private String customerEmail;
+    private Long sweetId;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;
+    private String cursor;
+    private Integer limit;
+}
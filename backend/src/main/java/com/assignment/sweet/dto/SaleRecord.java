@@ -0,0 +1,16 @@
+package com.assignment.sweet.dto;
+
+import com.assignment.sweet.model.Purchase;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/** The columns of a purchase that sales rollups and sketches aggregate. */
+public record SaleRecord(Long sweetId, String customerEmail, Integer quantity, BigDecimal revenue,
+        LocalDateTime createdDate) {
+
+    public static SaleRecord of(Purchase purchase) {
+        return new SaleRecord(purchase.getSweetId(), purchase.getCustomerEmail(), purchase.getQuantity(),
+                purchase.getTotalPrice(), purchase.getCreatedDate());
+    }
+}
@@ -0,0 +1,19 @@
+package com.assignment.sweet.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/** Sales in one hour, day or week of a {@code GET /api/sales/series} response. */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SalesBucket {
+    private LocalDateTime bucketStart;
+    private long units;
+    private BigDecimal revenue;
+    private long orderCount;
+}
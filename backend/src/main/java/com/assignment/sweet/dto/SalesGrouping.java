@@ -0,0 +1,7 @@
+package com.assignment.sweet.dto;
+
+/** What {@code GET /api/sales/totals} adds sales up by. */
+public enum SalesGrouping {
+    SWEET,
+    CATEGORY
+}
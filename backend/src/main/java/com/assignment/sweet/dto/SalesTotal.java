@@ -0,0 +1,23 @@
+package com.assignment.sweet.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Sales of one sweet, or of one category (with {@code sweetId} and
+ * {@code sweetName} null), over the requested range.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SalesTotal {
+    private Long sweetId;
+    private String sweetName;
+    private String category;
+    private long units;
+    private BigDecimal revenue;
+    private long orderCount;
+}
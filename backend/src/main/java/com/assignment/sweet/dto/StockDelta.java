@@ -0,0 +1,22 @@
+package com.assignment.sweet.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Compact change notice pushed to catalog subscribers. {@code quantity} and
+ * {@code price} are null when {@code deleted} is set.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockDelta {
+    private Long sweetId;
+    private Integer quantity;
+    private BigDecimal price;
+    private boolean deleted;
+    private long version;
+}
@@ -0,0 +1,23 @@
+package com.assignment.sweet.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Catalog changes since a client's version. When {@code fullSnapshot} is set
+ * the client's version was too old (or absent), {@code upserted} holds the
+ * whole catalog and the client should replace its copy instead of merging.
+ * Pass {@code version} back as {@code since} on the next sync.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SweetChangeSet {
+    private long version;
+    private boolean fullSnapshot;
+    private List<SweetSummary> upserted;
+    private List<Long> deleted;
+}
@@ -0,0 +1,24 @@
+package com.assignment.sweet.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Facet counts for a filter. Each facet is counted with every other filter
+ * applied but not its own, so the counts show what picking another value of
+ * that facet would return.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SweetFacetCounts {
+    private int total;
+    private Map<String, Integer> categories;
+    private List<PriceBucketCount> priceBuckets;
+    private int inStock;
+    private int soldOut;
+}
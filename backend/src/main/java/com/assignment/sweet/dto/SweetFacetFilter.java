@@ -0,0 +1,21 @@
+package com.assignment.sweet.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Shop filter resolved against the facet indexes. Absent fields (and a
+ * category of {@code all}) do not constrain the result.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SweetFacetFilter {
+    private String category;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private Boolean inStock;
+}
@@ -0,0 +1,24 @@
+package com.assignment.sweet.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * A full-text search result: the card fields of a sweet plus its relevance
+ * score (higher is better).
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SweetSearchHit {
+    private Long id;
+    private String name;
+    private String category;
+    private BigDecimal price;
+    private Integer quantity;
+    private String imageUrl;
+    private float score;
+}
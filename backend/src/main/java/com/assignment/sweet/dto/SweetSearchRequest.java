@@ -0,0 +1,27 @@
+package com.assignment.sweet.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+
+/**
+ * Query parameters accepted by {@code GET /api/sweets/search}.
+ * All filters are optional; {@code cursor} is the opaque value returned as
+ * {@code nextCursor} by the previous page.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SweetSearchRequest {
+    private String name;
+    private String category;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private SweetSortField sort = SweetSortField.NAME;
+    private Sort.Direction direction = Sort.Direction.ASC;
+    private String cursor;
+    private Integer limit;
+}
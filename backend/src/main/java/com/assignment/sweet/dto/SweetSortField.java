@@ -0,0 +1,22 @@
+package com.assignment.sweet.dto;
+
+/**
+ * Columns the catalog search can be ordered by. Every sort is paired with the
+ * sweet id as a tie-breaker so that keyset cursors are stable.
+ */
+public enum SweetSortField {
+    NAME("name"),
+    PRICE("price"),
+    QUANTITY("quantity"),
+    ID("id");
+
+    private final String property;
+
+    SweetSortField(String property) {
+        this.property = property;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+}
@@ -0,0 +1,32 @@
+package com.assignment.sweet.dto;
+
+import com.assignment.sweet.model.Sweet;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * List-view read model of a sweet: everything the catalog grid shows, without
+ * the description TEXT column. Fetch {@code GET /api/sweets/{id}} for the
+ * full record.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SweetSummary {
+    private Long id;
+    private String name;
+    private String category;
+    private BigDecimal price;
+    private Integer quantity;
+    private String imageUrl;
+    private Long catalogVersion;
+    private boolean flashSale;
+
+    public static SweetSummary of(Sweet sweet) {
+        return new SweetSummary(sweet.getId(), sweet.getName(), sweet.getCategory(), sweet.getPrice(),
+                sweet.getQuantity(), sweet.getImageUrl(), sweet.getCatalogVersion(), sweet.isFlashSale());
+    }
+}
@@ -0,0 +1,19 @@
+package com.assignment.sweet.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Estimated distinct customers of one sweet, or of one category (with
+ * {@code sweetId} and {@code sweetName} null), over the requested days.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UniqueBuyerCount {
+    private Long sweetId;
+    private String sweetName;
+    private String category;
+    private long buyers;
+}
@@ -0,0 +1,11 @@
+package com.assignment.sweet.event;
+
+import com.assignment.sweet.model.Purchase;
+
+/**
+ * Published for every purchase recorded, in the transaction that inserts it.
+ * Live admin feeds consume it after that transaction commits; the customer
+ * summary is updated inside it, just before it commits.
+ */
+public record PurchaseRecordedEvent(Purchase purchase) {
+}
@@ -0,0 +1,29 @@
+package com.assignment.sweet.event;
+
+import com.assignment.sweet.model.Sweet;
+
+/**
+ * Published by {@code SweetService} whenever a sweet is created, modified or
+ * removed. Listeners that maintain derived state (caches, indexes, feeds)
+ * should consume it after the surrounding transaction commits.
+ */
+public record SweetChangedEvent(Long sweetId, Sweet sweet, ChangeType type, long version) {
+
+    public enum ChangeType {
+        UPSERT,
+        DELETE
+    }
+
+    public static SweetChangedEvent upserted(Sweet sweet) {
+        return new SweetChangedEvent(sweet.getId(), sweet, ChangeType.UPSERT,
+                sweet.getCatalogVersion() != null ? sweet.getCatalogVersion() : 0L);
+    }
+
+    public static SweetChangedEvent deleted(Long sweetId, long version) {
+        return new SweetChangedEvent(sweetId, null, ChangeType.DELETE, version);
+    }
+
+    public boolean isDeleted() {
+        return type == ChangeType.DELETE;
+    }
+}
@@ -0,0 +1,14 @@
+package com.assignment.sweet.exception;
+
+/**
+ * A write lost a race with a concurrent change to the same record; answered
+ * with 409 so the client can reload and try again.
+ */
+public class ConflictException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ConflictException(String message) {
+        super(message);
+    }
+}
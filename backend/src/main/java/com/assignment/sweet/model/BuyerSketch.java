@@ -0,0 +1,41 @@
+package com.assignment.sweet.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * HyperLogLog sketch of the customers who bought one sweet on one day, in the
+ * compact encoding of {@code HyperLogLog#toBytes}. See
+ * {@code UniqueBuyerService}.
+ */
+@Entity
+@Table(name = "buyer_sketches", uniqueConstraints = {
+        // Also serves the range scans, which lead with the day
+        @UniqueConstraint(name = "uk_buyer_sketches_sale_day_sweet", columnNames = { "saleDay", "sweetId" })
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BuyerSketch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate saleDay;
+
+    @Column(nullable = false)
+    private Long sweetId;
+
+    /** The sweet's category when its first sale of the day was recorded. */
+    @Column(nullable = false)
+    private String category;
+
+    @Column(nullable = false, length = 4096)
+    private byte[] registers;
+}
@@ -0,0 +1,41 @@
+package com.assignment.sweet.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Running totals of one customer's purchases, kept up to date in the same
+ * transaction as every purchase insert so the profile header is one
+ * primary-key read instead of a scan of the customer's history.
+ */
+@Entity
+@Table(name = "customer_summaries")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerSummary {
+
+    @Id
+    private String customerEmail;
+
+    /** Purchase rows; a checkout counts once per sweet in the basket. */
+    @Column(nullable = false)
+    private Long orderCount;
+
+    @Column(nullable = false)
+    private Long totalItems;
+
+    @Column(nullable = false, precision = 38, scale = 2)
+    private BigDecimal totalSpent;
+
+    private LocalDateTime lastPurchaseDate;
+
+    public static CustomerSummary empty(String customerEmail) {
+        return new CustomerSummary(customerEmail, 0L, 0L, BigDecimal.ZERO, null);
+    }
+}
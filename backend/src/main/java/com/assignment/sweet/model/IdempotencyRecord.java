@@ -0,0 +1,51 @@
+package com.assignment.sweet.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Shared claim on an {@code Idempotency-Key}, used when several application
+ * nodes serve the same clients. A node claims the key (IN_PROGRESS, leased
+ * until {@code lockedUntil}) before running the request and stores the
+ * response in the same transaction as the request's own writes.
+ */
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+        @Index(name = "idx_idempotency_keys_expires_at", columnList = "expiresAt")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+
+    public enum Status {
+        IN_PROGRESS,
+        COMPLETED
+    }
+
+    /** Caller scope and key, e.g. {@code purchase:jane@example.com:4f1c...}. */
+    @Id
+    @Column(length = 400)
+    private String id;
+
+    /** Identifies the request parameters the key was first used with. */
+    @Column(nullable = false)
+    private String fingerprint;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    @Column(columnDefinition = "TEXT")
+    private String response;
+
+    @Column(nullable = false)
+    private Instant lockedUntil;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+}
@@ -0,0 +1,26 @@
+package com.assignment.sweet.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Highest journal sequence a write-behind inventory engine has applied to
+ * the database. Written in the same transaction as the batch it covers, so
+ * replaying the journal after a crash never applies a purchase twice.
+ */
+@Entity
+@Table(name = "inventory_checkpoints")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryCheckpoint {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(nullable = false)
+    private Long lastSequence;
+}
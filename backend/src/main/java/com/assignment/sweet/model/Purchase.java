@@ -8,14 +8,24 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "purchases")
+@Table(name = "purchases", indexes = {
+        // Keyset pagination of purchase history, newest first
+        @Index(name = "idx_purchases_customer_email_created", columnList = "customerEmail, createdDate, id"),
+        @Index(name = "idx_purchases_sweet_created", columnList = "sweetId, createdDate, id"),
+        @Index(name = "idx_purchases_created", columnList = "createdDate, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Purchase {
 
+    /**
+     * Drawn from a pooled sequence, 50 ids per round trip, so Hibernate can
+     * batch inserts (it cannot with IDENTITY columns).
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "purchases_seq")
+    @SequenceGenerator(name = "purchases_seq", sequenceName = "purchases_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -41,6 +51,9 @@ public class Purchase {
 
     @PrePersist
     protected void onCreate() {
-        createdDate = LocalDateTime.now();
+        // Write-behind inserts carry the time the purchase was admitted
+        if (createdDate == null) {
+            createdDate = LocalDateTime.now();
+        }
     }
 }
@@ -0,0 +1,85 @@
+package com.assignment.sweet.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Units, revenue and purchase count of one sweet over one time bucket. Minute
+ * and hour buckets follow purchases as they commit; day and week buckets are
+ * compacted from them once the period is over. See {@code SalesRollupService}.
+ */
+@Entity
+@Table(name = "sales_rollups", uniqueConstraints = {
+        // Also serves the range scans, which lead with granularity and bucket start
+        @UniqueConstraint(name = "uk_sales_rollups_bucket", columnNames = { "granularity", "bucketStart",
+                "sweetId" })
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesRollup {
+
+    /** Bucket widths, finest first. Weeks start on Monday. */
+    public enum Granularity {
+        MINUTE,
+        HOUR,
+        DAY,
+        WEEK;
+
+        /** Start of the bucket containing {@code time}. */
+        public LocalDateTime truncate(LocalDateTime time) {
+            return switch (this) {
+                case MINUTE -> time.truncatedTo(ChronoUnit.MINUTES);
+                case HOUR -> time.truncatedTo(ChronoUnit.HOURS);
+                case DAY -> time.truncatedTo(ChronoUnit.DAYS);
+                case WEEK -> time.toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                        .atStartOfDay();
+            };
+        }
+
+        /** Start of the bucket after the one starting at {@code start}. */
+        public LocalDateTime next(LocalDateTime start) {
+            return switch (this) {
+                case MINUTE -> start.plusMinutes(1);
+                case HOUR -> start.plusHours(1);
+                case DAY -> start.plusDays(1);
+                case WEEK -> start.plusWeeks(1);
+            };
+        }
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private Granularity granularity;
+
+    @Column(nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(nullable = false)
+    private Long sweetId;
+
+    /** The sweet's category when these sales were rolled up. */
+    @Column(nullable = false)
+    private String category;
+
+    @Column(nullable = false)
+    private Long units;
+
+    @Column(nullable = false, precision = 38, scale = 2)
+    private BigDecimal revenue;
+
+    @Column(nullable = false)
+    private Long orderCount;
+}
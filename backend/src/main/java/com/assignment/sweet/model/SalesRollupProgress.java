@@ -0,0 +1,30 @@
+package com.assignment.sweet.model;
+
+import com.assignment.sweet.model.SalesRollup.Granularity;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * How far compaction has got for one of the compacted bucket sizes (day or
+ * week): every bucket of that size starting before {@link #compactedThrough}
+ * has been summed from its finer buckets. See {@code SalesRollupService}.
+ */
+@Entity
+@Table(name = "sales_rollup_progress")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesRollupProgress {
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 8)
+    private Granularity granularity;
+
+    @Column(nullable = false)
+    private LocalDateTime compactedThrough;
+}
@@ -0,0 +1,34 @@
+package com.assignment.sweet.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Serialized state of an in-memory sketch, saved periodically so it can be
+ * restored on startup and topped up from purchases made since
+ * {@code savedAt}.
+ */
+@Entity
+@Table(name = "sketch_snapshots")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SketchSnapshot {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(nullable = false, length = 1 << 20)
+    private byte[] data;
+
+    @Column(nullable = false)
+    private LocalDateTime savedAt;
+}
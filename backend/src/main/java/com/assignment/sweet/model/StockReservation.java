@@ -0,0 +1,44 @@
+package com.assignment.sweet.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Units of a sweet held for one customer until {@code expiresAt}. The units
+ * are taken out of {@link Sweet#getQuantity()} when the hold is placed, so
+ * the sweet's quantity is always what is left to sell; confirming turns the
+ * hold into a {@link Purchase}, expiry or release puts the units back.
+ */
+@Entity
+@Table(name = "stock_reservations", indexes = {
+        @Index(name = "idx_stock_reservations_expires_at", columnList = "expiresAt"),
+        @Index(name = "idx_stock_reservations_customer", columnList = "customerEmail")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservation {
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(nullable = false)
+    private Long sweetId;
+
+    @Column(nullable = false)
+    private String customerEmail;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+}
@@ -0,0 +1,39 @@
+package com.assignment.sweet.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One of the counters a hot sweet's stock is split across, so concurrent
+ * buyers lock different rows instead of all queueing on the sweet's. The
+ * units in {@code quantity} are counted in {@link Sweet#getAllottedStock()};
+ * {@code sold} is what left this slot since its sales were last folded into
+ * {@link Sweet#getQuantity()}. See {@code StockSlots}.
+ */
+@Entity
+@Table(name = "stock_slots", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_stock_slots_sweet_slot", columnNames = { "sweetId", "slot" })
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockSlot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long sweetId;
+
+    @Column(nullable = false)
+    private int slot;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    @Column(nullable = false)
+    private int sold;
+}
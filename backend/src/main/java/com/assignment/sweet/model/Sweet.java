@@ -1,15 +1,23 @@
 package com.assignment.sweet.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
+import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "sweets")
+@Table(name = "sweets", indexes = {
+        // Keyset pagination for the catalog search: every sort is (column, id)
+        @Index(name = "idx_sweets_name_id", columnList = "name, id"),
+        @Index(name = "idx_sweets_price_id", columnList = "price, id"),
+        @Index(name = "idx_sweets_quantity_id", columnList = "quantity, id")
+})
 @Data
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class Sweet {
@@ -34,4 +42,43 @@ public class Sweet {
 
     @Column(name = "image_url")
     private String imageUrl;
+
+    /**
+     * Catalog version at which this row was last written; see
+     * {@code CatalogVersionClock}.
+     */
+    @Column(name = "catalog_version")
+    private Long catalogVersion;
+
+    /**
+     * Purchases go through the flash-sale admission gate; see
+     * {@code FlashSaleGate}. Switched by admins only.
+     */
+    @Column(name = "flash_sale", nullable = false, columnDefinition = "boolean default false")
+    private boolean flashSale;
+
+    /**
+     * Optimistic lock: bumped by every write, including the bulk stock
+     * updates in {@code SweetRepository}, so a read-modify-write based on a
+     * stale copy fails instead of overwriting a concurrent change.
+     */
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
+    /**
+     * Number of counter slots the stock is split across under
+     * {@code inventory.engine=sharded}; 0 or 1 means none. See
+     * {@code StockSlots}.
+     */
+    @Column(name = "stock_slots", nullable = false, columnDefinition = "integer default 0")
+    private int stockSlots;
+
+    /**
+     * Units of {@link #quantity} handed out to the counter slots. Only the
+     * rest can be taken by a plain conditional update on this row.
+     */
+    @JsonIgnore
+    @Column(name = "allotted_stock", nullable = false, columnDefinition = "integer default 0")
+    private int allottedStock;
 }
@@ -0,0 +1,41 @@
+package com.assignment.sweet.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One entry of the catalog change log: sweet {@code sweetId} was upserted or
+ * deleted (a tombstone) at catalog {@code version}. Rows are written in the
+ * same transaction as the change and compacted by {@code SweetChangeLog}.
+ */
+@Entity
+@Table(name = "sweet_changes", indexes = {
+        @Index(name = "idx_sweet_changes_version", columnList = "version"),
+        @Index(name = "idx_sweet_changes_sweet_id_version", columnList = "sweetId, version")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SweetChange {
+
+    public enum Type {
+        UPSERT,
+        DELETE
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long sweetId;
+
+    @Column(nullable = false)
+    private Long version;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Type type;
+}
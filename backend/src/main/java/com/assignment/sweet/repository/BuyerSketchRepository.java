@@ -0,0 +1,17 @@
+package com.assignment.sweet.repository;
+
+import com.assignment.sweet.model.BuyerSketch;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+public interface BuyerSketchRepository extends JpaRepository<BuyerSketch, Long>, BuyerSketchRepositoryCustom {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from BuyerSketch b where b.saleDay = :day and b.sweetId = :sweetId")
+    Optional<BuyerSketch> findForUpdate(LocalDate day, Long sweetId);
+}
@@ -0,0 +1,16 @@
+package com.assignment.sweet.repository;
+
+import com.assignment.sweet.dto.BuyerSketchRow;
+
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+public interface BuyerSketchRepositoryCustom {
+
+    /**
+     * Sketches of the days in {@code [from, to)}, optionally of one sweet
+     * and/or one category, read without entering the persistence context.
+     * Must be consumed inside a transaction.
+     */
+    Stream<BuyerSketchRow> streamRange(LocalDate from, LocalDate to, Long sweetId, String category);
+}
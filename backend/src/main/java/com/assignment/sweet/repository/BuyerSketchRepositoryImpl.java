@@ -0,0 +1,47 @@
+package com.assignment.sweet.repository;
+
+import com.assignment.sweet.dto.BuyerSketchRow;
+import com.assignment.sweet.model.BuyerSketch;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+class BuyerSketchRepositoryImpl implements BuyerSketchRepositoryCustom {
+
+    private final EntityManager entityManager;
+
+    BuyerSketchRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Stream<BuyerSketchRow> streamRange(LocalDate from, LocalDate to, Long sweetId, String category) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BuyerSketchRow> query = cb.createQuery(BuyerSketchRow.class);
+        Root<BuyerSketch> root = query.from(BuyerSketch.class);
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.greaterThanOrEqualTo(root.get("saleDay"), from));
+        predicates.add(cb.lessThan(root.get("saleDay"), to));
+        if (sweetId != null) {
+            predicates.add(cb.equal(root.get("sweetId"), sweetId));
+        }
+        if (category != null && !category.isBlank()) {
+            predicates.add(cb.equal(cb.lower(root.get("category")), category.trim().toLowerCase(Locale.ROOT)));
+        }
+        query.select(cb.construct(BuyerSketchRow.class, root.get("saleDay"), root.get("sweetId"),
+                root.get("category"), root.get("registers")))
+                .where(predicates.toArray(Predicate[]::new));
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, 500)
+                .getResultStream();
+    }
+}
@@ -0,0 +1,43 @@
+package com.assignment.sweet.repository;
+
+import com.assignment.sweet.model.CustomerSummary;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface CustomerSummaryRepository extends JpaRepository<CustomerSummary, String> {
+
+    /**
+     * Adds a transaction's purchases to the customer's totals in a single
+     * statement, which holds the summary row's lock until they commit.
+     * Returns 0 if the customer has no summary row yet.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("update CustomerSummary c set c.orderCount = c.orderCount + :orders, "
+            + "c.totalItems = c.totalItems + :quantity, "
+            + "c.totalSpent = c.totalSpent + :amount, c.lastPurchaseDate = case when c.lastPurchaseDate is null "
+            + "or c.lastPurchaseDate < :createdDate then :createdDate else c.lastPurchaseDate end "
+            + "where c.customerEmail = :customerEmail")
+    int record(String customerEmail, long orders, long quantity, BigDecimal amount, LocalDateTime createdDate);
+
+    /**
+     * Creates an empty summary unless one exists. A concurrent insert of the
+     * same customer waits for the first to commit and then does nothing.
+     */
+    @Modifying
+    @Query("insert into CustomerSummary (customerEmail, orderCount, totalItems, totalSpent) "
+            + "values (:customerEmail, 0, 0, 0) on conflict do nothing")
+    int insertIfAbsent(String customerEmail);
+
+    /** Locks the summaries in key order, so concurrent rebuild chunks cannot deadlock. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from CustomerSummary c where c.customerEmail in :customerEmails order by c.customerEmail")
+    List<CustomerSummary> lockAll(Collection<String> customerEmails);
+}
@@ -0,0 +1,36 @@
+package com.assignment.sweet.repository;
+
+import com.assignment.sweet.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /** Takes over a claim whose holder let the lease run out; 0 if someone else got there first. */
+    @Modifying
+    @Query("update IdempotencyRecord r set r.lockedUntil = :lockedUntil where r.id = :id "
+            + "and r.status = com.assignment.sweet.model.IdempotencyRecord.Status.IN_PROGRESS "
+            + "and r.lockedUntil = :previous")
+    int renewLease(String id, Instant previous, Instant lockedUntil);
+
+    @Modifying
+    @Query("update IdempotencyRecord r set r.status = com.assignment.sweet.model.IdempotencyRecord.Status.COMPLETED, "
+            + "r.response = :response where r.id = :id")
+    int complete(String id, String response);
+
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.id = :id "
+            + "and r.status = com.assignment.sweet.model.IdempotencyRecord.Status.IN_PROGRESS")
+    int release(String id);
+
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.id = :id and r.expiresAt < :now")
+    int deleteIfExpired(String id, Instant now);
+
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.expiresAt < :now")
+    int deleteExpired(Instant now);
+}
@@ -0,0 +1,17 @@
+package com.assignment.sweet.repository;
+
+import com.assignment.sweet.model.InventoryCheckpoint;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Optional;
+
+public interface InventoryCheckpointRepository extends JpaRepository<InventoryCheckpoint, String> {
+
+    /** Reads a checkpoint and holds its row lock until the transaction ends. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from InventoryCheckpoint c where c.name = :name")
+    Optional<InventoryCheckpoint> findForUpdate(String name);
+}
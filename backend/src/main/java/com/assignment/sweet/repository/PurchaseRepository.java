@@ -1,12 +1,53 @@
 package com.assignment.sweet.repository;
 
+import com.assignment.sweet.dto.SaleRecord;
+import com.assignment.sweet.model.CustomerSummary;
 import com.assignment.sweet.model.Purchase;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface PurchaseRepository extends JpaRepository<Purchase, Long> {
-    List<Purchase> findByCustomerEmailOrderByCreatedDateDesc(String customerEmail);
+public interface PurchaseRepository extends JpaRepository<Purchase, Long>, PurchaseRepositoryCustom {
+    @Query("select max(p.id) from Purchase p")
+    Long findLastPurchaseId();
+
+    @Query("select min(p.createdDate) from Purchase p")
+    LocalDateTime findFirstPurchaseDate();
+
+    /** Purchases made in {@code [from, to)} as {@link SaleRecord}s; must be consumed inside a transaction. */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.assignment.sweet.dto.SaleRecord(p.sweetId, p.customerEmail, p.quantity, p.totalPrice, "
+            + "p.createdDate) from Purchase p where p.createdDate >= :from and p.createdDate < :to")
+    Stream<SaleRecord> streamSales(LocalDateTime from, LocalDateTime to);
+
+    /** Next customers after {@code after} in key order, read off the (customer_email, ...) index. */
+    @Query("select distinct p.customerEmail from Purchase p where p.customerEmail > :after order by p.customerEmail")
+    List<String> findCustomerEmailsAfter(String after, Pageable page);
+
+    /** Totals of the given customers' purchases, as detached summaries. */
+    @Query("select new com.assignment.sweet.model.CustomerSummary(p.customerEmail, count(p), sum(p.quantity), "
+            + "sum(p.totalPrice), max(p.createdDate)) from Purchase p where p.customerEmail in :customerEmails "
+            + "group by p.customerEmail")
+    List<CustomerSummary> totalsByCustomer(Collection<String> customerEmails);
+
+    /** All purchases, newest first, through a forward-only cursor; must be consumed inside a transaction. */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select p from Purchase p order by p.id desc")
+    Stream<Purchase> streamAll();
 }
@@ -0,0 +1,16 @@
+package com.assignment.sweet.repository;
+
+import com.assignment.sweet.model.Purchase;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Purchase history queries capped at a row limit, without the count query a
+ * {@code Page} would run.
+ */
+public interface PurchaseRepositoryCustom {
+
+    List<Purchase> findPage(Specification<Purchase> spec, Sort sort, int limit);
+}
@@ -0,0 +1,61 @@
+package com.assignment.sweet.repository;
+
+import com.assignment.sweet.model.Purchase;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+/**
+ * Reusable criteria for purchase history queries. Like
+ * {@link SweetSpecifications}, each factory returns {@code null} when its
+ * argument is absent so they can be chained with {@link Specification#and}.
+ */
+public final class PurchaseSpecifications {
+
+    private PurchaseSpecifications() {
+    }
+
+    public static Specification<Purchase> customerEquals(String customerEmail) {
+        if (customerEmail == null || customerEmail.isBlank()) {
+            return null;
+        }
+        String value = customerEmail.trim();
+        return (root, query, cb) -> cb.equal(root.get("customerEmail"), value);
+    }
+
+    public static Specification<Purchase> sweetEquals(Long sweetId) {
+        if (sweetId == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("sweetId"), sweetId);
+    }
+
+    /** Purchases made at or after {@code from}. */
+    public static Specification<Purchase> createdFrom(LocalDateTime from) {
+        if (from == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("createdDate"), from);
+    }
+
+    /** Purchases made before {@code to}, exclusive. */
+    public static Specification<Purchase> createdBefore(LocalDateTime to) {
+        if (to == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.lessThan(root.get("createdDate"), to);
+    }
+
+    /**
+     * Keyset predicate for newest-first history: rows strictly after
+     * {@code (createdDate, id)}, i.e. {@code created < c OR (created = c AND id < lastId)}.
+     * The redundant {@code created <= c} is what the database can use as an
+     * index bound to start the scan at the cursor; the OR alone is only a
+     * filter, so each page would rescan every newer row.
+     */
+    public static Specification<Purchase> before(LocalDateTime createdDate, Long lastId) {
+        return (root, query, cb) -> cb.and(cb.lessThanOrEqualTo(root.get("createdDate"), createdDate),
+                cb.or(cb.lessThan(root.get("createdDate"), createdDate),
+                        cb.and(cb.equal(root.get("createdDate"), createdDate), cb.lessThan(root.get("id"), lastId))));
+    }
+}
@@ -0,0 +1,18 @@
+package com.assignment.sweet.repository;
+
+import com.assignment.sweet.model.SalesRollup.Granularity;
+import com.assignment.sweet.model.SalesRollupProgress;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Optional;
+
+public interface SalesRollupProgressRepository extends JpaRepository<SalesRollupProgress, Granularity> {
+
+    /** Reads the progress of one bucket size and holds its row lock until the transaction ends. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from SalesRollupProgress p where p.granularity = :granularity")
+    Optional<SalesRollupProgress> findForUpdate(Granularity granularity);
+}
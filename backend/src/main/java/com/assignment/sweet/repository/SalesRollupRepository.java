@@ -0,0 +1,42 @@
+package com.assignment.sweet.repository;
+
+import com.assignment.sweet.model.SalesRollup;
+import com.assignment.sweet.model.SalesRollup.Granularity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public interface SalesRollupRepository extends JpaRepository<SalesRollup, Long>, SalesRollupRepositoryCustom {
+
+    /** Adds sales to an existing bucket row; 0 if the bucket has no row for the sweet yet. */
+    @Modifying(flushAutomatically = true)
+    @Query("update SalesRollup r set r.units = r.units + :units, r.revenue = r.revenue + :revenue, "
+            + "r.orderCount = r.orderCount + :orderCount where r.granularity = :granularity "
+            + "and r.bucketStart = :bucketStart and r.sweetId = :sweetId")
+    int add(Granularity granularity, LocalDateTime bucketStart, Long sweetId, long units, BigDecimal revenue,
+            long orderCount);
+
+    /**
+     * Creates an empty bucket row unless one exists. A concurrent insert of
+     * the same bucket waits for the first to commit and then does nothing.
+     */
+    @Modifying
+    @Query("insert into SalesRollup (granularity, bucketStart, sweetId, category, units, revenue, orderCount) "
+            + "values (:granularity, :bucketStart, :sweetId, :category, 0, 0, 0) on conflict do nothing")
+    int insertIfAbsent(Granularity granularity, LocalDateTime bucketStart, Long sweetId, String category);
+
+    @Modifying(flushAutomatically = true)
+    @Query("delete from SalesRollup r where r.granularity = :granularity and r.bucketStart >= :from "
+            + "and r.bucketStart < :to")
+    int deleteRange(Granularity granularity, LocalDateTime from, LocalDateTime to);
+
+    @Modifying
+    @Query("delete from SalesRollup r where r.granularity = :granularity and r.bucketStart < :before")
+    int deleteBefore(Granularity granularity, LocalDateTime before);
+
+    @Query("select min(r.bucketStart) from SalesRollup r where r.granularity = :granularity")
+    LocalDateTime findFirstBucket(Granularity granularity);
+}
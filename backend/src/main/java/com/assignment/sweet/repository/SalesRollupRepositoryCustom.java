@@ -0,0 +1,22 @@
+package com.assignment.sweet.repository;
+
+import com.assignment.sweet.dto.SalesBucket;
+import com.assignment.sweet.dto.SalesTotal;
+import com.assignment.sweet.model.SalesRollup.Granularity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Aggregates over the buckets of one granularity whose start falls in
+ * {@code [from, to)}, summed in the database.
+ */
+public interface SalesRollupRepositoryCustom {
+
+    /** Sales per sweet and category; {@code sweetName} is left null. */
+    List<SalesTotal> sumBySweet(Granularity granularity, LocalDateTime from, LocalDateTime to);
+
+    /** Sales per bucket, optionally of one sweet and/or one category. */
+    List<SalesBucket> sumByBucket(Granularity granularity, LocalDateTime from, LocalDateTime to, Long sweetId,
+            String category);
+}
@@ -0,0 +1,74 @@
+package com.assignment.sweet.repository;
+
+import com.assignment.sweet.dto.SalesBucket;
+import com.assignment.sweet.dto.SalesTotal;
+import com.assignment.sweet.model.SalesRollup;
+import com.assignment.sweet.model.SalesRollup.Granularity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+class SalesRollupRepositoryImpl implements SalesRollupRepositoryCustom {
+
+    private final EntityManager entityManager;
+
+    SalesRollupRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<SalesTotal> sumBySweet(Granularity granularity, LocalDateTime from, LocalDateTime to) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<SalesRollup> root = query.from(SalesRollup.class);
+        query.multiselect(root.get("sweetId"), root.get("category"), cb.sum(root.<Long>get("units")),
+                cb.sum(root.<BigDecimal>get("revenue")), cb.sum(root.<Long>get("orderCount")))
+                .where(inRange(cb, root, granularity, from, to).toArray(Predicate[]::new))
+                .groupBy(root.get("sweetId"), root.get("category"));
+        return entityManager.createQuery(query).getResultList().stream()
+                .map(row -> new SalesTotal(row.get(0, Long.class), null, row.get(1, String.class),
+                        row.get(2, Long.class), row.get(3, BigDecimal.class), row.get(4, Long.class)))
+                .toList();
+    }
+
+    @Override
+    public List<SalesBucket> sumByBucket(Granularity granularity, LocalDateTime from, LocalDateTime to,
+            Long sweetId, String category) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<SalesRollup> root = query.from(SalesRollup.class);
+        List<Predicate> predicates = inRange(cb, root, granularity, from, to);
+        if (sweetId != null) {
+            predicates.add(cb.equal(root.get("sweetId"), sweetId));
+        }
+        if (category != null && !category.isBlank()) {
+            predicates.add(cb.equal(cb.lower(root.get("category")), category.trim().toLowerCase(Locale.ROOT)));
+        }
+        query.multiselect(root.get("bucketStart"), cb.sum(root.<Long>get("units")),
+                cb.sum(root.<BigDecimal>get("revenue")), cb.sum(root.<Long>get("orderCount")))
+                .where(predicates.toArray(Predicate[]::new))
+                .groupBy(root.get("bucketStart"));
+        return entityManager.createQuery(query).getResultList().stream()
+                .map(row -> new SalesBucket(row.get(0, LocalDateTime.class), row.get(1, Long.class),
+                        row.get(2, BigDecimal.class), row.get(3, Long.class)))
+                .toList();
+    }
+
+    private static List<Predicate> inRange(CriteriaBuilder cb, Root<SalesRollup> root, Granularity granularity,
+            LocalDateTime from, LocalDateTime to) {
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(root.get("granularity"), granularity));
+        predicates.add(cb.greaterThanOrEqualTo(root.get("bucketStart"), from));
+        predicates.add(cb.lessThan(root.get("bucketStart"), to));
+        return predicates;
+    }
+}
@@ -0,0 +1,7 @@
+package com.assignment.sweet.repository;
+
+import com.assignment.sweet.model.SketchSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface SketchSnapshotRepository extends JpaRepository<SketchSnapshot, String> {
+}
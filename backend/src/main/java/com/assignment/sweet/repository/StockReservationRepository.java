@@ -0,0 +1,40 @@
+package com.assignment.sweet.repository;
+
+import com.assignment.sweet.model.StockReservation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Confirming, releasing and expiring a hold all end with deleting its row;
+ * whichever delete reports a row won, so a hold is settled exactly once.
+ */
+public interface StockReservationRepository extends JpaRepository<StockReservation, String> {
+
+    List<StockReservation> findByCustomerEmailOrderByExpiresAt(String customerEmail);
+
+    long countByCustomerEmail(String customerEmail);
+
+    @Modifying
+    @Query("delete from StockReservation r where r.id = :id and r.expiresAt > :now")
+    int deleteIfLive(String id, Instant now);
+
+    @Modifying
+    @Query("delete from StockReservation r where r.id = :id and r.expiresAt <= :now")
+    int deleteIfExpired(String id, Instant now);
+
+    @Modifying
+    @Query("delete from StockReservation r where r.id = :id")
+    int deleteAndCount(String id);
+
+    @Query("select r.id from StockReservation r where r.expiresAt <= :now order by r.expiresAt")
+    List<String> findExpiredIds(Instant now, Pageable pageable);
+
+    @Query("select r from StockReservation r")
+    Stream<StockReservation> streamAll();
+}
@@ -0,0 +1,32 @@
+package com.assignment.sweet.repository;
+
+import com.assignment.sweet.model.StockSlot;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface StockSlotRepository extends JpaRepository<StockSlot, Long> {
+
+    /** Sells from one slot if it holds enough; 0 means it does not (or does not exist). */
+    @Modifying
+    @Query("update StockSlot s set s.quantity = s.quantity - :quantity, s.sold = s.sold + :quantity "
+            + "where s.sweetId = :sweetId and s.slot = :slot and s.quantity >= :quantity")
+    int take(Long sweetId, int slot, int quantity);
+
+    /** Units sold from the sweet's slots and not yet folded into its quantity. */
+    @Query("select coalesce(sum(s.sold), 0) from StockSlot s where s.sweetId = :sweetId")
+    long unfoldedSales(Long sweetId);
+
+    /** Locks every slot of the sweet; lock the sweet's own row first. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from StockSlot s where s.sweetId = :sweetId order by s.slot")
+    List<StockSlot> lockBySweetId(Long sweetId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("delete from StockSlot s where s.sweetId = :sweetId")
+    int deleteBySweetId(Long sweetId);
+}
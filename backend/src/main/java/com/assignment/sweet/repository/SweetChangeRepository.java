@@ -0,0 +1,27 @@
+package com.assignment.sweet.repository;
+
+import com.assignment.sweet.model.SweetChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface SweetChangeRepository extends JpaRepository<SweetChange, Long> {
+
+    List<SweetChange> findByVersionGreaterThanOrderByVersionAsc(Long version, Limit limit);
+
+    @Query("select min(c.version) from SweetChange c")
+    Long findMinVersion();
+
+    /** Drops entries superseded by a later entry for the same sweet. */
+    @Modifying
+    @Query("delete from SweetChange c where exists (select 1 from SweetChange n "
+            + "where n.sweetId = c.sweetId and n.version > c.version)")
+    int deleteSuperseded();
+
+    @Modifying
+    @Query("delete from SweetChange c where c.version < :version")
+    int deleteOlderThan(Long version);
+}
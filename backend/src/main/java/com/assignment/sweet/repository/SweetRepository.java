@@ -1,7 +1,94 @@
 package com.assignment.sweet.repository;
 
+import com.assignment.sweet.dto.SweetSummary;
 import com.assignment.sweet.model.Sweet;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
-public interface SweetRepository extends JpaRepository<Sweet, Long> {
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface SweetRepository extends JpaRepository<Sweet, Long>, JpaSpecificationExecutor<Sweet>,
+        SweetRepositoryCustom {
+
+    @Query("select max(s.catalogVersion) from Sweet s")
+    Long findMaxCatalogVersion();
+
+    @Query("select new com.assignment.sweet.dto.SweetSummary(s.id, s.name, s.category, s.price, s.quantity, "
+            + "s.imageUrl, s.catalogVersion, s.flashSale) from Sweet s order by s.id")
+    List<SweetSummary> findAllSummaries();
+
+    @Query("select new com.assignment.sweet.dto.SweetSummary(s.id, s.name, s.category, s.price, s.quantity, "
+            + "s.imageUrl, s.catalogVersion, s.flashSale) from Sweet s where s.id in :ids order by s.id")
+    List<SweetSummary> findSummariesByIdIn(Collection<Long> ids);
+
+    List<Sweet> findByFlashSaleTrue();
+
+    /**
+     * Takes {@code quantity} units in one statement, only if that many are
+     * left outside the sweet's stock slots. Returns the number of rows updated: 0 means unknown sweet or
+     * insufficient stock. The row's catalog version moves past both its
+     * current value and {@code version}, so it never goes backwards when
+     * concurrent purchases commit out of clock order. Like every stock update
+     * here it is {@code versioned}, so it also bumps the optimistic lock.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update versioned Sweet s set s.quantity = s.quantity - :quantity, s.catalogVersion = "
+            + "case when s.catalogVersion >= :version then s.catalogVersion + 1 else :version end "
+            + "where s.id = :id and s.quantity - s.allottedStock >= :quantity")
+    int decrementStock(Long id, int quantity, long version);
+
+    /**
+     * Applies stock already admitted elsewhere (the write-behind ledger), so
+     * unlike {@link #decrementStock} it does not re-check availability.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update versioned Sweet s set s.quantity = s.quantity - :quantity, s.catalogVersion = "
+            + "case when s.catalogVersion >= :version then s.catalogVersion + 1 else :version end "
+            + "where s.id = :id")
+    int subtractStock(Long id, int quantity, long version);
+
+    /** Puts units back, e.g. from an expired reservation; 0 if the sweet is gone. */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update versioned Sweet s set s.quantity = s.quantity + :quantity, s.catalogVersion = "
+            + "case when s.catalogVersion >= :version then s.catalogVersion + 1 else :version end "
+            + "where s.id = :id")
+    int incrementStock(Long id, int quantity, long version);
+
+    /**
+     * Folds {@code sold} units sold from the stock slots into the quantity
+     * and records what the slots now hold; run with the row and its slots
+     * locked.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update versioned Sweet s set s.quantity = s.quantity - :sold, s.allottedStock = :allotted, "
+            + "s.catalogVersion = case when s.catalogVersion >= :version then s.catalogVersion + 1 else :version end "
+            + "where s.id = :id")
+    int foldStock(Long id, int sold, int allotted, long version);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from Sweet s where s.id = :id")
+    Optional<Sweet> findByIdForUpdate(Long id);
+
+    /** Sweets split into stock slots (when {@code sharded}), or still holding units in slots from before. */
+    @Query("select s.id from Sweet s where (:sharded = true and s.stockSlots > 1) or s.allottedStock > 0 "
+            + "order by s.id")
+    List<Long> findSlottedIds(boolean sharded);
+
+    /** Whole catalog through a forward-only cursor; must be consumed inside a transaction. */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select s from Sweet s order by s.id")
+    Stream<Sweet> streamAll();
 }
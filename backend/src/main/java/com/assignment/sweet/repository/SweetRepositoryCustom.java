@@ -0,0 +1,25 @@
+package com.assignment.sweet.repository;
+
+import com.assignment.sweet.dto.SweetSummary;
+import com.assignment.sweet.model.Sweet;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Catalog queries that select {@link SweetSummary} columns directly instead of
+ * loading entities, and row locks that need the entity manager.
+ */
+public interface SweetRepositoryCustom {
+
+    List<SweetSummary> findSummaries(Specification<Sweet> spec, Sort sort, int limit);
+
+    /**
+     * Locks the sweet's row and re-reads it. Unlike a locking query, this
+     * does not hand back a copy the persistence context loaded before the
+     * lock was taken.
+     */
+    Optional<Sweet> refreshForUpdate(Long id);
+}
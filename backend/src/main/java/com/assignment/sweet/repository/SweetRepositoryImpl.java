@@ -0,0 +1,52 @@
+package com.assignment.sweet.repository;
+
+import com.assignment.sweet.dto.SweetSummary;
+import com.assignment.sweet.model.Sweet;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+class SweetRepositoryImpl implements SweetRepositoryCustom {
+
+    private final EntityManager entityManager;
+
+    SweetRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<SweetSummary> findSummaries(Specification<Sweet> spec, Sort sort, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<SweetSummary> query = cb.createQuery(SweetSummary.class);
+        Root<Sweet> root = query.from(Sweet.class);
+        query.select(cb.construct(SweetSummary.class, root.get("id"), root.get("name"), root.get("category"),
+                root.get("price"), root.get("quantity"), root.get("imageUrl"), root.get("catalogVersion"),
+                root.get("flashSale")));
+        if (spec != null) {
+            var predicate = spec.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public Optional<Sweet> refreshForUpdate(Long id) {
+        Sweet sweet = entityManager.find(Sweet.class, id);
+        if (sweet == null) {
+            return Optional.empty();
+        }
+        entityManager.refresh(sweet, LockModeType.PESSIMISTIC_WRITE);
+        return Optional.of(sweet);
+    }
+}
@@ -0,0 +1,74 @@
+package com.assignment.sweet.repository;
+
+import com.assignment.sweet.model.Sweet;
+import jakarta.persistence.criteria.Path;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+
+/**
+ * Reusable criteria for catalog queries. Each factory returns {@code null} when
+ * its argument is absent so they can be chained with {@link Specification#and}.
+ */
+public final class SweetSpecifications {
+
+    private SweetSpecifications() {
+    }
+
+    public static Specification<Sweet> nameContains(String name) {
+        if (name == null || name.isBlank()) {
+            return null;
+        }
+        String pattern = "%" + escapeLike(name.trim().toLowerCase(Locale.ROOT)) + "%";
+        return (root, query, cb) -> cb.like(cb.lower(root.get("name")), pattern, '\\');
+    }
+
+    public static Specification<Sweet> categoryEquals(String category) {
+        if (category == null || category.isBlank() || category.equalsIgnoreCase("all")) {
+            return null;
+        }
+        String value = category.trim().toLowerCase(Locale.ROOT);
+        return (root, query, cb) -> cb.equal(cb.lower(root.get("category")), value);
+    }
+
+    public static Specification<Sweet> priceAtLeast(BigDecimal minPrice) {
+        if (minPrice == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("price"), minPrice);
+    }
+
+    public static Specification<Sweet> priceAtMost(BigDecimal maxPrice) {
+        if (maxPrice == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("price"), maxPrice);
+    }
+
+    /**
+     * Keyset predicate: rows strictly after {@code (value, id)} in the given
+     * sort order, i.e. {@code f > v OR (f = v AND id > lastId)} for ascending.
+     * The redundant {@code f >= v} lets the database seek the (column, id)
+     * index to the cursor instead of filtering every row before it.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public static Specification<Sweet> after(String property, Comparable value, Long lastId,
+            Sort.Direction direction) {
+        return (root, query, cb) -> {
+            Path<Comparable> field = root.get(property);
+            Path<Long> id = root.get("id");
+            if (direction.isAscending()) {
+                return cb.and(cb.greaterThanOrEqualTo(field, value), cb.or(cb.greaterThan(field, value),
+                        cb.and(cb.equal(field, value), cb.greaterThan(id, lastId))));
+            }
+            return cb.and(cb.lessThanOrEqualTo(field, value), cb.or(cb.lessThan(field, value),
+                    cb.and(cb.equal(field, value), cb.lessThan(id, lastId))));
+        };
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,223 @@
+package com.assignment.sweet.service;
+
+import com.assignment.sweet.dto.BestSeller;
+import com.assignment.sweet.dto.BestSellerView;
+import com.assignment.sweet.dto.SaleRecord;
+import com.assignment.sweet.event.PurchaseRecordedEvent;
+import com.assignment.sweet.model.SketchSnapshot;
+import com.assignment.sweet.model.Sweet;
+import com.assignment.sweet.repository.PurchaseRepository;
+import com.assignment.sweet.repository.SketchSnapshotRepository;
+import com.assignment.sweet.repository.SweetRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Best-selling and trending sweets for the shop page, from two
+ * {@link SpaceSaving} sketches of {@code sweets.best-sellers.capacity}
+ * counters each, so memory stays the same whatever the catalog size. Every
+ * committed purchase adds its units to both.
+ *
+ * The trending sketch weighs units by age with forward decay: a sale at time
+ * t counts {@code 2^((t - landmark) / halfLife)}, so older sales lose half
+ * their weight per {@code sweets.best-sellers.trending-half-life} without
+ * touching any counter. Scores are read back at the current time, and the
+ * landmark moves forward (rescaling every counter) before the weights grow
+ * too large for a double.
+ *
+ * Both sketches are saved to {@code sketch_snapshots} every
+ * {@code sweets.best-sellers.checkpoint-interval-ms} and on shutdown. On
+ * startup the snapshot is restored and purchases made since it was taken
+ * are replayed from the database, or all purchases if there is none.
+ * Purchases committing while that replay runs may be counted twice, and
+ * ones still committing when a snapshot is taken may be missed after a
+ * crash; both are within what the sketch already approximates.
+ */
+@Slf4j
+@Component
+public class BestSellerSketch {
+
+    static final String SNAPSHOT = "best-sellers";
+    static final int MAX_LIMIT = 50;
+    private static final int FORMAT = 1;
+    /** Moves the landmark once new weights reach 2^RESCALE_EXPONENT. */
+    private static final double RESCALE_EXPONENT = 64;
+
+    private final SweetRepository sweetRepository;
+    private final PurchaseRepository purchaseRepository;
+    private final SketchSnapshotRepository snapshotRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final double halfLifeMillis;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final SpaceSaving allTime;
+    private final SpaceSaving trending;
+    /** Epoch millis at which a trending unit weighs exactly 1. */
+    private long landmark = System.currentTimeMillis();
+
+    public BestSellerSketch(SweetRepository sweetRepository, PurchaseRepository purchaseRepository,
+            SketchSnapshotRepository snapshotRepository, PlatformTransactionManager transactionManager,
+            @Value("${sweets.best-sellers.capacity:200}") int capacity,
+            @Value("${sweets.best-sellers.trending-half-life:PT6H}") Duration halfLife) {
+        this.sweetRepository = sweetRepository;
+        this.purchaseRepository = purchaseRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.halfLifeMillis = halfLife.toMillis();
+        this.allTime = new SpaceSaving(capacity);
+        this.trending = new SpaceSaving(capacity);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPurchaseRecorded(PurchaseRecordedEvent event) {
+        record(SaleRecord.of(event.purchase()));
+    }
+
+    /**
+     * Up to {@code limit} sweets ranked by the chosen view, highest first.
+     * Sweets deleted since they sold are left out.
+     */
+    public List<BestSeller> top(BestSellerView view, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        List<SpaceSaving.Counter> counters;
+        double decay;
+        lock.lock();
+        try {
+            SpaceSaving sketch = view == BestSellerView.TRENDING ? trending : allTime;
+            // A few extra in case some of the sweets are gone
+            counters = List.copyOf(sketch.top(Math.min(sketch.capacity(), limit * 2)));
+            decay = view == BestSellerView.TRENDING
+                    ? Math.pow(2, (landmark - System.currentTimeMillis()) / halfLifeMillis)
+                    : 1;
+        } finally {
+            lock.unlock();
+        }
+        Map<Long, Sweet> sweets = sweetRepository.findAllById(counters.stream().map(SpaceSaving.Counter::id)
+                .toList()).stream()
+                .collect(Collectors.toMap(Sweet::getId, Function.identity()));
+        return counters.stream()
+                .filter(counter -> sweets.containsKey(counter.id()))
+                .limit(limit)
+                .map(counter -> {
+                    Sweet sweet = sweets.get(counter.id());
+                    return new BestSeller(sweet.getId(), sweet.getName(), sweet.getCategory(), sweet.getPrice(),
+                            sweet.getImageUrl(), counter.count() * decay, counter.error() * decay);
+                })
+                .toList();
+    }
+
+    @Scheduled(fixedDelayString = "${sweets.best-sellers.checkpoint-interval-ms:60000}")
+    public void checkpoint() {
+        LocalDateTime savedAt = LocalDateTime.now();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        lock.lock();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(FORMAT);
+            out.writeLong(landmark);
+            allTime.write(out);
+            trending.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+        snapshotRepository.save(new SketchSnapshot(SNAPSHOT, bytes.toByteArray(), savedAt));
+    }
+
+    @PreDestroy
+    public void checkpointOnShutdown() {
+        try {
+            checkpoint();
+        } catch (RuntimeException e) {
+            log.warn("Saving the best-seller sketch on shutdown failed", e);
+        }
+    }
+
+    /** Restores the last snapshot and replays the purchases made after it. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        LocalDateTime replayFrom = snapshotRepository.findById(SNAPSHOT)
+                .filter(this::load)
+                .map(SketchSnapshot::getSavedAt)
+                .orElseGet(purchaseRepository::findFirstPurchaseDate);
+        if (replayFrom == null) {
+            return;
+        }
+        LocalDateTime replayTo = LocalDateTime.now();
+        long replayed = transactionTemplate.execute(status -> {
+            long count = 0;
+            try (Stream<SaleRecord> sales = purchaseRepository.streamSales(replayFrom, replayTo)) {
+                for (Iterator<SaleRecord> it = sales.iterator(); it.hasNext(); count++) {
+                    record(it.next());
+                }
+            }
+            return count;
+        });
+        log.info("Best-seller sketch restored; replayed {} purchases since {}", replayed, replayFrom);
+    }
+
+    private void record(SaleRecord sale) {
+        long at = sale.createdDate().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        lock.lock();
+        try {
+            allTime.add(sale.sweetId(), sale.quantity());
+            double exponent = (at - landmark) / halfLifeMillis;
+            if (exponent > RESCALE_EXPONENT) {
+                trending.scale(Math.pow(2, -exponent));
+                landmark = at;
+                exponent = 0;
+            }
+            trending.add(sale.sweetId(), sale.quantity() * Math.pow(2, exponent));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Loads a snapshot into the sketches; false, leaving them empty, if it is unreadable. */
+    private boolean load(SketchSnapshot snapshot) {
+        lock.lock();
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(snapshot.getData()))) {
+            if (in.readInt() != FORMAT) {
+                return false;
+            }
+            landmark = in.readLong();
+            allTime.read(in);
+            trending.read(in);
+            return true;
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable best-seller snapshot", e);
+            allTime.clear();
+            trending.clear();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.assignment.sweet.service;
+
+import com.assignment.sweet.dto.StockDelta;
+import com.assignment.sweet.event.PurchaseRecordedEvent;
+import com.assignment.sweet.event.SweetChangedEvent;
+import com.assignment.sweet.model.Sweet;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fans committed catalog changes out to Server-Sent Events subscribers:
+ * {@code stock} events ({@link StockDelta}) for everyone and {@code purchase}
+ * events for admins.
+ *
+ * Each event is serialized once and offered to every subscriber's bounded
+ * queue; publishing never blocks on a client. A subscriber whose queue is
+ * full is disconnected (its EventSource will reconnect and should refetch the
+ * catalog). Queues are drained on virtual threads, one drain at a time per
+ * subscriber, so a client stuck on a slow socket only parks its own thread.
+ */
+@Slf4j
+@Component
+public class CatalogEventBroadcaster {
+
+    @Value("${sweets.events.buffer-size:256}")
+    private int bufferSize = 256;
+
+    @Value("${sweets.events.max-subscribers:2000}")
+    private int maxSubscribers = 2000;
+
+    @Value("${sweets.events.timeout-ms:1800000}")
+    private long timeoutMs = 1_800_000;
+
+    private final ObjectMapper objectMapper;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService drainExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public CatalogEventBroadcaster(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Opens a stream for one client, or returns null when the subscriber limit
+     * is reached.
+     */
+    public SseEmitter subscribe(boolean admin) {
+        if (subscribers.size() >= maxSubscribers) {
+            return null;
+        }
+        return register(new SseEmitter(timeoutMs), admin);
+    }
+
+    SseEmitter register(SseEmitter emitter, boolean admin) {
+        Subscriber subscriber = new Subscriber(emitter, admin, bufferSize);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        subscribers.add(subscriber);
+        // Commits the response headers so the client sees the stream open straight away
+        subscriber.offer(SseEmitter.event().comment("connected").build());
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSweetChanged(SweetChangedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        Sweet sweet = event.sweet();
+        StockDelta delta = event.isDeleted()
+                ? new StockDelta(event.sweetId(), null, null, true, event.version())
+                : new StockDelta(event.sweetId(), sweet.getQuantity(), sweet.getPrice(), false, event.version());
+        publish(encode("stock", String.valueOf(event.version()), delta), false);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPurchaseRecorded(PurchaseRecordedEvent event) {
+        if (subscribers.isEmpty() || event.purchase() == null) {
+            return;
+        }
+        publish(encode("purchase", null, event.purchase()), true);
+    }
+
+    /** Keeps idle connections open through proxies and flushes out dead ones. */
+    @Scheduled(fixedRateString = "${sweets.events.heartbeat-ms:15000}")
+    public void heartbeat() {
+        if (!subscribers.isEmpty()) {
+            publish(SseEmitter.event().comment("heartbeat").build(), false);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(Subscriber::close);
+        drainExecutor.shutdown();
+    }
+
+    private void publish(Set<DataWithMediaType> event, boolean adminOnly) {
+        for (Subscriber subscriber : subscribers) {
+            if (!adminOnly || subscriber.admin) {
+                subscriber.offer(event);
+            }
+        }
+    }
+
+    private Set<DataWithMediaType> encode(String name, String id, Object payload) {
+        try {
+            SseEmitter.SseEventBuilder builder = SseEmitter.event().name(name)
+                    .data(objectMapper.writeValueAsString(payload), MediaType.APPLICATION_JSON);
+            if (id != null) {
+                builder.id(id);
+            }
+            return builder.build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode " + name + " event", e);
+        }
+    }
+
+    private final class Subscriber {
+        final SseEmitter emitter;
+        final boolean admin;
+        final BlockingQueue<Set<DataWithMediaType>> queue;
+        final AtomicBoolean draining = new AtomicBoolean();
+        final AtomicBoolean closed = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter, boolean admin, int capacity) {
+            this.emitter = emitter;
+            this.admin = admin;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        void offer(Set<DataWithMediaType> event) {
+            if (closed.get()) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                log.debug("Dropping slow event subscriber after {} queued events", queue.size());
+                close();
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                drainExecutor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                Set<DataWithMediaType> event;
+                while (!closed.get() && (event = queue.poll()) != null) {
+                    try {
+                        emitter.send(event);
+                    } catch (IOException | IllegalStateException e) {
+                        close();
+                    }
+                }
+                draining.set(false);
+                // An offer may have slipped in after the last poll but before the flag was cleared
+            } while (!closed.get() && !queue.isEmpty() && draining.compareAndSet(false, true));
+        }
+
+        void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            subscribers.remove(this);
+            queue.clear();
+            // complete() waits for any send in progress, so never run it on the publishing thread
+            drainExecutor.execute(emitter::complete);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.assignment.sweet.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Immutable, already-encoded JSON array of the whole catalog. The gzip form is
+ * produced on first request and then reused for the lifetime of the snapshot.
+ */
+public final class CatalogSnapshot {
+
+    private final long version;
+    private final byte[] json;
+    private volatile byte[] gzip;
+
+    CatalogSnapshot(long version, byte[] json) {
+        this.version = version;
+        this.json = json;
+    }
+
+    /**
+     * Catalog version of this snapshot. It increases whenever the content
+     * changes, so it can be used as a strong validator.
+     */
+    public long version() {
+        return version;
+    }
+
+    public byte[] json() {
+        return json;
+    }
+
+    public byte[] gzip() {
+        byte[] compressed = gzip;
+        if (compressed == null) {
+            // Benign race: concurrent first callers may both compress, result is identical
+            compressed = compress(json);
+            gzip = compressed;
+        }
+        return compressed;
+    }
+
+    private static byte[] compress(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,192 @@
+package com.assignment.sweet.service;
+
+import com.assignment.sweet.dto.SweetSummary;
+import com.assignment.sweet.event.SweetChangedEvent;
+import com.assignment.sweet.repository.SweetRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process copy of {@code GET /api/sweets}, held as pre-serialized JSON
+ * {@link SweetSummary} entries (descriptions are served per sweet only).
+ *
+ * Each sweet is encoded once and kept in id order; writes committed through
+ * {@link SweetService} patch the single affected entry and mark the array
+ * stale, and the next read re-joins the encoded entries. Reads therefore never
+ * touch the database or Jackson except for the very first load.
+ *
+ * Entries remember the catalog version they were encoded at, so an event that
+ * is delivered late (after a newer write to the same sweet) is ignored.
+ *
+ * The cache only sees writes made by this instance. Call {@link #invalidate()}
+ * after changing sweets by other means to force a reload from the database.
+ */
+@Slf4j
+@Component
+public class CatalogSnapshotCache {
+
+    private final SweetRepository sweetRepository;
+    private final ObjectMapper objectMapper;
+    private final CatalogVersionClock versionClock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ConcurrentSkipListMap<Long, Entry> entries = new ConcurrentSkipListMap<>();
+    private final Map<Long, Long> tombstones = new HashMap<>();
+    private volatile boolean loaded;
+    private long version;
+    private volatile CatalogSnapshot snapshot;
+
+    public CatalogSnapshotCache(SweetRepository sweetRepository, ObjectMapper objectMapper,
+            CatalogVersionClock versionClock) {
+        this.sweetRepository = sweetRepository;
+        this.objectMapper = objectMapper;
+        this.versionClock = versionClock;
+    }
+
+    public CatalogSnapshot current() {
+        CatalogSnapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        lock.lock();
+        try {
+            if (snapshot == null) {
+                if (!loaded) {
+                    reload();
+                }
+                snapshot = assemble();
+            }
+            return snapshot;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * JSON array of the cached sweets whose ids are in {@code ids}, in id
+     * order, joined from the same pre-encoded entries as the full snapshot.
+     */
+    public byte[] select(RoaringBitmap ids) {
+        if (!loaded) {
+            lock.lock();
+            try {
+                if (!loaded) {
+                    reload();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(2 + ids.getCardinality() * 256);
+        out.write('[');
+        boolean first = true;
+        IntIterator it = ids.getIntIterator();
+        while (it.hasNext()) {
+            Entry entry = entries.get((long) it.next());
+            if (entry == null) {
+                continue;
+            }
+            if (!first) {
+                out.write(',');
+            }
+            out.writeBytes(entry.json());
+            first = false;
+        }
+        out.write(']');
+        return out.toByteArray();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSweetChanged(SweetChangedEvent event) {
+        lock.lock();
+        try {
+            if (!loaded) {
+                // Nothing cached yet; the first read will load the committed state
+                return;
+            }
+            Entry existing = entries.get(event.sweetId());
+            long known = Math.max(existing != null ? existing.version() : Long.MIN_VALUE,
+                    tombstones.getOrDefault(event.sweetId(), Long.MIN_VALUE));
+            if (event.version() < known) {
+                return;
+            }
+            if (event.isDeleted()) {
+                entries.remove(event.sweetId());
+                tombstones.put(event.sweetId(), event.version());
+            } else {
+                entries.put(event.sweetId(), new Entry(event.version(), encode(SweetSummary.of(event.sweet()))));
+            }
+            // Strictly increase even when events arrive out of version order
+            version = Math.max(version + 1, event.version());
+            snapshot = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidate() {
+        lock.lock();
+        try {
+            loaded = false;
+            entries.clear();
+            tombstones.clear();
+            snapshot = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void reload() {
+        entries.clear();
+        tombstones.clear();
+        // A fresh version rather than the max stored one: deletes leave no row behind
+        version = Math.max(version + 1, versionClock.next());
+        for (SweetSummary sweet : sweetRepository.findAllSummaries()) {
+            long rowVersion = sweet.getCatalogVersion() != null ? sweet.getCatalogVersion() : 0L;
+            entries.put(sweet.getId(), new Entry(rowVersion, encode(sweet)));
+        }
+        loaded = true;
+        log.debug("Catalog snapshot loaded with {} sweets", entries.size());
+    }
+
+    private CatalogSnapshot assemble() {
+        int size = 2 + entries.size();
+        for (Entry entry : entries.values()) {
+            size += entry.json().length;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size);
+        out.write('[');
+        boolean first = true;
+        for (Entry entry : entries.values()) {
+            if (!first) {
+                out.write(',');
+            }
+            out.writeBytes(entry.json());
+            first = false;
+        }
+        out.write(']');
+        return new CatalogSnapshot(version, out.toByteArray());
+    }
+
+    private byte[] encode(SweetSummary sweet) {
+        try {
+            return objectMapper.writeValueAsBytes(sweet);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode sweet " + sweet.getId(), e);
+        }
+    }
+
+    private record Entry(long version, byte[] json) {
+    }
+}
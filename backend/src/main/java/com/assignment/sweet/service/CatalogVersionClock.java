@@ -0,0 +1,51 @@
+package com.assignment.sweet.service;
+
+import com.assignment.sweet.repository.SweetRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Issues catalog versions for sweet writes. Versions are strictly increasing
+ * and derived from wall-clock microseconds, so they keep increasing across
+ * restarts without a shared counter row that every write would have to lock.
+ */
+@Component
+public class CatalogVersionClock {
+
+    private final SweetRepository sweetRepository;
+    private final AtomicLong last = new AtomicLong();
+
+    public CatalogVersionClock(SweetRepository sweetRepository) {
+        this.sweetRepository = sweetRepository;
+    }
+
+    @PostConstruct
+    void seed() {
+        // Guards against the wall clock stepping back behind versions already stored
+        Long stored = sweetRepository.findMaxCatalogVersion();
+        if (stored != null) {
+            observe(stored);
+        }
+    }
+
+    public long next() {
+        long now = System.currentTimeMillis() * 1000;
+        while (true) {
+            long prev = last.get();
+            long candidate = Math.max(prev + 1, now);
+            if (last.compareAndSet(prev, candidate)) {
+                return candidate;
+            }
+        }
+    }
+
+    public long current() {
+        return last.get();
+    }
+
+    void observe(long version) {
+        last.accumulateAndGet(version, Math::max);
+    }
+}
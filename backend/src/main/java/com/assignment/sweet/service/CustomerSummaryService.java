@@ -0,0 +1,204 @@
+package com.assignment.sweet.service;
+
+import com.assignment.sweet.event.PurchaseRecordedEvent;
+import com.assignment.sweet.model.CustomerSummary;
+import com.assignment.sweet.model.Purchase;
+import com.assignment.sweet.repository.CustomerSummaryRepository;
+import com.assignment.sweet.repository.PurchaseRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Per-customer purchase totals ({@link CustomerSummary}). The purchases a
+ * transaction records, whichever inventory engine wrote them, are folded
+ * into one total per customer and added just before it commits, by one
+ * conditional update per customer in ascending email order. The totals
+ * commit or roll back with the purchases themselves, and batches committed
+ * side by side (ring-buffer writers, group commits) lock the rows they
+ * share in the same order, so they cannot deadlock on them.
+ *
+ * {@link #rebuild} recomputes every summary from the {@code purchases} table
+ * in chunks of {@code purchases.summary.rebuild-chunk-size} customers on
+ * {@code purchases.summary.rebuild-threads} threads. Each chunk creates and
+ * locks its summary rows before reading the totals, so purchases committing
+ * meanwhile are counted exactly once. It runs on startup when no summaries exist yet.
+ */
+@Slf4j
+@Service
+public class CustomerSummaryService {
+
+    /** Where summaries are recorded among a transaction's before-commit work. */
+    static final int SYNCHRONIZATION_ORDER = 0;
+
+    private final CustomerSummaryRepository summaryRepository;
+    private final PurchaseRepository purchaseRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int rebuildThreads;
+    private final int rebuildChunkSize;
+
+    public CustomerSummaryService(CustomerSummaryRepository summaryRepository, PurchaseRepository purchaseRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${purchases.summary.rebuild-threads:4}") int rebuildThreads,
+            @Value("${purchases.summary.rebuild-chunk-size:500}") int rebuildChunkSize) {
+        this.summaryRepository = summaryRepository;
+        this.purchaseRepository = purchaseRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rebuildThreads = rebuildThreads;
+        this.rebuildChunkSize = rebuildChunkSize;
+    }
+
+    /** The customer's totals; zeros if they have not bought anything. */
+    public CustomerSummary getSummary(String customerEmail) {
+        return summaryRepository.findById(customerEmail).orElseGet(() -> CustomerSummary.empty(customerEmail));
+    }
+
+    /**
+     * Runs synchronously in the publishing transaction and is applied before
+     * it commits, so a failure here rolls the purchases back.
+     */
+    @EventListener
+    public void onPurchaseRecorded(PurchaseRecordedEvent event) {
+        Purchase purchase = event.purchase();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            Map<String, CustomerSummary> totals = new TreeMap<>();
+            add(totals, purchase);
+            transactionTemplate.executeWithoutResult(status -> record(totals));
+            return;
+        }
+        add(pendingTotals(), purchase);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (summaryRepository.count() == 0 && purchaseRepository.findLastPurchaseId() != null) {
+            log.info("Customer summaries backfilled for {} customers", rebuild());
+        }
+    }
+
+    /** Recomputes every customer's summary from their purchases; returns the number of customers. */
+    public int rebuild() {
+        ExecutorService executor = Executors.newFixedThreadPool(rebuildThreads);
+        try {
+            List<Future<Integer>> chunks = new ArrayList<>();
+            String after = "";
+            while (true) {
+                List<String> customers = purchaseRepository.findCustomerEmailsAfter(after,
+                        PageRequest.of(0, rebuildChunkSize));
+                if (customers.isEmpty()) {
+                    break;
+                }
+                chunks.add(executor.submit(() -> rebuildChunk(customers)));
+                after = customers.get(customers.size() - 1);
+            }
+            int rebuilt = 0;
+            for (Future<Integer> chunk : chunks) {
+                rebuilt += chunk.get();
+            }
+            return rebuilt;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while rebuilding customer summaries");
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private int rebuildChunk(List<String> customers) {
+        return transactionTemplate.execute(status -> {
+            // Rows must exist before they can be locked
+            customers.forEach(summaryRepository::insertIfAbsent);
+            List<CustomerSummary> locked = summaryRepository.lockAll(customers);
+            Map<String, CustomerSummary> totals = purchaseRepository.totalsByCustomer(customers).stream()
+                    .collect(Collectors.toMap(CustomerSummary::getCustomerEmail, Function.identity()));
+            for (CustomerSummary summary : locked) {
+                CustomerSummary total = totals.getOrDefault(summary.getCustomerEmail(),
+                        CustomerSummary.empty(summary.getCustomerEmail()));
+                summary.setOrderCount(total.getOrderCount());
+                summary.setTotalItems(total.getTotalItems());
+                summary.setTotalSpent(total.getTotalSpent());
+                summary.setLastPurchaseDate(total.getLastPurchaseDate());
+            }
+            return locked.size();
+        });
+    }
+
+    /** The totals of the current transaction, registering them to be recorded before it commits. */
+    private Map<String, CustomerSummary> pendingTotals() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingTotals pending && pending.owner() == this) {
+                return pending.totals;
+            }
+        }
+        PendingTotals pending = new PendingTotals();
+        TransactionSynchronizationManager.registerSynchronization(pending);
+        return pending.totals;
+    }
+
+    private static void add(Map<String, CustomerSummary> totals, Purchase purchase) {
+        CustomerSummary total = totals.computeIfAbsent(purchase.getCustomerEmail(), CustomerSummary::empty);
+        total.setOrderCount(total.getOrderCount() + 1);
+        total.setTotalItems(total.getTotalItems() + purchase.getQuantity());
+        total.setTotalSpent(total.getTotalSpent().add(purchase.getTotalPrice()));
+        if (total.getLastPurchaseDate() == null || total.getLastPurchaseDate().isBefore(purchase.getCreatedDate())) {
+            total.setLastPurchaseDate(purchase.getCreatedDate());
+        }
+    }
+
+    /** Adds each customer's totals to their row, in the caller's transaction and in the map's (email) order. */
+    private void record(Map<String, CustomerSummary> totals) {
+        totals.values().forEach(total -> {
+            if (record(total) == 0) {
+                summaryRepository.insertIfAbsent(total.getCustomerEmail());
+                record(total);
+            }
+        });
+    }
+
+    private int record(CustomerSummary total) {
+        return summaryRepository.record(total.getCustomerEmail(), total.getOrderCount(), total.getTotalItems(),
+                total.getTotalSpent(), total.getLastPurchaseDate());
+    }
+
+    /** One transaction's purchases, per customer, until it is about to commit. */
+    private final class PendingTotals implements TransactionSynchronization {
+        private final Map<String, CustomerSummary> totals = new TreeMap<>();
+
+        CustomerSummaryService owner() {
+            return CustomerSummaryService.this;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            record(totals);
+        }
+
+        @Override
+        public int getOrder() {
+            return SYNCHRONIZATION_ORDER;
+        }
+    }
+}
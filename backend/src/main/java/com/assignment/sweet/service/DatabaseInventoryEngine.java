@@ -0,0 +1,120 @@
+package com.assignment.sweet.service;
+
+import com.assignment.sweet.event.PurchaseRecordedEvent;
+import com.assignment.sweet.event.SweetChangedEvent;
+import com.assignment.sweet.model.Purchase;
+import com.assignment.sweet.model.Sweet;
+import com.assignment.sweet.repository.PurchaseRepository;
+import com.assignment.sweet.repository.SweetRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Default inventory engine: every purchase is a single conditional
+ * {@code UPDATE ... WHERE quantity >= ?} followed by the purchase insert, in
+ * one transaction. The database row lock serializes concurrent buyers.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "inventory.engine", havingValue = "database", matchIfMissing = true)
+public class DatabaseInventoryEngine implements InventoryEngine {
+
+    private final SweetRepository sweetRepository;
+    private final PurchaseRepository purchaseRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogVersionClock versionClock;
+
+    public DatabaseInventoryEngine(SweetRepository sweetRepository, PurchaseRepository purchaseRepository,
+            ApplicationEventPublisher eventPublisher, CatalogVersionClock versionClock) {
+        this.sweetRepository = sweetRepository;
+        this.purchaseRepository = purchaseRepository;
+        this.eventPublisher = eventPublisher;
+        this.versionClock = versionClock;
+    }
+
+    @Override
+    @Transactional
+    public Sweet purchase(Long sweetId, int quantity, String customerEmail) {
+        if (sweetRepository.decrementStock(sweetId, quantity, versionClock.next()) == 0) {
+            throw new RuntimeException(sweetRepository.existsById(sweetId) ? "Insufficient stock" : "Sweet not found");
+        }
+        // Re-read under the row lock for the post-purchase state
+        Sweet savedSweet = sweetRepository.findById(sweetId)
+                .orElseThrow(() -> new RuntimeException("Sweet not found"));
+        versionClock.observe(savedSweet.getCatalogVersion());
+
+        Purchase purchase = purchaseOf(savedSweet, quantity, customerEmail);
+        purchaseRepository.save(purchase);
+        log.debug("Purchase saved for {}", customerEmail);
+        eventPublisher.publishEvent(SweetChangedEvent.upserted(savedSweet));
+        eventPublisher.publishEvent(new PurchaseRecordedEvent(purchase));
+        return savedSweet;
+    }
+
+    /**
+     * Stock is decremented in ascending sweet id order, so two overlapping
+     * baskets always lock rows in the same order and cannot deadlock. Any
+     * shortfall rolls the whole checkout back.
+     */
+    @Override
+    @Transactional
+    public List<Purchase> checkout(SortedMap<Long, Integer> quantities, String customerEmail) {
+        quantities.forEach((id, quantity) -> {
+            if (sweetRepository.decrementStock(id, quantity, versionClock.next()) == 0) {
+                throw new RuntimeException(sweetRepository.existsById(id)
+                        ? "Insufficient stock for sweet " + id
+                        : "Sweet not found: " + id);
+            }
+        });
+
+        Map<Long, Sweet> sweets = sweetRepository.findAllById(quantities.keySet()).stream()
+                .collect(Collectors.toMap(Sweet::getId, Function.identity()));
+        List<Purchase> purchases = new ArrayList<>(quantities.size());
+        quantities.forEach((id, quantity) -> purchases.add(purchaseOf(sweets.get(id), quantity, customerEmail)));
+        purchaseRepository.saveAll(purchases);
+
+        for (Purchase purchase : purchases) {
+            Sweet sweet = sweets.get(purchase.getSweetId());
+            versionClock.observe(sweet.getCatalogVersion());
+            eventPublisher.publishEvent(SweetChangedEvent.upserted(sweet));
+            eventPublisher.publishEvent(new PurchaseRecordedEvent(purchase));
+        }
+        return purchases;
+    }
+
+    @Override
+    @Transactional
+    public void hold(Long sweetId, int quantity) {
+        if (sweetRepository.decrementStock(sweetId, quantity, versionClock.next()) == 0) {
+            throw new RuntimeException(sweetRepository.existsById(sweetId) ? "Insufficient stock" : "Sweet not found");
+        }
+    }
+
+    @Override
+    @Transactional
+    public void release(SortedMap<Long, Integer> units) {
+        units.forEach((sweetId, quantity) -> sweetRepository.incrementStock(sweetId, quantity, versionClock.next()));
+    }
+
+    static Purchase purchaseOf(Sweet sweet, int quantity, String customerEmail) {
+        Purchase purchase = new Purchase();
+        purchase.setSweetId(sweet.getId());
+        purchase.setSweetName(sweet.getName());
+        purchase.setQuantity(quantity);
+        purchase.setPricePerUnit(sweet.getPrice());
+        purchase.setTotalPrice(sweet.getPrice().multiply(BigDecimal.valueOf(quantity)));
+        purchase.setCustomerEmail(customerEmail);
+        return purchase;
+    }
+}
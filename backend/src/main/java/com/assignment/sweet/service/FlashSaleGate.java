@@ -0,0 +1,233 @@
+package com.assignment.sweet.service;
+
+import com.assignment.sweet.dto.FlashSaleStats;
+import com.assignment.sweet.event.SweetChangedEvent;
+import com.assignment.sweet.model.Sweet;
+import com.assignment.sweet.repository.SweetRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Admission control for sweets in flash-sale mode ({@link Sweet#isFlashSale()}).
+ *
+ * Each such sweet gets a token count equal to its remaining stock. A purchase
+ * first takes tokens for its quantity; once every unit left is spoken for,
+ * further buyers are turned away here with "Insufficient stock" without
+ * touching the database. Admitted buyers then wait in a fair queue for one of
+ * {@code flash-sale.concurrency} turns at the inventory engine, so the
+ * database sees at most as many purchase attempts as there are units, in
+ * arrival order. Tokens of a purchase that fails for another reason are
+ * given back.
+ *
+ * Restocks, edits and checkouts are picked up from {@link SweetChangedEvent}s,
+ * applied as soon as no admitted purchase of that sweet is in flight. The
+ * gate is per instance: with several backends each admits up to the whole
+ * stock, and the inventory engine still has the final say.
+ */
+@Slf4j
+@Component
+public class FlashSaleGate {
+
+    @Value("${flash-sale.concurrency:4}")
+    private int concurrency = 4;
+
+    @Value("${flash-sale.queue-capacity:1000}")
+    private int queueCapacity = 1000;
+
+    @Value("${flash-sale.wait-timeout:PT10S}")
+    private Duration waitTimeout = Duration.ofSeconds(10);
+
+    private final SweetRepository sweetRepository;
+    private final Map<Long, Gate> gates = new ConcurrentHashMap<>();
+
+    public FlashSaleGate(SweetRepository sweetRepository) {
+        this.sweetRepository = sweetRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<Sweet> sweets = sweetRepository.findByFlashSaleTrue();
+        sweets.forEach(sweet -> gates.put(sweet.getId(), new Gate(sweet)));
+        if (!sweets.isEmpty()) {
+            log.info("Flash-sale gate active for {} sweet(s)", sweets.size());
+        }
+    }
+
+    public boolean isActive(Long sweetId) {
+        return gates.containsKey(sweetId);
+    }
+
+    /**
+     * Runs {@code attempt} once this buyer is admitted and has its turn, or
+     * fails fast when the sweet's stock is already spoken for or its queue is
+     * full. Sweets without a flash sale go straight through.
+     */
+    public Sweet purchase(Long sweetId, int quantity, Supplier<Sweet> attempt) {
+        Gate gate = gates.get(sweetId);
+        if (gate == null) {
+            return attempt.get();
+        }
+        gate.admit(quantity);
+        Sweet after = null;
+        RuntimeException failure = null;
+        try {
+            gate.awaitTurn();
+            try {
+                after = attempt.get();
+                return after;
+            } finally {
+                gate.turns.release();
+            }
+        } catch (RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            gate.complete(quantity, after, failure);
+        }
+    }
+
+    /** One entry per sweet currently in flash-sale mode, by sweet id. */
+    public List<FlashSaleStats> stats() {
+        return gates.entrySet().stream()
+                .map(entry -> entry.getValue().stats(entry.getKey()))
+                .sorted(Comparator.comparing(FlashSaleStats::getSweetId))
+                .toList();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSweetChanged(SweetChangedEvent event) {
+        if (event.isDeleted() || !event.sweet().isFlashSale()) {
+            gates.remove(event.sweetId());
+            return;
+        }
+        Sweet sweet = event.sweet();
+        Gate gate = gates.computeIfAbsent(event.sweetId(), id -> new Gate(sweet));
+        gate.observe(event.version(), sweet.getQuantity());
+    }
+
+    private final class Gate {
+        final Semaphore turns = new Semaphore(concurrency, true);
+        final ReentrantLock lock = new ReentrantLock();
+
+        /** Units not yet spoken for. */
+        int available;
+        /** Units admitted whose purchase has not finished. */
+        int inFlight;
+        int waiting;
+        long admitted;
+        long rejected;
+        /** Catalog version that {@link #available} was last synced to. */
+        long syncedVersion;
+        /** Newest committed stock seen; applied once nothing is in flight. */
+        long latestVersion;
+        int latestQuantity;
+
+        Gate(Sweet sweet) {
+            available = sweet.getQuantity();
+            syncedVersion = latestVersion = sweet.getCatalogVersion() != null ? sweet.getCatalogVersion() : 0L;
+            latestQuantity = available;
+        }
+
+        void admit(int quantity) {
+            lock.lock();
+            try {
+                if (available < quantity) {
+                    rejected++;
+                    throw new RuntimeException("Insufficient stock");
+                }
+                if (waiting >= queueCapacity) {
+                    rejected++;
+                    throw new RuntimeException("Too many buyers are waiting for this sweet, please try again");
+                }
+                available -= quantity;
+                inFlight += quantity;
+                waiting++;
+                admitted++;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void awaitTurn() {
+            boolean acquired;
+            try {
+                acquired = turns.tryAcquire(waitTimeout.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                acquired = false;
+            } finally {
+                lock.lock();
+                waiting--;
+                lock.unlock();
+            }
+            if (!acquired) {
+                throw new RuntimeException("Timed out waiting to buy this sweet, please try again");
+            }
+        }
+
+        void complete(int quantity, Sweet after, RuntimeException failure) {
+            lock.lock();
+            try {
+                inFlight -= quantity;
+                if (failure != null && !"Insufficient stock".equals(failure.getMessage())) {
+                    available += quantity;
+                }
+                // On "Insufficient stock" the engine knew better; keep the tokens spent
+                if (after != null && after.getCatalogVersion() != null) {
+                    record(after.getCatalogVersion(), after.getQuantity());
+                }
+                sync();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void observe(long version, int quantity) {
+            lock.lock();
+            try {
+                record(version, quantity);
+                sync();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void record(long version, int quantity) {
+            if (version > latestVersion) {
+                latestVersion = version;
+                latestQuantity = quantity;
+            }
+        }
+
+        /** Committed stock only tells the whole story when none of our admitted purchases is pending. */
+        private void sync() {
+            if (inFlight == 0 && latestVersion > syncedVersion) {
+                available = Math.max(0, latestQuantity);
+                syncedVersion = latestVersion;
+            }
+        }
+
+        FlashSaleStats stats(Long sweetId) {
+            lock.lock();
+            try {
+                return new FlashSaleStats(sweetId, available, inFlight, waiting, admitted, rejected);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
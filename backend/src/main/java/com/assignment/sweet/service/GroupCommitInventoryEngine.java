@@ -0,0 +1,285 @@
+package com.assignment.sweet.service;
+
+import com.assignment.sweet.event.PurchaseRecordedEvent;
+import com.assignment.sweet.event.SweetChangedEvent;
+import com.assignment.sweet.model.Purchase;
+import com.assignment.sweet.model.Sweet;
+import com.assignment.sweet.repository.PurchaseRepository;
+import com.assignment.sweet.repository.SweetRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Group-commit inventory engine ({@code inventory.engine=group-commit}).
+ * Purchases from concurrent requests are queued and a single committer
+ * applies them in windows of up to {@code max-batch} purchases or
+ * {@code window-ms} milliseconds: one transaction per window, holding every
+ * conditional stock decrement and one batched insert of the window's
+ * {@link Purchase} rows. Each caller blocks until its window has committed,
+ * so an answer is as durable as with the default engine, while the number
+ * of commits at peak drops by roughly the window size.
+ *
+ * A purchase that cannot be served (unknown sweet, not enough stock) is
+ * rejected on its own without affecting the rest of the window. If a window
+ * fails as a whole, its purchases are retried one per transaction. The
+ * quantity returned to a caller is the stock left at the end of its window.
+ * Checkouts keep their own transaction.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "inventory.engine", havingValue = "group-commit")
+public class GroupCommitInventoryEngine implements InventoryEngine, SmartLifecycle {
+
+    private final SweetRepository sweetRepository;
+    private final PurchaseRepository purchaseRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogVersionClock versionClock;
+    private final TransactionTemplate transactionTemplate;
+    /**
+     * Plain (unproxied) instance; checkouts run it inside
+     * {@link #transactionTemplate}, holds inside the caller's transaction.
+     */
+    private final DatabaseInventoryEngine rowEngine;
+    private final long windowNanos;
+    private final int maxBatch;
+    private final BlockingQueue<PendingPurchase> queue;
+
+    private final AtomicLong commits = new AtomicLong();
+    private final AtomicLong purchases = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread committer;
+
+    public GroupCommitInventoryEngine(SweetRepository sweetRepository, PurchaseRepository purchaseRepository,
+            ApplicationEventPublisher eventPublisher, CatalogVersionClock versionClock,
+            PlatformTransactionManager transactionManager,
+            @Value("${inventory.group-commit.window-ms:2}") long windowMs,
+            @Value("${inventory.group-commit.max-batch:200}") int maxBatch,
+            @Value("${inventory.group-commit.queue-capacity:10000}") int queueCapacity) {
+        this.sweetRepository = sweetRepository;
+        this.purchaseRepository = purchaseRepository;
+        this.eventPublisher = eventPublisher;
+        this.versionClock = versionClock;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rowEngine = new DatabaseInventoryEngine(sweetRepository, purchaseRepository, eventPublisher,
+                versionClock);
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+        this.maxBatch = maxBatch;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @Override
+    public Sweet purchase(Long sweetId, int quantity, String customerEmail) {
+        PendingPurchase pending = new PendingPurchase(sweetId, quantity, customerEmail);
+        if (!running || !queue.offer(pending)) {
+            throw new RuntimeException("Too many purchases in progress, please try again");
+        }
+        try {
+            return pending.result.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the purchase to commit");
+        }
+    }
+
+    @Override
+    public List<Purchase> checkout(SortedMap<Long, Integer> quantities, String customerEmail) {
+        return transactionTemplate.execute(status -> rowEngine.checkout(quantities, customerEmail));
+    }
+
+    @Override
+    public void hold(Long sweetId, int quantity) {
+        rowEngine.hold(sweetId, quantity);
+    }
+
+    @Override
+    public void release(SortedMap<Long, Integer> units) {
+        rowEngine.release(units);
+    }
+
+    /** Purchases commit on the engine's own threads. */
+    @Override
+    public boolean joinsCallerTransaction() {
+        return false;
+    }
+
+    /** Transactions committed so far; with {@link #purchaseCount()} shows how well windows fill. */
+    public long commitCount() {
+        return commits.get();
+    }
+
+    public long purchaseCount() {
+        return purchases.get();
+    }
+
+    private void commitLoop() {
+        List<PendingPurchase> window = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingPurchase first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                window.add(first);
+                long deadline = System.nanoTime() + windowNanos;
+                queue.drainTo(window, maxBatch - window.size());
+                while (window.size() < maxBatch) {
+                    PendingPurchase next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    window.add(next);
+                    queue.drainTo(window, maxBatch - window.size());
+                }
+                commit(window);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                window.forEach(pending -> pending.result.completeExceptionally(
+                        new RuntimeException("Purchase was not processed, please try again")));
+                return;
+            } finally {
+                window.clear();
+            }
+        }
+    }
+
+    private void commit(List<PendingPurchase> window) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> apply(window));
+        } catch (RuntimeException e) {
+            if (window.size() == 1) {
+                window.get(0).result.completeExceptionally(e);
+                return;
+            }
+            log.warn("Group commit of {} purchases failed, retrying them one at a time", window.size(), e);
+            for (PendingPurchase pending : window) {
+                pending.reset();
+                commit(List.of(pending));
+            }
+            return;
+        }
+        commits.incrementAndGet();
+        for (PendingPurchase pending : window) {
+            if (pending.error != null) {
+                pending.result.completeExceptionally(new RuntimeException(pending.error));
+            } else {
+                purchases.incrementAndGet();
+                pending.result.complete(pending.sweet);
+            }
+        }
+    }
+
+    /** The body of one window's transaction; records each purchase's outcome for after the commit. */
+    private void apply(List<PendingPurchase> window) {
+        // Ascending sweet id, like checkouts, so the two never lock rows in opposite orders;
+        // the sort is stable, so buyers of one sweet are still served in arrival order
+        List<PendingPurchase> ordered = new ArrayList<>(window);
+        ordered.sort(Comparator.comparing(pending -> pending.sweetId));
+        List<PendingPurchase> accepted = new ArrayList<>(window.size());
+        for (PendingPurchase pending : ordered) {
+            if (sweetRepository.decrementStock(pending.sweetId, pending.quantity, versionClock.next()) == 1) {
+                accepted.add(pending);
+            } else {
+                pending.error = sweetRepository.existsById(pending.sweetId) ? "Insufficient stock" : "Sweet not found";
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+        Map<Long, Sweet> sweets = sweetRepository.findAllById(accepted.stream().map(p -> p.sweetId).toList())
+                .stream().collect(Collectors.toMap(Sweet::getId, Function.identity(), (a, b) -> a,
+                        LinkedHashMap::new));
+        List<Purchase> rows = new ArrayList<>(accepted.size());
+        for (PendingPurchase pending : accepted) {
+            pending.sweet = sweets.get(pending.sweetId);
+            rows.add(DatabaseInventoryEngine.purchaseOf(pending.sweet, pending.quantity, pending.customerEmail));
+        }
+        purchaseRepository.saveAll(rows);
+
+        for (Sweet sweet : sweets.values()) {
+            versionClock.observe(sweet.getCatalogVersion());
+            eventPublisher.publishEvent(SweetChangedEvent.upserted(sweet));
+        }
+        rows.forEach(purchase -> eventPublisher.publishEvent(new PurchaseRecordedEvent(purchase)));
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        committer = Thread.ofPlatform().name("purchase-group-commit").daemon().start(this::commitLoop);
+    }
+
+    /** Commits whatever is queued, then fails anything that slipped in afterwards. */
+    @Override
+    public void stop() {
+        running = false;
+        if (committer != null) {
+            try {
+                committer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        PendingPurchase late;
+        while ((late = queue.poll()) != null) {
+            late.result.completeExceptionally(new RuntimeException("Purchase was not processed, please try again"));
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /** Starts ahead of the web server and stops after it, so requests it drains can still commit. */
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    private static final class PendingPurchase {
+        final Long sweetId;
+        final int quantity;
+        final String customerEmail;
+        final CompletableFuture<Sweet> result = new CompletableFuture<>();
+        Sweet sweet;
+        String error;
+
+        PendingPurchase(Long sweetId, int quantity, String customerEmail) {
+            this.sweetId = sweetId;
+            this.quantity = quantity;
+            this.customerEmail = customerEmail;
+        }
+
+        void reset() {
+            sweet = null;
+            error = null;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.assignment.sweet.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * HyperLogLog distinct-count sketch with 2^{@value #PRECISION} registers,
+ * about 2.3% standard error. Merging two sketches (register-wise max) gives
+ * the sketch of the union, so merging is also safe to repeat.
+ *
+ * {@link #toBytes} writes only the non-zero registers while that is shorter,
+ * so the sketch of a sweet-day with a handful of buyers takes a few bytes
+ * instead of {@value #REGISTERS}.
+ *
+ * Not thread-safe; callers synchronize.
+ */
+final class HyperLogLog {
+
+    static final int PRECISION = 11;
+    static final int REGISTERS = 1 << PRECISION;
+    private static final byte SPARSE = 0;
+    private static final byte DENSE = 1;
+
+    private final byte[] registers;
+
+    HyperLogLog() {
+        this.registers = new byte[REGISTERS];
+    }
+
+    void add(String value) {
+        long hash = hash(value);
+        int index = (int) (hash >>> (Long.SIZE - PRECISION));
+        // Rank of the first set bit in the remaining bits, capped at their count + 1
+        int rank = Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    void merge(HyperLogLog other) {
+        for (int i = 0; i < REGISTERS; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    /** Estimated number of distinct values added, with linear counting for small sets. */
+    long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += Math.scalb(1.0, -register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double m = REGISTERS;
+        double estimate = 0.7213 / (1 + 1.079 / m) * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log(m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    byte[] toBytes() {
+        int nonZero = 0;
+        for (byte register : registers) {
+            if (register != 0) {
+                nonZero++;
+            }
+        }
+        if (3 + 3 * nonZero >= 1 + REGISTERS) {
+            ByteBuffer dense = ByteBuffer.allocate(1 + REGISTERS);
+            return dense.put(DENSE).put(registers).array();
+        }
+        // Index (2 bytes) and value of each non-zero register
+        ByteBuffer sparse = ByteBuffer.allocate(3 + 3 * nonZero).put(SPARSE).putShort((short) nonZero);
+        for (int i = 0; i < REGISTERS; i++) {
+            if (registers[i] != 0) {
+                sparse.putShort((short) i).put(registers[i]);
+            }
+        }
+        return sparse.array();
+    }
+
+    static HyperLogLog fromBytes(byte[] bytes) {
+        HyperLogLog sketch = new HyperLogLog();
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        byte format = in.get();
+        if (format == DENSE) {
+            in.get(sketch.registers);
+        } else if (format == SPARSE) {
+            for (int i = in.getShort(); i > 0; i--) {
+                sketch.registers[in.getShort()] = in.get();
+            }
+        } else {
+            throw new IllegalArgumentException("Unknown HyperLogLog format " + format);
+        }
+        return sketch;
+    }
+
+    /** 64-bit FNV-1a over the UTF-8 bytes, finished with MurmurHash3's fmix64 to spread the high bits. */
+    static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,302 @@
+package com.assignment.sweet.service;
+
+import com.assignment.sweet.model.IdempotencyRecord;
+import com.assignment.sweet.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request at most once per {@code Idempotency-Key} and replays its
+ * response to retries.
+ *
+ * Keys live in a bounded in-memory map with a fixed time to live. The first
+ * request for a key runs; concurrent duplicates wait for its outcome instead
+ * of racing it. Only successful responses are kept: a failed request changes
+ * nothing, so its key is released and a retry runs again.
+ *
+ * With {@code idempotency.shared-store=true} the key is also claimed in the
+ * {@code idempotency_keys} table so that retries landing on another node are
+ * covered too. The response is stored in the same transaction as the
+ * request's own writes when they commit on the calling thread (restocks, and
+ * purchases through the {@code database} and {@code sharded} engines). The
+ * {@code group-commit}, {@code ledger} and {@code ring-buffer} engines commit
+ * purchases on their own threads, and a flash-sale purchase first waits its
+ * turn; those run outside any transaction, with the claim and the response
+ * written in short transactions around them, so a waiting request holds no
+ * pooled connection. A node dying between such a commit and storing the
+ * response leaves the key claimed but empty. A claim whose holder died is
+ * taken over once its lease runs out, and in that case the retry buys
+ * again.
+ */
+@Slf4j
+@Service
+public class IdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    static final int MAX_KEY_LENGTH = 255;
+
+    public record Outcome<T>(T body, boolean replayed) {
+    }
+
+    @Value("${idempotency.ttl:PT24H}")
+    private Duration ttl = Duration.ofHours(24);
+
+    @Value("${idempotency.max-entries:10000}")
+    private int maxEntries = 10_000;
+
+    @Value("${idempotency.wait-timeout:PT30S}")
+    private Duration waitTimeout = Duration.ofSeconds(30);
+
+    @Value("${idempotency.shared-store:false}")
+    private boolean sharedStore;
+
+    @Value("${idempotency.lease:PT30S}")
+    private Duration lease = Duration.ofSeconds(30);
+
+    private final IdempotencyRecordRepository recordRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate claimTemplate;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    /** Keys in insertion order, which is also expiry order. */
+    private final Queue<String> order = new ConcurrentLinkedQueue<>();
+
+    public IdempotencyStore(IdempotencyRecordRepository recordRepository, ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager) {
+        this.recordRepository = recordRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.claimTemplate = new TransactionTemplate(transactionManager);
+        this.claimTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Runs {@code action} unless a request with the same key and scope has
+     * already succeeded, in which case its response is returned. Reusing a key
+     * with different parameters ({@code fingerprint}) is rejected.
+     */
+    public <T> Outcome<T> execute(String key, String scope, String fingerprint, Class<T> type, Supplier<T> action) {
+        return execute(key, scope, fingerprint, type, true, action);
+    }
+
+    /**
+     * As {@link #execute(String, String, String, Class, Supplier)}, where
+     * {@code sameTransaction} says whether the action commits in the calling
+     * thread's transaction without waiting first, so that the shared store
+     * can record the response in it.
+     */
+    public <T> Outcome<T> execute(String key, String scope, String fingerprint, Class<T> type,
+            boolean sameTransaction, Supplier<T> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String id = scope + ":" + key;
+        long now = System.currentTimeMillis();
+        Entry mine = new Entry(fingerprint, now + ttl.toMillis());
+        while (true) {
+            Entry existing = entries.putIfAbsent(id, mine);
+            if (existing == null) {
+                break;
+            }
+            if (existing.expiresAt < now && existing.result.isDone()) {
+                entries.remove(id, existing);
+                continue;
+            }
+            if (!existing.fingerprint.equals(fingerprint)) {
+                throw new IllegalArgumentException(HEADER + " was already used for a different request");
+            }
+            return new Outcome<>(type.cast(await(existing)), true);
+        }
+        order.add(id);
+        trim(now);
+
+        try {
+            Outcome<T> outcome = sharedStore
+                    ? executeShared(id, fingerprint, type, sameTransaction, action)
+                    : new Outcome<>(action.get(), false);
+            mine.result.complete(outcome.body());
+            return outcome;
+        } catch (RuntimeException e) {
+            // Waiters see this failure; later retries run again
+            entries.remove(id, mine);
+            mine.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private <T> Outcome<T> executeShared(String id, String fingerprint, Class<T> type, boolean sameTransaction,
+            Supplier<T> action) {
+        Optional<String> stored = claim(id, fingerprint);
+        if (stored.isPresent()) {
+            try {
+                return new Outcome<>(objectMapper.readValue(stored.get(), type), true);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Stored response for " + HEADER + " is unreadable", e);
+            }
+        }
+        T body;
+        try {
+            body = sameTransaction
+                    ? transactionTemplate.execute(status -> {
+                        T result = action.get();
+                        recordRepository.complete(id, encode(result));
+                        return result;
+                    })
+                    : action.get();
+        } catch (RuntimeException e) {
+            claimTemplate.executeWithoutResult(status -> recordRepository.release(id));
+            throw e;
+        }
+        if (!sameTransaction) {
+            try {
+                claimTemplate.executeWithoutResult(status -> recordRepository.complete(id, encode(body)));
+            } catch (RuntimeException e) {
+                // The request itself has committed; other nodes run it again once the lease runs out
+                log.warn("Could not store the response for idempotency claim {}", id, e);
+            }
+        }
+        return new Outcome<>(body, false);
+    }
+
+    /**
+     * Claims the key in the shared table, or returns the response stored by
+     * whoever completed it. Waits while another node holds a live claim.
+     */
+    private Optional<String> claim(String id, String fingerprint) {
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+        while (true) {
+            Instant now = Instant.now();
+            Optional<IdempotencyRecord> existing = claimTemplate.execute(status -> recordRepository.findById(id));
+            if (existing.isEmpty()) {
+                try {
+                    claimTemplate.executeWithoutResult(status -> recordRepository.saveAndFlush(
+                            new IdempotencyRecord(id, fingerprint, IdempotencyRecord.Status.IN_PROGRESS, null,
+                                    now.plus(lease), now.plus(ttl))));
+                    return Optional.empty();
+                } catch (DataIntegrityViolationException e) {
+                    continue;
+                }
+            }
+            IdempotencyRecord record = existing.get();
+            if (record.getExpiresAt().isBefore(now)) {
+                claimTemplate.executeWithoutResult(status -> recordRepository.deleteIfExpired(id, now));
+                continue;
+            }
+            if (!record.getFingerprint().equals(fingerprint)) {
+                throw new IllegalArgumentException(HEADER + " was already used for a different request");
+            }
+            if (record.getStatus() == IdempotencyRecord.Status.COMPLETED) {
+                return Optional.of(record.getResponse());
+            }
+            if (record.getLockedUntil().isBefore(now)) {
+                Integer renewed = claimTemplate.execute(status -> recordRepository.renewLease(id,
+                        record.getLockedUntil(), now.plus(lease)));
+                if (renewed != null && renewed == 1) {
+                    log.warn("Taking over abandoned idempotency claim {}", id);
+                    return Optional.empty();
+                }
+                continue;
+            }
+            if (System.nanoTime() > deadline) {
+                throw new RuntimeException("A request with this " + HEADER + " is still in progress");
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for a request with the same " + HEADER);
+            }
+        }
+    }
+
+    private Object await(Entry entry) {
+        try {
+            return entry.result.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new RuntimeException("A request with this " + HEADER + " is still in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a request with the same " + HEADER);
+        }
+    }
+
+    /** Drops expired keys, and the oldest finished ones while over capacity. */
+    private void trim(long now) {
+        for (int budget = order.size(); budget > 0; budget--) {
+            String id = order.peek();
+            Entry entry = id != null ? entries.get(id) : null;
+            boolean stale = entry == null || (entry.result.isDone()
+                    && (entry.expiresAt < now || entries.size() > maxEntries));
+            if (!stale && entries.size() <= maxEntries) {
+                return;
+            }
+            order.poll();
+            if (entry != null) {
+                if (stale) {
+                    entries.remove(id, entry);
+                } else {
+                    // Still running; keep it and look further along
+                    order.add(id);
+                }
+            }
+        }
+    }
+
+    @Scheduled(fixedRateString = "${idempotency.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        trim(System.currentTimeMillis());
+        if (sharedStore) {
+            int purged = transactionTemplate.execute(status -> recordRepository.deleteExpired(Instant.now()));
+            if (purged > 0) {
+                log.debug("Purged {} expired idempotency keys", purged);
+            }
+        }
+    }
+
+    private String encode(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not store response for " + HEADER, e);
+        }
+    }
+
+    private static final class Entry {
+        final String fingerprint;
+        final long expiresAt;
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        Entry(String fingerprint, long expiresAt) {
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
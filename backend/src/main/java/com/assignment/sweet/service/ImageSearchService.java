@@ -24,6 +24,9 @@ public class ImageSearchService {
     @Value("${unsplash.access-key}")
     private String accessKey;
 
+    @Value("${unsplash.base-url:https://api.unsplash.com}")
+    private String baseUrl = "https://api.unsplash.com";
+
     private final RestTemplate restTemplate;
 
     public ImageSearchService(RestTemplateBuilder builder) {
@@ -38,7 +41,7 @@ public class ImageSearchService {
             return Collections.emptyList();
         }
 
-        String url = UriComponentsBuilder.fromHttpUrl("https://api.unsplash.com/search/photos")
+        String url = UriComponentsBuilder.fromHttpUrl(baseUrl + "/search/photos")
                 .queryParam("query", query.trim())
                 .queryParam("per_page", 12)
                 .toUriString();
@@ -0,0 +1,47 @@
+package com.assignment.sweet.service;
+
+import com.assignment.sweet.model.Purchase;
+import com.assignment.sweet.model.Sweet;
+
+import java.util.List;
+import java.util.SortedMap;
+
+/**
+ * Decides whether stock can be taken for a purchase and records it. Selected
+ * with {@code inventory.engine}: {@code database} (default) does a
+ * conditional update per purchase, {@code group-commit} runs purchases from
+ * concurrent requests in one transaction per short window, {@code ledger}
+ * admits purchases against an in-memory ledger and writes them behind,
+ * {@code ring-buffer} hands each sweet's purchases to one writer thread that
+ * commits them in batches, and {@code sharded} splits the stock of sweets
+ * given stock slots across that many counter rows. Callers validate
+ * quantities first.
+ */
+public interface InventoryEngine {
+
+    /** Takes {@code quantity} units for one customer and returns the sweet as left by the purchase. */
+    Sweet purchase(Long sweetId, int quantity, String customerEmail);
+
+    /**
+     * Takes every line (sweet id to quantity, ascending ids) or none of them,
+     * and returns the recorded purchases in line order.
+     */
+    List<Purchase> checkout(SortedMap<Long, Integer> quantities, String customerEmail);
+
+    /**
+     * Whether {@link #purchase} commits in the caller's transaction, if it has
+     * one. Engines that commit on threads of their own answer false.
+     */
+    default boolean joinsCallerTransaction() {
+        return true;
+    }
+
+    /**
+     * Takes {@code quantity} units out of stock for a reservation, in the
+     * caller's transaction, so the engine cannot sell them as well.
+     */
+    void hold(Long sweetId, int quantity);
+
+    /** Puts held units back (sweet id to quantity, ascending ids), in the caller's transaction. */
+    void release(SortedMap<Long, Integer> units);
+}
@@ -0,0 +1,92 @@
+package com.assignment.sweet.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Writes repository query results to the response row by row instead of
+ * collecting them into a list first.
+ *
+ * The query runs in a read-only transaction on the response thread so the
+ * JDBC driver can keep a forward-only cursor open (Postgres only honours the
+ * fetch size inside a transaction). Each entity is detached once written,
+ * so neither the persistence context nor the output buffer grows with the
+ * number of rows.
+ */
+@Component
+public class JsonRowStreamer {
+
+    public static final String NDJSON_VALUE = "application/x-ndjson";
+    public static final MediaType NDJSON = MediaType.parseMediaType(NDJSON_VALUE);
+
+    /** Rows written between flushes of the response buffer. */
+    static final int FLUSH_EVERY = 200;
+
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    public JsonRowStreamer(ObjectMapper objectMapper, EntityManager entityManager,
+            PlatformTransactionManager transactionManager) {
+        this.objectMapper = objectMapper.copy()
+                .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * @param rows   opens the result stream; called inside the transaction
+     * @param ndjson one JSON document per line instead of a single array
+     */
+    public <T> StreamingResponseBody stream(Supplier<Stream<T>> rows, boolean ndjson) {
+        return out -> transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<T> stream = rows.get()) {
+                write(stream.iterator(), out, ndjson);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private <T> void write(Iterator<T> rows, OutputStream out, boolean ndjson) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            if (ndjson) {
+                generator.setRootValueSeparator(null);
+            } else {
+                generator.writeStartArray();
+            }
+            int written = 0;
+            while (rows.hasNext()) {
+                T row = rows.next();
+                objectMapper.writeValue(generator, row);
+                if (ndjson) {
+                    generator.writeRaw('\n');
+                }
+                entityManager.detach(row);
+                if (++written % FLUSH_EVERY == 0) {
+                    generator.flush();
+                }
+            }
+            if (!ndjson) {
+                generator.writeEndArray();
+            }
+        }
+    }
+}
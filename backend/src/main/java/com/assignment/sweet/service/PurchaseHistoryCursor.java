@@ -0,0 +1,33 @@
+package com.assignment.sweet.service;
+
+import com.assignment.sweet.model.Purchase;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor for purchase history: the creation time and id of the
+ * last purchase on a page, encoded as URL-safe base64.
+ */
+record PurchaseHistoryCursor(LocalDateTime createdDate, long id) {
+
+    static PurchaseHistoryCursor of(Purchase last) {
+        return new PurchaseHistoryCursor(last.getCreatedDate(), last.getId());
+    }
+
+    static PurchaseHistoryCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 2);
+            return new PurchaseHistoryCursor(LocalDateTime.parse(parts[1]), Long.parseLong(parts[0]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    String encode() {
+        String raw = id + "|" + createdDate;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
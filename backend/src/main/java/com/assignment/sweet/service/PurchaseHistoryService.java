@@ -0,0 +1,71 @@
+package com.assignment.sweet.service;
+
+import com.assignment.sweet.dto.CursorPage;
+import com.assignment.sweet.dto.PurchaseSearchRequest;
+import com.assignment.sweet.model.Purchase;
+import com.assignment.sweet.repository.PurchaseRepository;
+import com.assignment.sweet.repository.PurchaseSpecifications;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Purchase history, newest first, using keyset pagination on
+ * {@code (createdDate, id)}: each page seeks past the cursor on the matching
+ * composite index (per customer, per sweet or across the table) and reads
+ * one page of rows, however long the history is.
+ */
+@Service
+public class PurchaseHistoryService {
+
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "createdDate")
+            .and(Sort.by(Sort.Direction.DESC, "id"));
+
+    private final PurchaseRepository purchaseRepository;
+
+    public PurchaseHistoryService(PurchaseRepository purchaseRepository) {
+        this.purchaseRepository = purchaseRepository;
+    }
+
+    /** One page of a customer's own purchases. */
+    @Transactional(readOnly = true)
+    public CursorPage<Purchase> customerPage(String customerEmail, String cursor, Integer limit) {
+        return page(PurchaseSpecifications.customerEquals(customerEmail), cursor, limit);
+    }
+
+    /** One page of all purchases, filtered by customer, sweet and creation time. */
+    @Transactional(readOnly = true)
+    public CursorPage<Purchase> search(PurchaseSearchRequest request) {
+        if (request.getFrom() != null && request.getTo() != null && !request.getFrom().isBefore(request.getTo())) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+        Specification<Purchase> spec = Specification
+                .where(PurchaseSpecifications.customerEquals(request.getCustomerEmail()))
+                .and(PurchaseSpecifications.sweetEquals(request.getSweetId()))
+                .and(PurchaseSpecifications.createdFrom(request.getFrom()))
+                .and(PurchaseSpecifications.createdBefore(request.getTo()));
+        return page(spec, request.getCursor(), request.getLimit());
+    }
+
+    private CursorPage<Purchase> page(Specification<Purchase> spec, String cursor, Integer requestedLimit) {
+        int limit = requestedLimit == null ? DEFAULT_PAGE_SIZE
+                : Math.max(1, Math.min(requestedLimit, MAX_PAGE_SIZE));
+        if (cursor != null && !cursor.isBlank()) {
+            PurchaseHistoryCursor after = PurchaseHistoryCursor.decode(cursor);
+            spec = Specification.where(spec).and(PurchaseSpecifications.before(after.createdDate(), after.id()));
+        }
+
+        // Fetch one extra row to learn whether another page exists without a count query
+        List<Purchase> rows = purchaseRepository.findPage(spec, NEWEST_FIRST, limit + 1);
+        boolean hasMore = rows.size() > limit;
+        List<Purchase> items = hasMore ? rows.subList(0, limit) : rows;
+        String nextCursor = hasMore ? PurchaseHistoryCursor.of(items.get(items.size() - 1)).encode() : null;
+        return new CursorPage<>(items, nextCursor, hasMore);
+    }
+}
@@ -0,0 +1,197 @@
+package com.assignment.sweet.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only file of purchases admitted by {@link StockLedgerEngine} but
+ * not yet written to the database. One line per admission, carrying a
+ * sequence number and a CRC, so a line torn by a crash is recognised and
+ * dropped on replay (its caller never got an answer).
+ *
+ * Appends must be serialized by the caller; {@link #sync} may be called
+ * concurrently and forces the file once for every append waiting on it.
+ */
+@Slf4j
+final class PurchaseJournal implements Closeable {
+
+    record Line(Long sweetId, String sweetName, BigDecimal price, int quantity) {
+    }
+
+    record Record(long sequence, String customerEmail, long createdAt, List<Line> lines) {
+    }
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final Path file;
+    private final boolean fsync;
+    /** A lock rather than a monitor: fsync blocks, and must not pin a virtual thread's carrier. */
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    private FileChannel channel;
+    private long lastSequence;
+    private volatile long written;
+    private long synced;
+
+    PurchaseJournal(Path file, boolean fsync) {
+        this.file = file;
+        this.fsync = fsync;
+    }
+
+    /** Intact records after {@code sequence}, oldest first; reading stops at the first damaged line. */
+    List<Record> readAfter(long sequence) throws IOException {
+        List<Record> records = new ArrayList<>();
+        if (!Files.exists(file)) {
+            return records;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Record record = decode(line);
+                if (record == null) {
+                    log.warn("Ignoring damaged purchase journal tail in {}", file);
+                    break;
+                }
+                if (record.sequence() > sequence) {
+                    records.add(record);
+                }
+            }
+        }
+        return records;
+    }
+
+    /** Empties the journal and continues numbering after {@code lastSequence}. */
+    void reset(long lastSequence) throws IOException {
+        if (channel == null) {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        }
+        channel.truncate(0);
+        channel.position(0);
+        channel.force(true);
+        this.lastSequence = lastSequence;
+        this.written = lastSequence;
+        syncLock.lock();
+        try {
+            synced = lastSequence;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /** Empties the journal, keeping the numbering; only once every record is in the database. */
+    void truncate() throws IOException {
+        reset(lastSequence);
+    }
+
+    /** Writes one admission; durable once {@link #sync} returns for its sequence. */
+    Record append(String customerEmail, long createdAt, List<Line> lines) throws IOException {
+        Record record = new Record(lastSequence + 1, customerEmail, createdAt, lines);
+        ByteBuffer buffer = ByteBuffer.wrap(encode(record).getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        lastSequence = record.sequence();
+        written = lastSequence;
+        return record;
+    }
+
+    void sync(long sequence) throws IOException {
+        if (!fsync) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            if (synced >= sequence) {
+                return;
+            }
+            long upTo = written;
+            channel.force(false);
+            synced = upTo;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    long size() throws IOException {
+        return channel.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    static String encode(Record record) {
+        StringBuilder payload = new StringBuilder()
+                .append(record.sequence()).append('\t')
+                .append(record.createdAt()).append('\t')
+                .append(text(record.customerEmail())).append('\t');
+        for (int i = 0; i < record.lines().size(); i++) {
+            Line line = record.lines().get(i);
+            if (i > 0) {
+                payload.append(';');
+            }
+            payload.append(line.sweetId()).append(',')
+                    .append(line.quantity()).append(',')
+                    .append(line.price().toPlainString()).append(',')
+                    .append(text(line.sweetName()));
+        }
+        return payload + "\t" + Long.toHexString(crc(payload.toString())) + "\n";
+    }
+
+    static Record decode(String line) {
+        int crcAt = line.lastIndexOf('\t');
+        if (crcAt < 0) {
+            return null;
+        }
+        String payload = line.substring(0, crcAt);
+        try {
+            if (Long.parseLong(line.substring(crcAt + 1), 16) != crc(payload)) {
+                return null;
+            }
+            String[] fields = payload.split("\t", -1);
+            List<Line> lines = new ArrayList<>();
+            for (String item : fields[3].split(";")) {
+                String[] parts = item.split(",", -1);
+                lines.add(new Line(Long.parseLong(parts[0]), untext(parts[3]), new BigDecimal(parts[2]),
+                        Integer.parseInt(parts[1])));
+            }
+            return new Record(Long.parseLong(fields[0]), untext(fields[2]), Long.parseLong(fields[1]), lines);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static long crc(String payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    private static String text(String value) {
+        return ENCODER.encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String untext(String value) {
+        return new String(DECODER.decode(value), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,268 @@
+package com.assignment.sweet.service;
+
+import com.assignment.sweet.event.PurchaseRecordedEvent;
+import com.assignment.sweet.event.SweetChangedEvent;
+import com.assignment.sweet.model.Purchase;
+import com.assignment.sweet.model.StockReservation;
+import com.assignment.sweet.model.Sweet;
+import com.assignment.sweet.repository.PurchaseRepository;
+import com.assignment.sweet.repository.StockReservationRepository;
+import com.assignment.sweet.repository.SweetRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Time-limited stock holds: reserve units for {@code reservations.ttl}, then
+ * confirm them into a purchase, release them, or let them expire back into
+ * stock. Units are held and given back through the {@link InventoryEngine},
+ * so an engine that admits purchases in memory never sells them twice.
+ *
+ * Expiry is driven by a {@link DelayQueue} of (id, due time) entries, filled
+ * when a hold is placed and reloaded from the table on start, so a single
+ * thread wakes exactly when the next hold is due and never scans for it.
+ * Due holds are expired in batches, one transaction each. A sweep over the
+ * {@code expiresAt} index picks up holds placed by instances that have since
+ * gone away.
+ */
+@Slf4j
+@Service
+public class ReservationService implements SmartLifecycle {
+
+    static final int EXPIRY_BATCH = 500;
+
+    private final StockReservationRepository reservationRepository;
+    private final SweetRepository sweetRepository;
+    private final PurchaseRepository purchaseRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogVersionClock versionClock;
+    private final InventoryEngine inventoryEngine;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final int maxPerCustomer;
+    private final DelayQueue<Expiry> expiries = new DelayQueue<>();
+
+    private volatile boolean running;
+    private Thread expirer;
+
+    public ReservationService(StockReservationRepository reservationRepository, SweetRepository sweetRepository,
+            PurchaseRepository purchaseRepository, ApplicationEventPublisher eventPublisher,
+            CatalogVersionClock versionClock, InventoryEngine inventoryEngine,
+            PlatformTransactionManager transactionManager,
+            @Value("${reservations.ttl:PT10M}") Duration ttl,
+            @Value("${reservations.max-per-customer:20}") int maxPerCustomer) {
+        this.reservationRepository = reservationRepository;
+        this.sweetRepository = sweetRepository;
+        this.purchaseRepository = purchaseRepository;
+        this.eventPublisher = eventPublisher;
+        this.versionClock = versionClock;
+        this.inventoryEngine = inventoryEngine;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = ttl;
+        this.maxPerCustomer = maxPerCustomer;
+    }
+
+    /** Takes {@code quantity} units out of stock and holds them for the customer. */
+    public StockReservation reserve(Long sweetId, Integer quantity, String customerEmail) {
+        if (sweetId == null || quantity == null || quantity <= 0) {
+            throw new IllegalArgumentException("A reservation needs a sweet id and a positive quantity");
+        }
+        StockReservation reservation = transactionTemplate.execute(status -> {
+            if (reservationRepository.countByCustomerEmail(customerEmail) >= maxPerCustomer) {
+                throw new RuntimeException("Too many open reservations");
+            }
+            inventoryEngine.hold(sweetId, quantity);
+            Sweet sweet = sweetRepository.findById(sweetId)
+                    .orElseThrow(() -> new RuntimeException("Sweet not found"));
+            versionClock.observe(sweet.getCatalogVersion());
+            Instant now = Instant.now();
+            StockReservation saved = reservationRepository.save(new StockReservation(
+                    UUID.randomUUID().toString(), sweetId, customerEmail, quantity, now, now.plus(ttl)));
+            eventPublisher.publishEvent(SweetChangedEvent.upserted(sweet));
+            return saved;
+        });
+        expiries.add(Expiry.of(reservation));
+        return reservation;
+    }
+
+    /** Turns a live hold into a purchase at the sweet's current price. */
+    public Purchase confirm(String id, String customerEmail) {
+        return transactionTemplate.execute(status -> {
+            StockReservation reservation = owned(id, customerEmail);
+            if (reservationRepository.deleteIfLive(id, Instant.now()) == 0) {
+                throw new RuntimeException("Reservation has expired");
+            }
+            Sweet sweet = sweetRepository.findById(reservation.getSweetId())
+                    .orElseThrow(() -> new RuntimeException("Sweet not found"));
+            Purchase purchase = purchaseRepository.save(DatabaseInventoryEngine.purchaseOf(sweet,
+                    reservation.getQuantity(), customerEmail));
+            eventPublisher.publishEvent(new PurchaseRecordedEvent(purchase));
+            return purchase;
+        });
+    }
+
+    /** Gives a hold back before it expires. */
+    public void release(String id, String customerEmail) {
+        transactionTemplate.executeWithoutResult(status -> {
+            StockReservation reservation = owned(id, customerEmail);
+            if (reservationRepository.deleteAndCount(id) == 1) {
+                restore(new TreeMap<>(Map.of(reservation.getSweetId(), reservation.getQuantity())));
+            }
+        });
+    }
+
+    public List<StockReservation> getReservations(String customerEmail) {
+        return reservationRepository.findByCustomerEmailOrderByExpiresAt(customerEmail);
+    }
+
+    /** Holds waiting for their expiry on this instance, settled or not. */
+    public int scheduledExpiries() {
+        return expiries.size();
+    }
+
+    private StockReservation owned(String id, String customerEmail) {
+        return reservationRepository.findById(id)
+                .filter(reservation -> reservation.getCustomerEmail().equals(customerEmail))
+                .orElseThrow(() -> new RuntimeException("Reservation not found"));
+    }
+
+    /** Returns units to stock in ascending sweet id order, like checkouts take them. */
+    private void restore(SortedMap<Long, Integer> units) {
+        inventoryEngine.release(units);
+        for (Sweet sweet : sweetRepository.findAllById(units.keySet())) {
+            versionClock.observe(sweet.getCatalogVersion());
+            eventPublisher.publishEvent(SweetChangedEvent.upserted(sweet));
+        }
+    }
+
+    /**
+     * Expires the given holds if they are still open and due, putting their
+     * units back. Holds already confirmed or released are skipped.
+     */
+    void expire(List<Expiry> due) {
+        List<Expiry> notYetDue = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            Instant now = Instant.now();
+            SortedMap<Long, Integer> units = new TreeMap<>();
+            for (StockReservation reservation : reservationRepository.findAllById(
+                    due.stream().map(Expiry::id).toList())) {
+                if (reservationRepository.deleteIfExpired(reservation.getId(), now) == 1) {
+                    units.merge(reservation.getSweetId(), reservation.getQuantity(), Integer::sum);
+                } else if (reservation.getExpiresAt().isAfter(now)) {
+                    notYetDue.add(Expiry.of(reservation));
+                }
+            }
+            if (!units.isEmpty()) {
+                restore(units);
+                log.debug("Expired reservations returned {} unit(s) across {} sweet(s)",
+                        units.values().stream().mapToInt(Integer::intValue).sum(), units.size());
+            }
+        });
+        expiries.addAll(notYetDue);
+    }
+
+    private void expireLoop() {
+        List<Expiry> due = new ArrayList<>(EXPIRY_BATCH);
+        while (running) {
+            try {
+                Expiry first = expiries.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                due.add(first);
+                expiries.drainTo(due, EXPIRY_BATCH - 1);
+                expire(due);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // Put them back; the next attempt is a second away
+                log.warn("Expiring {} reservation(s) failed, retrying", due.size(), e);
+                long retryAt = System.currentTimeMillis() + 1000;
+                due.forEach(expiry -> expiries.add(new Expiry(expiry.id(), retryAt)));
+            } finally {
+                due.clear();
+            }
+        }
+    }
+
+    /** Queues holds whose due time passed without this instance knowing about them. */
+    @Scheduled(fixedDelayString = "${reservations.sweep-interval-ms:60000}")
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        List<String> ids = reservationRepository.findExpiredIds(Instant.ofEpochMilli(now),
+                PageRequest.of(0, EXPIRY_BATCH));
+        ids.forEach(id -> expiries.add(new Expiry(id, now)));
+    }
+
+    @Override
+    public void start() {
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<StockReservation> all = reservationRepository.streamAll()) {
+                all.forEach(reservation -> expiries.add(Expiry.of(reservation)));
+            }
+        });
+        if (!expiries.isEmpty()) {
+            log.info("Scheduled expiry of {} open reservation(s)", expiries.size());
+        }
+        running = true;
+        expirer = Thread.ofPlatform().name("reservation-expiry").daemon().start(this::expireLoop);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (expirer != null) {
+            try {
+                expirer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        expiries.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    record Expiry(String id, long dueAtMillis) implements Delayed {
+
+        /** Due on the first millisecond at or after the hold's expiry, never before it. */
+        static Expiry of(StockReservation reservation) {
+            Instant expiresAt = reservation.getExpiresAt();
+            long millis = expiresAt.toEpochMilli();
+            return new Expiry(reservation.getId(), expiresAt.getNano() % 1_000_000 == 0 ? millis : millis + 1);
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueAtMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueAtMillis, ((Expiry) other).dueAtMillis);
+        }
+    }
+}
@@ -0,0 +1,456 @@
+package com.assignment.sweet.service;
+
+import com.assignment.sweet.event.PurchaseRecordedEvent;
+import com.assignment.sweet.event.SweetChangedEvent;
+import com.assignment.sweet.model.Purchase;
+import com.assignment.sweet.model.Sweet;
+import com.assignment.sweet.repository.PurchaseRepository;
+import com.assignment.sweet.repository.SweetRepository;
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.InsufficientCapacityException;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.TimeoutException;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single-writer inventory engine ({@code inventory.engine=ring-buffer}) for
+ * sustained order rates on a few hot sweets.
+ *
+ * Purchases are published to a pre-allocated ring buffer and each sweet is
+ * owned by one of {@code writers} consumer threads, chosen by sweet id. The
+ * owner keeps that sweet's stock in a plain field that no other thread
+ * touches, so admitting or rejecting a purchase takes no lock and allocates
+ * nothing. Admitted purchases are persisted at the end of each batch the
+ * ring hands the writer (or every {@code batch-size} purchases): one
+ * transaction with a single conditional decrement per sweet and one batched
+ * insert of the {@link Purchase} rows. The caller waits on a completion
+ * handle that is settled after that commit, so answers are as durable as
+ * with the default engine.
+ *
+ * The conditional decrement keeps the database authoritative: if stock was
+ * taken elsewhere (a checkout or reservation) before the change event
+ * reached the writer, the batch is rolled back, the sweet's stock is reread
+ * and its purchases are admitted again against it. Checkouts keep their own
+ * transaction.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "inventory.engine", havingValue = "ring-buffer")
+public class RingBufferInventoryEngine implements InventoryEngine, SmartLifecycle {
+
+    private final SweetRepository sweetRepository;
+    private final PurchaseRepository purchaseRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogVersionClock versionClock;
+    private final TransactionTemplate transactionTemplate;
+    /**
+     * Plain (unproxied) instance; checkouts run it inside
+     * {@link #transactionTemplate}, holds inside the caller's transaction.
+     */
+    private final DatabaseInventoryEngine rowEngine;
+    private final int ringSize;
+    private final int writers;
+    private final int batchSize;
+
+    /** Set on writer threads, whose own commits must not be fed back to them. */
+    private final ThreadLocal<Boolean> onWriter = ThreadLocal.withInitial(() -> false);
+    private final AtomicLong commits = new AtomicLong();
+    private final AtomicLong purchases = new AtomicLong();
+
+    private volatile boolean running;
+    private Disruptor<RingEvent> disruptor;
+    private RingBuffer<RingEvent> ringBuffer;
+
+    public RingBufferInventoryEngine(SweetRepository sweetRepository, PurchaseRepository purchaseRepository,
+            ApplicationEventPublisher eventPublisher, CatalogVersionClock versionClock,
+            PlatformTransactionManager transactionManager,
+            @Value("${inventory.ring-buffer.size:16384}") int ringSize,
+            @Value("${inventory.ring-buffer.writers:4}") int writers,
+            @Value("${inventory.ring-buffer.batch-size:500}") int batchSize) {
+        if (Integer.bitCount(ringSize) != 1) {
+            throw new IllegalArgumentException("inventory.ring-buffer.size must be a power of two");
+        }
+        this.sweetRepository = sweetRepository;
+        this.purchaseRepository = purchaseRepository;
+        this.eventPublisher = eventPublisher;
+        this.versionClock = versionClock;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rowEngine = new DatabaseInventoryEngine(sweetRepository, purchaseRepository, eventPublisher,
+                versionClock);
+        this.ringSize = ringSize;
+        this.writers = writers;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public Sweet purchase(Long sweetId, int quantity, String customerEmail) {
+        CompletableFuture<Sweet> result = new CompletableFuture<>();
+        long sequence;
+        try {
+            sequence = running ? ringBuffer.tryNext() : -1;
+        } catch (InsufficientCapacityException e) {
+            sequence = -1;
+        }
+        if (sequence < 0) {
+            throw new RuntimeException("Too many purchases in progress, please try again");
+        }
+        try {
+            ringBuffer.get(sequence).purchase(writerOf(sweetId), sweetId, quantity, customerEmail, result);
+        } finally {
+            ringBuffer.publish(sequence);
+        }
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the purchase to commit");
+        }
+    }
+
+    @Override
+    public List<Purchase> checkout(SortedMap<Long, Integer> quantities, String customerEmail) {
+        return transactionTemplate.execute(status -> rowEngine.checkout(quantities, customerEmail));
+    }
+
+    @Override
+    public void hold(Long sweetId, int quantity) {
+        rowEngine.hold(sweetId, quantity);
+    }
+
+    @Override
+    public void release(SortedMap<Long, Integer> units) {
+        rowEngine.release(units);
+    }
+
+    /** Purchases commit on the engine's own threads. */
+    @Override
+    public boolean joinsCallerTransaction() {
+        return false;
+    }
+
+    /** Transactions committed so far; with {@link #purchaseCount()} shows how well batches fill. */
+    public long commitCount() {
+        return commits.get();
+    }
+
+    public long purchaseCount() {
+        return purchases.get();
+    }
+
+    /**
+     * Hands a write made through another path (restock, edit, delete,
+     * checkout) to the sweet's writer, queued behind the purchases already
+     * in the ring.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSweetChanged(SweetChangedEvent event) {
+        if (!running || onWriter.get()) {
+            // Published by a writer's own commit; it has settled its stock already
+            return;
+        }
+        long sequence = ringBuffer.next();
+        try {
+            ringBuffer.get(sequence).resync(writerOf(event.sweetId()), event);
+        } finally {
+            ringBuffer.publish(sequence);
+        }
+    }
+
+    private int writerOf(Long sweetId) {
+        return Math.floorMod(sweetId, writers);
+    }
+
+    @Override
+    public void start() {
+        disruptor = new Disruptor<>(RingEvent::new, ringSize,
+                Thread.ofPlatform().name("purchase-writer-", 0).daemon().factory(),
+                ProducerType.MULTI, new BlockingWaitStrategy());
+        Writer[] handlers = new Writer[writers];
+        for (int i = 0; i < writers; i++) {
+            handlers[i] = new Writer(i);
+        }
+        disruptor.handleEventsWith(handlers);
+        ringBuffer = disruptor.start();
+        running = true;
+    }
+
+    /** Lets the writers commit everything already in the ring, then stops them. */
+    @Override
+    public void stop() {
+        running = false;
+        if (disruptor == null) {
+            return;
+        }
+        try {
+            disruptor.shutdown(30, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Purchase writers did not drain the ring in time, halting them");
+            disruptor.halt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /** Starts ahead of the web server and stops after it, so requests it drains can still commit. */
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    /** A ring slot, reused for every purchase or resync published into it. */
+    private static final class RingEvent {
+        int writer;
+        Long sweetId;
+        int quantity;
+        String customerEmail;
+        CompletableFuture<Sweet> result;
+        /** Set for a resync: the change made outside the ring. */
+        SweetChangedEvent change;
+
+        void purchase(int writer, Long sweetId, int quantity, String customerEmail, CompletableFuture<Sweet> result) {
+            this.writer = writer;
+            this.sweetId = sweetId;
+            this.quantity = quantity;
+            this.customerEmail = customerEmail;
+            this.result = result;
+            this.change = null;
+        }
+
+        void resync(int writer, SweetChangedEvent change) {
+            this.writer = writer;
+            this.sweetId = change.sweetId();
+            this.quantity = 0;
+            this.customerEmail = null;
+            this.result = null;
+            this.change = change;
+        }
+
+        /** Drops references once settled, so the ring does not keep them alive; routing fields stay. */
+        void release() {
+            customerEmail = null;
+            result = null;
+            change = null;
+        }
+    }
+
+    /** Stock of one sweet as its writer sees it, with the row version it was last synced at. */
+    private static final class Slot {
+        int available;
+        long version;
+
+        Slot(Sweet sweet) {
+            sync(sweet);
+        }
+
+        void sync(Sweet sweet) {
+            available = sweet.getQuantity();
+            version = sweet.getCatalogVersion() != null ? sweet.getCatalogVersion() : 0L;
+        }
+    }
+
+    /** The database had less stock for a sweet than its writer admitted against. */
+    private static final class Shortfall extends RuntimeException {
+        final Long sweetId;
+
+        Shortfall(Long sweetId) {
+            super("Insufficient stock", null, false, false);
+            this.sweetId = sweetId;
+        }
+    }
+
+    /** The single consumer that owns every sweet routed to {@link #ordinal}. */
+    private final class Writer implements EventHandler<RingEvent> {
+        private final int ordinal;
+        private final Map<Long, Slot> slots = new HashMap<>();
+        private final List<RingEvent> batch;
+
+        Writer(int ordinal) {
+            this.ordinal = ordinal;
+            this.batch = new ArrayList<>(batchSize);
+        }
+
+        @Override
+        public void onStart() {
+            onWriter.set(true);
+        }
+
+        @Override
+        public void onEvent(RingEvent event, long sequence, boolean endOfBatch) {
+            if (event.writer == ordinal) {
+                if (event.change != null) {
+                    // Settle what was admitted first, so the slot holds no unpersisted purchases
+                    flush();
+                    resync(event);
+                } else {
+                    admit(event);
+                }
+            }
+            if (endOfBatch || batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        private void admit(RingEvent event) {
+            Slot slot;
+            try {
+                slot = slotOf(event.sweetId);
+            } catch (RuntimeException e) {
+                fail(event, e);
+                return;
+            }
+            if (slot == null) {
+                fail(event, new RuntimeException("Sweet not found"));
+            } else if (slot.available < event.quantity) {
+                fail(event, new RuntimeException("Insufficient stock"));
+            } else {
+                slot.available -= event.quantity;
+                batch.add(event);
+            }
+        }
+
+        private Slot slotOf(Long sweetId) {
+            Slot slot = slots.get(sweetId);
+            if (slot == null) {
+                Optional<Sweet> sweet = sweetRepository.findById(sweetId);
+                if (sweet.isEmpty()) {
+                    return null;
+                }
+                slot = new Slot(sweet.get());
+                slots.put(sweetId, slot);
+            }
+            return slot;
+        }
+
+        private void resync(RingEvent event) {
+            SweetChangedEvent change = event.change;
+            event.release();
+            if (change.isDeleted()) {
+                slots.remove(change.sweetId());
+                return;
+            }
+            Slot slot = slots.get(change.sweetId());
+            // An older snapshot than the writer's last commit would undo purchases
+            if (slot != null && change.version() > slot.version) {
+                slot.sync(change.sweet());
+            }
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                while (!batch.isEmpty()) {
+                    try {
+                        Map<Long, Sweet> after = transactionTemplate.execute(status -> apply(batch));
+                        commits.incrementAndGet();
+                        purchases.addAndGet(batch.size());
+                        after.values().forEach(sweet -> slots.get(sweet.getId()).sync(sweet));
+                        for (RingEvent event : batch) {
+                            CompletableFuture<Sweet> result = event.result;
+                            event.release();
+                            result.complete(after.get(event.sweetId));
+                        }
+                        batch.clear();
+                    } catch (Shortfall shortfall) {
+                        readmit(shortfall.sweetId);
+                    }
+                }
+            } catch (RuntimeException e) {
+                log.warn("Commit of {} purchases failed", batch.size(), e);
+                for (RingEvent event : batch) {
+                    // Reread on next use; the rollback left the database as it was
+                    slots.remove(event.sweetId);
+                    fail(event, new RuntimeException("Purchase was not processed, please try again"));
+                }
+                batch.clear();
+            }
+        }
+
+        /** Rereads a sweet after a shortfall and admits its batched purchases again, in arrival order. */
+        private void readmit(Long sweetId) {
+            Optional<Sweet> sweet = sweetRepository.findById(sweetId);
+            sweet.ifPresentOrElse(row -> slots.get(sweetId).sync(row), () -> slots.remove(sweetId));
+            Slot slot = slots.get(sweetId);
+            for (Iterator<RingEvent> it = batch.iterator(); it.hasNext();) {
+                RingEvent event = it.next();
+                if (!event.sweetId.equals(sweetId)) {
+                    continue;
+                }
+                if (slot != null && slot.available >= event.quantity) {
+                    slot.available -= event.quantity;
+                } else {
+                    it.remove();
+                    fail(event, new RuntimeException(slot == null ? "Sweet not found" : "Insufficient stock"));
+                }
+            }
+        }
+
+        /** The body of one batch's transaction; returns each sweet as committed. */
+        private Map<Long, Sweet> apply(List<RingEvent> events) {
+            // Ascending sweet id, like checkouts, so the two never lock rows in opposite orders
+            SortedMap<Long, Integer> units = new TreeMap<>();
+            for (RingEvent event : events) {
+                units.merge(event.sweetId, event.quantity, Integer::sum);
+            }
+            units.forEach((sweetId, quantity) -> {
+                if (sweetRepository.decrementStock(sweetId, quantity, versionClock.next()) == 0) {
+                    throw new Shortfall(sweetId);
+                }
+            });
+            Map<Long, Sweet> sweets = new HashMap<>();
+            sweetRepository.findAllById(units.keySet()).forEach(sweet -> sweets.put(sweet.getId(), sweet));
+            List<Purchase> rows = new ArrayList<>(events.size());
+            for (RingEvent event : events) {
+                rows.add(DatabaseInventoryEngine.purchaseOf(sweets.get(event.sweetId), event.quantity,
+                        event.customerEmail));
+            }
+            purchaseRepository.saveAll(rows);
+
+            for (Sweet sweet : sweets.values()) {
+                versionClock.observe(sweet.getCatalogVersion());
+                eventPublisher.publishEvent(SweetChangedEvent.upserted(sweet));
+            }
+            rows.forEach(purchase -> eventPublisher.publishEvent(new PurchaseRecordedEvent(purchase)));
+            return sweets;
+        }
+
+        private void fail(RingEvent event, RuntimeException error) {
+            CompletableFuture<Sweet> result = event.result;
+            event.release();
+            result.completeExceptionally(error);
+        }
+    }
+}
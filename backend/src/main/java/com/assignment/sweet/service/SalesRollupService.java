@@ -0,0 +1,533 @@
+package com.assignment.sweet.service;
+
+import com.assignment.sweet.dto.SaleRecord;
+import com.assignment.sweet.dto.SalesBucket;
+import com.assignment.sweet.dto.SalesGrouping;
+import com.assignment.sweet.dto.SalesTotal;
+import com.assignment.sweet.event.PurchaseRecordedEvent;
+import com.assignment.sweet.model.SalesRollup;
+import com.assignment.sweet.model.SalesRollup.Granularity;
+import com.assignment.sweet.model.SalesRollupProgress;
+import com.assignment.sweet.model.Sweet;
+import com.assignment.sweet.repository.PurchaseRepository;
+import com.assignment.sweet.repository.SalesRollupProgressRepository;
+import com.assignment.sweet.repository.SalesRollupRepository;
+import com.assignment.sweet.repository.SweetRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Pre-aggregated sales for the admin dashboard, so revenue and units over any
+ * range cost a bounded number of bucket rows instead of a scan of
+ * {@code purchases}.
+ *
+ * The purchases a transaction records are added to their minute and hour
+ * buckets just before it commits, one upsert per bucket in key order, so the
+ * rollups commit or roll back with the purchases and nothing is lost to a
+ * crash. A background pass compacts each day, once
+ * {@code sales.rollup.compaction-grace} past its end, from its hour buckets
+ * into day buckets, and each complete week from its days into a week bucket;
+ * how far it got is kept in {@link SalesRollupProgress}. A purchase from an
+ * earlier day locks those progress rows first, so it lands either in hours
+ * compaction has yet to sum or in the day and week buckets it produced.
+ * Minute buckets are dropped after {@code sales.rollup.minute-retention} and
+ * compacted hour buckets after {@code sales.rollup.hour-retention}.
+ *
+ * A range query is cut into whole weeks, days, hours and minutes, coarsest
+ * first, using only buckets that are complete and still kept, and each run
+ * of same-sized buckets is summed in one query. Edges older than the finer
+ * buckets' retention round out to the enclosing hour or day.
+ *
+ * {@link #rebuild} recomputes everything before the current minute from the
+ * {@code purchases} table, leaving what live purchases added after it. A
+ * purchase made before that minute but still committing while the rebuild
+ * starts, or written behind by the ledger, may be missed or counted twice.
+ */
+@Slf4j
+@Service
+public class SalesRollupService {
+
+    static final String UNCATEGORIZED = "Uncategorized";
+    static final int MAX_SERIES_BUCKETS = 2000;
+    /** Buckets in a series when no {@code from} is given. */
+    static final int DEFAULT_SERIES_BUCKETS = 30;
+    /** Start of a totals range when no {@code from} is given. */
+    static final LocalDateTime EPOCH = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    private static final List<Granularity> COARSEST_FIRST = List.of(Granularity.WEEK, Granularity.DAY,
+            Granularity.HOUR, Granularity.MINUTE);
+
+    private final SalesRollupRepository rollupRepository;
+    private final PurchaseRepository purchaseRepository;
+    private final SweetRepository sweetRepository;
+    private final SalesRollupProgressRepository progressRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration compactionGrace;
+    private final Duration minuteRetention;
+    private final Duration hourRetention;
+
+    /** Serializes the background writers: compaction and rebuild. */
+    private final ReentrantLock writeLock = new ReentrantLock();
+    /** While rebuilding, sales before this come from the rebuild's own scan. */
+    private volatile LocalDateTime rebuildCutoff;
+
+    public SalesRollupService(SalesRollupRepository rollupRepository, PurchaseRepository purchaseRepository,
+            SweetRepository sweetRepository, SalesRollupProgressRepository progressRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${sales.rollup.compaction-grace:PT10M}") Duration compactionGrace,
+            @Value("${sales.rollup.minute-retention:P2D}") Duration minuteRetention,
+            @Value("${sales.rollup.hour-retention:P90D}") Duration hourRetention) {
+        this.rollupRepository = rollupRepository;
+        this.purchaseRepository = purchaseRepository;
+        this.sweetRepository = sweetRepository;
+        this.progressRepository = progressRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.compactionGrace = compactionGrace;
+        this.minuteRetention = minuteRetention;
+        this.hourRetention = hourRetention;
+    }
+
+    /**
+     * Runs synchronously in the publishing transaction and is applied before
+     * it commits, so a failure here rolls the purchases back.
+     */
+    @EventListener
+    public void onPurchaseRecorded(PurchaseRecordedEvent event) {
+        SaleRecord sale = SaleRecord.of(event.purchase());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            transactionTemplate.executeWithoutResult(status -> record(List.of(sale)));
+            return;
+        }
+        pendingSales().add(sale);
+    }
+
+    @Scheduled(fixedDelayString = "${sales.rollup.compaction-interval-ms:300000}")
+    public void compact() {
+        writeLock.lock();
+        try {
+            compactClosedPeriods();
+            prune();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (rollupRepository.count() == 0 && purchaseRepository.findLastPurchaseId() != null) {
+            log.info("Sales rollups backfilled from {} purchases", rebuild());
+        }
+    }
+
+    /**
+     * Drops every rollup before the current minute and rebuilds them from the
+     * purchases table, a day at a time, then compacts. Returns the number of
+     * purchases read.
+     */
+    public long rebuild() {
+        writeLock.lock();
+        try {
+            LocalDateTime cutoff = Granularity.MINUTE.truncate(LocalDateTime.now());
+            rebuildCutoff = cutoff;
+            try {
+                LocalDateTime first = purchaseRepository.findFirstPurchaseDate();
+                LocalDateTime firstDay = Granularity.DAY.truncate(first == null ? cutoff : first);
+                transactionTemplate.executeWithoutResult(status -> {
+                    dropBefore(cutoff);
+                    // Nothing is compacted yet, so the rebuild only writes minutes and hours
+                    compactedThrough(Granularity.DAY, firstDay);
+                    compactedThrough(Granularity.WEEK, Granularity.WEEK.truncate(firstDay));
+                });
+                long read = 0;
+                LocalDateTime minutesFrom = cutoff.minus(minuteRetention);
+                for (LocalDateTime day = firstDay; day.isBefore(cutoff); day = day.plusDays(1)) {
+                    LocalDateTime from = day;
+                    LocalDateTime to = day.plusDays(1).isBefore(cutoff) ? day.plusDays(1) : cutoff;
+                    read += transactionTemplate.execute(status -> {
+                        try (Stream<SaleRecord> sales = purchaseRepository.streamSales(from, to)) {
+                            return apply(sales, minutesFrom);
+                        }
+                    });
+                }
+                compactClosedPeriods();
+                prune();
+                return read;
+            } finally {
+                rebuildCutoff = null;
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Sales per sweet or per category over {@code [from, to)}, best sellers
+     * first. Without bounds the range covers everything sold up to now.
+     */
+    public List<SalesTotal> totals(LocalDateTime from, LocalDateTime to, SalesGrouping grouping) {
+        to = to != null ? to : Granularity.MINUTE.next(Granularity.MINUTE.truncate(LocalDateTime.now()));
+        from = from != null ? from : EPOCH;
+        Map<Object, SalesTotal> totals = new LinkedHashMap<>();
+        for (Segment segment : segments(from, to, Granularity.WEEK)) {
+            for (SalesTotal row : rollupRepository.sumBySweet(segment.granularity(), segment.from(), segment.to())) {
+                Object key = grouping == SalesGrouping.SWEET ? row.getSweetId() : row.getCategory();
+                SalesTotal total = totals.computeIfAbsent(key, k -> new SalesTotal(
+                        grouping == SalesGrouping.SWEET ? row.getSweetId() : null, null, row.getCategory(), 0,
+                        BigDecimal.ZERO, 0));
+                total.setUnits(total.getUnits() + row.getUnits());
+                total.setRevenue(total.getRevenue().add(row.getRevenue()));
+                total.setOrderCount(total.getOrderCount() + row.getOrderCount());
+            }
+        }
+        if (grouping == SalesGrouping.SWEET) {
+            Map<Long, String> names = sweetRepository.findAllById(totals.values().stream()
+                    .map(SalesTotal::getSweetId).toList()).stream()
+                    .collect(Collectors.toMap(Sweet::getId, Sweet::getName));
+            totals.values().forEach(total -> total.setSweetName(names.get(total.getSweetId())));
+        }
+        return totals.values().stream()
+                .sorted(Comparator.comparing(SalesTotal::getRevenue).reversed())
+                .toList();
+    }
+
+    /**
+     * Sales per hour, day or week over {@code [from, to)}, optionally of one
+     * sweet or category. Buckets without sales are left out. Without bounds
+     * the series ends with the current bucket and covers
+     * {@value #DEFAULT_SERIES_BUCKETS} buckets.
+     */
+    public List<SalesBucket> series(Granularity granularity, LocalDateTime from, LocalDateTime to, Long sweetId,
+            String category) {
+        if (granularity == Granularity.MINUTE) {
+            throw new IllegalArgumentException("Series are available per HOUR, DAY or WEEK");
+        }
+        to = to != null ? to : granularity.next(granularity.truncate(LocalDateTime.now()));
+        if (from == null) {
+            from = granularity.truncate(to);
+            for (int i = 0; i < DEFAULT_SERIES_BUCKETS; i++) {
+                from = granularity.truncate(from.minusSeconds(1));
+            }
+        }
+        long buckets = Duration.between(from, to).toHours()
+                / Duration.between(EPOCH, granularity.next(EPOCH)).toHours();
+        if (buckets > MAX_SERIES_BUCKETS) {
+            throw new IllegalArgumentException("At most " + MAX_SERIES_BUCKETS + " buckets per series");
+        }
+        Map<LocalDateTime, SalesBucket> series = new TreeMap<>();
+        for (Segment segment : segments(from, to, granularity)) {
+            for (SalesBucket row : rollupRepository.sumByBucket(segment.granularity(), segment.from(), segment.to(),
+                    sweetId, category)) {
+                SalesBucket bucket = series.computeIfAbsent(granularity.truncate(row.getBucketStart()),
+                        start -> new SalesBucket(start, 0, BigDecimal.ZERO, 0));
+                bucket.setUnits(bucket.getUnits() + row.getUnits());
+                bucket.setRevenue(bucket.getRevenue().add(row.getRevenue()));
+                bucket.setOrderCount(bucket.getOrderCount() + row.getOrderCount());
+            }
+        }
+        return new ArrayList<>(series.values());
+    }
+
+    /**
+     * Cuts {@code [from, to)} into runs of whole buckets no coarser than
+     * {@code coarsest}, taking the coarsest bucket that is complete, kept and
+     * fits at each step. Runs of one granularity are merged so each costs a
+     * single range query.
+     */
+    List<Segment> segments(LocalDateTime from, LocalDateTime to, Granularity coarsest) {
+        LocalDateTime start = Granularity.MINUTE.truncate(from);
+        LocalDateTime end = Granularity.MINUTE.truncate(to);
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("'from' must be at least a minute before 'to'");
+        }
+        Retention retention = retention();
+        List<Segment> segments = new ArrayList<>();
+        LocalDateTime cursor = start;
+        while (cursor.isBefore(end)) {
+            Granularity chosen = null;
+            LocalDateTime bucket = cursor;
+            for (Granularity g : COARSEST_FIRST) {
+                if (g.compareTo(coarsest) <= 0 && g.truncate(cursor).equals(cursor)
+                        && !g.next(cursor).isAfter(end) && retention.has(g, cursor)) {
+                    chosen = g;
+                    break;
+                }
+            }
+            if (chosen == null) {
+                // The buckets that would fit are gone this far back: round out to the finest still kept
+                for (Granularity g : COARSEST_FIRST.reversed()) {
+                    if (g.compareTo(coarsest) <= 0 && retention.has(g, g.truncate(cursor))) {
+                        chosen = g;
+                        bucket = segments.isEmpty() ? g.truncate(cursor) : cursor;
+                        break;
+                    }
+                }
+                if (chosen == null) {
+                    throw new IllegalArgumentException(coarsest + " sales are no longer kept for " + cursor);
+                }
+            }
+            LocalDateTime next = chosen.next(chosen.truncate(cursor));
+            Segment last = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+            if (last != null && last.granularity() == chosen && last.to().equals(bucket)) {
+                segments.set(segments.size() - 1, new Segment(chosen, last.from(), next));
+            } else {
+                segments.add(new Segment(chosen, bucket, next));
+            }
+            cursor = next;
+        }
+        return segments;
+    }
+
+    /** Adds one transaction's sales to their buckets, skipping what a running rebuild reads itself. */
+    private void record(List<SaleRecord> sales) {
+        LocalDateTime cutoff = rebuildCutoff;
+        List<SaleRecord> live = cutoff == null ? sales
+                : sales.stream().filter(sale -> !sale.createdDate().isBefore(cutoff)).toList();
+        LocalDateTime today = Granularity.DAY.truncate(LocalDateTime.now());
+        if (live.stream().anyMatch(sale -> sale.createdDate().isBefore(today))) {
+            // Compaction holds these while it sums a period, so a late sale waits and then sees where it went
+            progressRepository.findForUpdate(Granularity.DAY);
+            progressRepository.findForUpdate(Granularity.WEEK);
+        }
+        apply(live.stream(), null);
+    }
+
+    /** The sales of the current transaction, registering them to be recorded before it commits. */
+    private List<SaleRecord> pendingSales() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingSales pending && pending.owner() == this) {
+                return pending.sales;
+            }
+        }
+        PendingSales pending = new PendingSales();
+        TransactionSynchronizationManager.registerSynchronization(pending);
+        return pending.sales;
+    }
+
+    /**
+     * Deletes every bucket before {@code cutoff}, and takes the sales before
+     * it out of the hour bucket it falls in, which also holds live sales
+     * after it. That hour's minute buckets hold exactly those sales.
+     */
+    private void dropBefore(LocalDateTime cutoff) {
+        LocalDateTime hour = Granularity.HOUR.truncate(cutoff);
+        for (SalesTotal part : rollupRepository.sumBySweet(Granularity.MINUTE, hour, cutoff)) {
+            rollupRepository.add(Granularity.HOUR, hour, part.getSweetId(), -part.getUnits(),
+                    part.getRevenue().negate(), -part.getOrderCount());
+        }
+        rollupRepository.deleteBefore(Granularity.MINUTE, cutoff);
+        rollupRepository.deleteBefore(Granularity.HOUR, hour);
+        rollupRepository.deleteBefore(Granularity.DAY, cutoff);
+        rollupRepository.deleteBefore(Granularity.WEEK, cutoff);
+    }
+
+    /**
+     * Adds sales to their minute (only from {@code minutesFrom}, if given) and
+     * hour buckets, and to the day and week buckets of periods already
+     * compacted, in the caller's transaction. Returns the number of sales.
+     */
+    private long apply(Stream<SaleRecord> sales, LocalDateTime minutesFrom) {
+        Retention retention = retention();
+        // Sorted, so transactions sharing buckets lock them in the same order
+        Map<BucketKey, SalesRollup> deltas = new TreeMap<>();
+        long[] count = { 0 };
+        sales.forEach(sale -> {
+            count[0]++;
+            LocalDateTime at = sale.createdDate();
+            if (minutesFrom == null || !at.isBefore(minutesFrom)) {
+                add(deltas, Granularity.MINUTE, at, sale);
+            }
+            add(deltas, Granularity.HOUR, at, sale);
+            // Late sales for a period that was already compacted
+            if (at.isBefore(retention.daysThrough())) {
+                add(deltas, Granularity.DAY, at, sale);
+            }
+            if (at.isBefore(retention.weeksThrough())) {
+                add(deltas, Granularity.WEEK, at, sale);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+        Map<Long, String> categories = categories(deltas.values().stream().map(SalesRollup::getSweetId).toList());
+        for (SalesRollup delta : deltas.values()) {
+            if (add(delta) == 0) {
+                rollupRepository.insertIfAbsent(delta.getGranularity(), delta.getBucketStart(), delta.getSweetId(),
+                        categories.getOrDefault(delta.getSweetId(), UNCATEGORIZED));
+                add(delta);
+            }
+        }
+        return count[0];
+    }
+
+    private int add(SalesRollup delta) {
+        return rollupRepository.add(delta.getGranularity(), delta.getBucketStart(), delta.getSweetId(),
+                delta.getUnits(), delta.getRevenue(), delta.getOrderCount());
+    }
+
+    private static void add(Map<BucketKey, SalesRollup> deltas, Granularity granularity, LocalDateTime at,
+            SaleRecord sale) {
+        LocalDateTime start = granularity.truncate(at);
+        SalesRollup delta = deltas.computeIfAbsent(new BucketKey(granularity, start, sale.sweetId()),
+                key -> new SalesRollup(null, granularity, start, sale.sweetId(), null, 0L, BigDecimal.ZERO, 0L));
+        delta.setUnits(delta.getUnits() + sale.quantity());
+        delta.setRevenue(delta.getRevenue().add(sale.revenue()));
+        delta.setOrderCount(delta.getOrderCount() + 1);
+    }
+
+    /** Compacts every day past its grace period, then every complete week. */
+    private void compactClosedPeriods() {
+        LocalDateTime closedBefore = Granularity.DAY.truncate(LocalDateTime.now().minus(compactionGrace));
+        Retention start = retention();
+        if (!progressRepository.existsById(Granularity.WEEK)) {
+            // Pin both starting points before the day progress moves the week default along with it
+            transactionTemplate.executeWithoutResult(status -> {
+                compactedThrough(Granularity.DAY, start.daysThrough());
+                compactedThrough(Granularity.WEEK, start.weeksThrough());
+            });
+        }
+        LocalDateTime days = start.daysThrough();
+        while (days.isBefore(closedBefore)) {
+            LocalDateTime day = days;
+            transactionTemplate.executeWithoutResult(status -> {
+                // Late sales for this day wait until it is summed, then go to the day bucket
+                progressRepository.findForUpdate(Granularity.DAY);
+                rollUp(Granularity.HOUR, Granularity.DAY, day);
+                compactedThrough(Granularity.DAY, day.plusDays(1));
+            });
+            days = day.plusDays(1);
+        }
+        LocalDateTime weeks = start.weeksThrough();
+        while (!Granularity.WEEK.next(weeks).isAfter(days)) {
+            LocalDateTime week = weeks;
+            transactionTemplate.executeWithoutResult(status -> {
+                progressRepository.findForUpdate(Granularity.WEEK);
+                rollUp(Granularity.DAY, Granularity.WEEK, week);
+                compactedThrough(Granularity.WEEK, Granularity.WEEK.next(week));
+            });
+            weeks = Granularity.WEEK.next(week);
+        }
+    }
+
+    /** Replaces the {@code target} bucket starting at {@code start} with the sum of its {@code source} buckets. */
+    private void rollUp(Granularity source, Granularity target, LocalDateTime start) {
+        LocalDateTime end = target.next(start);
+        rollupRepository.deleteRange(target, start, end);
+        Map<Long, SalesRollup> rows = new HashMap<>();
+        for (SalesTotal part : rollupRepository.sumBySweet(source, start, end)) {
+            SalesRollup row = rows.computeIfAbsent(part.getSweetId(), id -> new SalesRollup(null, target, start, id,
+                    part.getCategory(), 0L, BigDecimal.ZERO, 0L));
+            row.setUnits(row.getUnits() + part.getUnits());
+            row.setRevenue(row.getRevenue().add(part.getRevenue()));
+            row.setOrderCount(row.getOrderCount() + part.getOrderCount());
+        }
+        rollupRepository.saveAll(rows.values());
+    }
+
+    private void prune() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime daysThrough = retention().daysThrough();
+        LocalDateTime hoursBefore = now.minus(hourRetention);
+        transactionTemplate.executeWithoutResult(status -> {
+            rollupRepository.deleteBefore(Granularity.MINUTE, now.minus(minuteRetention));
+            // Hours of days not compacted yet are all that day has
+            rollupRepository.deleteBefore(Granularity.HOUR,
+                    hoursBefore.isBefore(daysThrough) ? hoursBefore : daysThrough);
+        });
+    }
+
+    private Map<Long, String> categories(List<Long> sweetIds) {
+        return sweetRepository.findAllById(sweetIds.stream().distinct().toList()).stream()
+                .collect(Collectors.toMap(Sweet::getId, Sweet::getCategory, (a, b) -> a));
+    }
+
+    private void compactedThrough(Granularity granularity, LocalDateTime through) {
+        progressRepository.save(new SalesRollupProgress(granularity, through));
+    }
+
+    /** Which buckets exist and are complete, read from the compaction progress. */
+    private Retention retention() {
+        LocalDateTime daysThrough = progressRepository.findById(Granularity.DAY)
+                .map(SalesRollupProgress::getCompactedThrough)
+                .orElseGet(() -> {
+                    // Nothing compacted yet: compaction starts at the first day with sales
+                    LocalDateTime first = rollupRepository.findFirstBucket(Granularity.HOUR);
+                    return Granularity.DAY.truncate(first != null ? first : LocalDateTime.now());
+                });
+        LocalDateTime weeksThrough = progressRepository.findById(Granularity.WEEK)
+                .map(SalesRollupProgress::getCompactedThrough)
+                .orElseGet(() -> Granularity.WEEK.truncate(daysThrough));
+        LocalDateTime now = LocalDateTime.now();
+        return new Retention(daysThrough, weeksThrough, now.minus(minuteRetention), now.minus(hourRetention));
+    }
+
+    record Segment(Granularity granularity, LocalDateTime from, LocalDateTime to) {
+    }
+
+    private record BucketKey(Granularity granularity, LocalDateTime start, Long sweetId)
+            implements Comparable<BucketKey> {
+
+        private static final Comparator<BucketKey> ORDER = Comparator.comparing(BucketKey::granularity)
+                .thenComparing(BucketKey::start).thenComparing(BucketKey::sweetId);
+
+        @Override
+        public int compareTo(BucketKey other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    /** One transaction's sales until it is about to commit. */
+    private final class PendingSales implements TransactionSynchronization {
+        private final List<SaleRecord> sales = new ArrayList<>();
+
+        SalesRollupService owner() {
+            return SalesRollupService.this;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            record(sales);
+        }
+
+        /** After the customer summaries, so every purchase transaction takes its locks in the same order. */
+        @Override
+        public int getOrder() {
+            return CustomerSummaryService.SYNCHRONIZATION_ORDER + 1;
+        }
+    }
+
+    private record Retention(LocalDateTime daysThrough, LocalDateTime weeksThrough, LocalDateTime minutesFrom,
+            LocalDateTime hoursFrom) {
+
+        /** Whether the bucket of {@code granularity} starting at {@code start} is complete and kept. */
+        boolean has(Granularity granularity, LocalDateTime start) {
+            return switch (granularity) {
+                case MINUTE -> !start.isBefore(minutesFrom);
+                case HOUR -> !start.isBefore(hoursFrom) || !start.isBefore(daysThrough);
+                case DAY -> !granularity.next(start).isAfter(daysThrough);
+                case WEEK -> !granularity.next(start).isAfter(weeksThrough);
+            };
+        }
+    }
+}
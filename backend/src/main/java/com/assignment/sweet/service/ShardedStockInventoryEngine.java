@@ -0,0 +1,93 @@
+package com.assignment.sweet.service;
+
+import com.assignment.sweet.event.PurchaseRecordedEvent;
+import com.assignment.sweet.event.SweetChangedEvent;
+import com.assignment.sweet.model.Purchase;
+import com.assignment.sweet.model.Sweet;
+import com.assignment.sweet.repository.PurchaseRepository;
+import com.assignment.sweet.repository.SweetRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.SortedMap;
+
+/**
+ * Sharded-stock inventory engine ({@code inventory.engine=sharded}). Sweets
+ * an admin has split into stock slots ({@code PUT /api/sweets/{id}/stock-slots})
+ * are sold from {@link StockSlots}, so buyers of one hot sweet contend on N
+ * slot rows rather than one. Everything else, and any purchase no single
+ * slot can serve, goes through the default conditional update on the
+ * sweet's row, after taking slot stock back to it if needed. Checkouts and
+ * reservation holds do the same for each line.
+ */
+@Component
+@ConditionalOnProperty(name = "inventory.engine", havingValue = "sharded")
+public class ShardedStockInventoryEngine implements InventoryEngine {
+
+    private final SweetRepository sweetRepository;
+    private final PurchaseRepository purchaseRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StockSlots stockSlots;
+    private final TransactionTemplate transactionTemplate;
+    /** Plain (unproxied) instance, run inside {@link #transactionTemplate}. */
+    private final DatabaseInventoryEngine rowEngine;
+
+    public ShardedStockInventoryEngine(SweetRepository sweetRepository, PurchaseRepository purchaseRepository,
+            ApplicationEventPublisher eventPublisher, CatalogVersionClock versionClock, StockSlots stockSlots,
+            PlatformTransactionManager transactionManager) {
+        this.sweetRepository = sweetRepository;
+        this.purchaseRepository = purchaseRepository;
+        this.eventPublisher = eventPublisher;
+        this.stockSlots = stockSlots;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rowEngine = new DatabaseInventoryEngine(sweetRepository, purchaseRepository, eventPublisher,
+                versionClock);
+    }
+
+    @Override
+    public Sweet purchase(Long sweetId, int quantity, String customerEmail) {
+        return transactionTemplate.execute(status -> {
+            Sweet sweet = sweetRepository.findById(sweetId).orElseThrow(() -> new RuntimeException("Sweet not found"));
+            if (sweet.getAllottedStock() > 0 && sweet.getStockSlots() > 1 && stockSlots.take(sweet, quantity)) {
+                Purchase purchase = DatabaseInventoryEngine.purchaseOf(sweet, quantity, customerEmail);
+                purchaseRepository.save(purchase);
+                Sweet after = stockSlots.afterSlotSale(sweet);
+                eventPublisher.publishEvent(SweetChangedEvent.upserted(after));
+                eventPublisher.publishEvent(new PurchaseRecordedEvent(purchase));
+                return after;
+            }
+            if (sweet.getAllottedStock() > 0) {
+                if (stockSlots.available(sweet) < quantity) {
+                    throw new RuntimeException("Insufficient stock");
+                }
+                stockSlots.ensureUnallotted(sweetId, quantity);
+            }
+            return stockSlots.withAvailable(rowEngine.purchase(sweetId, quantity, customerEmail));
+        });
+    }
+
+    @Override
+    public List<Purchase> checkout(SortedMap<Long, Integer> quantities, String customerEmail) {
+        return transactionTemplate.execute(status -> {
+            // Locks the rows in ascending id order, as the checkout itself does
+            quantities.forEach(stockSlots::ensureUnallotted);
+            return rowEngine.checkout(quantities, customerEmail);
+        });
+    }
+
+    /** Takes slot stock back to the row first if the rest of it falls short, in the caller's transaction. */
+    @Override
+    public void hold(Long sweetId, int quantity) {
+        stockSlots.ensureUnallotted(sweetId, quantity);
+        rowEngine.hold(sweetId, quantity);
+    }
+
+    @Override
+    public void release(SortedMap<Long, Integer> units) {
+        rowEngine.release(units);
+    }
+}
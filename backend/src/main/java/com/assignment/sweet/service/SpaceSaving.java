@@ -0,0 +1,126 @@
+package com.assignment.sweet.service;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving heavy-hitters sketch over sweet ids with weighted increments.
+ * It keeps at most {@code capacity} counters. An id without a counter, once
+ * all are taken, replaces the smallest one and inherits its count as the
+ * error. Every estimate is at least the true weight and at most
+ * {@code error} above it, and any id holding more than
+ * {@code total / capacity} is guaranteed a counter.
+ *
+ * Not thread-safe; callers synchronize.
+ */
+final class SpaceSaving {
+
+    /** Estimated weight of one id, of which up to {@code error} may belong to ids it replaced. */
+    record Counter(long id, double count, double error) {
+    }
+
+    private final int capacity;
+    private final Map<Long, double[]> counters;
+    private double total;
+
+    SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    int size() {
+        return counters.size();
+    }
+
+    /** Sum of every weight added, replaced counters included. */
+    double total() {
+        return total;
+    }
+
+    void add(long id, double weight) {
+        total += weight;
+        double[] counter = counters.get(id);
+        if (counter != null) {
+            counter[0] += weight;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(id, new double[] { weight, 0 });
+            return;
+        }
+        // Linear scan for the minimum: capacity is small and evictions are cheap next to a purchase
+        Map.Entry<Long, double[]> min = null;
+        for (Map.Entry<Long, double[]> entry : counters.entrySet()) {
+            if (min == null || entry.getValue()[0] < min.getValue()[0]) {
+                min = entry;
+            }
+        }
+        double floor = min.getValue()[0];
+        counters.remove(min.getKey());
+        counters.put(id, new double[] { floor + weight, floor });
+    }
+
+    /** The {@code n} largest counters, largest first. */
+    List<Counter> top(int n) {
+        List<Counter> all = new ArrayList<>(counters.size());
+        counters.forEach((id, counter) -> all.add(new Counter(id, counter[0], counter[1])));
+        all.sort(Comparator.comparingDouble(Counter::count).reversed().thenComparingLong(Counter::id));
+        return all.size() > n ? all.subList(0, n) : all;
+    }
+
+    /** Multiplies every count, error and the total by {@code factor}. */
+    void scale(double factor) {
+        for (double[] counter : counters.values()) {
+            counter[0] *= factor;
+            counter[1] *= factor;
+        }
+        total *= factor;
+    }
+
+    void clear() {
+        counters.clear();
+        total = 0;
+    }
+
+    void write(DataOutput out) throws IOException {
+        out.writeDouble(total);
+        out.writeInt(counters.size());
+        for (Map.Entry<Long, double[]> entry : counters.entrySet()) {
+            out.writeLong(entry.getKey());
+            out.writeDouble(entry.getValue()[0]);
+            out.writeDouble(entry.getValue()[1]);
+        }
+    }
+
+    /**
+     * Replaces the contents with a sketch written by {@link #write}. Of a
+     * larger saved sketch only the largest {@code capacity} counters are kept;
+     * the ones dropped are no bigger than any kept, as the sketch requires.
+     */
+    void read(DataInput in) throws IOException {
+        clear();
+        total = in.readDouble();
+        int size = in.readInt();
+        List<Counter> saved = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            saved.add(new Counter(in.readLong(), in.readDouble(), in.readDouble()));
+        }
+        saved.sort(Comparator.comparingDouble(Counter::count).reversed());
+        for (Counter counter : saved.subList(0, Math.min(size, capacity))) {
+            counters.put(counter.id(), new double[] { counter.count(), counter.error() });
+        }
+    }
+}
@@ -0,0 +1,588 @@
+package com.assignment.sweet.service;
+
+import com.assignment.sweet.event.PurchaseRecordedEvent;
+import com.assignment.sweet.event.SweetChangedEvent;
+import com.assignment.sweet.model.InventoryCheckpoint;
+import com.assignment.sweet.model.Purchase;
+import com.assignment.sweet.model.Sweet;
+import com.assignment.sweet.repository.InventoryCheckpointRepository;
+import com.assignment.sweet.repository.PurchaseRepository;
+import com.assignment.sweet.repository.SweetRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind inventory engine ({@code inventory.engine=ledger}) for flash
+ * sales on a few hot sweets, where a database round trip per purchase
+ * serializes every buyer on one row lock.
+ *
+ * Stock is held in memory, one lock per sweet, and a purchase is admitted or
+ * rejected there. An admitted purchase is appended to a {@link PurchaseJournal}
+ * (fsync'd, with group commit) before the caller is answered; a background
+ * flusher then applies the stock decrements and inserts the {@link Purchase}
+ * rows in batches, one transaction per batch, together with an
+ * {@link InventoryCheckpoint} of the last journal sequence applied. On start
+ * the journal is replayed past that checkpoint, so an admitted purchase is
+ * persisted exactly once even across a crash.
+ *
+ * Writes made through other paths (restock, edit, delete) reach the ledger
+ * as {@link SweetChangedEvent}s and re-seed the sweet's counter from the
+ * database minus what is admitted but not yet flushed. Reservation holds
+ * take from the counter before the row, so the two never sell the same
+ * units. Catalog feeds see a purchase once its batch commits. The ledger
+ * assumes it is the only purchase path for the database, i.e. a single
+ * application node.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "inventory.engine", havingValue = "ledger")
+public class StockLedgerEngine implements InventoryEngine, SmartLifecycle {
+
+    static final String CHECKPOINT = "stock-ledger";
+
+    /** The journal is emptied once everything in it is flushed and it has grown past this size. */
+    private static final long JOURNAL_TRUNCATE_BYTES = 4L * 1024 * 1024;
+
+    private final SweetRepository sweetRepository;
+    private final PurchaseRepository purchaseRepository;
+    private final InventoryCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogVersionClock versionClock;
+    private final PurchaseJournal journal;
+    private final long flushIntervalMs;
+    private final int batchSize;
+
+    private final Map<Long, Slot> slots = new ConcurrentHashMap<>();
+    /** Journaled but not yet flushed, in sequence order. */
+    private final BlockingDeque<PurchaseJournal.Record> unflushed = new LinkedBlockingDeque<>();
+    private final ReentrantLock appendLock = new ReentrantLock();
+    /** Held while a batch commits and its slots settle, and while a slot is re-seeded from the database. */
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    public StockLedgerEngine(SweetRepository sweetRepository, PurchaseRepository purchaseRepository,
+            InventoryCheckpointRepository checkpointRepository, PlatformTransactionManager transactionManager,
+            ApplicationEventPublisher eventPublisher, CatalogVersionClock versionClock,
+            @Value("${inventory.ledger.journal:data/purchase-journal.log}") String journalFile,
+            @Value("${inventory.ledger.fsync:true}") boolean fsync,
+            @Value("${inventory.ledger.flush-interval-ms:20}") long flushIntervalMs,
+            @Value("${inventory.ledger.batch-size:500}") int batchSize) {
+        this.sweetRepository = sweetRepository;
+        this.purchaseRepository = purchaseRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.versionClock = versionClock;
+        this.journal = new PurchaseJournal(Path.of(journalFile), fsync);
+        this.flushIntervalMs = flushIntervalMs;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public Sweet purchase(Long sweetId, int quantity, String customerEmail) {
+        Slot slot = slots.get(sweetId);
+        if (slot == null) {
+            throw new RuntimeException("Sweet not found");
+        }
+        PurchaseJournal.Line line;
+        Sweet after;
+        slot.lock.lock();
+        try {
+            if (slot.removed) {
+                throw new RuntimeException("Sweet not found");
+            }
+            if (slot.available < quantity) {
+                throw new RuntimeException("Insufficient stock");
+            }
+            line = slot.take(quantity);
+            after = slot.view();
+        } finally {
+            slot.lock.unlock();
+        }
+        record(customerEmail, List.of(line));
+        return after;
+    }
+
+    /** Slots are locked in ascending sweet id order, so overlapping baskets cannot deadlock. */
+    @Override
+    public List<Purchase> checkout(SortedMap<Long, Integer> quantities, String customerEmail) {
+        List<Slot> basket = new ArrayList<>(quantities.size());
+        quantities.keySet().forEach(id -> {
+            Slot slot = slots.get(id);
+            if (slot == null) {
+                throw new RuntimeException("Sweet not found: " + id);
+            }
+            basket.add(slot);
+        });
+        List<PurchaseJournal.Line> lines = new ArrayList<>(basket.size());
+        int locked = 0;
+        try {
+            for (Slot slot : basket) {
+                slot.lock.lock();
+                locked++;
+            }
+            for (Slot slot : basket) {
+                if (slot.removed) {
+                    throw new RuntimeException("Sweet not found: " + slot.sweet.getId());
+                }
+                if (slot.available < quantities.get(slot.sweet.getId())) {
+                    throw new RuntimeException("Insufficient stock for sweet " + slot.sweet.getId());
+                }
+            }
+            for (Slot slot : basket) {
+                lines.add(slot.take(quantities.get(slot.sweet.getId())));
+            }
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                basket.get(i).lock.unlock();
+            }
+        }
+        PurchaseJournal.Record record = record(customerEmail, lines);
+        return lines.stream().map(line -> purchaseOf(record, line)).toList();
+    }
+
+    /** Purchases commit on the engine's own threads. */
+    @Override
+    public boolean joinsCallerTransaction() {
+        return false;
+    }
+
+    /**
+     * Takes the units off the sweet's counter first, so the ledger cannot
+     * admit them as well, then off its row in the caller's transaction. Until
+     * that transaction ends they count as held, which a re-seed leaves out;
+     * a rollback gives them back to the counter.
+     */
+    @Override
+    public void hold(Long sweetId, int quantity) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Stock can only be held inside a transaction");
+        }
+        Slot slot = slots.get(sweetId);
+        if (slot == null) {
+            throw new RuntimeException("Sweet not found");
+        }
+        slot.lock.lock();
+        try {
+            if (slot.removed) {
+                throw new RuntimeException("Sweet not found");
+            }
+            if (slot.available < quantity) {
+                throw new RuntimeException("Insufficient stock");
+            }
+            slot.available -= quantity;
+            slot.held += quantity;
+        } finally {
+            slot.lock.unlock();
+        }
+        TransactionSynchronizationManager.registerSynchronization(new Hold(slot, quantity));
+        // Cannot fall short: the row still counts every unit the counter does, and unflushed ones too
+        if (sweetRepository.decrementStock(sweetId, quantity, versionClock.next()) == 0) {
+            throw new RuntimeException("Sweet not found");
+        }
+    }
+
+    /** The change events the caller publishes re-seed the counters once its transaction commits. */
+    @Override
+    public void release(SortedMap<Long, Integer> units) {
+        units.forEach((sweetId, quantity) -> sweetRepository.incrementStock(sweetId, quantity, versionClock.next()));
+    }
+
+    /**
+     * Journals an admission and queues it for the flusher. Only the append
+     * happens under the shared lock; the fsync is shared by every admission
+     * waiting on it.
+     */
+    private PurchaseJournal.Record record(String customerEmail, List<PurchaseJournal.Line> lines) {
+        PurchaseJournal.Record record;
+        appendLock.lock();
+        try {
+            record = journal.append(customerEmail, System.currentTimeMillis(), lines);
+            unflushed.addLast(record);
+        } catch (IOException e) {
+            lines.forEach(this::giveBack);
+            throw new UncheckedIOException("Purchase could not be recorded", e);
+        } finally {
+            appendLock.unlock();
+        }
+        try {
+            journal.sync(record.sequence());
+        } catch (IOException e) {
+            // Already queued, so it is still written behind; only crash safety is lost
+            log.error("Could not force the purchase journal", e);
+        }
+        return record;
+    }
+
+    private void giveBack(PurchaseJournal.Line line) {
+        Slot slot = slots.get(line.sweetId());
+        if (slot != null) {
+            slot.lock.lock();
+            try {
+                slot.available += line.quantity();
+                slot.pending -= line.quantity();
+            } finally {
+                slot.lock.unlock();
+            }
+        }
+    }
+
+    /** Writes up to one batch of queued purchases to the database; returns how many were taken. */
+    public int flush() {
+        syncLock.lock();
+        try {
+            List<PurchaseJournal.Record> batch = new ArrayList<>(Math.min(batchSize, unflushed.size()));
+            unflushed.drainTo(batch, batchSize);
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            List<Sweet> written;
+            try {
+                written = persist(batch);
+            } catch (RuntimeException e) {
+                for (int i = batch.size() - 1; i >= 0; i--) {
+                    unflushed.addFirst(batch.get(i));
+                }
+                throw e;
+            }
+            settle(batch, written);
+            truncateJournalIfDrained();
+            return batch.size();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Applies a batch in one transaction. Records at or below the stored
+     * checkpoint were written by an earlier run and are skipped.
+     */
+    private List<Sweet> persist(List<PurchaseJournal.Record> batch) {
+        return transactionTemplate.execute(status -> {
+            long applied = appliedSequence();
+            SortedMap<Long, Integer> taken = new TreeMap<>();
+            List<Purchase> purchases = new ArrayList<>();
+            long last = applied;
+            for (PurchaseJournal.Record record : batch) {
+                if (record.sequence() <= applied) {
+                    continue;
+                }
+                for (PurchaseJournal.Line line : record.lines()) {
+                    taken.merge(line.sweetId(), line.quantity(), Integer::sum);
+                    purchases.add(purchaseOf(record, line));
+                }
+                last = record.sequence();
+            }
+            if (purchases.isEmpty()) {
+                return List.<Sweet>of();
+            }
+            // A sweet deleted since admission matches no row; its purchases are still recorded
+            taken.forEach((id, quantity) -> sweetRepository.subtractStock(id, quantity, versionClock.next()));
+            purchaseRepository.saveAll(purchases);
+            checkpointRepository.save(new InventoryCheckpoint(CHECKPOINT, last));
+
+            List<Sweet> sweets = sweetRepository.findAllById(taken.keySet());
+            for (Sweet sweet : sweets) {
+                versionClock.observe(sweet.getCatalogVersion());
+                eventPublisher.publishEvent(SweetChangedEvent.upserted(sweet));
+            }
+            purchases.forEach(purchase -> eventPublisher.publishEvent(new PurchaseRecordedEvent(purchase)));
+            return sweets;
+        });
+    }
+
+    private void settle(List<PurchaseJournal.Record> batch, List<Sweet> written) {
+        for (PurchaseJournal.Record record : batch) {
+            for (PurchaseJournal.Line line : record.lines()) {
+                Slot slot = slots.get(line.sweetId());
+                if (slot != null) {
+                    slot.lock.lock();
+                    try {
+                        slot.pending -= line.quantity();
+                    } finally {
+                        slot.lock.unlock();
+                    }
+                }
+            }
+        }
+        for (Sweet sweet : written) {
+            Slot slot = slots.get(sweet.getId());
+            if (slot != null) {
+                slot.lock.lock();
+                try {
+                    slot.sweet = sweet;
+                } finally {
+                    slot.lock.unlock();
+                }
+            }
+        }
+    }
+
+    private void truncateJournalIfDrained() {
+        appendLock.lock();
+        try {
+            if (unflushed.isEmpty() && journal.size() > JOURNAL_TRUNCATE_BYTES) {
+                journal.truncate();
+            }
+        } catch (IOException e) {
+            log.warn("Could not truncate the purchase journal", e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Replays journaled purchases the database has not seen yet, then loads
+     * every sweet's stock into memory. Runs before the web server accepts
+     * requests.
+     */
+    public void recover() {
+        syncLock.lock();
+        try {
+            long applied = appliedSequence();
+            List<PurchaseJournal.Record> replay = journal.readAfter(applied);
+            long last = applied;
+            if (!replay.isEmpty()) {
+                log.warn("Replaying {} journaled purchase(s) after sequence {}", replay.size(), applied);
+                for (int from = 0; from < replay.size(); from += batchSize) {
+                    persist(replay.subList(from, Math.min(from + batchSize, replay.size())));
+                }
+                last = Math.max(last, replay.get(replay.size() - 1).sequence());
+            }
+            journal.reset(last);
+            unflushed.clear();
+            slots.clear();
+            for (Sweet sweet : sweetRepository.findAll()) {
+                slots.put(sweet.getId(), new Slot(sweet));
+            }
+            log.info("Stock ledger loaded {} sweets at journal sequence {}", slots.size(), last);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not recover the purchase journal", e);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /** Re-seeds a sweet's counter after a write that did not go through the ledger. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSweetChanged(SweetChangedEvent event) {
+        if (syncLock.isHeldByCurrentThread()) {
+            // Published by our own flush; the slot is settled by the flush itself
+            return;
+        }
+        syncLock.lock();
+        try {
+            Optional<Sweet> row = event.isDeleted() ? Optional.empty() : sweetRepository.findById(event.sweetId());
+            if (row.isEmpty()) {
+                Slot removed = slots.remove(event.sweetId());
+                if (removed != null) {
+                    removed.lock.lock();
+                    try {
+                        removed.removed = true;
+                    } finally {
+                        removed.lock.unlock();
+                    }
+                }
+                return;
+            }
+            Slot slot = slots.computeIfAbsent(event.sweetId(), id -> new Slot(row.get()));
+            slot.lock.lock();
+            try {
+                slot.sweet = row.get();
+                slot.available = row.get().getQuantity() - slot.pending - slot.held;
+            } finally {
+                slot.lock.unlock();
+            }
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /** Units admitted by the ledger and still to be written to the database. */
+    public int pendingUnits(Long sweetId) {
+        Slot slot = slots.get(sweetId);
+        if (slot == null) {
+            return 0;
+        }
+        slot.lock.lock();
+        try {
+            return slot.pending;
+        } finally {
+            slot.lock.unlock();
+        }
+    }
+
+    @Override
+    public void start() {
+        recover();
+        running = true;
+        flusher = Thread.ofPlatform().name("stock-ledger-flusher").daemon().start(this::flushLoop);
+    }
+
+    /** Stops taking new batches on the timer and drains whatever is queued. */
+    @Override
+    public void stop() {
+        running = false;
+        if (flusher != null) {
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        while (flush() > 0) {
+            // drain
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            log.warn("Could not close the purchase journal", e);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /** Starts ahead of the web server and stops after it. */
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    private void flushLoop() {
+        while (running) {
+            try {
+                if (flush() < batchSize) {
+                    Thread.sleep(flushIntervalMs);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Write-behind flush failed, retrying", e);
+                try {
+                    Thread.sleep(flushIntervalMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private long appliedSequence() {
+        return checkpointRepository.findById(CHECKPOINT).map(InventoryCheckpoint::getLastSequence).orElse(0L);
+    }
+
+    private static Purchase purchaseOf(PurchaseJournal.Record record, PurchaseJournal.Line line) {
+        return new Purchase(null, line.sweetId(), line.sweetName(), line.quantity(), line.price(),
+                line.price().multiply(BigDecimal.valueOf(line.quantity())), record.customerEmail(),
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(record.createdAt()), ZoneId.systemDefault()));
+    }
+
+    /**
+     * Settles a hold's units on its counter when the hold's transaction ends:
+     * on commit they leave the row for good, on rollback they return. Runs
+     * ahead of the change events' re-seed, so that sees the row and the
+     * counter agree.
+     */
+    private static final class Hold implements TransactionSynchronization {
+        private final Slot slot;
+        private final int quantity;
+
+        Hold(Slot slot, int quantity) {
+            this.slot = slot;
+            this.quantity = quantity;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+
+        @Override
+        public void afterCommit() {
+            slot.lock.lock();
+            try {
+                slot.held -= quantity;
+            } finally {
+                slot.lock.unlock();
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            if (status == STATUS_COMMITTED) {
+                return;
+            }
+            slot.lock.lock();
+            try {
+                slot.held -= quantity;
+                slot.available += quantity;
+            } finally {
+                slot.lock.unlock();
+            }
+        }
+    }
+
+    /** In-memory stock of one sweet; every field is guarded by {@code lock}. */
+    private static final class Slot {
+        final ReentrantLock lock = new ReentrantLock();
+        /** Last row seen; its quantity is not kept current. */
+        Sweet sweet;
+        int available;
+        /** Admitted units not yet written to the database. */
+        int pending;
+        /** Units taken off the row by holds whose transaction is still open. */
+        int held;
+        boolean removed;
+
+        Slot(Sweet sweet) {
+            this.sweet = sweet;
+            this.available = sweet.getQuantity();
+        }
+
+        PurchaseJournal.Line take(int quantity) {
+            available -= quantity;
+            pending += quantity;
+            return new PurchaseJournal.Line(sweet.getId(), sweet.getName(), sweet.getPrice(), quantity);
+        }
+
+        Sweet view() {
+            return sweet.toBuilder().quantity(available).build();
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.assignment.sweet.service;
+
+import com.assignment.sweet.event.SweetChangedEvent;
+import com.assignment.sweet.model.StockSlot;
+import com.assignment.sweet.model.Sweet;
+import com.assignment.sweet.repository.StockSlotRepository;
+import com.assignment.sweet.repository.SweetRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Stock split across counter slots for hot sweets under
+ * {@code inventory.engine=sharded}. A sweet with {@code stockSlots = N}
+ * has most of its stock dealt out to N {@link StockSlot} rows. A purchase
+ * takes from a slot picked at random and moves on to the next slot if that
+ * one runs short, so concurrent buyers lock one of N rows instead of all
+ * queueing on the sweet's.
+ *
+ * The sweet's row stays the record of its stock. {@code allottedStock}
+ * counts the units dealt to slots, and plain conditional updates (checkouts,
+ * reservations) may only take the rest. Slot sales are kept in each slot's
+ * {@code sold} and folded into {@code quantity} by the rebalancer every
+ * {@code inventory.sharded.rebalance-interval-ms}. The same pass deals the
+ * stock out evenly again, so drained slots are refilled from full ones.
+ * Until a fold, {@link #available} reports the exact stock by subtracting
+ * unfolded sales, and each slot sale publishes the sweet with that stock
+ * under a new catalog version, so views fed by change events (snapshot,
+ * facets, SSE, change log) follow slot sales as they follow row purchases.
+ * Reads straight from the table (search, delta sync, exports) catch up at
+ * the fold.
+ *
+ * Under any other engine the rebalancer takes every unit back out of the
+ * slots.
+ */
+@Slf4j
+@Component
+public class StockSlots {
+
+    private final SweetRepository sweetRepository;
+    private final StockSlotRepository slotRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogVersionClock versionClock;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean sharded;
+    private final int maxSlots;
+
+    public StockSlots(SweetRepository sweetRepository, StockSlotRepository slotRepository,
+            ApplicationEventPublisher eventPublisher, CatalogVersionClock versionClock,
+            PlatformTransactionManager transactionManager,
+            @Value("${inventory.engine:database}") String engine,
+            @Value("${inventory.sharded.max-slots:64}") int maxSlots) {
+        this.sweetRepository = sweetRepository;
+        this.slotRepository = slotRepository;
+        this.eventPublisher = eventPublisher;
+        this.versionClock = versionClock;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sharded = "sharded".equals(engine);
+        this.maxSlots = maxSlots;
+    }
+
+    /** Whether the configured engine sells from slots at all. */
+    public boolean isEnabled() {
+        return sharded;
+    }
+
+    public int maxSlots() {
+        return maxSlots;
+    }
+
+    /**
+     * Sells {@code quantity} units from one of the sweet's slots, starting at
+     * a random one, in the caller's transaction. False if no single slot
+     * holds that many.
+     */
+    public boolean take(Sweet sweet, int quantity) {
+        int slots = sweet.getStockSlots();
+        int first = ThreadLocalRandom.current().nextInt(slots);
+        for (int i = 0; i < slots; i++) {
+            if (slotRepository.take(sweet.getId(), (first + i) % slots, quantity) == 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Units left to sell: the row's quantity less slot sales not yet folded into it. */
+    public int available(Sweet sweet) {
+        if (sweet.getAllottedStock() == 0) {
+            return sweet.getQuantity();
+        }
+        return (int) (sweet.getQuantity() - slotRepository.unfoldedSales(sweet.getId()));
+    }
+
+    /** The sweet as returned to clients: a detached copy showing {@link #available} if it has slot stock. */
+    public Sweet withAvailable(Sweet sweet) {
+        if (sweet.getAllottedStock() == 0) {
+            return sweet;
+        }
+        return sweet.toBuilder().quantity(available(sweet)).build();
+    }
+
+    /**
+     * The sweet as left by a sale from its slots, for the buyer and the
+     * catalog feeds: a detached copy showing {@link #available} under a new
+     * catalog version, so feeds apply it after what they already have. The
+     * row itself changes at the next fold.
+     */
+    public Sweet afterSlotSale(Sweet sweet) {
+        Sweet after = withAvailable(sweet);
+        after.setCatalogVersion(versionClock.next());
+        return after;
+    }
+
+    /**
+     * Makes sure a plain conditional update can take {@code quantity} units
+     * from the sweet's row, taking the slots' units back if the rest falls
+     * short. Locks the row, in the caller's transaction; the next rebalance
+     * deals the units out again.
+     */
+    public void ensureUnallotted(Long sweetId, int quantity) {
+        // The caller may have read the sweet already; judge by the row as locked, not that copy
+        Optional<Sweet> locked = sweetRepository.refreshForUpdate(sweetId);
+        if (locked.isPresent() && locked.get().getQuantity() - locked.get().getAllottedStock() < quantity) {
+            settle(locked.get(), 0);
+        }
+    }
+
+    /** Drops the slots of a sweet being deleted, in the caller's transaction. */
+    public void discard(Long sweetId) {
+        slotRepository.deleteBySweetId(sweetId);
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.sharded.rebalance-interval-ms:100}")
+    public void rebalanceAll() {
+        for (Long sweetId : sweetRepository.findSlottedIds(sharded)) {
+            try {
+                rebalance(sweetId);
+            } catch (RuntimeException e) {
+                log.warn("Rebalancing the stock slots of sweet {} failed", sweetId, e);
+            }
+        }
+    }
+
+    /** Folds the sweet's slot sales and deals its stock out evenly again, in a transaction of its own. */
+    public void rebalance(Long sweetId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Optional<Sweet> locked = sweetRepository.findByIdForUpdate(sweetId);
+            if (locked.isEmpty()) {
+                slotRepository.deleteBySweetId(sweetId);
+                return;
+            }
+            Sweet sweet = locked.get();
+            settle(sweet, sharded && sweet.getStockSlots() > 1 ? Math.min(sweet.getStockSlots(), maxSlots) : 0);
+        });
+    }
+
+    /**
+     * With the sweet's row locked: folds slot sales into its quantity and
+     * deals what is left evenly to {@code slotCount} slots (0 takes every
+     * unit back), the remainder of the division staying on the row.
+     */
+    private void settle(Sweet sweet, int slotCount) {
+        List<StockSlot> slots = slotRepository.lockBySweetId(sweet.getId());
+        int sold = slots.stream().mapToInt(StockSlot::getSold).sum();
+        int share = slotCount == 0 ? 0 : (sweet.getQuantity() - sold) / slotCount;
+        boolean balanced = sold == 0 && slots.size() == slotCount && sweet.getAllottedStock() == share * slotCount
+                && slots.stream().allMatch(slot -> slot.getQuantity() == share);
+        if (balanced) {
+            return;
+        }
+        if (slots.size() != slotCount) {
+            slotRepository.deleteBySweetId(sweet.getId());
+            slots = new ArrayList<>(slotCount);
+            for (int i = 0; i < slotCount; i++) {
+                slots.add(new StockSlot(null, sweet.getId(), i, 0, 0));
+            }
+        }
+        for (StockSlot slot : slots) {
+            slot.setQuantity(share);
+            slot.setSold(0);
+        }
+        slotRepository.saveAll(slots);
+        sweetRepository.foldStock(sweet.getId(), sold, share * slotCount, versionClock.next());
+
+        Sweet after = sweetRepository.findById(sweet.getId()).orElseThrow();
+        versionClock.observe(after.getCatalogVersion());
+        eventPublisher.publishEvent(SweetChangedEvent.upserted(after));
+    }
+}
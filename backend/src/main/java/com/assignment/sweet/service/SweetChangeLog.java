@@ -0,0 +1,135 @@
+package com.assignment.sweet.service;
+
+import com.assignment.sweet.dto.SweetChangeSet;
+import com.assignment.sweet.dto.SweetSummary;
+import com.assignment.sweet.event.SweetChangedEvent;
+import com.assignment.sweet.model.SweetChange;
+import com.assignment.sweet.repository.SweetChangeRepository;
+import com.assignment.sweet.repository.SweetRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Catalog change log backing delta sync ({@code GET /api/sweets/changes}).
+ *
+ * Every {@link SweetChangedEvent} is appended as a row inside the publishing
+ * transaction, so a change and its log entry commit together. A background
+ * job drops entries superseded by a later one for the same sweet and
+ * everything older than the retention period, tombstones included.
+ *
+ * Versions come from {@link CatalogVersionClock} before commit, so a change
+ * can become visible slightly after a newer one. Reads therefore re-scan an
+ * overlap window below the client's version; re-delivered entries are
+ * harmless because every entry is applied as "take the current state".
+ */
+@Slf4j
+@Service
+public class SweetChangeLog {
+
+    /** Beyond this many log entries a full snapshot is cheaper than a delta. */
+    static final int MAX_DELTA_ENTRIES = 5000;
+
+    @Value("${sweets.changes.retention:P7D}")
+    private Duration retention = Duration.ofDays(7);
+
+    @Value("${sweets.changes.overlap:PT10S}")
+    private Duration overlap = Duration.ofSeconds(10);
+
+    private final SweetChangeRepository changeRepository;
+    private final SweetRepository sweetRepository;
+    private final CatalogVersionClock versionClock;
+
+    /** Changes before this version may be missing from the log (recorded at startup). */
+    private volatile long loggedSince;
+
+    public SweetChangeLog(SweetChangeRepository changeRepository, SweetRepository sweetRepository,
+            CatalogVersionClock versionClock) {
+        this.changeRepository = changeRepository;
+        this.sweetRepository = sweetRepository;
+        this.versionClock = versionClock;
+    }
+
+    @PostConstruct
+    void init() {
+        // An empty log says nothing about what happened before it; be conservative
+        Long oldest = changeRepository.findMinVersion();
+        loggedSince = oldest != null ? oldest : nowVersion();
+    }
+
+    @EventListener
+    public void record(SweetChangedEvent event) {
+        changeRepository.save(new SweetChange(null, event.sweetId(), event.version(),
+                event.isDeleted() ? SweetChange.Type.DELETE : SweetChange.Type.UPSERT));
+    }
+
+    @Transactional(readOnly = true)
+    public SweetChangeSet changesSince(Long since) {
+        long now = nowVersion();
+        if (since == null || since < horizon(now)) {
+            return fullSnapshot(now);
+        }
+        long from = Math.max(0L, since - overlap.toNanos() / 1000);
+        List<SweetChange> entries = changeRepository.findByVersionGreaterThanOrderByVersionAsc(from,
+                Limit.of(MAX_DELTA_ENTRIES + 1));
+        if (entries.size() > MAX_DELTA_ENTRIES) {
+            return fullSnapshot(now);
+        }
+
+        // Latest entry per sweet wins
+        Map<Long, SweetChange> latest = new LinkedHashMap<>();
+        long version = since;
+        for (SweetChange entry : entries) {
+            latest.put(entry.getSweetId(), entry);
+            version = Math.max(version, entry.getVersion());
+        }
+        List<Long> upsertIds = new ArrayList<>();
+        List<Long> deleted = new ArrayList<>();
+        latest.values().forEach(entry -> (entry.getType() == SweetChange.Type.DELETE ? deleted : upsertIds)
+                .add(entry.getSweetId()));
+
+        List<SweetSummary> upserted = upsertIds.isEmpty() ? List.of()
+                : sweetRepository.findSummariesByIdIn(upsertIds);
+        if (upserted.size() < upsertIds.size()) {
+            // Deleted after the entries were read; report as tombstones until its own entry arrives
+            upsertIds.removeAll(upserted.stream().map(SweetSummary::getId).toList());
+            deleted.addAll(upsertIds);
+        }
+        return new SweetChangeSet(version, false, upserted, deleted);
+    }
+
+    @Scheduled(fixedDelayString = "${sweets.changes.compaction-interval-ms:3600000}",
+            initialDelayString = "${sweets.changes.compaction-interval-ms:3600000}")
+    @Transactional
+    public void compact() {
+        int superseded = changeRepository.deleteSuperseded();
+        int expired = changeRepository.deleteOlderThan(horizon(nowVersion()));
+        if (superseded + expired > 0) {
+            log.info("Change log compacted: {} superseded and {} expired entries removed", superseded, expired);
+        }
+    }
+
+    /** Oldest client version that can still be served a delta. */
+    long horizon(long now) {
+        return Math.max(loggedSince, now - retention.toNanos() / 1000);
+    }
+
+    private SweetChangeSet fullSnapshot(long now) {
+        return new SweetChangeSet(now, true, sweetRepository.findAllSummaries(), List.of());
+    }
+
+    private long nowVersion() {
+        return Math.max(versionClock.current(), System.currentTimeMillis() * 1000);
+    }
+}
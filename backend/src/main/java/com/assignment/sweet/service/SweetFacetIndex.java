@@ -0,0 +1,304 @@
+package com.assignment.sweet.service;
+
+import com.assignment.sweet.dto.PriceBucketCount;
+import com.assignment.sweet.dto.SweetFacetCounts;
+import com.assignment.sweet.dto.SweetFacetFilter;
+import com.assignment.sweet.dto.SweetSummary;
+import com.assignment.sweet.event.SweetChangedEvent;
+import com.assignment.sweet.model.Sweet;
+import com.assignment.sweet.repository.SweetRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Compressed bitmap indexes over sweet ids for the shop filters: one bitmap
+ * per category, per price bucket and for in-stock sweets. A filter is resolved
+ * by AND-ing the relevant bitmaps (OR-ing buckets for a price range), and
+ * facet counts are intersection cardinalities, so neither needs the database.
+ *
+ * Price buckets are coarse; a range that cuts through a bucket checks the
+ * exact price of just that bucket's members. Bitmaps are keyed by the int
+ * value of the sweet id.
+ */
+@Slf4j
+@Component
+public class SweetFacetIndex {
+
+    /** Lower bound of each price bucket, matching the shop's price choices; the last is open-ended. */
+    static final BigDecimal[] PRICE_BUCKET_FLOORS = { BigDecimal.ZERO, BigDecimal.valueOf(5),
+            BigDecimal.valueOf(10), BigDecimal.valueOf(20), BigDecimal.valueOf(50) };
+
+    private enum Facet {
+        CATEGORY, PRICE, STOCK
+    }
+
+    private final SweetRepository sweetRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RoaringBitmap all = new RoaringBitmap();
+    private final RoaringBitmap inStock = new RoaringBitmap();
+    private final Map<String, RoaringBitmap> byCategory = new TreeMap<>();
+    private final Map<String, String> categoryLabels = new HashMap<>();
+    private final RoaringBitmap[] byPriceBucket = new RoaringBitmap[PRICE_BUCKET_FLOORS.length];
+    private final Map<Integer, Entry> entries = new HashMap<>();
+
+    public SweetFacetIndex(SweetRepository sweetRepository) {
+        this.sweetRepository = sweetRepository;
+        for (int i = 0; i < byPriceBucket.length; i++) {
+            byPriceBucket[i] = new RoaringBitmap();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            List<SweetSummary> sweets = sweetRepository.findAllSummaries();
+            all.clear();
+            inStock.clear();
+            byCategory.clear();
+            categoryLabels.clear();
+            for (RoaringBitmap bucket : byPriceBucket) {
+                bucket.clear();
+            }
+            entries.clear();
+            for (SweetSummary sweet : sweets) {
+                add(Entry.of(sweet));
+            }
+            runOptimize();
+            log.info("Facet index built with {} sweets in {} categories", entries.size(), byCategory.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSweetChanged(SweetChangedEvent event) {
+        if (event.isDeleted()) {
+            remove(event.sweetId());
+        } else {
+            index(event.sweet());
+        }
+    }
+
+    public void index(Sweet sweet) {
+        Entry entry = Entry.of(SweetSummary.of(sweet));
+        lock.writeLock().lock();
+        try {
+            Entry existing = entries.get(entry.id);
+            if (existing != null) {
+                if (existing.version > entry.version) {
+                    return;
+                }
+                unlink(existing);
+            }
+            add(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long sweetId) {
+        lock.writeLock().lock();
+        try {
+            Entry existing = entries.remove(Math.toIntExact(sweetId));
+            if (existing != null) {
+                unlink(existing);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Ids of the sweets matching every constraint of the filter. */
+    public RoaringBitmap filter(SweetFacetFilter filter) {
+        lock.readLock().lock();
+        try {
+            return evaluate(filter, null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public SweetFacetCounts counts(SweetFacetFilter filter) {
+        lock.readLock().lock();
+        try {
+            int total = evaluate(filter, null).getCardinality();
+
+            RoaringBitmap withoutCategory = evaluate(filter, Facet.CATEGORY);
+            Map<String, Integer> categories = new LinkedHashMap<>();
+            byCategory.forEach((key, ids) -> categories.put(categoryLabels.get(key),
+                    RoaringBitmap.andCardinality(withoutCategory, ids)));
+
+            RoaringBitmap withoutPrice = evaluate(filter, Facet.PRICE);
+            List<PriceBucketCount> priceBuckets = new ArrayList<>(byPriceBucket.length);
+            for (int i = 0; i < byPriceBucket.length; i++) {
+                priceBuckets.add(new PriceBucketCount(PRICE_BUCKET_FLOORS[i], bucketCeiling(i),
+                        RoaringBitmap.andCardinality(withoutPrice, byPriceBucket[i])));
+            }
+
+            RoaringBitmap withoutStock = evaluate(filter, Facet.STOCK);
+            int available = RoaringBitmap.andCardinality(withoutStock, inStock);
+            return new SweetFacetCounts(total, categories, priceBuckets, available,
+                    withoutStock.getCardinality() - available);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** AND of the filter's constraints, leaving out {@code skip}; always a fresh bitmap. */
+    private RoaringBitmap evaluate(SweetFacetFilter filter, Facet skip) {
+        List<RoaringBitmap> constraints = new ArrayList<>(3);
+        if (skip != Facet.CATEGORY && hasCategory(filter.getCategory())) {
+            RoaringBitmap ids = byCategory.get(categoryKey(filter.getCategory()));
+            if (ids == null) {
+                return new RoaringBitmap();
+            }
+            constraints.add(ids);
+        }
+        if (skip != Facet.PRICE && (filter.getMinPrice() != null || filter.getMaxPrice() != null)) {
+            constraints.add(priceRange(filter.getMinPrice(), filter.getMaxPrice()));
+        }
+        if (skip != Facet.STOCK && filter.getInStock() != null) {
+            constraints.add(filter.getInStock() ? inStock : RoaringBitmap.andNot(all, inStock));
+        }
+        if (constraints.isEmpty()) {
+            return all.clone();
+        }
+        if (constraints.size() == 1) {
+            return constraints.get(0).clone();
+        }
+        return FastAggregation.and(constraints.iterator());
+    }
+
+    private RoaringBitmap priceRange(BigDecimal min, BigDecimal max) {
+        RoaringBitmap ids = new RoaringBitmap();
+        for (int i = 0; i < byPriceBucket.length; i++) {
+            // The first bucket also holds anything below its floor
+            BigDecimal floor = i == 0 ? null : PRICE_BUCKET_FLOORS[i];
+            BigDecimal ceiling = bucketCeiling(i);
+            boolean below = max != null && floor != null && floor.compareTo(max) > 0;
+            boolean above = min != null && ceiling != null && ceiling.compareTo(min) <= 0;
+            if (below || above) {
+                continue;
+            }
+            boolean covered = (min == null || (floor != null && floor.compareTo(min) >= 0))
+                    && (max == null || (ceiling != null && ceiling.compareTo(max) <= 0));
+            if (covered) {
+                ids.or(byPriceBucket[i]);
+                continue;
+            }
+            IntIterator members = byPriceBucket[i].getIntIterator();
+            while (members.hasNext()) {
+                int id = members.next();
+                BigDecimal price = entries.get(id).price;
+                if ((min == null || price.compareTo(min) >= 0) && (max == null || price.compareTo(max) <= 0)) {
+                    ids.add(id);
+                }
+            }
+        }
+        return ids;
+    }
+
+    private void add(Entry entry) {
+        entries.put(entry.id, entry);
+        all.add(entry.id);
+        if (entry.inStock) {
+            inStock.add(entry.id);
+        }
+        if (entry.categoryKey != null) {
+            byCategory.computeIfAbsent(entry.categoryKey, key -> new RoaringBitmap()).add(entry.id);
+            categoryLabels.put(entry.categoryKey, entry.category);
+        }
+        if (entry.price != null) {
+            byPriceBucket[bucketOf(entry.price)].add(entry.id);
+        }
+    }
+
+    private void unlink(Entry entry) {
+        all.remove(entry.id);
+        inStock.remove(entry.id);
+        if (entry.categoryKey != null) {
+            RoaringBitmap ids = byCategory.get(entry.categoryKey);
+            if (ids != null) {
+                ids.remove(entry.id);
+                if (ids.isEmpty()) {
+                    byCategory.remove(entry.categoryKey);
+                    categoryLabels.remove(entry.categoryKey);
+                }
+            }
+        }
+        if (entry.price != null) {
+            byPriceBucket[bucketOf(entry.price)].remove(entry.id);
+        }
+    }
+
+    private void runOptimize() {
+        all.runOptimize();
+        inStock.runOptimize();
+        byCategory.values().forEach(RoaringBitmap::runOptimize);
+        for (RoaringBitmap bucket : byPriceBucket) {
+            bucket.runOptimize();
+        }
+    }
+
+    static int bucketOf(BigDecimal price) {
+        int bucket = 0;
+        while (bucket + 1 < PRICE_BUCKET_FLOORS.length && price.compareTo(PRICE_BUCKET_FLOORS[bucket + 1]) >= 0) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private static BigDecimal bucketCeiling(int bucket) {
+        return bucket + 1 < PRICE_BUCKET_FLOORS.length ? PRICE_BUCKET_FLOORS[bucket + 1] : null;
+    }
+
+    private static boolean hasCategory(String category) {
+        return category != null && !category.isBlank() && !category.equalsIgnoreCase("all");
+    }
+
+    private static String categoryKey(String category) {
+        return category.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Entry {
+        final int id;
+        final String category;
+        final String categoryKey;
+        final BigDecimal price;
+        final boolean inStock;
+        final long version;
+
+        private Entry(int id, String category, BigDecimal price, boolean inStock, long version) {
+            this.id = id;
+            this.category = category;
+            this.categoryKey = category != null && !category.isBlank() ? categoryKey(category) : null;
+            this.price = price;
+            this.inStock = inStock;
+            this.version = version;
+        }
+
+        static Entry of(SweetSummary sweet) {
+            return new Entry(Math.toIntExact(sweet.getId()), sweet.getCategory(), sweet.getPrice(),
+                    sweet.getQuantity() != null && sweet.getQuantity() > 0,
+                    sweet.getCatalogVersion() != null ? sweet.getCatalogVersion() : 0L);
+        }
+    }
+}
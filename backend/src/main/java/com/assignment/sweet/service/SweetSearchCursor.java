@@ -0,0 +1,53 @@
+package com.assignment.sweet.service;
+
+import com.assignment.sweet.dto.SweetSortField;
+import com.assignment.sweet.dto.SweetSummary;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor for catalog search: the sort key of the last row on a
+ * page plus its id. Encoded as URL-safe base64 so clients treat it as a token.
+ */
+record SweetSearchCursor(SweetSortField sort, Sort.Direction direction, String value, long id) {
+
+    static SweetSearchCursor of(SweetSortField sort, Sort.Direction direction, SweetSummary last) {
+        String value = switch (sort) {
+            case NAME -> last.getName();
+            case PRICE -> last.getPrice().toPlainString();
+            case QUANTITY -> String.valueOf(last.getQuantity());
+            case ID -> String.valueOf(last.getId());
+        };
+        return new SweetSearchCursor(sort, direction, value, last.getId());
+    }
+
+    static SweetSearchCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // value goes last since names may contain the separator
+            String[] parts = raw.split("\\|", 4);
+            return new SweetSearchCursor(SweetSortField.valueOf(parts[0]), Sort.Direction.valueOf(parts[1]),
+                    parts[3], Long.parseLong(parts[2]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    String encode() {
+        String raw = sort + "|" + direction + "|" + id + "|" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** The sort key parsed back into the type of the underlying column. */
+    Comparable<?> typedValue() {
+        return switch (sort) {
+            case NAME -> value;
+            case PRICE -> new BigDecimal(value);
+            case QUANTITY -> Integer.valueOf(value);
+            case ID -> Long.valueOf(value);
+        };
+    }
+}
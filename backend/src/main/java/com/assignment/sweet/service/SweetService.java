@@ -1,31 +1,117 @@
 package com.assignment.sweet.service;
 
+import com.assignment.sweet.dto.CheckoutLine;
+import com.assignment.sweet.dto.CheckoutResult;
+import com.assignment.sweet.dto.CursorPage;
+import com.assignment.sweet.dto.SweetSearchRequest;
+import com.assignment.sweet.dto.SweetSortField;
+import com.assignment.sweet.dto.SweetSummary;
+import com.assignment.sweet.event.SweetChangedEvent;
+import com.assignment.sweet.exception.ConflictException;
+import com.assignment.sweet.model.Purchase;
 import com.assignment.sweet.model.Sweet;
 import com.assignment.sweet.repository.SweetRepository;
+import com.assignment.sweet.repository.SweetSpecifications;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
 public class SweetService {
 
+    static final int DEFAULT_PAGE_SIZE = 24;
+    static final int MAX_PAGE_SIZE = 100;
+    static final int MAX_CHECKOUT_LINES = 100;
+
     private final SweetRepository sweetRepository;
     private final ImageService imageService;
-    private final com.assignment.sweet.repository.PurchaseRepository purchaseRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogVersionClock versionClock;
+    private final InventoryEngine inventoryEngine;
+    private final FlashSaleGate flashSaleGate;
+    private final SweetUpdateRetry updateRetry;
+    private final StockSlots stockSlots;
 
     public SweetService(SweetRepository sweetRepository, ImageService imageService,
-            com.assignment.sweet.repository.PurchaseRepository purchaseRepository) {
+            ApplicationEventPublisher eventPublisher, CatalogVersionClock versionClock,
+            InventoryEngine inventoryEngine, FlashSaleGate flashSaleGate, SweetUpdateRetry updateRetry,
+            StockSlots stockSlots) {
         this.sweetRepository = sweetRepository;
         this.imageService = imageService;
-        this.purchaseRepository = purchaseRepository;
+        this.eventPublisher = eventPublisher;
+        this.versionClock = versionClock;
+        this.inventoryEngine = inventoryEngine;
+        this.flashSaleGate = flashSaleGate;
+        this.updateRetry = updateRetry;
+        this.stockSlots = stockSlots;
     }
 
     public List<Sweet> getAllSweets() {
         return sweetRepository.findAll();
     }
 
+    /** One sweet, with the exact stock left even if sales from its stock slots are not folded in yet. */
+    public Sweet getSweet(Long id) {
+        Sweet sweet = sweetRepository.findById(id).orElseThrow(() -> new RuntimeException("Sweet not found"));
+        return sweet.getAllottedStock() > 0 ? stockSlots.withAvailable(sweet) : sweet;
+    }
+
+    /** Whole catalog from a database cursor; the caller consumes and closes it in a transaction. */
+    public Stream<Sweet> streamAllSweets() {
+        return sweetRepository.streamAll();
+    }
+
+    /**
+     * Filtered, sorted catalog page using keyset pagination: the database seeks
+     * past the cursor on the (sort column, id) index instead of counting or
+     * skipping rows, so every page costs the same regardless of depth. Rows
+     * are read as {@link SweetSummary} so descriptions are never fetched.
+     */
+    public CursorPage<SweetSummary> searchSweets(SweetSearchRequest request) {
+        SweetSortField sortField = request.getSort() != null ? request.getSort() : SweetSortField.NAME;
+        Sort.Direction direction = request.getDirection() != null ? request.getDirection() : Sort.Direction.ASC;
+        int limit = request.getLimit() == null ? DEFAULT_PAGE_SIZE
+                : Math.max(1, Math.min(request.getLimit(), MAX_PAGE_SIZE));
+
+        Specification<Sweet> spec = Specification.where(SweetSpecifications.nameContains(request.getName()))
+                .and(SweetSpecifications.categoryEquals(request.getCategory()))
+                .and(SweetSpecifications.priceAtLeast(request.getMinPrice()))
+                .and(SweetSpecifications.priceAtMost(request.getMaxPrice()));
+
+        if (request.getCursor() != null && !request.getCursor().isBlank()) {
+            SweetSearchCursor cursor = SweetSearchCursor.decode(request.getCursor());
+            if (cursor.sort() != sortField || cursor.direction() != direction) {
+                throw new IllegalArgumentException("Cursor does not match the requested sort");
+            }
+            spec = spec.and(SweetSpecifications.after(sortField.getProperty(), cursor.typedValue(), cursor.id(),
+                    direction));
+        }
+
+        Sort sort = sortField == SweetSortField.ID
+                ? Sort.by(direction, "id")
+                : Sort.by(direction, sortField.getProperty()).and(Sort.by(direction, "id"));
+
+        // Fetch one extra row to learn whether another page exists without a count query
+        List<SweetSummary> rows = sweetRepository.findSummaries(spec, sort, limit + 1);
+        boolean hasMore = rows.size() > limit;
+        List<SweetSummary> items = hasMore ? rows.subList(0, limit) : rows;
+        String nextCursor = hasMore
+                ? SweetSearchCursor.of(sortField, direction, items.get(items.size() - 1)).encode()
+                : null;
+        return new CursorPage<>(items, nextCursor, hasMore);
+    }
+
+    @Transactional
     public Sweet addSweet(Sweet sweet, org.springframework.web.multipart.MultipartFile imageFile) {
         if (imageFile != null && !imageFile.isEmpty()) {
             String fileName = imageService.storeFile(imageFile);
@@ -33,47 +119,138 @@ public class SweetService {
             // configurable.
             sweet.setImageUrl("http://localhost:8080/uploads/" + fileName);
         }
-        return sweetRepository.save(sweet);
+        // A new row starts at the initial version whatever the client sent
+        sweet.setVersion(null);
+        sweet.setCatalogVersion(versionClock.next());
+        Sweet saved = sweetRepository.save(sweet);
+        eventPublisher.publishEvent(SweetChangedEvent.upserted(saved));
+        return saved;
     }
 
+    /**
+     * Buys {@code quantity} units through the configured {@link InventoryEngine},
+     * behind the {@link FlashSaleGate} when the sweet is in flash-sale mode.
+     * Lock timeouts and deadlocks on the sweet's row are retried.
+     */
     public Sweet purchaseSweet(Long id, Integer quantity, String customerEmail) {
         log.debug("Purchasing {} sweet(s) {} for user: {}", quantity, id, customerEmail);
-        Sweet sweet = sweetRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Sweet not found"));
+        if (quantity == null || quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        if (flashSaleGate.isActive(id)) {
+            return flashSaleGate.purchase(id, quantity, () -> updateRetry.run("purchase", id,
+                    () -> inventoryEngine.purchase(id, quantity, customerEmail)));
+        }
+        return updateRetry.run("purchase", id, () -> inventoryEngine.purchase(id, quantity, customerEmail));
+    }
+
+    /**
+     * Whether a purchase of the sweet commits in the caller's transaction
+     * without waiting first: not behind a flash-sale gate, and through an
+     * engine that does not commit on threads of its own.
+     */
+    public boolean purchaseJoinsTransaction(Long id) {
+        return !flashSaleGate.isActive(id) && inventoryEngine.joinsCallerTransaction();
+    }
 
-        if (sweet.getQuantity() < quantity) {
-            throw new RuntimeException("Insufficient stock");
+    /**
+     * Buys several sweets at once, all or nothing. Lines for the same sweet
+     * are merged and handed to the inventory engine in ascending sweet id
+     * order.
+     */
+    public CheckoutResult checkout(List<CheckoutLine> lines, String customerEmail) {
+        if (lines == null || lines.isEmpty()) {
+            throw new IllegalArgumentException("Checkout needs at least one line");
+        }
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        for (CheckoutLine line : lines) {
+            if (line.getSweetId() == null || line.getQuantity() == null || line.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Each line needs a sweet id and a positive quantity");
+            }
+            quantities.merge(line.getSweetId(), line.getQuantity(), Math::addExact);
         }
+        if (quantities.size() > MAX_CHECKOUT_LINES) {
+            throw new IllegalArgumentException("At most " + MAX_CHECKOUT_LINES + " different sweets per checkout");
+        }
+        log.debug("Checking out {} sweet(s) for user: {}", quantities.size(), customerEmail);
 
-        sweet.setQuantity(sweet.getQuantity() - quantity);
-        Sweet savedSweet = sweetRepository.save(sweet);
-
-        // Record purchase
-        com.assignment.sweet.model.Purchase purchase = new com.assignment.sweet.model.Purchase();
-        purchase.setSweetId(savedSweet.getId());
-        purchase.setSweetName(savedSweet.getName());
-        purchase.setQuantity(quantity);
-        purchase.setPricePerUnit(savedSweet.getPrice());
-        purchase.setTotalPrice(savedSweet.getPrice().multiply(java.math.BigDecimal.valueOf(quantity)));
-        purchase.setCustomerEmail(customerEmail);
-        purchaseRepository.save(purchase);
-        log.debug("Purchase saved for {}", customerEmail);
-
-        return savedSweet;
+        List<Purchase> purchases = inventoryEngine.checkout(quantities, customerEmail);
+        BigDecimal totalPrice = BigDecimal.ZERO;
+        int totalQuantity = 0;
+        for (Purchase purchase : purchases) {
+            totalPrice = totalPrice.add(purchase.getTotalPrice());
+            totalQuantity += purchase.getQuantity();
+        }
+        return new CheckoutResult(purchases, totalQuantity, totalPrice);
     }
 
+    /** Adds stock; a purchase committing in between makes the attempt conflict and retry on fresh stock. */
     public Sweet restockSweet(Long id, Integer quantity) {
-        Sweet sweet = sweetRepository.findById(id).orElseThrow(() -> new RuntimeException("Sweet not found"));
-        sweet.setQuantity(sweet.getQuantity() + quantity);
-        return sweetRepository.save(sweet);
+        return updateRetry.inTransaction("restock", id, () -> {
+            Sweet sweet = sweetRepository.findById(id).orElseThrow(() -> new RuntimeException("Sweet not found"));
+            sweet.setQuantity(sweet.getQuantity() + quantity);
+            sweet.setCatalogVersion(versionClock.next());
+            Sweet saved = sweetRepository.save(sweet);
+            eventPublisher.publishEvent(SweetChangedEvent.upserted(saved));
+            return saved;
+        });
     }
 
+    /** Switches flash-sale mode for one sweet; the gate follows via the change event. */
+    public Sweet setFlashSale(Long id, boolean enabled) {
+        return updateRetry.inTransaction("flash-sale", id, () -> {
+            Sweet sweet = sweetRepository.findById(id).orElseThrow(() -> new RuntimeException("Sweet not found"));
+            sweet.setFlashSale(enabled);
+            sweet.setCatalogVersion(versionClock.next());
+            Sweet saved = sweetRepository.save(sweet);
+            eventPublisher.publishEvent(SweetChangedEvent.upserted(saved));
+            return saved;
+        });
+    }
+
+    /**
+     * Splits a sweet's stock across {@code slots} counter slots (0 or 1 to
+     * merge it back); the rebalancer deals the stock out on its next pass.
+     */
+    public Sweet setStockSlots(Long id, int slots) {
+        if (slots < 0 || slots > stockSlots.maxSlots()) {
+            throw new IllegalArgumentException("Stock slots must be between 0 and " + stockSlots.maxSlots());
+        }
+        if (slots > 1 && !stockSlots.isEnabled()) {
+            throw new IllegalArgumentException("Stock slots need inventory.engine=sharded");
+        }
+        return updateRetry.inTransaction("stock-slots", id, () -> {
+            Sweet sweet = sweetRepository.findById(id).orElseThrow(() -> new RuntimeException("Sweet not found"));
+            sweet.setStockSlots(slots);
+            sweet.setCatalogVersion(versionClock.next());
+            Sweet saved = sweetRepository.save(sweet);
+            eventPublisher.publishEvent(SweetChangedEvent.upserted(saved));
+            return saved;
+        });
+    }
+
+    /**
+     * Admin edit. The form carries the version it was loaded at; if the sweet
+     * has changed since (another edit, a restock or a purchase), the edit is
+     * refused with a {@link ConflictException} rather than overwriting that
+     * change, and is never retried automatically.
+     */
+    @Transactional
     public Sweet updateSweet(Long id, Sweet sweetDetails, org.springframework.web.multipart.MultipartFile imageFile) {
         Sweet sweet = sweetRepository.findById(id).orElseThrow(() -> new RuntimeException("Sweet not found"));
+        if (sweetDetails.getVersion() != null && !sweetDetails.getVersion().equals(sweet.getVersion())) {
+            throw new ConflictException("This sweet was changed by someone else, please reload and try again");
+        }
         sweet.setName(sweetDetails.getName());
         sweet.setCategory(sweetDetails.getCategory());
         sweet.setPrice(sweetDetails.getPrice());
-        sweet.setQuantity(sweetDetails.getQuantity());
+        if (sweet.getAllottedStock() == 0) {
+            sweet.setQuantity(sweetDetails.getQuantity());
+        } else if (!sweetDetails.getQuantity().equals(stockSlots.available(sweet))) {
+            // Part of the stock sits in slots that sell without touching this row
+            throw new ConflictException("Stock of a sweet split into stock slots changes only through restock "
+                    + "or purchases; merge the slots first to set it");
+        }
         sweet.setDescription(sweetDetails.getDescription());
 
         if (imageFile != null && !imageFile.isEmpty()) {
@@ -86,11 +263,17 @@ public class SweetService {
             sweet.setImageUrl(sweetDetails.getImageUrl());
         }
 
-        return sweetRepository.save(sweet);
+        sweet.setCatalogVersion(versionClock.next());
+        Sweet saved = sweetRepository.save(sweet);
+        eventPublisher.publishEvent(SweetChangedEvent.upserted(saved));
+        return saved;
     }
 
+    @Transactional
     public void deleteSweet(Long id) {
         Sweet sweet = sweetRepository.findById(id).orElseThrow(() -> new RuntimeException("Sweet not found"));
+        stockSlots.discard(id);
         sweetRepository.delete(sweet);
+        eventPublisher.publishEvent(SweetChangedEvent.deleted(id, versionClock.next()));
     }
 }
@@ -0,0 +1,517 @@
+package com.assignment.sweet.service;
+
+import com.assignment.sweet.dto.SweetSearchHit;
+import com.assignment.sweet.event.SweetChangedEvent;
+import com.assignment.sweet.model.Sweet;
+import com.assignment.sweet.repository.SweetRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over sweet name, category and description.
+ *
+ * Terms are lower-cased, accent-folded alphanumeric tokens. Each term maps to a
+ * posting list of document ordinals in ascending order with a field-boosted
+ * term weight. A query token matches a term exactly, as a prefix, or within
+ * one edit (insert, delete, substitute or transpose) via a table of
+ * single-deletion variants, so fuzzy lookup never scans the vocabulary.
+ * Multi-token queries are AND-ed by merging sorted posting lists.
+ *
+ * Updates never rewrite posting lists: a changed sweet gets a new ordinal and
+ * its old one is marked dead and skipped. Once dead ordinals outnumber live
+ * ones the index is re-packed from the documents it already holds.
+ */
+@Slf4j
+@Component
+public class SweetTextIndex {
+
+    static final float NAME_BOOST = 3f;
+    static final float CATEGORY_BOOST = 2f;
+    static final float DESCRIPTION_BOOST = 1f;
+
+    static final float EXACT_MATCH = 1f;
+    static final float PREFIX_MATCH = 0.6f;
+    static final float FUZZY_MATCH = 0.4f;
+
+    static final int MAX_PREFIX_EXPANSIONS = 32;
+    static final int MIN_FUZZY_LENGTH = 4;
+    static final int MAX_LIMIT = 100;
+
+    private final SweetRepository sweetRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, PostingList> postings = new TreeMap<>();
+    private final Map<String, List<String>> deletionVariants = new HashMap<>();
+    private final Map<Long, Doc> docsById = new HashMap<>();
+    private Doc[] docsByOrdinal = new Doc[1024];
+    private int nextOrdinal;
+
+    public SweetTextIndex(SweetRepository sweetRepository) {
+        this.sweetRepository = sweetRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Sweet> sweets;
+        // Held across the load so that events committed meanwhile are applied after it
+        lock.writeLock().lock();
+        try {
+            sweets = sweetRepository.findAll();
+            clear();
+            for (Sweet sweet : sweets) {
+                add(Doc.of(sweet));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Text index built with {} sweets and {} terms", sweets.size(), postings.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSweetChanged(SweetChangedEvent event) {
+        if (event.isDeleted()) {
+            remove(event.sweetId());
+        } else {
+            index(event.sweet());
+        }
+    }
+
+    public void index(Sweet sweet) {
+        Doc doc = Doc.of(sweet);
+        lock.writeLock().lock();
+        try {
+            Doc existing = docsById.get(doc.id);
+            if (existing != null) {
+                if (existing.version > doc.version) {
+                    return;
+                }
+                kill(existing);
+            }
+            add(doc);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long sweetId) {
+        lock.writeLock().lock();
+        try {
+            Doc existing = docsById.remove(sweetId);
+            if (existing != null) {
+                kill(existing);
+                compactIfNeeded();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ranked search. Every query token must match (exactly, by prefix or
+     * fuzzily); documents are scored by the sum over tokens of match type x
+     * inverse document frequency x field-boosted term weight.
+     */
+    public List<SweetSearchHit> search(String query, int limit) {
+        List<String> tokens = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        int k = Math.max(1, Math.min(limit, MAX_LIMIT));
+
+        lock.readLock().lock();
+        try {
+            List<Scored> perToken = new ArrayList<>(tokens.size());
+            for (String token : tokens) {
+                Scored matches = matchToken(token);
+                if (matches.size == 0) {
+                    return List.of();
+                }
+                perToken.add(matches);
+            }
+            perToken.sort((a, b) -> Integer.compare(a.size, b.size));
+            Scored result = perToken.get(0);
+            for (int i = 1; i < perToken.size() && result.size > 0; i++) {
+                result = Scored.intersect(result, perToken.get(i));
+            }
+            return topHits(result, k);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Scored matchToken(String token) {
+        // Best match type per term: exact beats prefix beats fuzzy
+        Map<String, Float> expansions = new LinkedHashMap<>();
+        if (postings.containsKey(token)) {
+            expansions.put(token, EXACT_MATCH);
+        }
+        NavigableMap<String, PostingList> withPrefix = postings.subMap(token, false, token + Character.MAX_VALUE,
+                false);
+        int expanded = 0;
+        for (String term : withPrefix.keySet()) {
+            if (expanded++ >= MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+            expansions.putIfAbsent(term, PREFIX_MATCH);
+        }
+        if (token.length() >= MIN_FUZZY_LENGTH) {
+            for (String term : fuzzyCandidates(token)) {
+                expansions.putIfAbsent(term, FUZZY_MATCH);
+            }
+        }
+
+        Scored union = Scored.EMPTY;
+        int liveDocs = docsById.size();
+        for (Map.Entry<String, Float> expansion : expansions.entrySet()) {
+            PostingList list = postings.get(expansion.getKey());
+            if (list == null || list.liveCount == 0) {
+                continue;
+            }
+            float idf = (float) Math.log(1 + (double) liveDocs / list.liveCount);
+            union = Scored.union(union, list.score(docsByOrdinal, expansion.getValue() * idf));
+        }
+        return union;
+    }
+
+    private Set<String> fuzzyCandidates(String token) {
+        Set<String> candidates = new LinkedHashSet<>();
+        // token itself is a deletion of a longer term
+        addAll(candidates, deletionVariants.get(token));
+        for (String variant : deletions(token)) {
+            // a longer token with one extra character
+            if (postings.containsKey(variant)) {
+                candidates.add(variant);
+            }
+            // same-length term with one substitution or transposition
+            addAll(candidates, deletionVariants.get(variant));
+        }
+        candidates.removeIf(term -> term.equals(token) || term.startsWith(token) || !withinOneEdit(token, term));
+        return candidates;
+    }
+
+    private List<SweetSearchHit> topHits(Scored scored, int k) {
+        PriorityQueue<Integer> heap = new PriorityQueue<>(k + 1,
+                (a, b) -> Float.compare(scored.scores[a], scored.scores[b]));
+        float floor = Float.NEGATIVE_INFINITY;
+        for (int i = 0; i < scored.size; i++) {
+            // Most candidates lose to the current k-th best; skip them without boxing
+            if (heap.size() == k && scored.scores[i] <= floor) {
+                continue;
+            }
+            heap.offer(i);
+            if (heap.size() > k) {
+                heap.poll();
+            }
+            if (heap.size() == k) {
+                floor = scored.scores[heap.peek()];
+            }
+        }
+        SweetSearchHit[] hits = new SweetSearchHit[heap.size()];
+        for (int i = hits.length - 1; i >= 0; i--) {
+            int index = heap.poll();
+            Doc doc = docsByOrdinal[scored.docs[index]];
+            hits[i] = new SweetSearchHit(doc.id, doc.name, doc.category, doc.price, doc.quantity, doc.imageUrl,
+                    scored.scores[index]);
+        }
+        return Arrays.asList(hits);
+    }
+
+    private void add(Doc doc) {
+        doc.ordinal = nextOrdinal++;
+        if (doc.ordinal >= docsByOrdinal.length) {
+            docsByOrdinal = Arrays.copyOf(docsByOrdinal, docsByOrdinal.length * 2);
+        }
+        docsByOrdinal[doc.ordinal] = doc;
+        docsById.put(doc.id, doc);
+        for (int i = 0; i < doc.terms.length; i++) {
+            PostingList list = postings.get(doc.terms[i]);
+            if (list == null) {
+                list = new PostingList();
+                postings.put(doc.terms[i], list);
+                registerDeletionVariants(doc.terms[i]);
+            }
+            list.append(doc.ordinal, doc.weights[i]);
+        }
+    }
+
+    private void kill(Doc doc) {
+        doc.live = false;
+        for (String term : doc.terms) {
+            PostingList list = postings.get(term);
+            if (list != null && --list.liveCount == 0) {
+                postings.remove(term);
+                unregisterDeletionVariants(term);
+            }
+        }
+    }
+
+    private void compactIfNeeded() {
+        int dead = nextOrdinal - docsById.size();
+        if (dead < 1024 || dead < docsById.size()) {
+            return;
+        }
+        Collection<Doc> live = new ArrayList<>(docsById.values());
+        clear();
+        live.stream().sorted((a, b) -> Integer.compare(a.ordinal, b.ordinal)).forEach(this::add);
+        log.debug("Text index compacted to {} sweets", live.size());
+    }
+
+    private void clear() {
+        postings.clear();
+        deletionVariants.clear();
+        docsById.clear();
+        docsByOrdinal = new Doc[Math.max(1024, docsByOrdinal.length)];
+        nextOrdinal = 0;
+    }
+
+    private void registerDeletionVariants(String term) {
+        if (term.length() < MIN_FUZZY_LENGTH) {
+            return;
+        }
+        for (String variant : deletions(term)) {
+            deletionVariants.computeIfAbsent(variant, v -> new ArrayList<>(2)).add(term);
+        }
+    }
+
+    private void unregisterDeletionVariants(String term) {
+        if (term.length() < MIN_FUZZY_LENGTH) {
+            return;
+        }
+        for (String variant : deletions(term)) {
+            List<String> terms = deletionVariants.get(variant);
+            if (terms != null) {
+                terms.remove(term);
+                if (terms.isEmpty()) {
+                    deletionVariants.remove(variant);
+                }
+            }
+        }
+    }
+
+    private static Set<String> deletions(String term) {
+        Set<String> variants = new LinkedHashSet<>(term.length());
+        for (int i = 0; i < term.length(); i++) {
+            variants.add(term.substring(0, i) + term.substring(i + 1));
+        }
+        return variants;
+    }
+
+    /** Optimal string alignment distance <= 1, without building the full matrix. */
+    static boolean withinOneEdit(String a, String b) {
+        int la = a.length();
+        int lb = b.length();
+        if (Math.abs(la - lb) > 1) {
+            return false;
+        }
+        int i = 0;
+        while (i < la && i < lb && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        if (la == lb) {
+            if (i == la) {
+                return true;
+            }
+            if (a.substring(i + 1).equals(b.substring(i + 1))) {
+                return true;
+            }
+            return i + 1 < la && a.charAt(i) == b.charAt(i + 1) && a.charAt(i + 1) == b.charAt(i)
+                    && a.substring(i + 2).equals(b.substring(i + 2));
+        }
+        return la > lb ? a.substring(i + 1).equals(b.substring(i)) : a.substring(i).equals(b.substring(i + 1));
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "")
+                .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean word = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                tokens.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static void addAll(Set<String> target, List<String> source) {
+        if (source != null) {
+            target.addAll(source);
+        }
+    }
+
+    /** Indexed form of one sweet: card fields plus its distinct terms and their weights. */
+    private static final class Doc {
+        final Long id;
+        final long version;
+        final String name;
+        final String category;
+        final BigDecimal price;
+        final Integer quantity;
+        final String imageUrl;
+        final String[] terms;
+        final float[] weights;
+        int ordinal;
+        boolean live = true;
+
+        private Doc(Sweet sweet, String[] terms, float[] weights) {
+            this.id = sweet.getId();
+            this.version = sweet.getCatalogVersion() != null ? sweet.getCatalogVersion() : 0L;
+            this.name = sweet.getName();
+            this.category = sweet.getCategory();
+            this.price = sweet.getPrice();
+            this.quantity = sweet.getQuantity();
+            this.imageUrl = sweet.getImageUrl();
+            this.terms = terms;
+            this.weights = weights;
+        }
+
+        static Doc of(Sweet sweet) {
+            Map<String, Float> weights = new LinkedHashMap<>();
+            accumulate(weights, sweet.getName(), NAME_BOOST);
+            accumulate(weights, sweet.getCategory(), CATEGORY_BOOST);
+            accumulate(weights, sweet.getDescription(), DESCRIPTION_BOOST);
+            String[] terms = weights.keySet().toArray(new String[0]);
+            float[] values = new float[terms.length];
+            for (int i = 0; i < terms.length; i++) {
+                // Dampen repeated terms so long descriptions cannot drown out the name
+                values[i] = (float) Math.sqrt(weights.get(terms[i]));
+            }
+            return new Doc(sweet, terms, values);
+        }
+
+        private static void accumulate(Map<String, Float> weights, String text, float boost) {
+            for (String token : tokenize(text)) {
+                weights.merge(token, boost, Float::sum);
+            }
+        }
+    }
+
+    /** Append-only list of (ordinal, weight); ordinals are added in increasing order. */
+    private static final class PostingList {
+        int[] docs = new int[4];
+        float[] weights = new float[4];
+        int size;
+        int liveCount;
+
+        void append(int ordinal, float weight) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            docs[size] = ordinal;
+            weights[size] = weight;
+            size++;
+            liveCount++;
+        }
+
+        Scored score(Doc[] docsByOrdinal, float factor) {
+            Scored scored = new Scored(liveCount);
+            for (int i = 0; i < size; i++) {
+                if (docsByOrdinal[docs[i]].live) {
+                    scored.docs[scored.size] = docs[i];
+                    scored.scores[scored.size] = factor * weights[i];
+                    scored.size++;
+                }
+            }
+            return scored;
+        }
+    }
+
+    /** Ordinals in ascending order with their accumulated scores. */
+    private static final class Scored {
+        static final Scored EMPTY = new Scored(0);
+
+        final int[] docs;
+        final float[] scores;
+        int size;
+
+        Scored(int capacity) {
+            docs = new int[capacity];
+            scores = new float[capacity];
+        }
+
+        /** Union keeping the best score per document (one term per token counts). */
+        static Scored union(Scored a, Scored b) {
+            if (a.size == 0) {
+                return b;
+            }
+            if (b.size == 0) {
+                return a;
+            }
+            Scored out = new Scored(a.size + b.size);
+            int i = 0;
+            int j = 0;
+            while (i < a.size || j < b.size) {
+                if (j == b.size || (i < a.size && a.docs[i] < b.docs[j])) {
+                    out.put(a.docs[i], a.scores[i++]);
+                } else if (i == a.size || b.docs[j] < a.docs[i]) {
+                    out.put(b.docs[j], b.scores[j++]);
+                } else {
+                    out.put(a.docs[i], Math.max(a.scores[i++], b.scores[j++]));
+                }
+            }
+            return out;
+        }
+
+        /** Intersection summing the scores of both sides. */
+        static Scored intersect(Scored a, Scored b) {
+            Scored out = new Scored(Math.min(a.size, b.size));
+            int i = 0;
+            int j = 0;
+            while (i < a.size && j < b.size) {
+                if (a.docs[i] < b.docs[j]) {
+                    i++;
+                } else if (b.docs[j] < a.docs[i]) {
+                    j++;
+                } else {
+                    out.put(a.docs[i], a.scores[i++] + b.scores[j++]);
+                }
+            }
+            return out;
+        }
+
+        private void put(int doc, float score) {
+            docs[size] = doc;
+            scores[size] = score;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.assignment.sweet.service;
+
+import com.assignment.sweet.exception.ConflictException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Retries writes to a sweet that lost a race with a concurrent one: an
+ * optimistic lock conflict on its {@code @Version}, or a lock timeout or
+ * deadlock on its row. Attempts back off exponentially from
+ * {@code sweets.retry.backoff} up to {@code sweets.retry.max-backoff} with
+ * full jitter, so callers colliding on a hot sweet spread out instead of
+ * colliding again in lockstep. After {@code sweets.retry.max-attempts} the
+ * caller gets a {@link ConflictException}.
+ *
+ * Meters, tagged by operation: {@code sweet.update.retries} and the
+ * {@code sweet.update.attempts} histogram of attempts per write that needed
+ * more than one. {@code sweet.update.conflicts} (every failed attempt) and
+ * {@code sweet.update.exhausted} also carry the sweet id so hot items stand
+ * out; only sweets that actually conflict get a series.
+ */
+@Slf4j
+@Component
+public class SweetUpdateRetry {
+
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final long backoffNanos;
+    private final long maxBackoffNanos;
+
+    public SweetUpdateRetry(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+            @Value("${sweets.retry.max-attempts:5}") int maxAttempts,
+            @Value("${sweets.retry.backoff:10ms}") Duration backoff,
+            @Value("${sweets.retry.max-backoff:200ms}") Duration maxBackoff) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+        this.backoffNanos = backoff.toNanos();
+        this.maxBackoffNanos = maxBackoff.toNanos();
+    }
+
+    /**
+     * Runs {@code action} in a transaction of its own per attempt. Inside a
+     * caller's transaction it runs once: a rolled-back attempt would doom
+     * the caller's work too, so the conflict is left to surface as a 409.
+     */
+    public <T> T inTransaction(String operation, Long sweetId, Supplier<T> action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return action.get();
+        }
+        return run(operation, sweetId, () -> transactionTemplate.execute(status -> action.get()));
+    }
+
+    /**
+     * Retries {@code action}, which must start and finish its own transaction.
+     * Inside a caller's transaction it runs once, as {@link #inTransaction}
+     * does: a lock timeout or deadlock has already marked that transaction
+     * rollback-only, so no retry within it could commit.
+     */
+    public <T> T run(String operation, Long sweetId, Supplier<T> action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return action.get();
+        }
+        for (int attempt = 1;; attempt++) {
+            try {
+                T result = action.get();
+                if (attempt > 1) {
+                    attempts(operation).record(attempt);
+                }
+                return result;
+            } catch (ConcurrencyFailureException e) {
+                sweetCounter("sweet.update.conflicts", operation, sweetId).increment();
+                if (attempt >= maxAttempts) {
+                    sweetCounter("sweet.update.exhausted", operation, sweetId).increment();
+                    log.warn("Giving up {} of sweet {} after {} conflicting attempts", operation, sweetId, attempt);
+                    throw new ConflictException("Sweet is busy, please try again");
+                }
+                Counter.builder("sweet.update.retries").tag("operation", operation).register(meterRegistry)
+                        .increment();
+                log.debug("Conflict on {} of sweet {}, attempt {}: {}", operation, sweetId, attempt, e.getMessage());
+                backOff(attempt);
+            }
+        }
+    }
+
+    private void backOff(int attempt) {
+        long ceiling = Math.min(maxBackoffNanos, backoffNanos << Math.min(attempt - 1, 20));
+        long pause = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        try {
+            Thread.sleep(Duration.ofNanos(pause));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("Interrupted while retrying, please try again");
+        }
+    }
+
+    private Counter sweetCounter(String name, String operation, Long sweetId) {
+        return Counter.builder(name)
+                .tag("operation", operation)
+                .tag("sweet", String.valueOf(sweetId))
+                .register(meterRegistry);
+    }
+
+    private DistributionSummary attempts(String operation) {
+        return DistributionSummary.builder("sweet.update.attempts")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
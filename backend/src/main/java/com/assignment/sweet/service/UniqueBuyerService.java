@@ -0,0 +1,281 @@
+package com.assignment.sweet.service;
+
+import com.assignment.sweet.dto.BuyerSketchRow;
+import com.assignment.sweet.dto.DailyBuyers;
+import com.assignment.sweet.dto.SaleRecord;
+import com.assignment.sweet.dto.SalesGrouping;
+import com.assignment.sweet.dto.UniqueBuyerCount;
+import com.assignment.sweet.event.PurchaseRecordedEvent;
+import com.assignment.sweet.model.BuyerSketch;
+import com.assignment.sweet.model.Sweet;
+import com.assignment.sweet.repository.BuyerSketchRepository;
+import com.assignment.sweet.repository.PurchaseRepository;
+import com.assignment.sweet.repository.SweetRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Unique buyers per sweet and per day for the admin dashboard, from one
+ * {@link HyperLogLog} sketch of customer emails per sweet and day
+ * ({@code buyer_sketches}) instead of {@code COUNT(DISTINCT customer_email)}.
+ *
+ * Committed purchases are added to in-memory sketches that are merged into
+ * the stored ones every {@code sales.buyers.flush-interval-ms}, the rows
+ * locked in (day, sweet) order. Merging is idempotent, so a failed flush is
+ * simply merged again later, and a rebuild may overlap live purchases
+ * without counting anyone twice. What is pending is also merged on
+ * shutdown; a crash loses up to one flush interval of buyers, which
+ * {@code POST /api/sales/buyers/rebuild} recovers from the purchases table.
+ *
+ * Counts over several sweets, a category or a range of days merge the
+ * stored sketches of that slice and estimate the union, so a customer who
+ * came back on several days or bought several sweets is counted once.
+ */
+@Slf4j
+@Service
+public class UniqueBuyerService {
+
+    static final String UNCATEGORIZED = "Uncategorized";
+    static final int MAX_DAYS = 366;
+    static final int DEFAULT_DAYS = 30;
+
+    private final BuyerSketchRepository sketchRepository;
+    private final PurchaseRepository purchaseRepository;
+    private final SweetRepository sweetRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final Map<SketchKey, HyperLogLog> pending = new ConcurrentHashMap<>();
+    /** Serializes the writers: flush and rebuild. */
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    public UniqueBuyerService(BuyerSketchRepository sketchRepository, PurchaseRepository purchaseRepository,
+            SweetRepository sweetRepository, PlatformTransactionManager transactionManager) {
+        this.sketchRepository = sketchRepository;
+        this.purchaseRepository = purchaseRepository;
+        this.sweetRepository = sweetRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPurchaseRecorded(PurchaseRecordedEvent event) {
+        add(pending, SaleRecord.of(event.purchase()));
+    }
+
+    @Scheduled(fixedDelayString = "${sales.buyers.flush-interval-ms:1000}")
+    public void flush() {
+        writeLock.lock();
+        try {
+            Map<SketchKey, HyperLogLog> batch = new HashMap<>();
+            for (SketchKey key : List.copyOf(pending.keySet())) {
+                HyperLogLog sketch = pending.remove(key);
+                if (sketch != null) {
+                    batch.put(key, sketch);
+                }
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> store(batch));
+            } catch (RuntimeException e) {
+                batch.forEach(this::requeue);
+                log.warn("Merging {} buyer sketches failed; retrying on the next flush", batch.size(), e);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (sketchRepository.count() == 0 && purchaseRepository.findLastPurchaseId() != null) {
+            log.info("Buyer sketches backfilled from {} purchases", rebuild());
+        }
+    }
+
+    /**
+     * Drops every buyer sketch and rebuilds them from the purchases table, a
+     * day at a time. Returns the number of purchases read.
+     */
+    public long rebuild() {
+        writeLock.lock();
+        try {
+            transactionTemplate.executeWithoutResult(status -> sketchRepository.deleteAllInBatch());
+            LocalDateTime first = purchaseRepository.findFirstPurchaseDate();
+            if (first == null) {
+                return 0;
+            }
+            // Through tomorrow, for purchases stamped just after the scan starts
+            LocalDate end = LocalDate.now().plusDays(2);
+            long read = 0;
+            for (LocalDate day = first.toLocalDate(); day.isBefore(end); day = day.plusDays(1)) {
+                LocalDate from = day;
+                read += transactionTemplate.execute(status -> {
+                    Map<SketchKey, HyperLogLog> sketches = new HashMap<>();
+                    long count;
+                    try (Stream<SaleRecord> sales = purchaseRepository.streamSales(from.atStartOfDay(),
+                            from.plusDays(1).atStartOfDay())) {
+                        count = sales.mapToLong(sale -> {
+                            add(sketches, sale);
+                            return 1;
+                        }).sum();
+                    }
+                    store(sketches);
+                    return count;
+                });
+            }
+            return read;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Unique buyers per sweet or per category over the days in
+     * {@code [from, to)}, most first. Defaults to the last
+     * {@value #DEFAULT_DAYS} days including today.
+     */
+    public List<UniqueBuyerCount> countBy(LocalDate from, LocalDate to, SalesGrouping grouping) {
+        DayRange range = DayRange.of(from, to, false);
+        Map<Object, HyperLogLog> unions = new LinkedHashMap<>();
+        Map<Object, UniqueBuyerCount> counts = new LinkedHashMap<>();
+        merge(range, null, null, row -> {
+            Object key = grouping == SalesGrouping.SWEET ? row.sweetId() : row.category();
+            counts.computeIfAbsent(key, k -> new UniqueBuyerCount(
+                    grouping == SalesGrouping.SWEET ? row.sweetId() : null, null, row.category(), 0));
+            return unions.computeIfAbsent(key, k -> new HyperLogLog());
+        });
+        counts.forEach((key, count) -> count.setBuyers(unions.get(key).estimate()));
+        if (grouping == SalesGrouping.SWEET) {
+            Map<Long, String> names = sweetRepository.findAllById(counts.values().stream()
+                    .map(UniqueBuyerCount::getSweetId).toList()).stream()
+                    .collect(Collectors.toMap(Sweet::getId, Sweet::getName));
+            counts.values().forEach(count -> count.setSweetName(names.get(count.getSweetId())));
+        }
+        return counts.values().stream()
+                .sorted(Comparator.comparingLong(UniqueBuyerCount::getBuyers).reversed())
+                .toList();
+    }
+
+    /** Unique buyers over the whole range, optionally of one sweet or category. */
+    public long count(LocalDate from, LocalDate to, Long sweetId, String category) {
+        HyperLogLog union = new HyperLogLog();
+        merge(DayRange.of(from, to, false), sweetId, category, row -> union);
+        return union.estimate();
+    }
+
+    /**
+     * Unique buyers per day, optionally of one sweet or category; days
+     * without sales are left out. At most {@value #MAX_DAYS} days.
+     */
+    public List<DailyBuyers> daily(LocalDate from, LocalDate to, Long sweetId, String category) {
+        Map<LocalDate, HyperLogLog> days = new TreeMap<>();
+        merge(DayRange.of(from, to, true), sweetId, category,
+                row -> days.computeIfAbsent(row.day(), day -> new HyperLogLog()));
+        return days.entrySet().stream()
+                .map(day -> new DailyBuyers(day.getKey(), day.getValue().estimate()))
+                .toList();
+    }
+
+    /** Merges each stored sketch of the slice into the union {@code target} picks for its row. */
+    private void merge(DayRange range, Long sweetId, String category,
+            Function<BuyerSketchRow, HyperLogLog> target) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<BuyerSketchRow> rows = sketchRepository.streamRange(range.from(), range.to(), sweetId,
+                    category)) {
+                rows.forEach(row -> target.apply(row).merge(HyperLogLog.fromBytes(row.registers())));
+            }
+        });
+    }
+
+    private static void add(Map<SketchKey, HyperLogLog> sketches, SaleRecord sale) {
+        sketches.compute(new SketchKey(sale.createdDate().toLocalDate(), sale.sweetId()), (key, sketch) -> {
+            HyperLogLog updated = sketch != null ? sketch : new HyperLogLog();
+            updated.add(sale.customerEmail());
+            return updated;
+        });
+    }
+
+    private void requeue(SketchKey key, HyperLogLog sketch) {
+        pending.merge(key, sketch, (queued, failed) -> {
+            queued.merge(failed);
+            return queued;
+        });
+    }
+
+    /** Merges the sketches into their stored rows, in the caller's transaction, locking in key order. */
+    private void store(Map<SketchKey, HyperLogLog> sketches) {
+        if (sketches.isEmpty()) {
+            return;
+        }
+        Map<Long, String> categories = sweetRepository.findAllById(sketches.keySet().stream()
+                .map(SketchKey::sweetId).distinct().toList()).stream()
+                .collect(Collectors.toMap(Sweet::getId, Sweet::getCategory));
+        new TreeMap<>(sketches).forEach((key, sketch) -> {
+            BuyerSketch row = sketchRepository.findForUpdate(key.day(), key.sweetId()).orElse(null);
+            if (row == null) {
+                row = new BuyerSketch(null, key.day(), key.sweetId(),
+                        categories.getOrDefault(key.sweetId(), UNCATEGORIZED), sketch.toBytes());
+            } else {
+                HyperLogLog stored = HyperLogLog.fromBytes(row.getRegisters());
+                stored.merge(sketch);
+                row.setRegisters(stored.toBytes());
+            }
+            sketchRepository.save(row);
+        });
+    }
+
+    private record SketchKey(LocalDate day, Long sweetId) implements Comparable<SketchKey> {
+
+        @Override
+        public int compareTo(SketchKey other) {
+            int byDay = day.compareTo(other.day);
+            return byDay != 0 ? byDay : sweetId.compareTo(other.sweetId);
+        }
+    }
+
+    private record DayRange(LocalDate from, LocalDate to) {
+
+        static DayRange of(LocalDate from, LocalDate to, boolean capped) {
+            LocalDate end = to != null ? to : LocalDate.now().plusDays(1);
+            LocalDate start = from != null ? from : end.minusDays(DEFAULT_DAYS);
+            if (!start.isBefore(end)) {
+                throw new IllegalArgumentException("'from' must be before 'to'");
+            }
+            if (capped && ChronoUnit.DAYS.between(start, end) > MAX_DAYS) {
+                throw new IllegalArgumentException("At most " + MAX_DAYS + " days per series");
+            }
+            return new DayRange(start, end);
+        }
+    }
+}
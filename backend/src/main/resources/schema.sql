@@ -5,4 +5,15 @@ ON users(clerk_id)
 WHERE clerk_id IS NOT NULL;
 
 -- Ensure auth_type column exists (added for dual-auth support)
--- This will be handled by Hibernate DDL for new deployments
\ No newline at end of file
+-- This will be handled by Hibernate DDL for new deployments
+
+-- Catalog search filters on lower(category) and pages by (price, id);
+-- expression indexes are not expressible through JPA annotations
+CREATE INDEX IF NOT EXISTS idx_sweets_lower_category_price_id
+ON sweets(lower(category), price, id);
+
+-- Purchase ids moved from an identity column to the pooled purchases_seq
+-- (allocation 50); keep the sequence ahead of ids already handed out
+SELECT setval('purchases_seq', GREATEST(
+    (SELECT COALESCE(MAX(id), 0) + 50 FROM purchases),
+    (SELECT last_value FROM purchases_seq)));
@@ -0,0 +1,152 @@
+package com.assignment.sweet.benchmark;
+
+import com.assignment.sweet.model.Sweet;
+import com.assignment.sweet.repository.InventoryCheckpointRepository;
+import com.assignment.sweet.repository.PurchaseRepository;
+import com.assignment.sweet.repository.SweetRepository;
+import com.assignment.sweet.service.CatalogVersionClock;
+import com.assignment.sweet.service.GroupCommitInventoryEngine;
+import com.assignment.sweet.service.InventoryEngine;
+import com.assignment.sweet.service.RingBufferInventoryEngine;
+import com.assignment.sweet.service.StockLedgerEngine;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Purchases per second through the default database engine, the
+ * group-commit engine, the single-writer ring buffer and the write-behind
+ * ledger, with many buyers on a
+ * handful of hot sweets. The ledger figure includes draining its queue to
+ * the database.
+ * Run with {@code ./mvnw test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest
+class InventoryEngineBenchmarkTest {
+
+    private static final int THREADS = 64;
+    private static final int PURCHASES_PER_THREAD = 300;
+    private static final int HOT_SWEETS = 4;
+
+    @Autowired
+    private InventoryEngine databaseEngine;
+
+    @Autowired
+    private SweetRepository sweetRepository;
+
+    @Autowired
+    private PurchaseRepository purchaseRepository;
+
+    @Autowired
+    private InventoryCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private CatalogVersionClock versionClock;
+
+    @TempDir
+    Path journalDir;
+
+    @Test
+    void purchaseThroughputOnHotSweets() throws Exception {
+        double database = run("database", databaseEngine, seed());
+
+        List<Long> sweets = seed();
+        StockLedgerEngine ledger = new StockLedgerEngine(sweetRepository, purchaseRepository, checkpointRepository,
+                transactionManager, eventPublisher, versionClock,
+                journalDir.resolve("purchase-journal.log").toString(), true, 20, 500);
+        ledger.start();
+        double ledgerRate = run("ledger", ledger, sweets, ledger::stop);
+
+        GroupCommitInventoryEngine groupCommit = new GroupCommitInventoryEngine(sweetRepository, purchaseRepository,
+                eventPublisher, versionClock, transactionManager, 2, 200, 10_000);
+        groupCommit.start();
+        double groupRate = run("group-commit", groupCommit, seed());
+        groupCommit.stop();
+        System.out.printf("  group-commit: %d commits for %d purchases%n", groupCommit.commitCount(),
+                groupCommit.purchaseCount());
+
+        RingBufferInventoryEngine ringBuffer = new RingBufferInventoryEngine(sweetRepository, purchaseRepository,
+                eventPublisher, versionClock, transactionManager, 16_384, 4, 500);
+        ringBuffer.start();
+        double ringRate = run("ring-buffer", ringBuffer, seed());
+        ringBuffer.stop();
+        System.out.printf("  ring-buffer: %d commits for %d purchases%n", ringBuffer.commitCount(),
+                ringBuffer.purchaseCount());
+
+        System.out.printf("  group-commit / database: %.1fx, ring-buffer / database: %.1fx, ledger / database: %.1fx%n",
+                groupRate / database, ringRate / database, ledgerRate / database);
+    }
+
+    private double run(String name, InventoryEngine engine, List<Long> sweets, Runnable drain) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < PURCHASES_PER_THREAD; i++) {
+                    engine.purchase(sweets.get((thread + i) % HOT_SWEETS), 1, "buyer" + thread + "@example.com");
+                }
+                return null;
+            }));
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        drain.run();
+        double seconds = (System.nanoTime() - began) / 1e9;
+        executor.shutdown();
+
+        int purchases = THREADS * PURCHASES_PER_THREAD;
+        double rate = purchases / seconds;
+        System.out.printf("InventoryEngine %s: %d purchases on %d sweets from %d threads in %.2f s, %.0f/s%n",
+                name, purchases, HOT_SWEETS, THREADS, seconds, rate);
+
+        int sold = sweets.stream().mapToInt(id -> 1_000_000 - sweetRepository.findById(id).orElseThrow()
+                .getQuantity()).sum();
+        assertEquals(purchases, sold);
+        return rate;
+    }
+
+    private double run(String name, InventoryEngine engine, List<Long> sweets) throws Exception {
+        return run(name, engine, sweets, () -> {
+        });
+    }
+
+    private List<Long> seed() {
+        purchaseRepository.deleteAll();
+        sweetRepository.deleteAll();
+        checkpointRepository.deleteAll();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < HOT_SWEETS; i++) {
+            ids.add(sweetRepository.save(Sweet.builder().name("Hot sweet " + i).category("Candy")
+                    .price(BigDecimal.ONE).quantity(1_000_000).build()).getId());
+        }
+        return ids;
+    }
+}
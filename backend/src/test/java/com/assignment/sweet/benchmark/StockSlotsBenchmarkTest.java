@@ -0,0 +1,113 @@
+package com.assignment.sweet.benchmark;
+
+import com.assignment.sweet.model.Sweet;
+import com.assignment.sweet.repository.PurchaseRepository;
+import com.assignment.sweet.repository.StockSlotRepository;
+import com.assignment.sweet.repository.SweetRepository;
+import com.assignment.sweet.service.InventoryEngine;
+import com.assignment.sweet.service.StockSlots;
+import com.assignment.sweet.service.SweetService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Purchases per second on a single hot sweet through the sharded engine as
+ * its stock is split across more slots; one slot is the plain conditional
+ * update on the sweet's row. The rebalancer runs at its default interval
+ * throughout, as in production.
+ * Run with {@code ./mvnw test -Pbenchmark -Dtest=StockSlotsBenchmarkTest}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "inventory.engine=sharded",
+        "spring.datasource.url=jdbc:h2:mem:stock-slots-benchmark;DB_CLOSE_DELAY=-1"
+})
+class StockSlotsBenchmarkTest {
+
+    private static final int THREADS = 64;
+    private static final int PURCHASES_PER_THREAD = 300;
+    private static final int STOCK = 1_000_000;
+
+    @Autowired
+    private InventoryEngine engine;
+
+    @Autowired
+    private SweetService sweetService;
+
+    @Autowired
+    private StockSlots stockSlots;
+
+    @Autowired
+    private SweetRepository sweetRepository;
+
+    @Autowired
+    private StockSlotRepository slotRepository;
+
+    @Autowired
+    private PurchaseRepository purchaseRepository;
+
+    @Test
+    void purchaseThroughputBySlotCount() throws Exception {
+        double baseline = 0;
+        for (int slots : new int[] { 1, 2, 4, 8, 16 }) {
+            double rate = run(slots);
+            if (slots == 1) {
+                baseline = rate;
+            }
+            System.out.printf("  %2d slot(s): %.1fx the single row%n", slots, rate / baseline);
+        }
+    }
+
+    private double run(int slots) throws Exception {
+        purchaseRepository.deleteAll();
+        slotRepository.deleteAll();
+        sweetRepository.deleteAll();
+        Long sweetId = sweetRepository.save(Sweet.builder().name("Hot sweet").category("Candy")
+                .price(BigDecimal.ONE).quantity(STOCK).build()).getId();
+        sweetService.setStockSlots(sweetId, slots);
+        stockSlots.rebalance(sweetId);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            String customer = "buyer" + t + "@example.com";
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < PURCHASES_PER_THREAD; i++) {
+                    engine.purchase(sweetId, 1, customer);
+                }
+                return null;
+            }));
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        double seconds = (System.nanoTime() - began) / 1e9;
+        executor.shutdown();
+
+        int purchases = THREADS * PURCHASES_PER_THREAD;
+        double rate = purchases / seconds;
+        System.out.printf("StockSlots %d slot(s): %d purchases on one sweet from %d threads in %.2f s, %.0f/s%n",
+                slots, purchases, THREADS, seconds, rate);
+
+        stockSlots.rebalance(sweetId);
+        assertEquals(STOCK - purchases, sweetRepository.findById(sweetId).orElseThrow().getQuantity());
+        assertEquals(STOCK - purchases, sweetService.getSweet(sweetId).getQuantity());
+        return rate;
+    }
+}
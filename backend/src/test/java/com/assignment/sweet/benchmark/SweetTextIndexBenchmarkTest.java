@@ -0,0 +1,112 @@
+package com.assignment.sweet.benchmark;
+
+import com.assignment.sweet.dto.SweetSearchHit;
+import com.assignment.sweet.model.Sweet;
+import com.assignment.sweet.repository.SweetRepository;
+import com.assignment.sweet.service.SweetTextIndex;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Query latency of {@link SweetTextIndex} over a synthetic 100k-sweet catalog.
+ * Run with {@code ./mvnw test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class SweetTextIndexBenchmarkTest {
+
+    private static final int CATALOG_SIZE = 100_000;
+    private static final int WARMUP_QUERIES = 20_000;
+    private static final int MEASURED_QUERIES = 50_000;
+
+    private static final String[] ADJECTIVES = { "dark", "milk", "white", "salted", "roasted", "spiced", "crispy",
+            "creamy", "tangy", "smoky", "golden", "royal", "classic", "double", "frozen", "honeyed" };
+    private static final String[] FLAVOURS = { "chocolate", "caramel", "pistachio", "almond", "hazelnut",
+            "raspberry", "mango", "coconut", "saffron", "cardamom", "vanilla", "toffee", "lemon", "cherry",
+            "peppermint", "cinnamon", "espresso", "strawberry", "blueberry", "ginger" };
+    private static final String[] KINDS = { "truffle", "fudge", "barfi", "ladoo", "toffee", "brittle", "bonbon",
+            "praline", "lollipop", "gummy", "marshmallow", "nougat", "macaron", "halwa", "jalebi", "rasgulla" };
+    private static final String[] CATEGORIES = { "Chocolate", "Candy", "Gummy", "Lollipop", "Caramel", "Mint",
+            "Licorice", "Sour", "Traditional", "Other" };
+
+    @Test
+    void searchLatencyAt100kSweets() {
+        Random random = new Random(42);
+        List<Sweet> catalog = new ArrayList<>(CATALOG_SIZE);
+        for (long id = 1; id <= CATALOG_SIZE; id++) {
+            String name = pick(random, ADJECTIVES) + " " + pick(random, FLAVOURS) + " " + pick(random, KINDS)
+                    + " " + id;
+            String description = "Hand made " + pick(random, FLAVOURS) + " " + pick(random, KINDS) + " with "
+                    + pick(random, FLAVOURS) + " and " + pick(random, ADJECTIVES) + " " + pick(random, FLAVOURS);
+            catalog.add(Sweet.builder().id(id).name(name).category(pick(random, CATEGORIES))
+                    .price(BigDecimal.valueOf(random.nextInt(5000), 2)).quantity(random.nextInt(100))
+                    .description(description).catalogVersion(id).build());
+        }
+        SweetRepository repository = mock(SweetRepository.class);
+        when(repository.findAll()).thenReturn(catalog);
+        SweetTextIndex index = new SweetTextIndex(repository);
+
+        long buildStart = System.nanoTime();
+        index.rebuild();
+        long buildMillis = (System.nanoTime() - buildStart) / 1_000_000;
+
+        String[] queries = queries(random);
+        for (int i = 0; i < WARMUP_QUERIES; i++) {
+            index.search(queries[i % queries.length], 20);
+        }
+
+        long[] nanos = new long[MEASURED_QUERIES];
+        long hits = 0;
+        for (int i = 0; i < MEASURED_QUERIES; i++) {
+            String query = queries[i % queries.length];
+            long start = System.nanoTime();
+            List<SweetSearchHit> result = index.search(query, 20);
+            nanos[i] = System.nanoTime() - start;
+            hits += result.size();
+        }
+        Arrays.sort(nanos);
+        double p50 = nanos[MEASURED_QUERIES / 2] / 1_000.0;
+        double p99 = nanos[(int) (MEASURED_QUERIES * 0.99)] / 1_000.0;
+        double mean = Arrays.stream(nanos).average().orElse(0) / 1_000.0;
+
+        System.out.printf("SweetTextIndex: %d sweets built in %d ms; %d queries, %d hits%n", CATALOG_SIZE,
+                buildMillis, MEASURED_QUERIES, hits);
+        System.out.printf("  p50 %.1f us, p99 %.1f us, mean %.1f us%n", p50, p99, mean);
+
+        assertTrue(p50 < 1_000, "median query latency should be well under a millisecond, was " + p50 + " us");
+    }
+
+    /** Mix of selective multi-word, single-word, prefix and misspelt queries. */
+    private static String[] queries(Random random) {
+        List<String> queries = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String adjective = pick(random, ADJECTIVES);
+            String flavour = pick(random, FLAVOURS);
+            String kind = pick(random, KINDS);
+            queries.add(adjective + " " + flavour + " " + kind);
+            queries.add(flavour + " " + kind);
+            queries.add(flavour.substring(0, 4) + " " + kind.substring(0, 3));
+            queries.add(misspell(random, flavour) + " " + kind);
+            queries.add(kind + " " + (1 + random.nextInt(CATALOG_SIZE)));
+        }
+        return queries.toArray(new String[0]);
+    }
+
+    private static String misspell(Random random, String word) {
+        int i = 1 + random.nextInt(word.length() - 2);
+        return word.substring(0, i) + word.substring(i + 1);
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
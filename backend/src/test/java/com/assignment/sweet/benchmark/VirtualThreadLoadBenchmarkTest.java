@@ -0,0 +1,185 @@
+package com.assignment.sweet.benchmark;
+
+import com.assignment.sweet.SweetApplication;
+import com.assignment.sweet.model.AuthType;
+import com.assignment.sweet.model.Sweet;
+import com.assignment.sweet.model.User;
+import com.assignment.sweet.repository.SweetRepository;
+import com.assignment.sweet.repository.UserRepository;
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Throughput and latency of the backend on platform threads and on virtual
+ * threads, under the same blocking mix: {@code GET /api/images/search}
+ * against a stub Unsplash that answers after {@link #UPSTREAM_LATENCY}, and
+ * {@code GET /api/sweets/{id}}, which with authentication costs a few JDBC
+ * round trips. Each mode runs in a fresh application on a random port.
+ *
+ * Platform threads cap concurrency at Tomcat's 200 workers, so the gap shows
+ * once clients times upstream latency outgrows them; scale both with
+ * {@code -Dload.clients} and {@code -Dload.upstream-ms} for bigger machines.
+ * Run with {@code ./mvnw test -Pbenchmark -Dtest=VirtualThreadLoadBenchmarkTest}.
+ */
+@Tag("benchmark")
+class VirtualThreadLoadBenchmarkTest {
+
+    private static final int CLIENTS = Integer.getInteger("load.clients", 1000);
+    private static final int REQUESTS_PER_CLIENT = Integer.getInteger("load.requests-per-client", 10);
+    private static final int WARMUP_CLIENTS = 100;
+    private static final Duration UPSTREAM_LATENCY = Duration.ofMillis(Long.getLong("load.upstream-ms", 1000));
+
+    @Test
+    void blockingRequestMixOnPlatformAndVirtualThreads() throws Exception {
+        HttpServer unsplash = HttpServer.create(new InetSocketAddress("localhost", 0), 4096);
+        unsplash.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        byte[] photos = "{\"results\":[{\"urls\":{\"regular\":\"https://images.example/ladoo.jpg\"}}]}"
+                .getBytes(StandardCharsets.UTF_8);
+        unsplash.createContext("/search/photos", exchange -> {
+            try {
+                Thread.sleep(UPSTREAM_LATENCY);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, photos.length);
+            exchange.getResponseBody().write(photos);
+            exchange.close();
+        });
+        unsplash.start();
+        try {
+            Result platform = run(false, unsplash.getAddress().getPort());
+            Result virtual = run(true, unsplash.getAddress().getPort());
+            System.out.printf("%-10s %10s %10s %10s %10s%n", "threads", "req/s", "p50 ms", "p99 ms", "max ms");
+            for (Result result : new Result[] { platform, virtual }) {
+                System.out.printf("%-10s %10.0f %10.1f %10.1f %10.1f%n", result.mode(), result.throughput(),
+                        result.p50Millis(), result.p99Millis(), result.maxMillis());
+            }
+        } finally {
+            unsplash.stop(0);
+        }
+    }
+
+    private Result run(boolean virtualThreads, int unsplashPort) throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        try (ConfigurableApplicationContext app = new SpringApplicationBuilder(SweetApplication.class)
+                .properties("server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "unsplash.base-url=http://localhost:" + unsplashPort,
+                        "spring.datasource.url=jdbc:h2:mem:load-" + mode + ";DB_CLOSE_DELAY=-1",
+                        "logging.level.root=WARN",
+                        // The dev-mode token warning would otherwise be logged on every request
+                        "logging.level.com.assignment.sweet.security=ERROR")
+                .run()) {
+            int port = Integer.parseInt(app.getEnvironment().getProperty("local.server.port"));
+            Long sweetId = app.getBean(SweetRepository.class).save(Sweet.builder().name("Ladoo")
+                    .category("Traditional").price(BigDecimal.valueOf(2)).quantity(100)
+                    .description("Gram flour and ghee").build()).getId();
+            String token = adminToken(app.getBean(UserRepository.class), mode);
+
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .build();
+            URI images = URI.create("http://localhost:" + port + "/api/images/search?query=ladoo");
+            URI sweet = URI.create("http://localhost:" + port + "/api/sweets/" + sweetId);
+
+            try (ExecutorService warmup = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int c = 0; c < WARMUP_CLIENTS; c++) {
+                    warmup.submit(() -> {
+                        for (int i = 0; i < 10; i++) {
+                            send(client, i % 2 == 0 ? images : sweet, token);
+                        }
+                        return null;
+                    });
+                }
+            }
+
+            long[] latencies = new long[CLIENTS * REQUESTS_PER_CLIENT];
+            AtomicInteger next = new AtomicInteger();
+            CountDownLatch start = new CountDownLatch(1);
+            long began;
+            try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                Future<?>[] futures = new Future<?>[CLIENTS];
+                for (int c = 0; c < CLIENTS; c++) {
+                    int offset = c;
+                    futures[c] = clients.submit(() -> {
+                        start.await();
+                        for (int i = 0; i < REQUESTS_PER_CLIENT; i++) {
+                            long sent = System.nanoTime();
+                            send(client, (offset + i) % 2 == 0 ? images : sweet, token);
+                            latencies[next.getAndIncrement()] = System.nanoTime() - sent;
+                        }
+                        return null;
+                    });
+                }
+                began = System.nanoTime();
+                start.countDown();
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            }
+            double seconds = (System.nanoTime() - began) / 1e9;
+
+            Arrays.sort(latencies);
+            return new Result(mode, latencies.length / seconds, percentile(latencies, 0.50),
+                    percentile(latencies, 0.99), latencies[latencies.length - 1] / 1e6);
+        }
+    }
+
+    private static void send(HttpClient client, URI uri, String token) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        assertEquals(200, response.statusCode(), () -> "GET " + uri);
+    }
+
+    /** Without a JWKS URI the filter only decodes tokens, so any signature will do. */
+    private static String adminToken(UserRepository userRepository, String mode) {
+        User admin = new User();
+        admin.setClerkId("load-" + mode);
+        admin.setEmail("load-" + mode + "@example.com");
+        admin.setAuthType(AuthType.CLERK);
+        admin.setRole("ADMIN");
+        userRepository.save(admin);
+        return JWT.create()
+                .withSubject(admin.getClerkId())
+                .withClaim("email", admin.getEmail())
+                .withClaim("role", "admin")
+                .withExpiresAt(Instant.now().plus(Duration.ofHours(1)))
+                .sign(Algorithm.HMAC256("load-test"));
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)] / 1e6;
+    }
+
+    private record Result(String mode, double throughput, double p50Millis, double p99Millis, double maxMillis) {
+    }
+}
@@ -35,6 +35,33 @@ class SweetControllerTest {
         @MockBean
         private SweetService sweetService;
 
+        @MockBean
+        private com.assignment.sweet.service.CatalogSnapshotCache catalogSnapshotCache;
+
+        @MockBean
+        private com.assignment.sweet.service.SweetTextIndex sweetTextIndex;
+
+        @MockBean
+        private com.assignment.sweet.service.SweetFacetIndex sweetFacetIndex;
+
+        @MockBean
+        private com.assignment.sweet.service.JsonRowStreamer jsonRowStreamer;
+
+        @MockBean
+        private com.assignment.sweet.service.CatalogEventBroadcaster catalogEventBroadcaster;
+
+        @MockBean
+        private com.assignment.sweet.service.SweetChangeLog sweetChangeLog;
+
+        @MockBean
+        private com.assignment.sweet.service.IdempotencyStore idempotencyStore;
+
+        @MockBean
+        private com.assignment.sweet.service.FlashSaleGate flashSaleGate;
+
+        @MockBean
+        private com.assignment.sweet.service.BestSellerSketch bestSellerSketch;
+
         @MockBean
         private com.assignment.sweet.security.ClerkAuthenticationFilter clerkAuthenticationFilter;
 
@@ -55,20 +82,51 @@ class SweetControllerTest {
         @Test
         @WithMockUser
         void getAllSweets_ShouldReturnListOfSweets() throws Exception {
-                Sweet sweet = new Sweet(1L, "Ladoo", "Traditional", BigDecimal.valueOf(10.0), 100, "Delicious Ladoo",
-                                "http://image.url");
-                when(sweetService.getAllSweets()).thenReturn(List.of(sweet));
+                Sweet sweet = Sweet.builder().id(1L).name("Ladoo").category("Traditional")
+                                .price(BigDecimal.valueOf(10.0)).quantity(100).description("Delicious Ladoo")
+                                .imageUrl("http://image.url").build();
+                com.assignment.sweet.service.CatalogSnapshot snapshot = org.mockito.Mockito
+                                .mock(com.assignment.sweet.service.CatalogSnapshot.class);
+                when(snapshot.json()).thenReturn(objectMapper.writeValueAsBytes(List.of(sweet)));
+                when(catalogSnapshotCache.current()).thenReturn(snapshot);
 
                 mockMvc.perform(get("/api/sweets"))
                                 .andExpect(MockMvcResultMatchers.status().isOk())
                                 .andExpect(jsonPath("$[0].name").value("Ladoo"));
         }
 
+        @Test
+        @WithMockUser
+        void getAllSweets_ShouldReturnNotModified_WhenEtagMatches() throws Exception {
+                com.assignment.sweet.service.CatalogSnapshot snapshot = org.mockito.Mockito
+                                .mock(com.assignment.sweet.service.CatalogSnapshot.class);
+                when(snapshot.version()).thenReturn(42L);
+                when(catalogSnapshotCache.current()).thenReturn(snapshot);
+
+                mockMvc.perform(get("/api/sweets").header("If-None-Match", "\"42\""))
+                                .andExpect(MockMvcResultMatchers.status().isNotModified());
+                org.mockito.Mockito.verify(snapshot, org.mockito.Mockito.never()).json();
+        }
+
+        @Test
+        @WithMockUser
+        void getSweet_ShouldReturnFullRecordWithDescription() throws Exception {
+                Sweet sweet = Sweet.builder().id(1L).name("Ladoo").category("Traditional")
+                                .price(BigDecimal.valueOf(10.0)).quantity(100).description("Delicious Ladoo")
+                                .imageUrl("http://image.url").build();
+                when(sweetService.getSweet(1L)).thenReturn(sweet);
+
+                mockMvc.perform(get("/api/sweets/1"))
+                                .andExpect(MockMvcResultMatchers.status().isOk())
+                                .andExpect(jsonPath("$.description").value("Delicious Ladoo"));
+        }
+
         @Test
         @WithMockUser(roles = "ADMIN")
         void addSweet_ShouldReturnSavedSweet() throws Exception {
-                Sweet sweet = new Sweet(1L, "Barfi", "Milk", BigDecimal.valueOf(15.0), 50, "Tasty Barfi",
-                                "http://image.url");
+                Sweet sweet = Sweet.builder().id(1L).name("Barfi").category("Milk")
+                                .price(BigDecimal.valueOf(15.0)).quantity(50).description("Tasty Barfi")
+                                .imageUrl("http://image.url").build();
                 when(sweetService.addSweet(any(Sweet.class), any())).thenReturn(sweet);
 
                 org.springframework.mock.web.MockMultipartFile sweetPart = new org.springframework.mock.web.MockMultipartFile(
@@ -89,8 +147,9 @@ class SweetControllerTest {
         @Test
         @WithMockUser(username = "test@example.com")
         void purchaseSweet_ShouldReturnUpdatedSweet() throws Exception {
-                Sweet sweet = new Sweet(1L, "Ladoo", "Traditional", BigDecimal.valueOf(10.0), 9, "Delicious Ladoo",
-                                "http://image.url");
+                Sweet sweet = Sweet.builder().id(1L).name("Ladoo").category("Traditional")
+                                .price(BigDecimal.valueOf(10.0)).quantity(9).description("Delicious Ladoo")
+                                .imageUrl("http://image.url").build();
                 when(sweetService.purchaseSweet(eq(1L), anyInt(), eq("test@example.com"))).thenReturn(sweet);
 
                 mockMvc.perform(post("/api/sweets/1/purchase")
@@ -102,8 +161,9 @@ class SweetControllerTest {
         @Test
         @WithMockUser(roles = "ADMIN")
         void restockSweet_ShouldReturnUpdatedSweet() throws Exception {
-                Sweet sweet = new Sweet(1L, "Ladoo", "Traditional", BigDecimal.valueOf(10.0), 15, "Delicious Ladoo",
-                                "http://image.url");
+                Sweet sweet = Sweet.builder().id(1L).name("Ladoo").category("Traditional")
+                                .price(BigDecimal.valueOf(10.0)).quantity(15).description("Delicious Ladoo")
+                                .imageUrl("http://image.url").build();
                 when(sweetService.restockSweet(1L, 5)).thenReturn(sweet);
 
                 mockMvc.perform(post("/api/sweets/1/restock")
@@ -114,11 +174,40 @@ class SweetControllerTest {
                                 .andExpect(jsonPath("$.quantity").value(15));
         }
 
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        void updateSweet_ShouldReturnConflict_WhenSweetChangedSinceLoaded() throws Exception {
+                when(sweetService.updateSweet(eq(1L), any(Sweet.class), any()))
+                                .thenThrow(new com.assignment.sweet.exception.ConflictException("Changed"));
+                Sweet sweet = Sweet.builder().id(1L).name("Barfi").category("Milk")
+                                .price(BigDecimal.valueOf(15.0)).quantity(50).description("Tasty Barfi")
+                                .imageUrl("http://image.url").build();
+
+                org.springframework.mock.web.MockMultipartFile sweetPart = new org.springframework.mock.web.MockMultipartFile(
+                                "sweet",
+                                "",
+                                "application/json",
+                                objectMapper.writeValueAsBytes(sweet));
+
+                mockMvc.perform(org.springframework.test.web.servlet.request.MockMvcRequestBuilders
+                                .multipart("/api/sweets/1")
+                                .file(sweetPart)
+                                .with(request -> {
+                                        request.setMethod("PUT");
+                                        return request;
+                                })
+                                .with(csrf())
+                                .contentType(MediaType.MULTIPART_FORM_DATA))
+                                .andExpect(MockMvcResultMatchers.status().isConflict())
+                                .andExpect(jsonPath("$.error").value("Changed"));
+        }
+
         @Test
         @WithMockUser // non-admin
         void addSweet_ShouldBeForbiddenForNonAdmin() throws Exception {
-                Sweet sweet = new Sweet(1L, "Barfi", "Milk", BigDecimal.valueOf(15.0), 50, "Tasty Barfi",
-                                "http://image.url");
+                Sweet sweet = Sweet.builder().id(1L).name("Barfi").category("Milk")
+                                .price(BigDecimal.valueOf(15.0)).quantity(50).description("Tasty Barfi")
+                                .imageUrl("http://image.url").build();
 
                 org.springframework.mock.web.MockMultipartFile sweetPart = new org.springframework.mock.web.MockMultipartFile(
                                 "sweet",
@@ -143,4 +232,26 @@ class SweetControllerTest {
                                 .content("5"))
                                 .andExpect(MockMvcResultMatchers.status().isForbidden());
         }
+
+        @Test
+        @WithMockUser // non-admin
+        void setFlashSale_ShouldBeForbiddenForNonAdmin() throws Exception {
+                mockMvc.perform(org.springframework.test.web.servlet.request.MockMvcRequestBuilders
+                                .put("/api/sweets/1/flash-sale")
+                                .with(csrf())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("true"))
+                                .andExpect(MockMvcResultMatchers.status().isForbidden());
+        }
+
+        @Test
+        @WithMockUser // non-admin
+        void setStockSlots_ShouldBeForbiddenForNonAdmin() throws Exception {
+                mockMvc.perform(org.springframework.test.web.servlet.request.MockMvcRequestBuilders
+                                .put("/api/sweets/1/stock-slots")
+                                .with(csrf())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("8"))
+                                .andExpect(MockMvcResultMatchers.status().isForbidden());
+        }
 }
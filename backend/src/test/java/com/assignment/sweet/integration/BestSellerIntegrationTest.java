@@ -0,0 +1,173 @@
+package com.assignment.sweet.integration;
+
+import com.assignment.sweet.dto.BestSeller;
+import com.assignment.sweet.dto.BestSellerView;
+import com.assignment.sweet.model.Purchase;
+import com.assignment.sweet.model.Sweet;
+import com.assignment.sweet.repository.PurchaseRepository;
+import com.assignment.sweet.repository.SketchSnapshotRepository;
+import com.assignment.sweet.repository.SweetRepository;
+import com.assignment.sweet.service.BestSellerSketch;
+import com.assignment.sweet.service.SweetService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Best sellers follow committed purchases, trending ranks recent sales above
+ * older ones, and a sketch restored from its snapshot plus the purchases
+ * made since ranks as the live one did.
+ */
+@SpringBootTest(properties = {
+                // Own database: other contexts checkpoint their sketches into the same snapshot row
+                "spring.datasource.url=jdbc:h2:mem:best-sellers;DB_CLOSE_DELAY=-1",
+                "sweets.best-sellers.checkpoint-interval-ms=3600000"
+})
+@AutoConfigureMockMvc
+class BestSellerIntegrationTest {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private SweetService sweetService;
+
+        @Autowired
+        private SweetRepository sweetRepository;
+
+        @Autowired
+        private PurchaseRepository purchaseRepository;
+
+        @Autowired
+        private SketchSnapshotRepository snapshotRepository;
+
+        @Autowired
+        private PlatformTransactionManager transactionManager;
+
+        @Autowired
+        private BestSellerSketch bestSellerSketch;
+
+        private Sweet ladoo;
+        private Sweet barfi;
+        private Sweet jalebi;
+
+        @BeforeEach
+        void setUp() {
+                purchaseRepository.deleteAll();
+                snapshotRepository.deleteAll();
+                sweetRepository.deleteAll();
+                ladoo = sweetRepository.save(Sweet.builder().name("Ladoo").category("Traditional")
+                                .price(BigDecimal.valueOf(2)).quantity(1000).build());
+                barfi = sweetRepository.save(Sweet.builder().name("Barfi").category("Milk")
+                                .price(BigDecimal.valueOf(5)).quantity(1000).build());
+                jalebi = sweetRepository.save(Sweet.builder().name("Jalebi").category("Fried")
+                                .price(BigDecimal.valueOf(3)).quantity(1000).build());
+        }
+
+        @Test
+        void purchases_ShouldRankBestSellersByUnits() {
+                sweetService.purchaseSweet(ladoo.getId(), 5, "a@example.com");
+                sweetService.purchaseSweet(barfi.getId(), 2, "a@example.com");
+                sweetService.purchaseSweet(barfi.getId(), 4, "b@example.com");
+                sweetService.purchaseSweet(jalebi.getId(), 1, "b@example.com");
+
+                List<BestSeller> top = bestSellerSketch.top(BestSellerView.ALL_TIME, 2);
+                assertEquals(List.of("Barfi", "Ladoo"), names(top));
+                assertEquals(6, top.get(0).getScore());
+                assertEquals(0, top.get(0).getError());
+        }
+
+        @Test
+        void trending_ShouldFavourRecentSales() {
+                // Ladoo sold more, but a day ago; Barfi sold less, just now
+                LocalDateTime now = LocalDateTime.now();
+                purchaseRepository.saveAll(List.of(
+                                purchase(ladoo, 40, now.minusHours(24)),
+                                purchase(barfi, 10, now.minusMinutes(5)),
+                                purchase(jalebi, 3, now.minusHours(6))));
+                BestSellerSketch sketch = newSketch();
+                sketch.restore();
+
+                assertEquals(List.of("Ladoo", "Barfi", "Jalebi"), names(sketch.top(BestSellerView.ALL_TIME, 3)));
+                List<BestSeller> trending = sketch.top(BestSellerView.TRENDING, 3);
+                assertEquals(List.of("Barfi", "Ladoo", "Jalebi"), names(trending));
+                // Four half-lives old: 40 units count as about 2.5
+                assertEquals(40 / 16.0, trending.get(1).getScore(), 0.1);
+        }
+
+        @Test
+        void checkpoint_ShouldSurviveRestartAndCatchUpOnLaterPurchases() {
+                LocalDateTime now = LocalDateTime.now();
+                purchaseRepository.saveAll(List.of(purchase(ladoo, 3, now.minusHours(2)),
+                                purchase(barfi, 2, now.minusHours(1))));
+                BestSellerSketch before = newSketch();
+                before.restore();
+                before.checkpoint();
+
+                // Made after the snapshot; an older purchase behind it must not be replayed twice
+                purchaseRepository.save(purchase(jalebi, 4, LocalDateTime.now()));
+                purchaseRepository.save(purchase(ladoo, 100, now.minusDays(30)));
+                BestSellerSketch after = newSketch();
+                after.restore();
+
+                List<BestSeller> top = after.top(BestSellerView.ALL_TIME, 3);
+                assertEquals(List.of("Jalebi", "Ladoo", "Barfi"), names(top));
+                assertEquals(3, top.get(1).getScore());
+        }
+
+        @Test
+        void deletedSweets_ShouldBeLeftOut() {
+                purchaseRepository.save(purchase(ladoo, 3, LocalDateTime.now().minusMinutes(1)));
+                purchaseRepository.save(purchase(barfi, 1, LocalDateTime.now().minusMinutes(1)));
+                BestSellerSketch sketch = newSketch();
+                sketch.restore();
+                sweetRepository.deleteById(ladoo.getId());
+
+                assertEquals(List.of("Barfi"), names(sketch.top(BestSellerView.ALL_TIME, 5)));
+        }
+
+        @Test
+        @WithMockUser(username = "a@example.com")
+        void endpoint_ShouldServeBothViewsAndValidateLimit() throws Exception {
+                sweetService.purchaseSweet(barfi.getId(), 2, "a@example.com");
+
+                mockMvc.perform(get("/api/sweets/best-sellers"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$[0].name").value("Barfi"));
+                mockMvc.perform(get("/api/sweets/best-sellers").param("view", "TRENDING").param("limit", "3"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$[0].sweetId").value(barfi.getId()));
+                mockMvc.perform(get("/api/sweets/best-sellers").param("limit", "500"))
+                                .andExpect(status().isBadRequest());
+        }
+
+        /** A sketch of its own, started empty, as after a restart. */
+        private BestSellerSketch newSketch() {
+                return new BestSellerSketch(sweetRepository, purchaseRepository, snapshotRepository,
+                                transactionManager, 50, Duration.ofHours(6));
+        }
+
+        private static Purchase purchase(Sweet sweet, int quantity, LocalDateTime at) {
+                return new Purchase(null, sweet.getId(), sweet.getName(), quantity, sweet.getPrice(),
+                                sweet.getPrice().multiply(BigDecimal.valueOf(quantity)), "c@example.com", at);
+        }
+
+        private static List<String> names(List<BestSeller> sellers) {
+                return sellers.stream().map(BestSeller::getName).toList();
+        }
+}
@@ -0,0 +1,89 @@
+package com.assignment.sweet.integration;
+
+import com.assignment.sweet.dto.CheckoutLine;
+import com.assignment.sweet.dto.CheckoutRequest;
+import com.assignment.sweet.model.Sweet;
+import com.assignment.sweet.repository.PurchaseRepository;
+import com.assignment.sweet.repository.SweetRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(username = "buyer@example.com")
+class CheckoutIntegrationTest {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private ObjectMapper objectMapper;
+
+        @Autowired
+        private SweetRepository sweetRepository;
+
+        @Autowired
+        private PurchaseRepository purchaseRepository;
+
+        private Long ladooId;
+        private Long barfiId;
+
+        @BeforeEach
+        void setUp() {
+                purchaseRepository.deleteAll();
+                sweetRepository.deleteAll();
+                ladooId = sweetRepository.save(Sweet.builder().name("Ladoo").category("Traditional")
+                                .price(BigDecimal.valueOf(10)).quantity(10).build()).getId();
+                barfiId = sweetRepository.save(Sweet.builder().name("Barfi").category("Milk")
+                                .price(BigDecimal.valueOf(15)).quantity(2).build()).getId();
+        }
+
+        @Test
+        void checkout_ShouldBuyAllLinesInOneCall() throws Exception {
+                CheckoutRequest request = new CheckoutRequest(List.of(new CheckoutLine(ladooId, 3),
+                                new CheckoutLine(barfiId, 2), new CheckoutLine(ladooId, 1)));
+
+                mockMvc.perform(post("/api/sweets/checkout")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.purchases.length()").value(2))
+                                .andExpect(jsonPath("$.totalQuantity").value(6))
+                                .andExpect(jsonPath("$.totalPrice").value(70));
+
+                assertEquals(6, sweetRepository.findById(ladooId).orElseThrow().getQuantity());
+                assertEquals(0, sweetRepository.findById(barfiId).orElseThrow().getQuantity());
+                assertEquals(2, purchaseRepository.count());
+        }
+
+        @Test
+        void checkout_ShouldChangeNothing_WhenAnyLineIsShort() throws Exception {
+                CheckoutRequest request = new CheckoutRequest(List.of(new CheckoutLine(ladooId, 3),
+                                new CheckoutLine(barfiId, 5)));
+
+                mockMvc.perform(post("/api/sweets/checkout")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                                .andExpect(status().isBadRequest())
+                                .andExpect(jsonPath("$.error").value("Insufficient stock for sweet " + barfiId));
+
+                assertEquals(10, sweetRepository.findById(ladooId).orElseThrow().getQuantity());
+                assertEquals(2, sweetRepository.findById(barfiId).orElseThrow().getQuantity());
+                assertEquals(0, purchaseRepository.count());
+        }
+}
@@ -0,0 +1,156 @@
+package com.assignment.sweet.integration;
+
+import com.assignment.sweet.dto.CheckoutLine;
+import com.assignment.sweet.model.CustomerSummary;
+import com.assignment.sweet.model.Purchase;
+import com.assignment.sweet.model.Sweet;
+import com.assignment.sweet.repository.CustomerSummaryRepository;
+import com.assignment.sweet.repository.PurchaseRepository;
+import com.assignment.sweet.repository.SweetRepository;
+import com.assignment.sweet.service.CustomerSummaryService;
+import com.assignment.sweet.service.SweetService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Customer summaries follow every purchase in its own transaction, including
+ * a new customer's first purchases racing each other, and a rebuild from the
+ * purchases table reproduces them.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class CustomerSummaryIntegrationTest {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private SweetService sweetService;
+
+        @Autowired
+        private CustomerSummaryService summaryService;
+
+        @Autowired
+        private SweetRepository sweetRepository;
+
+        @Autowired
+        private PurchaseRepository purchaseRepository;
+
+        @Autowired
+        private CustomerSummaryRepository summaryRepository;
+
+        private Long ladooId;
+        private Long barfiId;
+
+        @BeforeEach
+        void setUp() {
+                purchaseRepository.deleteAll();
+                summaryRepository.deleteAll();
+                sweetRepository.deleteAll();
+                ladooId = sweetRepository.save(Sweet.builder().name("Ladoo").category("Traditional")
+                                .price(BigDecimal.valueOf(2)).quantity(100).build()).getId();
+                barfiId = sweetRepository.save(Sweet.builder().name("Barfi").category("Milk")
+                                .price(BigDecimal.valueOf(5)).quantity(100).build()).getId();
+        }
+
+        @Test
+        @WithMockUser(username = "a@example.com")
+        void summary_ShouldFollowPurchasesAndCheckouts() throws Exception {
+                sweetService.purchaseSweet(ladooId, 3, "a@example.com");
+                sweetService.checkout(List.of(new CheckoutLine(ladooId, 1), new CheckoutLine(barfiId, 2)),
+                                "a@example.com");
+                sweetService.purchaseSweet(barfiId, 1, "b@example.com");
+
+                mockMvc.perform(get("/api/purchases/my/summary"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.orderCount").value(3))
+                                .andExpect(jsonPath("$.totalItems").value(6))
+                                .andExpect(jsonPath("$.totalSpent").value(18));
+        }
+
+        @Test
+        void failedPurchase_ShouldLeaveSummaryUnchanged() {
+                sweetService.purchaseSweet(ladooId, 1, "a@example.com");
+                assertThrows(RuntimeException.class, () -> sweetService.purchaseSweet(ladooId, 1000, "a@example.com"));
+
+                CustomerSummary summary = summaryService.getSummary("a@example.com");
+                assertEquals(1, summary.getOrderCount());
+                assertEquals(0, BigDecimal.valueOf(2).compareTo(summary.getTotalSpent()));
+        }
+
+        @Test
+        void firstPurchasesOfNewCustomer_ShouldAllBeCounted() throws Exception {
+                int buyers = 10;
+                ExecutorService executor = Executors.newFixedThreadPool(buyers);
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> futures = new ArrayList<>();
+                for (int i = 0; i < buyers; i++) {
+                        futures.add(executor.submit(() -> {
+                                start.await();
+                                sweetService.purchaseSweet(ladooId, 1, "new@example.com");
+                                return null;
+                        }));
+                }
+                start.countDown();
+                for (Future<?> future : futures) {
+                        future.get();
+                }
+                executor.shutdown();
+
+                CustomerSummary summary = summaryService.getSummary("new@example.com");
+                assertEquals(buyers, summary.getOrderCount());
+                assertEquals(buyers, summary.getTotalItems());
+        }
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        void rebuild_ShouldRecomputeSummariesFromPurchases() throws Exception {
+                sweetService.purchaseSweet(ladooId, 2, "a@example.com");
+                // Rows written behind the summary's back, as before summaries existed
+                List<Purchase> imported = new ArrayList<>();
+                for (int i = 0; i < 30; i++) {
+                        imported.add(new Purchase(null, barfiId, "Barfi", 1, BigDecimal.valueOf(5),
+                                        BigDecimal.valueOf(5), "c" + (i % 7) + "@example.com",
+                                        LocalDateTime.of(2026, 1, 1, 0, 0).plusHours(i)));
+                }
+                purchaseRepository.saveAll(imported);
+                summaryRepository.save(new CustomerSummary("a@example.com", 99L, 99L, BigDecimal.TEN, null));
+
+                mockMvc.perform(post("/api/purchases/summaries/rebuild"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.customers").value(8));
+
+                assertEquals(1, summaryService.getSummary("a@example.com").getOrderCount());
+                CustomerSummary c0 = summaryService.getSummary("c0@example.com");
+                assertEquals(5, c0.getOrderCount());
+                assertEquals(0, BigDecimal.valueOf(25).compareTo(c0.getTotalSpent()));
+                assertEquals(LocalDateTime.of(2026, 1, 2, 4, 0), c0.getLastPurchaseDate());
+        }
+
+        @Test
+        @WithMockUser(username = "a@example.com")
+        void rebuild_ShouldBeForbiddenForNonAdmin() throws Exception {
+                mockMvc.perform(post("/api/purchases/summaries/rebuild"))
+                                .andExpect(status().isForbidden());
+        }
+}
@@ -0,0 +1,174 @@
+package com.assignment.sweet.integration;
+
+import com.assignment.sweet.model.Purchase;
+import com.assignment.sweet.model.Sweet;
+import com.assignment.sweet.repository.PurchaseRepository;
+import com.assignment.sweet.repository.SweetRepository;
+import com.assignment.sweet.service.CatalogVersionClock;
+import com.assignment.sweet.service.GroupCommitInventoryEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Concurrent purchases through the group-commit engine share transactions
+ * but are still admitted, rejected and acknowledged one by one.
+ */
+@SpringBootTest
+class GroupCommitIntegrationTest {
+
+        private static final int BUYERS = 40;
+        private static final int STOCK = 30;
+
+        @Autowired
+        private SweetRepository sweetRepository;
+
+        @Autowired
+        private PurchaseRepository purchaseRepository;
+
+        @Autowired
+        private ApplicationEventPublisher eventPublisher;
+
+        @Autowired
+        private CatalogVersionClock versionClock;
+
+        @Autowired
+        private PlatformTransactionManager transactionManager;
+
+        private GroupCommitInventoryEngine engine;
+        private Long sweetId;
+
+        @BeforeEach
+        void setUp() {
+                purchaseRepository.deleteAll();
+                sweetRepository.deleteAll();
+                sweetId = sweetRepository.save(Sweet.builder().name("Ladoo").category("Traditional")
+                                .price(BigDecimal.valueOf(2)).quantity(STOCK).build()).getId();
+                // A wide window so that concurrent buyers land in the same transaction
+                engine = new GroupCommitInventoryEngine(sweetRepository, purchaseRepository, eventPublisher,
+                                versionClock, transactionManager, 50, 200, 1000);
+                engine.start();
+        }
+
+        @AfterEach
+        void tearDown() {
+                engine.stop();
+        }
+
+        @Test
+        void concurrentPurchasesShareCommitsAndNeverOversell() throws Exception {
+                ExecutorService executor = Executors.newFixedThreadPool(BUYERS);
+                CountDownLatch start = new CountDownLatch(1);
+                AtomicInteger rejected = new AtomicInteger();
+                List<Future<?>> futures = new ArrayList<>();
+                for (int i = 0; i < BUYERS; i++) {
+                        String customer = "buyer" + i + "@example.com";
+                        futures.add(executor.submit(() -> {
+                                start.await();
+                                try {
+                                        Sweet after = engine.purchase(sweetId, 1, customer);
+                                        assertTrue(after.getQuantity() >= 0);
+                                } catch (RuntimeException e) {
+                                        assertEquals("Insufficient stock", e.getMessage());
+                                        rejected.incrementAndGet();
+                                }
+                                return null;
+                        }));
+                }
+                start.countDown();
+                for (Future<?> future : futures) {
+                        future.get();
+                }
+                executor.shutdown();
+
+                assertEquals(BUYERS - STOCK, rejected.get());
+                assertEquals(0, sweetRepository.findById(sweetId).orElseThrow().getQuantity());
+                List<Purchase> purchases = purchaseRepository.findAll();
+                assertEquals(STOCK, purchases.size());
+                assertEquals(STOCK, purchases.stream().map(Purchase::getId).distinct().count());
+                assertEquals(STOCK, engine.purchaseCount());
+                assertTrue(engine.commitCount() < BUYERS / 2,
+                                "expected purchases to share commits, got " + engine.commitCount());
+        }
+
+        @Test
+        void unknownSweetIsRejectedWithoutFailingItsWindow() throws Exception {
+                ExecutorService executor = Executors.newFixedThreadPool(2);
+                Future<Sweet> good = executor.submit(() -> engine.purchase(sweetId, 2, "a@example.com"));
+                Future<Sweet> bad = executor.submit(() -> engine.purchase(-1L, 1, "b@example.com"));
+
+                assertEquals(STOCK - 2, good.get().getQuantity());
+                Exception ex = assertThrows(Exception.class, bad::get);
+                assertEquals("Sweet not found", ex.getCause().getMessage());
+                assertEquals(1, purchaseRepository.count());
+                executor.shutdown();
+        }
+
+        @Test
+        void purchasesServedWhileTheWebServerStartsAndDrainsAreCommitted() {
+                engine.stop();
+                engine = new GroupCommitInventoryEngine(sweetRepository, purchaseRepository, eventPublisher,
+                                versionClock, transactionManager, 50, 200, 1000);
+                WebServer server = new WebServer(() -> engine.purchase(sweetId, 1, "a@example.com"));
+                try (GenericApplicationContext context = new GenericApplicationContext()) {
+                        context.registerBean(GroupCommitInventoryEngine.class, () -> engine);
+                        context.registerBean(WebServer.class, () -> server);
+                        context.refresh();
+                }
+
+                assertEquals(List.of(STOCK - 1, STOCK - 2), server.served);
+                assertEquals(2, purchaseRepository.count());
+        }
+
+        /** Stands in for the web server: serves a request as it starts and another while draining on close. */
+        private static final class WebServer implements SmartLifecycle {
+                private final Supplier<Sweet> request;
+                private final List<Integer> served = new ArrayList<>();
+                private boolean running;
+
+                WebServer(Supplier<Sweet> request) {
+                        this.request = request;
+                }
+
+                @Override
+                public void start() {
+                        served.add(request.get().getQuantity());
+                        running = true;
+                }
+
+                @Override
+                public void stop() {
+                        served.add(request.get().getQuantity());
+                        running = false;
+                }
+
+                @Override
+                public boolean isRunning() {
+                        return running;
+                }
+
+                @Override
+                public int getPhase() {
+                        return WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE;
+                }
+        }
+}
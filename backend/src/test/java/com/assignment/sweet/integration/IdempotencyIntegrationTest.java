@@ -0,0 +1,161 @@
+package com.assignment.sweet.integration;
+
+import com.assignment.sweet.model.IdempotencyRecord;
+import com.assignment.sweet.model.Sweet;
+import com.assignment.sweet.repository.IdempotencyRecordRepository;
+import com.assignment.sweet.repository.PurchaseRepository;
+import com.assignment.sweet.repository.SweetRepository;
+import com.assignment.sweet.service.IdempotencyStore;
+import com.assignment.sweet.service.SweetService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "idempotency.shared-store=true")
+@AutoConfigureMockMvc
+@WithMockUser(username = "buyer@example.com")
+class IdempotencyIntegrationTest {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private ObjectMapper objectMapper;
+
+        @Autowired
+        private SweetRepository sweetRepository;
+
+        @Autowired
+        private PurchaseRepository purchaseRepository;
+
+        @Autowired
+        private IdempotencyRecordRepository recordRepository;
+
+        @Autowired
+        private PlatformTransactionManager transactionManager;
+
+        @Autowired
+        private SweetService sweetService;
+
+        private Long sweetId;
+
+        @BeforeEach
+        void setUp() {
+                purchaseRepository.deleteAll();
+                sweetRepository.deleteAll();
+                recordRepository.deleteAll();
+                sweetId = sweetRepository.save(Sweet.builder().name("Ladoo").category("Traditional")
+                                .price(BigDecimal.valueOf(10)).quantity(10).build()).getId();
+        }
+
+        @Test
+        void retriedPurchaseIsOnlyChargedOnce() throws Exception {
+                for (int attempt = 0; attempt < 3; attempt++) {
+                        mockMvc.perform(post("/api/sweets/" + sweetId + "/purchase")
+                                        .header(IdempotencyStore.HEADER, "order-42")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content("2"))
+                                        .andExpect(status().isOk())
+                                        .andExpect(jsonPath("$.quantity").value(8))
+                                        .andExpect(attempt == 0
+                                                        ? header().doesNotExist("Idempotent-Replayed")
+                                                        : header().string("Idempotent-Replayed", "true"));
+                }
+
+                assertEquals(8, sweetRepository.findById(sweetId).orElseThrow().getQuantity());
+                assertEquals(1, purchaseRepository.count());
+                IdempotencyRecord record = recordRepository.findById("purchase:buyer@example.com:order-42")
+                                .orElseThrow();
+                assertEquals(IdempotencyRecord.Status.COMPLETED, record.getStatus());
+        }
+
+        @Test
+        void sameKeyForADifferentQuantityIsRejected() throws Exception {
+                mockMvc.perform(post("/api/sweets/" + sweetId + "/purchase")
+                                .header(IdempotencyStore.HEADER, "order-7")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("1"))
+                                .andExpect(status().isOk());
+
+                mockMvc.perform(post("/api/sweets/" + sweetId + "/purchase")
+                                .header(IdempotencyStore.HEADER, "order-7")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("3"))
+                                .andExpect(status().isBadRequest())
+                                .andExpect(jsonPath("$.error").exists());
+
+                assertEquals(9, sweetRepository.findById(sweetId).orElseThrow().getQuantity());
+        }
+
+        @Test
+        void anotherNodeReplaysTheStoredResponse() {
+                IdempotencyStore.Outcome<Sweet> first = newNode().execute("order-9", "purchase:buyer@example.com",
+                                sweetId + ":4", Sweet.class, () -> sweetService.purchaseSweet(sweetId, 4,
+                                                "buyer@example.com"));
+
+                // A second node has none of the first one's memory, only the shared table
+                IdempotencyStore.Outcome<Sweet> retry = newNode().execute("order-9", "purchase:buyer@example.com",
+                                sweetId + ":4", Sweet.class, () -> sweetService.purchaseSweet(sweetId, 4,
+                                                "buyer@example.com"));
+
+                assertFalse(first.replayed());
+                assertTrue(retry.replayed());
+                assertEquals(6, retry.body().getQuantity());
+                assertEquals(6, sweetRepository.findById(sweetId).orElseThrow().getQuantity());
+                assertEquals(1, purchaseRepository.count());
+        }
+
+        @Test
+        void purchaseCommittedElsewhereRunsOutsideAnyTransaction() {
+                IdempotencyStore.Outcome<Sweet> first = newNode().execute("order-11", "purchase:buyer@example.com",
+                                sweetId + ":3", Sweet.class, false, () -> {
+                                        // No connection is held while an engine's own thread commits
+                                        assertFalse(TransactionSynchronizationManager.isActualTransactionActive());
+                                        return sweetService.purchaseSweet(sweetId, 3, "buyer@example.com");
+                                });
+                IdempotencyStore.Outcome<Sweet> retry = newNode().execute("order-11", "purchase:buyer@example.com",
+                                sweetId + ":3", Sweet.class, false, () -> fail("the stored response is replayed"));
+
+                assertFalse(first.replayed());
+                assertTrue(retry.replayed());
+                assertEquals(7, retry.body().getQuantity());
+                assertEquals(1, purchaseRepository.count());
+                assertEquals(IdempotencyRecord.Status.COMPLETED, recordRepository
+                                .findById("purchase:buyer@example.com:order-11").orElseThrow().getStatus());
+        }
+
+        @Test
+        void failedPurchaseLeavesNoClaimBehind() throws Exception {
+                mockMvc.perform(post("/api/sweets/" + sweetId + "/purchase")
+                                .header(IdempotencyStore.HEADER, "order-big")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("50"))
+                                .andExpect(status().isBadRequest())
+                                .andExpect(jsonPath("$.error").value("Insufficient stock"));
+
+                assertEquals(0, recordRepository.count());
+        }
+
+        private IdempotencyStore newNode() {
+                IdempotencyStore node = new IdempotencyStore(recordRepository, objectMapper, transactionManager);
+                ReflectionTestUtils.setField(node, "sharedStore", true);
+                return node;
+        }
+}
@@ -0,0 +1,124 @@
+package com.assignment.sweet.integration;
+
+import com.assignment.sweet.exception.ConflictException;
+import com.assignment.sweet.model.Sweet;
+import com.assignment.sweet.repository.PurchaseRepository;
+import com.assignment.sweet.repository.SweetRepository;
+import com.assignment.sweet.service.SweetService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Restocks racing purchases on one sweet are retried rather than lost, and
+ * an admin edit made from a stale copy is refused.
+ */
+@SpringBootTest
+class OptimisticLockingIntegrationTest {
+
+        private static final int THREADS = 20;
+        private static final int OPERATIONS_PER_THREAD = 5;
+        private static final int INITIAL_STOCK = 100;
+
+        @Autowired
+        private SweetService sweetService;
+
+        @Autowired
+        private SweetRepository sweetRepository;
+
+        @Autowired
+        private PurchaseRepository purchaseRepository;
+
+        @Autowired
+        private MeterRegistry meterRegistry;
+
+        private Long sweetId;
+
+        @BeforeEach
+        void setUp() {
+                purchaseRepository.deleteAll();
+                sweetRepository.deleteAll();
+                sweetId = sweetRepository.save(Sweet.builder().name("Ladoo").category("Traditional")
+                                .price(BigDecimal.valueOf(2)).quantity(INITIAL_STOCK).build()).getId();
+        }
+
+        @Test
+        void restocksRacingPurchasesAreNeverLost() throws Exception {
+                ExecutorService executor = Executors.newFixedThreadPool(THREADS * 2);
+                CountDownLatch start = new CountDownLatch(1);
+                AtomicInteger restocked = new AtomicInteger();
+                AtomicInteger sold = new AtomicInteger();
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < THREADS; t++) {
+                        String customer = "buyer" + t + "@example.com";
+                        futures.add(executor.submit(() -> {
+                                start.await();
+                                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                                        try {
+                                                sweetService.restockSweet(sweetId, 2);
+                                                restocked.addAndGet(2);
+                                        } catch (ConflictException e) {
+                                                // Gave up after max attempts; nothing was applied
+                                        }
+                                }
+                                return null;
+                        }));
+                        futures.add(executor.submit(() -> {
+                                start.await();
+                                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                                        sweetService.purchaseSweet(sweetId, 1, customer);
+                                        sold.incrementAndGet();
+                                }
+                                return null;
+                        }));
+                }
+                start.countDown();
+                for (Future<?> future : futures) {
+                        future.get();
+                }
+                executor.shutdown();
+
+                assertTrue(restocked.get() > 0);
+                assertEquals(INITIAL_STOCK + restocked.get() - sold.get(),
+                                sweetRepository.findById(sweetId).orElseThrow().getQuantity());
+                assertEquals(sold.get(), purchaseRepository.count());
+                // Only writes that needed a retry are recorded
+                DistributionSummary attempts = meterRegistry.find("sweet.update.attempts")
+                                .tag("operation", "purchase").summary();
+                assertTrue(attempts == null || attempts.count() <= sold.get() && attempts.mean() >= 2);
+        }
+
+        @Test
+        void editFromStaleCopyIsRefused() {
+                Sweet loaded = sweetService.getSweet(sweetId);
+                sweetService.purchaseSweet(sweetId, 1, "buyer@example.com");
+
+                Sweet edited = Sweet.builder().id(sweetId).name("Ladoo").category("Traditional")
+                                .price(BigDecimal.valueOf(3)).quantity(loaded.getQuantity())
+                                .version(loaded.getVersion()).build();
+                assertThrows(ConflictException.class, () -> sweetService.updateSweet(sweetId, edited, null));
+
+                Sweet current = sweetRepository.findById(sweetId).orElseThrow();
+                assertEquals(INITIAL_STOCK - 1, current.getQuantity());
+                assertEquals(0, BigDecimal.valueOf(2).compareTo(current.getPrice()));
+
+                edited.setVersion(current.getVersion());
+                edited.setQuantity(current.getQuantity());
+                assertEquals(0, BigDecimal.valueOf(3).compareTo(sweetService.updateSweet(sweetId, edited, null)
+                                .getPrice()));
+        }
+}
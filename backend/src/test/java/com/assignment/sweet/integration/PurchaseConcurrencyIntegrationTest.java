@@ -0,0 +1,96 @@
+package com.assignment.sweet.integration;
+
+import com.assignment.sweet.model.Purchase;
+import com.assignment.sweet.model.Sweet;
+import com.assignment.sweet.repository.PurchaseRepository;
+import com.assignment.sweet.repository.SweetRepository;
+import com.assignment.sweet.service.SweetService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Hammers a single sweet with concurrent purchases and checks that stock,
+ * purchases and successful calls reconcile exactly.
+ */
+@SpringBootTest
+class PurchaseConcurrencyIntegrationTest {
+
+        private static final int THREADS = 200;
+        private static final int ATTEMPTS_PER_THREAD = 3;
+        private static final int INITIAL_STOCK = 500;
+
+        @Autowired
+        private SweetService sweetService;
+
+        @Autowired
+        private SweetRepository sweetRepository;
+
+        @Autowired
+        private PurchaseRepository purchaseRepository;
+
+        private Long sweetId;
+
+        @BeforeEach
+        void setUp() {
+                purchaseRepository.deleteAll();
+                sweetRepository.deleteAll();
+                sweetId = sweetRepository.save(Sweet.builder().name("Ladoo").category("Traditional")
+                                .price(BigDecimal.valueOf(2)).quantity(INITIAL_STOCK).build()).getId();
+        }
+
+        @Test
+        void concurrentPurchases_ShouldNeverOversellAndShouldReconcile() throws Exception {
+                ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+                CountDownLatch start = new CountDownLatch(1);
+                AtomicInteger sold = new AtomicInteger();
+                AtomicInteger rejected = new AtomicInteger();
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < THREADS; t++) {
+                        int quantity = 1 + t % 3;
+                        String customer = "buyer" + t + "@example.com";
+                        futures.add(executor.submit(() -> {
+                                start.await();
+                                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                                        try {
+                                                sweetService.purchaseSweet(sweetId, quantity, customer);
+                                                sold.addAndGet(quantity);
+                                        } catch (RuntimeException e) {
+                                                assertEquals("Insufficient stock", e.getMessage());
+                                                rejected.incrementAndGet();
+                                        }
+                                }
+                                return null;
+                        }));
+                }
+                start.countDown();
+                for (Future<?> future : futures) {
+                        future.get();
+                }
+                executor.shutdown();
+
+                int remaining = sweetRepository.findById(sweetId).orElseThrow().getQuantity();
+                List<Purchase> purchases = purchaseRepository.findAll();
+                int purchased = purchases.stream().mapToInt(Purchase::getQuantity).sum();
+
+                assertTrue(remaining >= 0, "stock went negative: " + remaining);
+                // Demand (1200 units) exceeds stock, so the sweet must sell out exactly
+                assertTrue(remaining < 3, "stock left unsold while buyers were rejected: " + remaining);
+                assertTrue(rejected.get() > 0);
+                assertEquals(INITIAL_STOCK - remaining, sold.get());
+                assertEquals(sold.get(), purchased);
+                assertEquals(THREADS * ATTEMPTS_PER_THREAD - rejected.get(), purchases.size());
+        }
+}
@@ -0,0 +1,138 @@
+package com.assignment.sweet.integration;
+
+import com.assignment.sweet.model.Purchase;
+import com.assignment.sweet.model.Sweet;
+import com.assignment.sweet.repository.PurchaseRepository;
+import com.assignment.sweet.repository.SweetRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Purchase history is paged newest first on (createdDate, id), including
+ * purchases that share a timestamp, and the admin listing filters by
+ * customer, sweet and date range.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class PurchaseHistoryIntegrationTest {
+
+        private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private ObjectMapper objectMapper;
+
+        @Autowired
+        private SweetRepository sweetRepository;
+
+        @Autowired
+        private PurchaseRepository purchaseRepository;
+
+        private Long ladooId;
+        private Long barfiId;
+
+        @BeforeEach
+        void setUp() {
+                purchaseRepository.deleteAll();
+                sweetRepository.deleteAll();
+                Sweet ladoo = sweetRepository.save(Sweet.builder().name("Ladoo").category("Traditional")
+                                .price(BigDecimal.ONE).quantity(10).build());
+                Sweet barfi = sweetRepository.save(Sweet.builder().name("Barfi").category("Traditional")
+                                .price(BigDecimal.TEN).quantity(10).build());
+                ladooId = ladoo.getId();
+                barfiId = barfi.getId();
+                List<Purchase> purchases = new ArrayList<>();
+                for (int day = 0; day < 10; day++) {
+                        // Three purchases per day share a timestamp, so pages must break ties on id
+                        for (int i = 0; i < 3; i++) {
+                                Sweet sweet = i == 2 ? barfi : ladoo;
+                                purchases.add(new Purchase(null, sweet.getId(), sweet.getName(), 1, sweet.getPrice(),
+                                                sweet.getPrice(), "a@example.com", START.plusDays(day)));
+                        }
+                        purchases.add(new Purchase(null, ladoo.getId(), ladoo.getName(), 1, ladoo.getPrice(),
+                                        ladoo.getPrice(), "b@example.com", START.plusDays(day)));
+                }
+                purchaseRepository.saveAll(purchases);
+        }
+
+        @Test
+        @WithMockUser(username = "a@example.com")
+        void myPurchases_ShouldWalkPagesNewestFirstWithoutDuplicates() throws Exception {
+                List<JsonNode> seen = walk("/api/purchases/my?limit=4");
+
+                assertEquals(30, seen.size());
+                assertEquals(30, seen.stream().map(p -> p.get("id").asLong()).distinct().count());
+                assertTrue(seen.stream().allMatch(p -> p.get("customerEmail").asText().equals("a@example.com")));
+                for (int i = 1; i < seen.size(); i++) {
+                        LocalDateTime previous = LocalDateTime.parse(seen.get(i - 1).get("createdDate").asText());
+                        LocalDateTime current = LocalDateTime.parse(seen.get(i).get("createdDate").asText());
+                        assertFalse(current.isAfter(previous));
+                        if (current.equals(previous)) {
+                                assertTrue(seen.get(i).get("id").asLong() < seen.get(i - 1).get("id").asLong());
+                        }
+                }
+        }
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        void allPurchases_ShouldFilterByCustomerSweetAndDateRange() throws Exception {
+                List<JsonNode> seen = walk("/api/purchases/all?limit=3&customerEmail=a@example.com&sweetId=" + ladooId
+                                + "&from=" + START.plusDays(2) + "&to=" + START.plusDays(5));
+
+                assertEquals(6, seen.size());
+                assertTrue(seen.stream().allMatch(p -> p.get("sweetId").asLong() == ladooId));
+                assertEquals(START.plusDays(4), LocalDateTime.parse(seen.get(0).get("createdDate").asText()));
+                assertEquals(START.plusDays(2), LocalDateTime.parse(seen.get(5).get("createdDate").asText()));
+
+                assertEquals(10, walk("/api/purchases/all?sweetId=" + barfiId).size());
+                assertEquals(40, walk("/api/purchases/all?limit=100").size());
+        }
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        void allPurchases_ShouldRejectBadCursorAndEmptyRange() throws Exception {
+                mockMvc.perform(get("/api/purchases/all?cursor=not-a-cursor"))
+                                .andExpect(status().isBadRequest());
+                mockMvc.perform(get("/api/purchases/all?from=" + START + "&to=" + START))
+                                .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        @WithMockUser(username = "a@example.com")
+        void allPurchases_ShouldBeForbiddenForNonAdmin() throws Exception {
+                mockMvc.perform(get("/api/purchases/all"))
+                                .andExpect(status().isForbidden());
+        }
+
+        private List<JsonNode> walk(String url) throws Exception {
+                List<JsonNode> seen = new ArrayList<>();
+                String cursor = null;
+                do {
+                        String body = mockMvc.perform(get(url + (cursor != null ? "&cursor=" + cursor : "")))
+                                        .andExpect(status().isOk())
+                                        .andReturn().getResponse().getContentAsString();
+                        JsonNode page = objectMapper.readTree(body);
+                        page.get("items").forEach(seen::add);
+                        cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+                } while (cursor != null);
+                return seen;
+        }
+}
@@ -2,6 +2,8 @@ package com.assignment.sweet.integration;
 
 import com.assignment.sweet.dto.LoginRequest;
 import com.assignment.sweet.dto.RegisterRequest;
+import com.assignment.sweet.event.PurchaseRecordedEvent;
+import com.assignment.sweet.model.Purchase;
 import com.assignment.sweet.model.Sweet;
 import com.assignment.sweet.repository.PurchaseRepository;
 import com.assignment.sweet.repository.SweetRepository;
@@ -13,14 +15,19 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -44,6 +51,15 @@ class PurchaseIntegrationTest {
         @Autowired
         private PurchaseRepository purchaseRepository;
 
+        @Autowired
+        private JdbcTemplate jdbcTemplate;
+
+        @Autowired
+        private ApplicationEventPublisher eventPublisher;
+
+        @Autowired
+        private PlatformTransactionManager transactionManager;
+
         @BeforeEach
         void setUp() {
                 purchaseRepository.deleteAll();
@@ -73,9 +89,9 @@ class PurchaseIntegrationTest {
                                 .asText();
 
                 // 3. Add Sweet (as Admin)
-                Sweet sweet = new Sweet(null, "Test Sweet", "Test Category", BigDecimal.valueOf(10.0), 100,
-                                "Description",
-                                "http://url");
+                Sweet sweet = Sweet.builder().name("Test Sweet").category("Test Category")
+                                .price(BigDecimal.valueOf(10.0)).quantity(100).description("Description")
+                                .imageUrl("http://url").build();
                 MockMultipartFile sweetPart = new MockMultipartFile("sweet", "", "application/json",
                                 objectMapper.writeValueAsBytes(sweet));
 
@@ -124,5 +140,31 @@ class PurchaseIntegrationTest {
                 var purchase = purchaseRepository.findAll().get(0);
                 assertEquals(quantity, purchase.getQuantity());
                 assertEquals(0, BigDecimal.valueOf(50.0).compareTo(purchase.getTotalPrice()));
+
+                // 8. History is revalidated by ETag until the next purchase
+                MvcResult history = mockMvc.perform(get("/api/purchases/my")
+                                .header("Authorization", "Bearer " + userToken))
+                                .andExpect(status().isOk())
+                                .andReturn();
+                String etag = history.getResponse().getHeader("ETag");
+                mockMvc.perform(get("/api/purchases/my")
+                                .header("Authorization", "Bearer " + userToken)
+                                .header("If-None-Match", etag))
+                                .andExpect(status().isNotModified());
+
+                // 9. A purchase committed late with a lower id and an earlier date still changes the ETag
+                Purchase late = new Purchase(purchase.getId() - 1, savedSweet.getId(), savedSweet.getName(), 1,
+                                BigDecimal.TEN, BigDecimal.TEN, "user@test.com", purchase.getCreatedDate().minusSeconds(1));
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                        jdbcTemplate.update("insert into purchases (id, sweet_id, sweet_name, quantity, price_per_unit, "
+                                        + "total_price, customer_email, created_date) values (?, ?, ?, 1, 10, 10, ?, ?)",
+                                        late.getId(), late.getSweetId(), late.getSweetName(), late.getCustomerEmail(),
+                                        late.getCreatedDate());
+                        eventPublisher.publishEvent(new PurchaseRecordedEvent(late));
+                });
+                mockMvc.perform(get("/api/purchases/my")
+                                .header("Authorization", "Bearer " + userToken)
+                                .header("If-None-Match", etag))
+                                .andExpect(status().isOk());
         }
 }
@@ -0,0 +1,219 @@
+package com.assignment.sweet.integration;
+
+import com.assignment.sweet.event.SweetChangedEvent;
+import com.assignment.sweet.model.Purchase;
+import com.assignment.sweet.model.StockReservation;
+import com.assignment.sweet.model.Sweet;
+import com.assignment.sweet.repository.InventoryCheckpointRepository;
+import com.assignment.sweet.repository.PurchaseRepository;
+import com.assignment.sweet.repository.StockReservationRepository;
+import com.assignment.sweet.repository.SweetRepository;
+import com.assignment.sweet.service.CatalogVersionClock;
+import com.assignment.sweet.service.InventoryEngine;
+import com.assignment.sweet.service.ReservationService;
+import com.assignment.sweet.service.StockLedgerEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Holds against a real database, with a service built by hand so its TTL can
+ * be short enough to watch holds expire.
+ */
+@SpringBootTest
+class ReservationIntegrationTest {
+
+        @Autowired
+        private StockReservationRepository reservationRepository;
+
+        @Autowired
+        private SweetRepository sweetRepository;
+
+        @Autowired
+        private PurchaseRepository purchaseRepository;
+
+        @Autowired
+        private ApplicationEventPublisher eventPublisher;
+
+        @Autowired
+        private CatalogVersionClock versionClock;
+
+        @Autowired
+        private InventoryEngine inventoryEngine;
+
+        @Autowired
+        private InventoryCheckpointRepository checkpointRepository;
+
+        @Autowired
+        private PlatformTransactionManager transactionManager;
+
+        @TempDir
+        Path journalDir;
+
+        private ReservationService reservations;
+        private Long sweetId;
+
+        @BeforeEach
+        void setUp() {
+                reservationRepository.deleteAll();
+                purchaseRepository.deleteAll();
+                sweetRepository.deleteAll();
+                checkpointRepository.deleteAll();
+                sweetId = sweetRepository.save(Sweet.builder().name("Ladoo").category("Traditional")
+                                .price(BigDecimal.valueOf(2)).quantity(10).build()).getId();
+        }
+
+        @AfterEach
+        void tearDown() {
+                if (reservations != null) {
+                        reservations.stop();
+                }
+        }
+
+        @Test
+        void confirmedHoldBecomesAPurchaseExactlyOnce() {
+                start(Duration.ofMinutes(5));
+                StockReservation hold = reservations.reserve(sweetId, 4, "a@example.com");
+                assertEquals(6, quantity());
+
+                Purchase purchase = reservations.confirm(hold.getId(), "a@example.com");
+                assertEquals(4, purchase.getQuantity());
+                assertEquals(0, BigDecimal.valueOf(8).compareTo(purchase.getTotalPrice()));
+                assertEquals(6, quantity());
+                assertEquals(1, purchaseRepository.count());
+
+                RuntimeException ex = assertThrows(RuntimeException.class,
+                                () -> reservations.confirm(hold.getId(), "a@example.com"));
+                assertEquals("Reservation not found", ex.getMessage());
+        }
+
+        @Test
+        void abandonedHoldExpiresBackIntoStock() throws Exception {
+                start(Duration.ofMillis(200));
+                StockReservation hold = reservations.reserve(sweetId, 7, "a@example.com");
+                assertEquals(3, quantity());
+                assertThrows(RuntimeException.class, () -> reservations.reserve(sweetId, 4, "b@example.com"));
+
+                long deadline = System.currentTimeMillis() + 5000;
+                while (quantity() != 10 && System.currentTimeMillis() < deadline) {
+                        Thread.sleep(20);
+                }
+                assertEquals(10, quantity());
+                assertFalse(reservationRepository.existsById(hold.getId()));
+                assertThrows(RuntimeException.class, () -> reservations.confirm(hold.getId(), "a@example.com"));
+                assertEquals(0, purchaseRepository.count());
+        }
+
+        @Test
+        void onlyTheOwnerCanReleaseAHold() {
+                start(Duration.ofMinutes(5));
+                StockReservation hold = reservations.reserve(sweetId, 5, "a@example.com");
+
+                assertThrows(RuntimeException.class, () -> reservations.release(hold.getId(), "b@example.com"));
+                assertThrows(RuntimeException.class, () -> reservations.confirm(hold.getId(), "b@example.com"));
+                assertEquals(5, quantity());
+
+                reservations.release(hold.getId(), "a@example.com");
+                assertEquals(10, quantity());
+                assertTrue(reservations.getReservations("a@example.com").isEmpty());
+        }
+
+        @Test
+        void openHoldsAreRescheduledOnStart() throws Exception {
+                start(Duration.ofMillis(300));
+                reservations.reserve(sweetId, 2, "a@example.com");
+                reservations.stop();
+
+                // A fresh instance knows nothing but the table
+                start(Duration.ofMillis(300));
+                assertEquals(1, reservations.scheduledExpiries());
+                long deadline = System.currentTimeMillis() + 5000;
+                while (quantity() != 10 && System.currentTimeMillis() < deadline) {
+                        Thread.sleep(20);
+                }
+                assertEquals(10, quantity());
+        }
+
+        @Test
+        void holdUnderTheLedgerCannotTakeUnitsItHasSoldButNotFlushed() {
+                StockLedgerEngine ledger = newLedger();
+                start(Duration.ofMinutes(5), ledger);
+
+                ledger.purchase(sweetId, 10, "a@example.com");
+                // The row still counts the sold units until the ledger flushes
+                assertEquals(10, quantity());
+                RuntimeException ex = assertThrows(RuntimeException.class,
+                                () -> reservations.reserve(sweetId, 1, "b@example.com"));
+                assertEquals("Insufficient stock", ex.getMessage());
+
+                ledger.flush();
+                assertEquals(0, quantity());
+                assertEquals(0, reservationRepository.count());
+        }
+
+        @Test
+        void ledgerCannotSellHeldUnitsUntilTheyAreReleased() {
+                StockLedgerEngine ledger = newLedger();
+                start(Duration.ofMinutes(5), ledger);
+
+                StockReservation hold = reservations.reserve(sweetId, 4, "a@example.com");
+                assertEquals(6, quantity());
+                assertThrows(RuntimeException.class, () -> ledger.purchase(sweetId, 7, "b@example.com"));
+                assertEquals(0, ledger.purchase(sweetId, 6, "b@example.com").getQuantity());
+
+                reservations.release(hold.getId(), "a@example.com");
+                // Change events reach only the context's beans; hand this one to the ledger
+                ledger.onSweetChanged(SweetChangedEvent.upserted(sweetRepository.findById(sweetId).orElseThrow()));
+                assertEquals(0, ledger.purchase(sweetId, 4, "c@example.com").getQuantity());
+                ledger.flush();
+                assertEquals(0, quantity());
+        }
+
+        @Test
+        void rolledBackHoldGoesBackToTheLedger() {
+                StockLedgerEngine ledger = newLedger();
+
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                        ledger.hold(sweetId, 3);
+                        status.setRollbackOnly();
+                });
+
+                assertEquals(10, quantity());
+                assertEquals(0, ledger.purchase(sweetId, 10, "a@example.com").getQuantity());
+        }
+
+        private void start(Duration ttl) {
+                start(ttl, inventoryEngine);
+        }
+
+        private void start(Duration ttl, InventoryEngine engine) {
+                reservations = new ReservationService(reservationRepository, sweetRepository, purchaseRepository,
+                                eventPublisher, versionClock, engine, transactionManager, ttl, 20);
+                reservations.start();
+        }
+
+        /** A ledger built by hand and recovered but not started, so it flushes only when told to. */
+        private StockLedgerEngine newLedger() {
+                StockLedgerEngine ledger = new StockLedgerEngine(sweetRepository, purchaseRepository,
+                                checkpointRepository, transactionManager, eventPublisher, versionClock,
+                                journalDir.resolve("purchase-journal.log").toString(), true, 20, 500);
+                ledger.recover();
+                return ledger;
+        }
+
+        private int quantity() {
+                return sweetRepository.findById(sweetId).orElseThrow().getQuantity();
+        }
+}
@@ -0,0 +1,254 @@
+package com.assignment.sweet.integration;
+
+import com.assignment.sweet.event.SweetChangedEvent;
+import com.assignment.sweet.model.Purchase;
+import com.assignment.sweet.model.Sweet;
+import com.assignment.sweet.repository.CustomerSummaryRepository;
+import com.assignment.sweet.repository.PurchaseRepository;
+import com.assignment.sweet.repository.SweetRepository;
+import com.assignment.sweet.service.CatalogVersionClock;
+import com.assignment.sweet.service.RingBufferInventoryEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Purchases through the ring-buffer engine are admitted by one writer per
+ * sweet and committed in batches, without overselling even when stock moves
+ * underneath the writer.
+ */
+@SpringBootTest
+class RingBufferIntegrationTest {
+
+        private static final int BUYERS = 40;
+        private static final int STOCK = 30;
+
+        @Autowired
+        private SweetRepository sweetRepository;
+
+        @Autowired
+        private PurchaseRepository purchaseRepository;
+
+        @Autowired
+        private CustomerSummaryRepository summaryRepository;
+
+        @Autowired
+        private ApplicationEventPublisher eventPublisher;
+
+        @Autowired
+        private CatalogVersionClock versionClock;
+
+        @Autowired
+        private PlatformTransactionManager transactionManager;
+
+        private RingBufferInventoryEngine engine;
+        private Long sweetId;
+
+        @BeforeEach
+        void setUp() {
+                purchaseRepository.deleteAll();
+                summaryRepository.deleteAll();
+                sweetRepository.deleteAll();
+                sweetId = sweetRepository.save(Sweet.builder().name("Ladoo").category("Traditional")
+                                .price(BigDecimal.valueOf(2)).quantity(STOCK).build()).getId();
+                engine = new RingBufferInventoryEngine(sweetRepository, purchaseRepository, eventPublisher,
+                                versionClock, transactionManager, 1024, 2, 500);
+                engine.start();
+        }
+
+        @AfterEach
+        void tearDown() {
+                engine.stop();
+        }
+
+        @Test
+        void concurrentPurchasesOnOneSweetNeverOversell() throws Exception {
+                ExecutorService executor = Executors.newFixedThreadPool(BUYERS);
+                CountDownLatch start = new CountDownLatch(1);
+                AtomicInteger rejected = new AtomicInteger();
+                List<Future<?>> futures = new ArrayList<>();
+                for (int i = 0; i < BUYERS; i++) {
+                        String customer = "buyer" + i + "@example.com";
+                        futures.add(executor.submit(() -> {
+                                start.await();
+                                try {
+                                        Sweet after = engine.purchase(sweetId, 1, customer);
+                                        assertTrue(after.getQuantity() >= 0);
+                                } catch (RuntimeException e) {
+                                        assertEquals("Insufficient stock", e.getMessage());
+                                        rejected.incrementAndGet();
+                                }
+                                return null;
+                        }));
+                }
+                start.countDown();
+                for (Future<?> future : futures) {
+                        future.get();
+                }
+                executor.shutdown();
+
+                assertEquals(BUYERS - STOCK, rejected.get());
+                assertEquals(0, sweetRepository.findById(sweetId).orElseThrow().getQuantity());
+                List<Purchase> purchases = purchaseRepository.findAll();
+                assertEquals(STOCK, purchases.size());
+                assertEquals(STOCK, engine.purchaseCount());
+                assertTrue(engine.commitCount() <= STOCK);
+        }
+
+        @Test
+        void writersSharingCustomersDoNotDeadlockOnTheirSummaries() throws Exception {
+                Sweet first = sweetRepository.save(Sweet.builder().name("Barfi").category("Milk")
+                                .price(BigDecimal.valueOf(5)).quantity(100).build());
+                Sweet second = sweetRepository.save(Sweet.builder().name("Jalebi").category("Fried")
+                                .price(BigDecimal.valueOf(3)).quantity(100).build());
+                while (Math.floorMod(second.getId(), 2) == Math.floorMod(first.getId(), 2)) {
+                        second = sweetRepository.save(Sweet.builder().name("Jalebi").category("Fried")
+                                        .price(BigDecimal.valueOf(3)).quantity(100).build());
+                }
+                List<Long> sweets = List.of(first.getId(), second.getId());
+                ExecutorService executor = Executors.newCachedThreadPool();
+                CountDownLatch locked = new CountDownLatch(1);
+                CountDownLatch release = new CountDownLatch(1);
+                // Hold both sweet rows so each writer blocks on its first purchase while the rest queue up
+                Future<?> holder = executor.submit(() -> new TransactionTemplate(transactionManager)
+                                .executeWithoutResult(status -> {
+                                        sweets.forEach(id -> sweetRepository.decrementStock(id, 0,
+                                                        versionClock.next()));
+                                        locked.countDown();
+                                        try {
+                                                release.await();
+                                        } catch (InterruptedException e) {
+                                                Thread.currentThread().interrupt();
+                                        }
+                                }));
+                locked.await();
+                List<Future<?>> futures = new ArrayList<>();
+                futures.add(executor.submit(() -> engine.purchase(sweets.get(0), 1, "w0@example.com")));
+                futures.add(executor.submit(() -> engine.purchase(sweets.get(1), 1, "w1@example.com")));
+                Thread.sleep(200);
+                // The next batch of each writer names the two customers in opposite orders
+                futures.add(executor.submit(() -> engine.purchase(sweets.get(0), 1, "a@example.com")));
+                futures.add(executor.submit(() -> engine.purchase(sweets.get(1), 1, "b@example.com")));
+                Thread.sleep(100);
+                futures.add(executor.submit(() -> engine.purchase(sweets.get(0), 1, "b@example.com")));
+                futures.add(executor.submit(() -> engine.purchase(sweets.get(1), 1, "a@example.com")));
+                Thread.sleep(100);
+                release.countDown();
+                holder.get();
+                for (Future<?> future : futures) {
+                        future.get();
+                }
+                executor.shutdown();
+
+                assertEquals(6, purchaseRepository.count());
+                assertEquals(2, summaryRepository.findById("a@example.com").orElseThrow().getOrderCount());
+                assertEquals(2, summaryRepository.findById("b@example.com").orElseThrow().getOrderCount());
+        }
+
+        @Test
+        void stockTakenOutsideTheRingIsRereadBeforeCommitting() {
+                assertEquals(STOCK - 1, engine.purchase(sweetId, 1, "a@example.com").getQuantity());
+
+                // A write the writer has not heard about yet leaves its counter too high
+                Sweet sweet = sweetRepository.findById(sweetId).orElseThrow();
+                sweet.setQuantity(2);
+                sweet.setCatalogVersion(versionClock.next());
+                sweetRepository.save(sweet);
+
+                RuntimeException ex = assertThrows(RuntimeException.class,
+                                () -> engine.purchase(sweetId, 3, "b@example.com"));
+                assertEquals("Insufficient stock", ex.getMessage());
+                assertEquals(0, engine.purchase(sweetId, 2, "c@example.com").getQuantity());
+                assertEquals(2, purchaseRepository.count());
+        }
+
+        @Test
+        void restockReachesTheWriterThroughTheChangeEvent() {
+                engine.purchase(sweetId, STOCK, "a@example.com");
+                assertThrows(RuntimeException.class, () -> engine.purchase(sweetId, 1, "b@example.com"));
+
+                Sweet sweet = sweetRepository.findById(sweetId).orElseThrow();
+                sweet.setQuantity(5);
+                sweet.setCatalogVersion(versionClock.next());
+                engine.onSweetChanged(SweetChangedEvent.upserted(sweetRepository.save(sweet)));
+
+                assertEquals(4, engine.purchase(sweetId, 1, "b@example.com").getQuantity());
+        }
+
+        @Test
+        void unknownSweetIsRejected() {
+                RuntimeException ex = assertThrows(RuntimeException.class,
+                                () -> engine.purchase(-1L, 1, "a@example.com"));
+                assertEquals("Sweet not found", ex.getMessage());
+                assertEquals(0, purchaseRepository.count());
+        }
+
+        @Test
+        void purchasesServedWhileTheWebServerStartsAndDrainsAreCommitted() {
+                engine.stop();
+                engine = new RingBufferInventoryEngine(sweetRepository, purchaseRepository, eventPublisher,
+                                versionClock, transactionManager, 1024, 2, 500);
+                WebServer server = new WebServer(() -> engine.purchase(sweetId, 1, "a@example.com"));
+                try (GenericApplicationContext context = new GenericApplicationContext()) {
+                        context.registerBean(RingBufferInventoryEngine.class, () -> engine);
+                        context.registerBean(WebServer.class, () -> server);
+                        context.refresh();
+                }
+
+                assertEquals(List.of(STOCK - 1, STOCK - 2), server.served);
+                assertEquals(2, purchaseRepository.count());
+        }
+
+        /** Stands in for the web server: serves a request as it starts and another while draining on close. */
+        private static final class WebServer implements SmartLifecycle {
+                private final Supplier<Sweet> request;
+                private final List<Integer> served = new ArrayList<>();
+                private boolean running;
+
+                WebServer(Supplier<Sweet> request) {
+                        this.request = request;
+                }
+
+                @Override
+                public void start() {
+                        served.add(request.get().getQuantity());
+                        running = true;
+                }
+
+                @Override
+                public void stop() {
+                        served.add(request.get().getQuantity());
+                        running = false;
+                }
+
+                @Override
+                public boolean isRunning() {
+                        return running;
+                }
+
+                @Override
+                public int getPhase() {
+                        return WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE;
+                }
+        }
+}
@@ -0,0 +1,253 @@
+package com.assignment.sweet.integration;
+
+import com.assignment.sweet.dto.SalesBucket;
+import com.assignment.sweet.dto.SalesGrouping;
+import com.assignment.sweet.dto.SalesTotal;
+import com.assignment.sweet.event.PurchaseRecordedEvent;
+import com.assignment.sweet.model.Purchase;
+import com.assignment.sweet.model.SalesRollup.Granularity;
+import com.assignment.sweet.model.Sweet;
+import com.assignment.sweet.repository.PurchaseRepository;
+import com.assignment.sweet.repository.SalesRollupProgressRepository;
+import com.assignment.sweet.repository.SalesRollupRepository;
+import com.assignment.sweet.repository.SweetRepository;
+import com.assignment.sweet.service.SalesRollupService;
+import com.assignment.sweet.service.SweetService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Sales rollups commit and roll back with live purchases, and a rebuild from
+ * weeks of existing purchases answers totals and series exactly as summing
+ * the raw rows does, whichever mix of week, day, hour and minute buckets the
+ * range needs.
+ */
+@SpringBootTest(properties = {
+                // Own database: other contexts' purchases and compactions would write to the same tables
+                "spring.datasource.url=jdbc:h2:mem:sales-rollups;DB_CLOSE_DELAY=-1",
+                // Compacted by hand below
+                "sales.rollup.compaction-interval-ms=3600000"
+})
+@AutoConfigureMockMvc
+class SalesRollupIntegrationTest {
+
+        private static final int DAYS = 40;
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private SweetService sweetService;
+
+        @Autowired
+        private SalesRollupService rollupService;
+
+        @Autowired
+        private SweetRepository sweetRepository;
+
+        @Autowired
+        private PurchaseRepository purchaseRepository;
+
+        @Autowired
+        private SalesRollupRepository rollupRepository;
+
+        @Autowired
+        private SalesRollupProgressRepository progressRepository;
+
+        @Autowired
+        private PlatformTransactionManager transactionManager;
+
+        private Sweet ladoo;
+        private Sweet barfi;
+
+        @BeforeEach
+        void setUp() {
+                purchaseRepository.deleteAll();
+                rollupRepository.deleteAll();
+                progressRepository.deleteAll();
+                sweetRepository.deleteAll();
+                ladoo = sweetRepository.save(Sweet.builder().name("Ladoo").category("Traditional")
+                                .price(BigDecimal.valueOf(2)).quantity(1000).build());
+                barfi = sweetRepository.save(Sweet.builder().name("Barfi").category("Milk")
+                                .price(BigDecimal.valueOf(5)).quantity(1000).build());
+        }
+
+        @Test
+        void livePurchases_ShouldReachTotalsAndSeriesOnCommit() {
+                sweetService.purchaseSweet(ladoo.getId(), 3, "a@example.com");
+                sweetService.purchaseSweet(ladoo.getId(), 1, "b@example.com");
+                sweetService.purchaseSweet(barfi.getId(), 2, "a@example.com");
+
+                List<SalesTotal> bySweet = rollupService.totals(null, null, SalesGrouping.SWEET);
+                assertEquals(2, bySweet.size());
+                assertEquals("Barfi", bySweet.get(0).getSweetName());
+                assertEquals(0, BigDecimal.TEN.compareTo(bySweet.get(0).getRevenue()));
+                assertEquals("Ladoo", bySweet.get(1).getSweetName());
+                assertEquals(4, bySweet.get(1).getUnits());
+                assertEquals(2, bySweet.get(1).getOrderCount());
+
+                List<SalesTotal> byCategory = rollupService.totals(null, null, SalesGrouping.CATEGORY);
+                assertEquals(List.of("Milk", "Traditional"), byCategory.stream().map(SalesTotal::getCategory).toList());
+                assertNull(byCategory.get(0).getSweetId());
+
+                List<SalesBucket> hours = rollupService.series(Granularity.HOUR, null, null, ladoo.getId(), null);
+                assertEquals(1, hours.size());
+                assertEquals(Granularity.HOUR.truncate(LocalDateTime.now()), hours.get(0).getBucketStart());
+                assertEquals(4, hours.get(0).getUnits());
+        }
+
+        @Test
+        void rolledBackPurchase_ShouldLeaveRollupsUnchanged() {
+                sweetService.purchaseSweet(ladoo.getId(), 1, "a@example.com");
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                        sweetService.purchaseSweet(ladoo.getId(), 5, "b@example.com");
+                        status.setRollbackOnly();
+                });
+
+                List<SalesTotal> totals = rollupService.totals(null, null, SalesGrouping.SWEET);
+                assertEquals(1, totals.get(0).getUnits());
+                assertEquals(1, totals.get(0).getOrderCount());
+        }
+
+        @Test
+        void rebuild_ShouldKeepLiveSalesOnceAlongsideRebuiltOnes() {
+                List<Purchase> purchases = seedHistory();
+                sweetService.purchaseSweet(ladoo.getId(), 7, "live@example.com");
+                rollupService.rebuild();
+
+                long expected = purchases.stream().mapToLong(Purchase::getQuantity).sum() + 7;
+                assertEquals(expected, rollupService.totals(null, null, SalesGrouping.SWEET).stream()
+                                .mapToLong(SalesTotal::getUnits).sum());
+        }
+
+        @Test
+        void rebuild_ShouldMatchRawPurchasesOverAnyRange() {
+                List<Purchase> purchases = seedHistory();
+                assertEquals(purchases.size(), rollupService.rebuild());
+
+                LocalDateTime today = LocalDate.now().atStartOfDay();
+                List<LocalDateTime[]> ranges = List.of(
+                                new LocalDateTime[] { today.minusDays(DAYS + 1), LocalDateTime.now().plusMinutes(1) },
+                                // Hour-aligned edges around whole days and weeks
+                                new LocalDateTime[] { today.minusDays(30).plusHours(10), today.minusDays(3).plusHours(15) },
+                                // Minute edges, recent enough for minute buckets
+                                new LocalDateTime[] { LocalDateTime.now().minusHours(20).withSecond(0).withNano(0)
+                                                .withMinute(17), LocalDateTime.now().withSecond(0).withNano(0) });
+                for (LocalDateTime[] range : ranges) {
+                        Predicate<Purchase> inRange = p -> !p.getCreatedDate().isBefore(range[0])
+                                        && p.getCreatedDate().isBefore(range[1]);
+                        List<SalesTotal> totals = rollupService.totals(range[0], range[1], SalesGrouping.SWEET);
+                        for (Sweet sweet : List.of(ladoo, barfi)) {
+                                List<Purchase> expected = purchases.stream().filter(inRange)
+                                                .filter(p -> p.getSweetId().equals(sweet.getId())).toList();
+                                SalesTotal total = totals.stream().filter(t -> t.getSweetId().equals(sweet.getId()))
+                                                .findFirst().orElse(new SalesTotal(sweet.getId(), null, null, 0,
+                                                                BigDecimal.ZERO, 0));
+                                assertEquals(expected.size(), total.getOrderCount(), "orders of " + sweet.getName());
+                                assertEquals(expected.stream().mapToLong(Purchase::getQuantity).sum(), total.getUnits());
+                                assertEquals(0, expected.stream().map(Purchase::getTotalPrice)
+                                                .reduce(BigDecimal.ZERO, BigDecimal::add).compareTo(total.getRevenue()));
+                        }
+                }
+
+                Map<LocalDateTime, Long> expectedDays = new TreeMap<>();
+                purchases.stream().filter(p -> p.getSweetId().equals(barfi.getId()))
+                                .forEach(p -> expectedDays.merge(Granularity.DAY.truncate(p.getCreatedDate()),
+                                                (long) p.getQuantity(), Long::sum));
+                Map<LocalDateTime, Long> days = new TreeMap<>();
+                rollupService.series(Granularity.DAY, today.minusDays(DAYS + 1), today.plusDays(1), null, "milk")
+                                .forEach(bucket -> days.put(bucket.getBucketStart(), bucket.getUnits()));
+                assertEquals(expectedDays, days);
+        }
+
+        @Test
+        void lateSaleForCompactedDay_ShouldStillBeCounted() {
+                seedHistory();
+                rollupService.rebuild();
+                LocalDateTime day = LocalDate.now().minusDays(20).atStartOfDay();
+                long before = rollupService.totals(day, day.plusDays(1), SalesGrouping.SWEET).stream()
+                                .mapToLong(SalesTotal::getUnits).sum();
+
+                Purchase late = purchaseRepository.save(new Purchase(null, ladoo.getId(), ladoo.getName(), 4,
+                                ladoo.getPrice(), BigDecimal.valueOf(8), "late@example.com", day.plusHours(12)));
+                rollupService.onPurchaseRecorded(new PurchaseRecordedEvent(late));
+                rollupService.compact();
+
+                assertEquals(before + 4, rollupService.totals(day, day.plusDays(1), SalesGrouping.SWEET).stream()
+                                .mapToLong(SalesTotal::getUnits).sum());
+                assertEquals(before + 4, rollupService.series(Granularity.WEEK, day, day.plusDays(1), null, null)
+                                .stream().mapToLong(SalesBucket::getUnits).sum());
+        }
+
+        @Test
+        void emptyRange_ShouldBeRejected() {
+                LocalDateTime now = LocalDateTime.now();
+                assertThrows(IllegalArgumentException.class,
+                                () -> rollupService.totals(now, now.minusDays(1), SalesGrouping.SWEET));
+        }
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        void salesEndpoints_ShouldServeAdmins() throws Exception {
+                seedHistory();
+                mockMvc.perform(post("/api/sales/rollups/rebuild"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.purchases").isNumber());
+                mockMvc.perform(get("/api/sales/totals").param("groupBy", "CATEGORY"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.length()").value(2));
+                mockMvc.perform(get("/api/sales/series").param("granularity", "WEEK")
+                                .param("sweetId", String.valueOf(ladoo.getId())))
+                                .andExpect(status().isOk());
+                mockMvc.perform(get("/api/sales/series").param("granularity", "MINUTE"))
+                                .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        @WithMockUser(username = "a@example.com")
+        void salesEndpoints_ShouldBeAdminOnly() throws Exception {
+                mockMvc.perform(get("/api/sales/totals")).andExpect(status().isForbidden());
+                mockMvc.perform(post("/api/sales/rollups/rebuild")).andExpect(status().isForbidden());
+        }
+
+        /** A purchase or two a day over the last {@value #DAYS} days, at least two minutes old. */
+        private List<Purchase> seedHistory() {
+                LocalDateTime now = LocalDateTime.now().minusMinutes(2);
+                List<Purchase> purchases = new ArrayList<>();
+                for (int i = 0; i <= DAYS; i++) {
+                        Sweet sweet = i % 2 == 0 ? ladoo : barfi;
+                        int quantity = i % 3 + 1;
+                        LocalDateTime at = now.minusDays(i).minusHours(i % 24).minusMinutes(i * 7 % 60);
+                        purchases.add(new Purchase(null, sweet.getId(), sweet.getName(), quantity, sweet.getPrice(),
+                                        sweet.getPrice().multiply(BigDecimal.valueOf(quantity)), "c" + i + "@example.com",
+                                        at));
+                        if (i % 5 == 0) {
+                                purchases.add(new Purchase(null, barfi.getId(), barfi.getName(), 1, barfi.getPrice(),
+                                                barfi.getPrice(), "d" + i + "@example.com", at.minusMinutes(45)));
+                        }
+                }
+                return purchaseRepository.saveAll(purchases);
+        }
+}
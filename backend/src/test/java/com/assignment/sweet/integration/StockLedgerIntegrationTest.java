@@ -0,0 +1,157 @@
+package com.assignment.sweet.integration;
+
+import com.assignment.sweet.event.SweetChangedEvent;
+import com.assignment.sweet.model.Purchase;
+import com.assignment.sweet.model.Sweet;
+import com.assignment.sweet.repository.InventoryCheckpointRepository;
+import com.assignment.sweet.repository.PurchaseRepository;
+import com.assignment.sweet.repository.SweetRepository;
+import com.assignment.sweet.service.CatalogVersionClock;
+import com.assignment.sweet.service.StockLedgerEngine;
+import com.assignment.sweet.service.SweetService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The write-behind ledger against a real database. Engines are built by hand
+ * and never started, so nothing is flushed unless a test asks for it.
+ */
+@SpringBootTest
+class StockLedgerIntegrationTest {
+
+        @Autowired
+        private SweetRepository sweetRepository;
+
+        @Autowired
+        private PurchaseRepository purchaseRepository;
+
+        @Autowired
+        private InventoryCheckpointRepository checkpointRepository;
+
+        @Autowired
+        private PlatformTransactionManager transactionManager;
+
+        @Autowired
+        private ApplicationEventPublisher eventPublisher;
+
+        @Autowired
+        private CatalogVersionClock versionClock;
+
+        @Autowired
+        private SweetService sweetService;
+
+        @TempDir
+        Path journalDir;
+
+        private Long ladooId;
+        private Long barfiId;
+
+        @BeforeEach
+        void setUp() {
+                purchaseRepository.deleteAll();
+                sweetRepository.deleteAll();
+                checkpointRepository.deleteAll();
+                ladooId = sweetRepository.save(Sweet.builder().name("Ladoo").category("Traditional")
+                                .price(BigDecimal.valueOf(2)).quantity(10).build()).getId();
+                barfiId = sweetRepository.save(Sweet.builder().name("Barfi").category("Milk")
+                                .price(BigDecimal.valueOf(5)).quantity(4).build()).getId();
+        }
+
+        @Test
+        void purchasesAreAdmittedInMemoryAndWrittenBehind() {
+                StockLedgerEngine ledger = newLedger();
+                ledger.recover();
+
+                assertEquals(7, ledger.purchase(ladooId, 3, "a@example.com").getQuantity());
+                assertEquals(4, ledger.purchase(ladooId, 3, "b@example.com").getQuantity());
+                RuntimeException ex = assertThrows(RuntimeException.class,
+                                () -> ledger.purchase(ladooId, 5, "c@example.com"));
+                assertEquals("Insufficient stock", ex.getMessage());
+
+                // Nothing has touched the database yet
+                assertEquals(10, sweetRepository.findById(ladooId).orElseThrow().getQuantity());
+                assertEquals(0, purchaseRepository.count());
+
+                assertEquals(2, ledger.flush());
+                assertEquals(4, sweetRepository.findById(ladooId).orElseThrow().getQuantity());
+                List<Purchase> purchases = purchaseRepository.findAll();
+                assertEquals(2, purchases.size());
+                assertTrue(purchases.stream().allMatch(p -> p.getCreatedDate() != null));
+                assertEquals(0, ledger.pendingUnits(ladooId));
+        }
+
+        @Test
+        void checkoutTakesEveryLineOrNone() {
+                StockLedgerEngine ledger = newLedger();
+                ledger.recover();
+
+                RuntimeException ex = assertThrows(RuntimeException.class, () -> ledger.checkout(
+                                new TreeMap<>(Map.of(ladooId, 2, barfiId, 5)), "a@example.com"));
+                assertEquals("Insufficient stock for sweet " + barfiId, ex.getMessage());
+                assertEquals(0, ledger.pendingUnits(ladooId));
+
+                List<Purchase> purchases = ledger.checkout(new TreeMap<>(Map.of(ladooId, 2, barfiId, 4)),
+                                "a@example.com");
+                assertEquals(2, purchases.size());
+                ledger.flush();
+                assertEquals(8, sweetRepository.findById(ladooId).orElseThrow().getQuantity());
+                assertEquals(0, sweetRepository.findById(barfiId).orElseThrow().getQuantity());
+        }
+
+        @Test
+        void restartReplaysUnflushedPurchasesExactlyOnce() {
+                StockLedgerEngine crashed = newLedger();
+                crashed.recover();
+                crashed.purchase(ladooId, 2, "a@example.com");
+                crashed.checkout(new TreeMap<>(Map.of(ladooId, 1, barfiId, 1)), "b@example.com");
+                // The process dies here: journaled, never flushed
+
+                StockLedgerEngine restarted = newLedger();
+                restarted.recover();
+                assertEquals(7, sweetRepository.findById(ladooId).orElseThrow().getQuantity());
+                assertEquals(3, sweetRepository.findById(barfiId).orElseThrow().getQuantity());
+                assertEquals(3, purchaseRepository.count());
+                assertEquals(3, restarted.purchase(ladooId, 4, "c@example.com").getQuantity());
+
+                // A second restart, and the first engine's late flush, must not apply anything twice
+                assertEquals(2, crashed.flush());
+                newLedger().recover();
+                assertEquals(3, sweetRepository.findById(ladooId).orElseThrow().getQuantity());
+                assertEquals(4, purchaseRepository.count());
+        }
+
+        @Test
+        void restockOutsideTheLedgerIsPickedUpWithoutLosingPendingUnits() {
+                StockLedgerEngine ledger = newLedger();
+                ledger.recover();
+                ledger.purchase(barfiId, 4, "a@example.com");
+
+                Sweet restocked = sweetService.restockSweet(barfiId, 6);
+                ledger.onSweetChanged(SweetChangedEvent.upserted(restocked));
+
+                // The database still holds the 4 unflushed units, so only 6 are available
+                assertEquals(0, ledger.purchase(barfiId, 6, "b@example.com").getQuantity());
+                assertThrows(RuntimeException.class, () -> ledger.purchase(barfiId, 1, "c@example.com"));
+                ledger.flush();
+                assertEquals(0, sweetRepository.findById(barfiId).orElseThrow().getQuantity());
+        }
+
+        private StockLedgerEngine newLedger() {
+                return new StockLedgerEngine(sweetRepository, purchaseRepository, checkpointRepository,
+                                transactionManager, eventPublisher, versionClock,
+                                journalDir.resolve("purchase-journal.log").toString(), true, 20, 500);
+        }
+}
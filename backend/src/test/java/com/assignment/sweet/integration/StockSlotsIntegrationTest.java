@@ -0,0 +1,226 @@
+package com.assignment.sweet.integration;
+
+import com.assignment.sweet.dto.CheckoutLine;
+import com.assignment.sweet.model.Sweet;
+import com.assignment.sweet.repository.PurchaseRepository;
+import com.assignment.sweet.repository.StockSlotRepository;
+import com.assignment.sweet.repository.SweetRepository;
+import com.assignment.sweet.service.CatalogSnapshotCache;
+import com.assignment.sweet.service.CatalogVersionClock;
+import com.assignment.sweet.service.StockSlots;
+import com.assignment.sweet.service.SweetService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Purchases on a sweet split into stock slots spread over the slot rows,
+ * never oversell, and leave the exact stock visible before and after the
+ * rebalancer folds them in.
+ */
+@SpringBootTest(properties = {
+                "inventory.engine=sharded",
+                // Own database: the rebalancer of a context on another engine would take the slots back
+                "spring.datasource.url=jdbc:h2:mem:stock-slots;DB_CLOSE_DELAY=-1",
+                // Rebalanced by hand below
+                "inventory.sharded.rebalance-interval-ms=3600000"
+})
+class StockSlotsIntegrationTest {
+
+        private static final int BUYERS = 40;
+
+        @Autowired
+        private SweetService sweetService;
+
+        @Autowired
+        private StockSlots stockSlots;
+
+        @Autowired
+        private SweetRepository sweetRepository;
+
+        @Autowired
+        private StockSlotRepository slotRepository;
+
+        @Autowired
+        private PurchaseRepository purchaseRepository;
+
+        @Autowired
+        private CatalogSnapshotCache catalogSnapshotCache;
+
+        @Autowired
+        private ObjectMapper objectMapper;
+
+        @Autowired
+        private CatalogVersionClock versionClock;
+
+        @Autowired
+        private PlatformTransactionManager transactionManager;
+
+        @BeforeEach
+        void setUp() {
+                purchaseRepository.deleteAll();
+                slotRepository.deleteAll();
+                sweetRepository.deleteAll();
+        }
+
+        @Test
+        void concurrentPurchasesAcrossSlotsNeverOversell() throws Exception {
+                Long sweetId = slotted(100, 4);
+                assertEquals(4, slotRepository.count());
+                assertEquals(100, sweetRepository.findById(sweetId).orElseThrow().getAllottedStock());
+
+                ExecutorService executor = Executors.newFixedThreadPool(BUYERS);
+                CountDownLatch start = new CountDownLatch(1);
+                AtomicInteger rejected = new AtomicInteger();
+                List<Future<?>> futures = new ArrayList<>();
+                for (int i = 0; i < BUYERS; i++) {
+                        String customer = "buyer" + i + "@example.com";
+                        futures.add(executor.submit(() -> {
+                                start.await();
+                                for (int n = 0; n < 3; n++) {
+                                        try {
+                                                sweetService.purchaseSweet(sweetId, 1, customer);
+                                        } catch (RuntimeException e) {
+                                                assertEquals("Insufficient stock", e.getMessage());
+                                                rejected.incrementAndGet();
+                                        }
+                                }
+                                return null;
+                        }));
+                }
+                start.countDown();
+                for (Future<?> future : futures) {
+                        future.get();
+                }
+                executor.shutdown();
+
+                assertEquals(BUYERS * 3 - 100, rejected.get());
+                assertEquals(100, purchaseRepository.count());
+                assertEquals(0, sweetService.getSweet(sweetId).getQuantity());
+                stockSlots.rebalance(sweetId);
+                Sweet folded = sweetRepository.findById(sweetId).orElseThrow();
+                assertEquals(0, folded.getQuantity());
+                assertEquals(0, folded.getAllottedStock());
+        }
+
+        @Test
+        void exactStockIsShownBeforeTheFold() {
+                Long sweetId = slotted(100, 4);
+
+                assertEquals(97, sweetService.purchaseSweet(sweetId, 3, "a@example.com").getQuantity());
+                assertEquals(100, sweetRepository.findById(sweetId).orElseThrow().getQuantity());
+                assertEquals(97, sweetService.getSweet(sweetId).getQuantity());
+
+                stockSlots.rebalance(sweetId);
+                Sweet folded = sweetRepository.findById(sweetId).orElseThrow();
+                assertEquals(97, folded.getQuantity());
+                // 97 / 4 per slot, the remainder stays on the row
+                assertEquals(96, folded.getAllottedStock());
+        }
+
+        @Test
+        void catalogSnapshotFollowsSlotSalesBeforeTheFold() throws Exception {
+                Long sweetId = slotted(100, 4);
+                assertEquals(100, snapshotQuantity(sweetId));
+
+                sweetService.purchaseSweet(sweetId, 3, "a@example.com");
+                sweetService.purchaseSweet(sweetId, 2, "b@example.com");
+
+                assertEquals(100, sweetRepository.findById(sweetId).orElseThrow().getQuantity());
+                assertEquals(95, snapshotQuantity(sweetId));
+                stockSlots.rebalance(sweetId);
+                assertEquals(95, snapshotQuantity(sweetId));
+        }
+
+        @Test
+        void purchaseNoSlotCanServeTakesTheSlotsBack() {
+                Long sweetId = slotted(10, 4);
+
+                assertEquals(5, sweetService.purchaseSweet(sweetId, 5, "a@example.com").getQuantity());
+                Sweet sweet = sweetRepository.findById(sweetId).orElseThrow();
+                assertEquals(5, sweet.getQuantity());
+                assertEquals(0, sweet.getAllottedStock());
+
+                RuntimeException ex = assertThrows(RuntimeException.class,
+                                () -> sweetService.purchaseSweet(sweetId, 6, "b@example.com"));
+                assertEquals("Insufficient stock", ex.getMessage());
+        }
+
+        @Test
+        void slotStockIsTakenBackByTheRowAsLockedNotAnEarlierRead() {
+                // 8 units in the slots, 2 left on the row
+                Long sweetId = slotted(10, 4);
+                TransactionTemplate otherBuyer = new TransactionTemplate(transactionManager);
+                otherBuyer.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                        sweetRepository.findById(sweetId).orElseThrow();
+                        // Takes the row's 2 units after that read
+                        otherBuyer.executeWithoutResult(inner -> assertEquals(1,
+                                        sweetRepository.decrementStock(sweetId, 2, versionClock.next())));
+
+                        stockSlots.ensureUnallotted(sweetId, 2);
+                        assertEquals(1, sweetRepository.decrementStock(sweetId, 2, versionClock.next()));
+                });
+
+                assertEquals(6, sweetService.getSweet(sweetId).getQuantity());
+        }
+
+        @Test
+        void checkoutReachesStockHeldInSlots() {
+                Long sweetId = slotted(8, 4);
+                assertEquals(8, sweetRepository.findById(sweetId).orElseThrow().getAllottedStock());
+
+                sweetService.checkout(List.of(new CheckoutLine(sweetId, 3)), "a@example.com");
+
+                assertEquals(5, sweetService.getSweet(sweetId).getQuantity());
+        }
+
+        @Test
+        void mergingSlotsReturnsTheirStockToTheRow() {
+                Long sweetId = slotted(20, 4);
+                sweetService.purchaseSweet(sweetId, 2, "a@example.com");
+
+                sweetService.setStockSlots(sweetId, 0);
+                stockSlots.rebalance(sweetId);
+
+                Sweet sweet = sweetRepository.findById(sweetId).orElseThrow();
+                assertEquals(18, sweet.getQuantity());
+                assertEquals(0, sweet.getAllottedStock());
+                assertEquals(0, slotRepository.count());
+        }
+
+        private int snapshotQuantity(Long sweetId) throws Exception {
+                for (JsonNode sweet : objectMapper.readTree(catalogSnapshotCache.current().json())) {
+                        if (sweet.get("id").asLong() == sweetId) {
+                                return sweet.get("quantity").asInt();
+                        }
+                }
+                throw new AssertionError("Sweet " + sweetId + " is not in the snapshot");
+        }
+
+        private Long slotted(int stock, int slots) {
+                Long sweetId = sweetRepository.save(Sweet.builder().name("Ladoo").category("Traditional")
+                                .price(BigDecimal.valueOf(2)).quantity(stock).build()).getId();
+                sweetService.setStockSlots(sweetId, slots);
+                stockSlots.rebalance(sweetId);
+                return sweetId;
+        }
+}
@@ -0,0 +1,107 @@
+package com.assignment.sweet.integration;
+
+import com.assignment.sweet.model.Purchase;
+import com.assignment.sweet.model.Sweet;
+import com.assignment.sweet.repository.PurchaseRepository;
+import com.assignment.sweet.repository.SweetRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class StreamingIntegrationTest {
+
+        private static final int PURCHASES = 1200;
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private ObjectMapper objectMapper;
+
+        @Autowired
+        private SweetRepository sweetRepository;
+
+        @Autowired
+        private PurchaseRepository purchaseRepository;
+
+        @BeforeEach
+        void setUp() {
+                purchaseRepository.deleteAll();
+                sweetRepository.deleteAll();
+                List<Purchase> purchases = new ArrayList<>();
+                for (int i = 1; i <= 3; i++) {
+                        Sweet sweet = sweetRepository.save(Sweet.builder().name("Sweet " + i).category("Candy")
+                                        .price(BigDecimal.valueOf(i)).quantity(10)
+                                        .description("Description " + i).build());
+                        for (int j = 0; j < PURCHASES / 3; j++) {
+                                purchases.add(new Purchase(null, sweet.getId(), sweet.getName(), 1, sweet.getPrice(),
+                                                sweet.getPrice(), "user" + j + "@example.com", null));
+                        }
+                }
+                purchaseRepository.saveAll(purchases);
+        }
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        void allPurchases_ShouldStreamJsonArrayNewestFirst() throws Exception {
+                JsonNode purchases = objectMapper.readTree(fetch("/api/purchases/export", null));
+
+                assertEquals(PURCHASES, purchases.size());
+                assertTrue(purchases.get(0).get("id").asLong() > purchases.get(1).get("id").asLong());
+                assertEquals("Sweet 3", purchases.get(0).get("sweetName").asText());
+        }
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        void allPurchases_ShouldStreamNdjsonWhenAccepted() throws Exception {
+                String body = fetch("/api/purchases/export", "application/x-ndjson");
+
+                String[] lines = body.split("\n");
+                assertEquals(PURCHASES, lines.length);
+                assertEquals("Sweet 3", objectMapper.readTree(lines[0]).get("sweetName").asText());
+        }
+
+        @Test
+        @WithMockUser
+        void sweetsStream_ShouldWriteWholeCatalogInIdOrder() throws Exception {
+                JsonNode sweets = objectMapper.readTree(fetch("/api/sweets/stream", null));
+
+                assertEquals(3, sweets.size());
+                assertEquals("Sweet 1", sweets.get(0).get("name").asText());
+                assertEquals("Description 3", sweets.get(2).get("description").asText());
+        }
+
+        private String fetch(String url, String accept) throws Exception {
+                var builder = get(url);
+                if (accept != null) {
+                        builder.accept(accept);
+                }
+                MvcResult started = mockMvc.perform(builder)
+                                .andExpect(request().asyncStarted())
+                                .andReturn();
+                return mockMvc.perform(asyncDispatch(started))
+                                .andExpect(status().isOk())
+                                .andExpect(header().exists("Content-Type"))
+                                .andReturn().getResponse().getContentAsString();
+        }
+}
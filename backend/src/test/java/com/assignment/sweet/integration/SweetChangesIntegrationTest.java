@@ -0,0 +1,136 @@
+package com.assignment.sweet.integration;
+
+import com.assignment.sweet.model.Sweet;
+import com.assignment.sweet.model.SweetChange;
+import com.assignment.sweet.repository.PurchaseRepository;
+import com.assignment.sweet.repository.SweetChangeRepository;
+import com.assignment.sweet.repository.SweetRepository;
+import com.assignment.sweet.service.SweetChangeLog;
+import com.assignment.sweet.service.SweetService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+class SweetChangesIntegrationTest {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private ObjectMapper objectMapper;
+
+        @Autowired
+        private SweetService sweetService;
+
+        @Autowired
+        private SweetChangeLog sweetChangeLog;
+
+        @Autowired
+        private SweetRepository sweetRepository;
+
+        @Autowired
+        private PurchaseRepository purchaseRepository;
+
+        @Autowired
+        private SweetChangeRepository sweetChangeRepository;
+
+        private Sweet ladoo;
+        private Sweet barfi;
+
+        @BeforeEach
+        void setUp() {
+                purchaseRepository.deleteAll();
+                sweetRepository.deleteAll();
+                sweetChangeRepository.deleteAll();
+                ladoo = sweetService.addSweet(sweet("Ladoo"), null);
+                barfi = sweetService.addSweet(sweet("Barfi"), null);
+        }
+
+        @Test
+        void changes_ShouldReturnFullSnapshotWithoutSince() throws Exception {
+                JsonNode changes = fetch("/api/sweets/changes");
+
+                assertTrue(changes.get("fullSnapshot").asBoolean());
+                assertEquals(2, changes.get("upserted").size());
+                assertFalse(changes.get("upserted").get(0).has("description"));
+        }
+
+        @Test
+        void changes_ShouldReturnUpsertsAndTombstonesSinceVersion() throws Exception {
+                long since = fetch("/api/sweets/changes").get("version").asLong();
+
+                sweetService.restockSweet(ladoo.getId(), 5);
+                sweetService.deleteSweet(barfi.getId());
+                Sweet jalebi = sweetService.addSweet(sweet("Jalebi"), null);
+
+                JsonNode changes = fetch("/api/sweets/changes?since=" + since);
+                assertFalse(changes.get("fullSnapshot").asBoolean());
+                assertTrue(changes.get("version").asLong() >= jalebi.getCatalogVersion());
+                assertEquals(List.of(ladoo.getId(), jalebi.getId()), ids(changes.get("upserted")));
+                assertEquals(15, changes.get("upserted").get(0).get("quantity").asInt());
+                assertEquals(List.of(barfi.getId()), longs(changes.get("deleted")));
+        }
+
+        @Test
+        void changes_ShouldFallBackToSnapshotWhenSinceIsTooOld() throws Exception {
+                JsonNode changes = fetch("/api/sweets/changes?since=1");
+
+                assertTrue(changes.get("fullSnapshot").asBoolean());
+                assertEquals(2, changes.get("upserted").size());
+        }
+
+        @Test
+        void compact_ShouldKeepOnlyLatestEntryPerSweet() {
+                sweetService.restockSweet(ladoo.getId(), 1);
+                sweetService.restockSweet(ladoo.getId(), 1);
+                sweetService.deleteSweet(barfi.getId());
+
+                sweetChangeLog.compact();
+
+                List<SweetChange> remaining = sweetChangeRepository.findAll();
+                assertEquals(2, remaining.size());
+                assertEquals(SweetChange.Type.DELETE, remaining.stream()
+                                .filter(change -> change.getSweetId().equals(barfi.getId()))
+                                .findFirst().orElseThrow().getType());
+        }
+
+        private JsonNode fetch(String url) throws Exception {
+                String body = mockMvc.perform(get(url)).andExpect(status().isOk())
+                                .andReturn().getResponse().getContentAsString();
+                return objectMapper.readTree(body);
+        }
+
+        private static List<Long> ids(JsonNode sweets) {
+                List<Long> ids = new ArrayList<>();
+                sweets.forEach(sweet -> ids.add(sweet.get("id").asLong()));
+                return ids;
+        }
+
+        private static List<Long> longs(JsonNode values) {
+                List<Long> result = new ArrayList<>();
+                values.forEach(value -> result.add(value.asLong()));
+                return result;
+        }
+
+        private static Sweet sweet(String name) {
+                return Sweet.builder().name(name).category("Traditional").price(BigDecimal.TEN).quantity(10)
+                                .description("A description").build();
+        }
+}
@@ -0,0 +1,110 @@
+package com.assignment.sweet.integration;
+
+import com.assignment.sweet.model.Sweet;
+import com.assignment.sweet.repository.PurchaseRepository;
+import com.assignment.sweet.repository.SweetRepository;
+import com.assignment.sweet.service.CatalogSnapshotCache;
+import com.assignment.sweet.service.SweetFacetIndex;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class SweetFacetIntegrationTest {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private ObjectMapper objectMapper;
+
+        @Autowired
+        private SweetRepository sweetRepository;
+
+        @Autowired
+        private PurchaseRepository purchaseRepository;
+
+        @Autowired
+        private SweetFacetIndex sweetFacetIndex;
+
+        @Autowired
+        private CatalogSnapshotCache catalogSnapshotCache;
+
+        private Long lastCandyId;
+
+        @BeforeEach
+        void setUp() {
+                purchaseRepository.deleteAll();
+                sweetRepository.deleteAll();
+                for (int i = 1; i <= 12; i++) {
+                        String category = i % 3 == 0 ? "Chocolate" : "Candy";
+                        Sweet saved = sweetRepository.save(Sweet.builder().name("Sweet " + i).category(category)
+                                        .price(BigDecimal.valueOf(i * 2)).quantity(i % 4 == 0 ? 0 : 5).build());
+                        if (i == 11) {
+                                lastCandyId = saved.getId();
+                        }
+                }
+                // Rows were written around SweetService, so rebuild the derived views
+                sweetFacetIndex.rebuild();
+                catalogSnapshotCache.invalidate();
+        }
+
+        @Test
+        @WithMockUser(username = "buyer@example.com")
+        void filter_ShouldReturnMatchingSweetsAndFollowPurchases() throws Exception {
+                assertEquals(List.of(2, 4, 10), prices("/api/sweets/filter?category=candy&maxPrice=10&inStock=true"));
+
+                mockMvc.perform(post("/api/sweets/" + lastCandyId + "/purchase")
+                                .contentType(MediaType.APPLICATION_JSON).content("5"))
+                                .andExpect(status().isOk());
+
+                assertEquals(List.of(2, 4, 10, 14, 20), prices("/api/sweets/filter?category=Candy&inStock=true"));
+                assertEquals(List.of(8, 16, 22, 24), prices("/api/sweets/filter?inStock=false"));
+        }
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        void facets_ShouldReturnCountsForAdmin() throws Exception {
+                mockMvc.perform(get("/api/sweets/facets?inStock=true"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.total").value(9))
+                                .andExpect(jsonPath("$.categories.Candy").value(6))
+                                .andExpect(jsonPath("$.categories.Chocolate").value(3))
+                                .andExpect(jsonPath("$.inStock").value(9))
+                                .andExpect(jsonPath("$.soldOut").value(3))
+                                .andExpect(jsonPath("$.priceBuckets[0].count").value(2));
+        }
+
+        @Test
+        @WithMockUser
+        void facets_ShouldBeForbiddenForCustomers() throws Exception {
+                mockMvc.perform(get("/api/sweets/facets")).andExpect(status().isForbidden());
+        }
+
+        private List<Integer> prices(String url) throws Exception {
+                String body = mockMvc.perform(get(url)).andExpect(status().isOk())
+                                .andReturn().getResponse().getContentAsString();
+                JsonNode sweets = objectMapper.readTree(body);
+                List<Integer> prices = new ArrayList<>();
+                sweets.forEach(sweet -> prices.add(sweet.get("price").asInt()));
+                return prices;
+        }
+}
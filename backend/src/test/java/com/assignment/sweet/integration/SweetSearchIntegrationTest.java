@@ -0,0 +1,109 @@
+package com.assignment.sweet.integration;
+
+import com.assignment.sweet.model.Sweet;
+import com.assignment.sweet.repository.PurchaseRepository;
+import com.assignment.sweet.repository.SweetRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+class SweetSearchIntegrationTest {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private ObjectMapper objectMapper;
+
+        @Autowired
+        private SweetRepository sweetRepository;
+
+        @Autowired
+        private PurchaseRepository purchaseRepository;
+
+        @BeforeEach
+        void setUp() {
+                purchaseRepository.deleteAll();
+                sweetRepository.deleteAll();
+                for (int i = 1; i <= 25; i++) {
+                        String category = i % 2 == 0 ? "Chocolate" : "Candy";
+                        sweetRepository.save(Sweet.builder().name("Sweet " + (char) ('A' + i))
+                                        .category(category).price(BigDecimal.valueOf(i)).quantity(10)
+                                        .description("Description " + i).build());
+                }
+        }
+
+        @Test
+        void search_ShouldFilterByCategoryAndPriceCaseInsensitively() throws Exception {
+                JsonNode page = fetch("/api/sweets/search?category=chocolate&maxPrice=10&sort=PRICE");
+
+                List<Integer> prices = new ArrayList<>();
+                page.get("items").forEach(item -> prices.add(item.get("price").asInt()));
+                assertEquals(List.of(2, 4, 6, 8, 10), prices);
+                assertFalse(page.get("hasMore").asBoolean());
+                assertTrue(page.get("nextCursor").isNull());
+        }
+
+        @Test
+        void search_ShouldWalkAllPagesWithCursorWithoutDuplicates() throws Exception {
+                List<Long> seen = new ArrayList<>();
+                String cursor = null;
+                int pages = 0;
+                do {
+                        String url = "/api/sweets/search?sort=PRICE&direction=DESC&limit=10"
+                                        + (cursor != null ? "&cursor=" + cursor : "");
+                        JsonNode page = fetch(url);
+                        page.get("items").forEach(item -> seen.add(item.get("id").asLong()));
+                        cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+                        pages++;
+                } while (cursor != null);
+
+                assertEquals(3, pages);
+                assertEquals(25, seen.size());
+                assertEquals(25, seen.stream().distinct().count());
+        }
+
+        @Test
+        void search_ShouldMatchNameSubstring() throws Exception {
+                String body = mockMvc.perform(get("/api/sweets/search").param("name", "sweet c"))
+                                .andExpect(status().isOk())
+                                .andReturn().getResponse().getContentAsString();
+                JsonNode page = objectMapper.readTree(body);
+
+                assertEquals(1, page.get("items").size());
+                assertEquals("Sweet C", page.get("items").get(0).get("name").asText());
+        }
+
+        @Test
+        void search_ShouldRejectCursorFromDifferentSort() throws Exception {
+                JsonNode page = fetch("/api/sweets/search?sort=NAME&limit=5");
+                String cursor = page.get("nextCursor").asText();
+
+                mockMvc.perform(get("/api/sweets/search?sort=PRICE&limit=5&cursor=" + cursor))
+                                .andExpect(status().isBadRequest());
+        }
+
+        private JsonNode fetch(String url) throws Exception {
+                String body = mockMvc.perform(get(url))
+                                .andExpect(status().isOk())
+                                .andReturn().getResponse().getContentAsString();
+                return objectMapper.readTree(body);
+        }
+}
@@ -0,0 +1,196 @@
+package com.assignment.sweet.integration;
+
+import com.assignment.sweet.dto.DailyBuyers;
+import com.assignment.sweet.dto.SalesGrouping;
+import com.assignment.sweet.dto.UniqueBuyerCount;
+import com.assignment.sweet.event.PurchaseRecordedEvent;
+import com.assignment.sweet.model.Purchase;
+import com.assignment.sweet.model.Sweet;
+import com.assignment.sweet.repository.BuyerSketchRepository;
+import com.assignment.sweet.repository.PurchaseRepository;
+import com.assignment.sweet.repository.SweetRepository;
+import com.assignment.sweet.service.SweetService;
+import com.assignment.sweet.service.UniqueBuyerService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Unique buyers follow live purchases, and unions over sweets, categories and
+ * days merged from the stored sketches count a returning customer once.
+ */
+@SpringBootTest(properties = {
+                // Own database: other contexts' flushes would write to the same sketches
+                "spring.datasource.url=jdbc:h2:mem:unique-buyers;DB_CLOSE_DELAY=-1",
+                // Flushed by hand below
+                "sales.buyers.flush-interval-ms=3600000"
+})
+@AutoConfigureMockMvc
+class UniqueBuyerIntegrationTest {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private SweetService sweetService;
+
+        @Autowired
+        private UniqueBuyerService buyerService;
+
+        @Autowired
+        private SweetRepository sweetRepository;
+
+        @Autowired
+        private PurchaseRepository purchaseRepository;
+
+        @Autowired
+        private BuyerSketchRepository sketchRepository;
+
+        @Autowired
+        private PlatformTransactionManager transactionManager;
+
+        private Sweet ladoo;
+        private Sweet peda;
+        private Sweet barfi;
+        private LocalDate today;
+
+        @BeforeEach
+        void setUp() {
+                buyerService.flush();
+                purchaseRepository.deleteAll();
+                sketchRepository.deleteAll();
+                sweetRepository.deleteAll();
+                ladoo = sweetRepository.save(Sweet.builder().name("Ladoo").category("Traditional")
+                                .price(BigDecimal.valueOf(2)).quantity(1000).build());
+                peda = sweetRepository.save(Sweet.builder().name("Peda").category("Traditional")
+                                .price(BigDecimal.valueOf(3)).quantity(1000).build());
+                barfi = sweetRepository.save(Sweet.builder().name("Barfi").category("Milk")
+                                .price(BigDecimal.valueOf(5)).quantity(1000).build());
+                today = LocalDate.now();
+        }
+
+        @Test
+        void livePurchases_ShouldCountEachCustomerOncePerSweetAndCategory() {
+                sweetService.purchaseSweet(ladoo.getId(), 1, "a@example.com");
+                sweetService.purchaseSweet(ladoo.getId(), 2, "a@example.com");
+                sweetService.purchaseSweet(ladoo.getId(), 1, "b@example.com");
+                sweetService.purchaseSweet(peda.getId(), 1, "a@example.com");
+                sweetService.purchaseSweet(barfi.getId(), 1, "c@example.com");
+                buyerService.flush();
+
+                List<UniqueBuyerCount> bySweet = buyerService.countBy(null, null, SalesGrouping.SWEET);
+                assertEquals("Ladoo", bySweet.get(0).getSweetName());
+                assertEquals(2, bySweet.get(0).getBuyers());
+                assertEquals(List.of(1L, 1L), bySweet.subList(1, 3).stream().map(UniqueBuyerCount::getBuyers).toList());
+
+                List<UniqueBuyerCount> byCategory = buyerService.countBy(null, null, SalesGrouping.CATEGORY);
+                assertEquals("Traditional", byCategory.get(0).getCategory());
+                assertEquals(2, byCategory.get(0).getBuyers());
+                assertEquals(3, buyerService.count(null, null, null, null));
+        }
+
+        @Test
+        void unionsOverDays_ShouldCountReturningCustomersOnce() {
+                List<Purchase> purchases = new ArrayList<>();
+                // 300 customers a day for a week, half of them back from the day before
+                for (int day = 0; day < 7; day++) {
+                        for (int i = 0; i < 300; i++) {
+                                Sweet sweet = i % 3 == 0 ? barfi : ladoo;
+                                purchases.add(purchase(sweet, "c" + (day * 150 + i) + "@example.com",
+                                                today.minusDays(7 - day)));
+                        }
+                }
+                purchaseRepository.saveAll(purchases);
+                assertEquals(purchases.size(), buyerService.rebuild());
+
+                long week = buyerService.count(today.minusDays(7), today, null, null);
+                assertEquals(6 * 150 + 300, week, (6 * 150 + 300) * 0.07);
+                List<DailyBuyers> daily = buyerService.daily(today.minusDays(7), today, null, null);
+                assertEquals(7, daily.size());
+                daily.forEach(day -> assertEquals(300, day.getBuyers(), 300 * 0.07));
+                long milk = buyerService.count(today.minusDays(7), today, null, "milk");
+                assertEquals(buyerService.count(today.minusDays(7), today, barfi.getId(), null), milk);
+                assertEquals(0, buyerService.count(today.minusDays(30), today.minusDays(8), null, null));
+        }
+
+        @Test
+        void rebuildOverlappingLivePurchases_ShouldNotCountTwice() {
+                Purchase purchase = purchaseRepository.save(purchase(ladoo, "a@example.com", today));
+                buyerService.onPurchaseRecorded(new PurchaseRecordedEvent(purchase));
+                buyerService.rebuild();
+                buyerService.flush();
+                buyerService.flush();
+
+                assertEquals(1, buyerService.count(null, null, ladoo.getId(), null));
+                assertEquals(1, sketchRepository.count());
+        }
+
+        @Test
+        void pendingBuyers_ShouldBeMergedOnShutdown() {
+                UniqueBuyerService node = new UniqueBuyerService(sketchRepository, purchaseRepository,
+                                sweetRepository, transactionManager);
+                node.onPurchaseRecorded(new PurchaseRecordedEvent(
+                                purchaseRepository.save(purchase(ladoo, "a@example.com", today))));
+
+                try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+                        context.registerBean(UniqueBuyerService.class, () -> node);
+                        context.refresh();
+                }
+
+                assertEquals(1, buyerService.count(null, null, ladoo.getId(), null));
+        }
+
+        @Test
+        void invalidRanges_ShouldBeRejected() {
+                assertThrows(IllegalArgumentException.class, () -> buyerService.count(today, today, null, null));
+                assertThrows(IllegalArgumentException.class,
+                                () -> buyerService.daily(today.minusYears(2), today, null, null));
+        }
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        void buyerEndpoints_ShouldServeAdmins() throws Exception {
+                purchaseRepository.save(purchase(barfi, "a@example.com", today));
+                mockMvc.perform(post("/api/sales/buyers/rebuild"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.purchases").value(1));
+                mockMvc.perform(get("/api/sales/buyers").param("groupBy", "CATEGORY"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$[0].category").value("Milk"))
+                                .andExpect(jsonPath("$[0].buyers").value(1));
+                mockMvc.perform(get("/api/sales/buyers/total").param("sweetId", String.valueOf(barfi.getId())))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.buyers").value(1));
+                mockMvc.perform(get("/api/sales/buyers/daily").param("from", today.toString()))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$[0].day").value(today.toString()));
+        }
+
+        @Test
+        @WithMockUser(username = "a@example.com")
+        void buyerEndpoints_ShouldBeAdminOnly() throws Exception {
+                mockMvc.perform(get("/api/sales/buyers")).andExpect(status().isForbidden());
+        }
+
+        private static Purchase purchase(Sweet sweet, String customer, LocalDate day) {
+                return new Purchase(null, sweet.getId(), sweet.getName(), 1, sweet.getPrice(), sweet.getPrice(),
+                                customer, day.atTime(12, 0));
+        }
+}
@@ -0,0 +1,129 @@
+package com.assignment.sweet.service;
+
+import com.assignment.sweet.event.PurchaseRecordedEvent;
+import com.assignment.sweet.event.SweetChangedEvent;
+import com.assignment.sweet.model.Purchase;
+import com.assignment.sweet.model.Sweet;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogEventBroadcasterTest {
+
+    private CatalogEventBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        broadcaster = new CatalogEventBroadcaster(new ObjectMapper());
+    }
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.shutdown();
+    }
+
+    @Test
+    void onSweetChanged_ShouldPushStockDeltasToEverySubscriber() throws Exception {
+        RecordingEmitter customer = new RecordingEmitter(null);
+        RecordingEmitter admin = new RecordingEmitter(null);
+        broadcaster.register(customer, false);
+        broadcaster.register(admin, true);
+
+        broadcaster.onSweetChanged(SweetChangedEvent.upserted(
+                Sweet.builder().id(7L).name("Ladoo").category("Traditional").price(BigDecimal.valueOf(12))
+                                .quantity(3).description("desc").catalogVersion(41L).build()));
+        broadcaster.onSweetChanged(SweetChangedEvent.deleted(8L, 42L));
+
+        String customerStream = customer.awaitText(3);
+        assertTrue(customerStream.contains("event:stock"));
+        assertTrue(customerStream.contains("id:41"));
+        assertTrue(customerStream.contains("\"sweetId\":7,\"quantity\":3,\"price\":12,\"deleted\":false"));
+        assertTrue(customerStream.contains("\"sweetId\":8,\"quantity\":null,\"price\":null,\"deleted\":true"));
+        assertFalse(customerStream.contains("desc"));
+        assertTrue(admin.awaitText(3).contains("\"sweetId\":8"));
+    }
+
+    @Test
+    void onPurchaseRecorded_ShouldOnlyReachAdmins() throws Exception {
+        RecordingEmitter customer = new RecordingEmitter(null);
+        RecordingEmitter admin = new RecordingEmitter(null);
+        broadcaster.register(customer, false);
+        broadcaster.register(admin, true);
+
+        Purchase purchase = new Purchase(5L, 7L, "Ladoo", 2, BigDecimal.ONE, BigDecimal.TWO, "a@b.c", null);
+        broadcaster.onPurchaseRecorded(new PurchaseRecordedEvent(purchase));
+        broadcaster.heartbeat();
+
+        assertTrue(admin.awaitText(3).contains("event:purchase"));
+        String customerStream = customer.awaitText(2);
+        assertTrue(customerStream.contains(":heartbeat"));
+        assertFalse(customerStream.contains("purchase"));
+    }
+
+    @Test
+    void slowSubscriber_ShouldBeDroppedWithoutAffectingOthers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(release);
+        RecordingEmitter fast = new RecordingEmitter(null);
+        broadcaster.register(slow, false);
+        broadcaster.register(fast, false);
+
+        for (long version = 1; version <= 400; version++) {
+            broadcaster.onSweetChanged(SweetChangedEvent.upserted(
+                    Sweet.builder().id(1L).name("Ladoo").category("Traditional").price(BigDecimal.ONE)
+                                    .quantity((int) version).catalogVersion(version).build()));
+        }
+
+        assertEquals(1, broadcaster.subscriberCount());
+        assertEquals(401, fast.awaitSends(401).size());
+        release.countDown();
+    }
+
+    /** Captures raw SSE frames; optionally blocks every send until released, like a stalled socket. */
+    private static final class RecordingEmitter extends SseEmitter {
+        private final List<String> frames = new CopyOnWriteArrayList<>();
+        private final CountDownLatch release;
+
+        RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(Set<DataWithMediaType> items) throws IOException {
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            frames.add(items.stream().map(item -> String.valueOf(item.getData())).collect(Collectors.joining()));
+        }
+
+        List<String> awaitSends(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (frames.size() < count && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            return frames;
+        }
+
+        String awaitText(int sends) throws InterruptedException {
+            return String.join("", awaitSends(sends));
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.assignment.sweet.service;
+
+import com.assignment.sweet.dto.SweetSummary;
+import com.assignment.sweet.event.SweetChangedEvent;
+import com.assignment.sweet.model.Sweet;
+import com.assignment.sweet.repository.SweetRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogSnapshotCacheTest {
+
+    @Mock
+    private SweetRepository sweetRepository;
+
+    @Mock
+    private CatalogVersionClock versionClock;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private CatalogSnapshotCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new CatalogSnapshotCache(sweetRepository, objectMapper, versionClock);
+    }
+
+    @Test
+    void current_ShouldLoadOnceAndServeCachedBytes() throws Exception {
+        when(sweetRepository.findAllSummaries())
+                .thenReturn(summaries(sweet(2L, "Barfi", 5), sweet(1L, "Ladoo", 10)));
+
+        CatalogSnapshot first = cache.current();
+        CatalogSnapshot second = cache.current();
+
+        assertSame(first, second);
+        verify(sweetRepository, times(1)).findAllSummaries();
+        JsonNode json = objectMapper.readTree(first.json());
+        assertEquals(2, json.size());
+        assertEquals("Ladoo", json.get(0).get("name").asText());
+    }
+
+    @Test
+    void onSweetChanged_ShouldCacheSummaryWithoutDescription() throws Exception {
+        when(sweetRepository.findAllSummaries()).thenReturn(summaries(sweet(1L, "Ladoo", 10)));
+        cache.current();
+
+        cache.onSweetChanged(SweetChangedEvent.upserted(sweet(2L, "Jalebi", 4)));
+
+        JsonNode json = objectMapper.readTree(cache.current().json());
+        assertEquals("Jalebi", json.get(1).get("name").asText());
+        assertFalse(json.get(0).has("description"));
+        assertFalse(json.get(1).has("description"));
+    }
+
+    @Test
+    void onSweetChanged_ShouldPatchEntriesWithoutReloading() throws Exception {
+        when(sweetRepository.findAllSummaries())
+                .thenReturn(summaries(sweet(1L, "Ladoo", 10), sweet(2L, "Barfi", 5)));
+        cache.current();
+
+        cache.onSweetChanged(SweetChangedEvent.upserted(sweet(1L, "Ladoo", 7)));
+        cache.onSweetChanged(SweetChangedEvent.deleted(2L, 1L));
+        cache.onSweetChanged(SweetChangedEvent.upserted(sweet(3L, "Jalebi", 4)));
+
+        JsonNode json = objectMapper.readTree(cache.current().json());
+        assertEquals(2, json.size());
+        assertEquals(7, json.get(0).get("quantity").asInt());
+        assertEquals("Jalebi", json.get(1).get("name").asText());
+        verify(sweetRepository, times(1)).findAllSummaries();
+    }
+
+    @Test
+    void onSweetChanged_ShouldIgnoreEventsOlderThanCachedEntry() throws Exception {
+        when(sweetRepository.findAllSummaries()).thenReturn(summaries(sweet(1L, "Ladoo", 10, 5L)));
+        long loadedVersion = cache.current().version();
+
+        cache.onSweetChanged(SweetChangedEvent.upserted(sweet(1L, "Ladoo", 8, 7L)));
+        cache.onSweetChanged(SweetChangedEvent.upserted(sweet(1L, "Ladoo", 9, 6L)));
+
+        CatalogSnapshot snapshot = cache.current();
+        assertEquals(8, objectMapper.readTree(snapshot.json()).get(0).get("quantity").asInt());
+        assertTrue(snapshot.version() > loadedVersion);
+    }
+
+    @Test
+    void gzip_ShouldDecompressToJson() throws Exception {
+        when(sweetRepository.findAllSummaries()).thenReturn(summaries(sweet(1L, "Ladoo", 10)));
+        CatalogSnapshot snapshot = cache.current();
+
+        byte[] inflated = new GZIPInputStream(new ByteArrayInputStream(snapshot.gzip())).readAllBytes();
+
+        assertArrayEquals(snapshot.json(), inflated);
+    }
+
+    private static List<SweetSummary> summaries(Sweet... sweets) {
+        return Arrays.stream(sweets).map(SweetSummary::of).toList();
+    }
+
+    private static Sweet sweet(Long id, String name, int quantity) {
+        return sweet(id, name, quantity, null);
+    }
+
+    private static Sweet sweet(Long id, String name, int quantity, Long catalogVersion) {
+        return Sweet.builder().id(id).name(name).category("Traditional").price(BigDecimal.TEN)
+                .quantity(quantity).description("desc").catalogVersion(catalogVersion).build();
+    }
+}
@@ -0,0 +1,112 @@
+package com.assignment.sweet.service;
+
+import com.assignment.sweet.model.Purchase;
+import com.assignment.sweet.model.Sweet;
+import com.assignment.sweet.repository.PurchaseRepository;
+import com.assignment.sweet.repository.SweetRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DatabaseInventoryEngineTest {
+
+    @Mock
+    private SweetRepository sweetRepository;
+
+    @Mock
+    private PurchaseRepository purchaseRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CatalogVersionClock versionClock;
+
+    @InjectMocks
+    private DatabaseInventoryEngine engine;
+
+    @Test
+    void purchase_ShouldDecreaseQuantity_WhenStockIsAvailable() {
+        // Arrange
+        Sweet afterPurchase = Sweet.builder().id(1L).name("Ladoo").category("Traditional")
+                .price(BigDecimal.valueOf(10.0)).quantity(9).description("Delicious Ladoo")
+                .imageUrl("http://image.url").catalogVersion(2L).build();
+        when(sweetRepository.decrementStock(eq(1L), eq(1), anyLong())).thenReturn(1);
+        when(sweetRepository.findById(1L)).thenReturn(Optional.of(afterPurchase));
+
+        // Act
+        Sweet result = engine.purchase(1L, 1, "test@example.com");
+
+        // Assert
+        assertEquals(9, result.getQuantity());
+        verify(sweetRepository, never()).save(any(Sweet.class));
+        verify(purchaseRepository, times(1)).save(any(Purchase.class));
+    }
+
+    @Test
+    void purchase_ShouldThrowException_WhenStockIsInsufficient() {
+        // Arrange
+        when(sweetRepository.decrementStock(eq(1L), eq(1), anyLong())).thenReturn(0);
+        when(sweetRepository.existsById(1L)).thenReturn(true);
+
+        // Act & Assert
+        RuntimeException ex = assertThrows(RuntimeException.class,
+                () -> engine.purchase(1L, 1, "test@example.com"));
+        assertEquals("Insufficient stock", ex.getMessage());
+        verify(purchaseRepository, never()).save(any());
+    }
+
+    @Test
+    void checkout_ShouldDecrementInIdOrder() {
+        // Arrange
+        when(sweetRepository.decrementStock(anyLong(), anyInt(), anyLong())).thenReturn(1);
+        when(sweetRepository.findAllById(any())).thenReturn(List.of(
+                Sweet.builder().id(2L).name("Barfi").category("Milk").price(BigDecimal.valueOf(15)).quantity(40)
+                        .catalogVersion(2L).build(),
+                Sweet.builder().id(5L).name("Ladoo").category("Traditional").price(BigDecimal.valueOf(10))
+                        .quantity(7).catalogVersion(3L).build()));
+
+        // Act
+        List<Purchase> purchases = engine.checkout(new TreeMap<>(Map.of(5L, 3, 2L, 1)), "test@example.com");
+
+        // Assert
+        InOrder inOrder = inOrder(sweetRepository);
+        inOrder.verify(sweetRepository).decrementStock(eq(2L), eq(1), anyLong());
+        inOrder.verify(sweetRepository).decrementStock(eq(5L), eq(3), anyLong());
+        verify(purchaseRepository, times(1)).saveAll(any());
+        assertEquals(2, purchases.size());
+        assertEquals(0, BigDecimal.valueOf(30).compareTo(purchases.get(1).getTotalPrice()));
+    }
+
+    @Test
+    void checkout_ShouldFailWithoutInsertingPurchases_WhenAnyLineIsShort() {
+        // Arrange
+        when(sweetRepository.decrementStock(eq(1L), eq(1), anyLong())).thenReturn(1);
+        when(sweetRepository.decrementStock(eq(3L), eq(9), anyLong())).thenReturn(0);
+        when(sweetRepository.existsById(3L)).thenReturn(true);
+
+        // Act & Assert
+        RuntimeException ex = assertThrows(RuntimeException.class,
+                () -> engine.checkout(new TreeMap<>(Map.of(3L, 9, 1L, 1)), "test@example.com"));
+        assertEquals("Insufficient stock for sweet 3", ex.getMessage());
+        verify(purchaseRepository, never()).saveAll(any());
+    }
+}
@@ -0,0 +1,115 @@
+package com.assignment.sweet.service;
+
+import com.assignment.sweet.dto.FlashSaleStats;
+import com.assignment.sweet.event.SweetChangedEvent;
+import com.assignment.sweet.model.Sweet;
+import com.assignment.sweet.repository.SweetRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FlashSaleGateTest {
+
+    private SweetRepository sweetRepository;
+    private FlashSaleGate gate;
+
+    @BeforeEach
+    void setUp() {
+        sweetRepository = mock(SweetRepository.class);
+        when(sweetRepository.findByFlashSaleTrue()).thenReturn(List.of(sweet(1L, 5, 10L)));
+        gate = new FlashSaleGate(sweetRepository);
+        gate.load();
+    }
+
+    @Test
+    void onlyAsManyAttemptsAsUnitsReachTheEngine() throws Exception {
+        AtomicInteger stock = new AtomicInteger(5);
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicInteger version = new AtomicInteger(10);
+        Supplier<Sweet> engine = () -> {
+            attempts.incrementAndGet();
+            return sweet(1L, stock.decrementAndGet(), version.incrementAndGet());
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger soldOut = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    gate.purchase(1L, 1, engine);
+                } catch (RuntimeException e) {
+                    assertEquals("Insufficient stock", e.getMessage());
+                    soldOut.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(5, attempts.get());
+        assertEquals(45, soldOut.get());
+        FlashSaleStats stats = gate.stats().get(0);
+        assertEquals(0, stats.getAvailable());
+        assertEquals(0, stats.getInFlight());
+        assertEquals(5, stats.getAdmitted());
+        assertEquals(45, stats.getRejected());
+    }
+
+    @Test
+    void failedPurchaseGivesItsUnitsBack() {
+        assertThrows(RuntimeException.class, () -> gate.purchase(1L, 2, () -> {
+            throw new RuntimeException("Database unavailable");
+        }));
+        assertEquals(5, gate.stats().get(0).getAvailable());
+    }
+
+    @Test
+    void restockIsPickedUpFromChangeEvents() {
+        gate.purchase(1L, 5, () -> sweet(1L, 0, 11L));
+        assertThrows(RuntimeException.class, () -> gate.purchase(1L, 1, () -> fail("should fail fast")));
+
+        gate.onSweetChanged(SweetChangedEvent.upserted(sweet(1L, 3, 12L)));
+        // An older event arriving late must not undo the restock
+        gate.onSweetChanged(SweetChangedEvent.upserted(sweet(1L, 0, 11L)));
+        assertEquals(3, gate.stats().get(0).getAvailable());
+        assertEquals(2, gate.purchase(1L, 1, () -> sweet(1L, 2, 13L)).getQuantity());
+    }
+
+    @Test
+    void switchingFlashSaleOffRemovesTheGate() {
+        Sweet off = sweet(1L, 5, 11L);
+        off.setFlashSale(false);
+        gate.onSweetChanged(SweetChangedEvent.upserted(off));
+
+        assertFalse(gate.isActive(1L));
+        assertTrue(gate.stats().isEmpty());
+    }
+
+    private static Sweet sweet(Long id, int quantity, long version) {
+        Sweet sweet = Sweet.builder().id(id).name("Ladoo").category("Traditional").price(BigDecimal.ONE)
+                .quantity(quantity).build();
+        sweet.setCatalogVersion(version);
+        sweet.setFlashSale(true);
+        return sweet;
+    }
+}
@@ -0,0 +1,68 @@
+package com.assignment.sweet.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HyperLogLogTest {
+
+    @Test
+    void estimate_ShouldBeExactForAFewValuesAndIgnoreRepeats() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 3; i++) {
+            sketch.add("a@example.com");
+            sketch.add("b@example.com");
+            sketch.add("c@example.com");
+        }
+
+        assertEquals(3, sketch.estimate());
+    }
+
+    @Test
+    void estimate_ShouldStayWithinFewPercentForLargeSets() {
+        for (int distinct : new int[] { 1_000, 20_000, 200_000 }) {
+            HyperLogLog sketch = new HyperLogLog();
+            for (int i = 0; i < distinct; i++) {
+                sketch.add("customer" + i + "@example.com");
+            }
+            double error = Math.abs(sketch.estimate() - distinct) / (double) distinct;
+            assertTrue(error < 0.07, distinct + " distinct estimated as " + sketch.estimate());
+        }
+    }
+
+    @Test
+    void merge_ShouldEstimateTheUnion() {
+        HyperLogLog monday = new HyperLogLog();
+        HyperLogLog tuesday = new HyperLogLog();
+        for (int i = 0; i < 6_000; i++) {
+            monday.add("customer" + i + "@example.com");
+        }
+        for (int i = 4_000; i < 10_000; i++) {
+            tuesday.add("customer" + i + "@example.com");
+        }
+        monday.merge(tuesday);
+        long afterOnce = monday.estimate();
+        monday.merge(tuesday);
+
+        assertEquals(10_000, afterOnce, 10_000 * 0.07);
+        assertEquals(afterOnce, monday.estimate());
+    }
+
+    @Test
+    void toBytes_ShouldRoundTripSparseAndDense() {
+        HyperLogLog few = new HyperLogLog();
+        few.add("a@example.com");
+        few.add("b@example.com");
+        byte[] sparse = few.toBytes();
+        assertEquals(3 + 2 * 3, sparse.length);
+        assertEquals(2, HyperLogLog.fromBytes(sparse).estimate());
+
+        HyperLogLog many = new HyperLogLog();
+        for (int i = 0; i < 50_000; i++) {
+            many.add("customer" + i + "@example.com");
+        }
+        byte[] dense = many.toBytes();
+        assertEquals(1 + HyperLogLog.REGISTERS, dense.length);
+        assertEquals(many.estimate(), HyperLogLog.fromBytes(dense).estimate());
+    }
+}
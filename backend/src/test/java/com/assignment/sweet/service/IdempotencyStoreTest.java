@@ -0,0 +1,121 @@
+package com.assignment.sweet.service;
+
+import com.assignment.sweet.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class IdempotencyStoreTest {
+
+    private IdempotencyRecordRepository recordRepository;
+    private IdempotencyStore store;
+
+    @BeforeEach
+    void setUp() {
+        recordRepository = mock(IdempotencyRecordRepository.class);
+        store = new IdempotencyStore(recordRepository, new ObjectMapper(), mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void retryWithTheSameKeyReplaysTheFirstResponse() {
+        AtomicInteger runs = new AtomicInteger();
+
+        IdempotencyStore.Outcome<String> first = store.execute("k1", "purchase:a", "1:2", String.class,
+                () -> "sold " + runs.incrementAndGet());
+        IdempotencyStore.Outcome<String> retry = store.execute("k1", "purchase:a", "1:2", String.class,
+                () -> "sold " + runs.incrementAndGet());
+
+        assertEquals("sold 1", first.body());
+        assertFalse(first.replayed());
+        assertEquals("sold 1", retry.body());
+        assertTrue(retry.replayed());
+        assertEquals(1, runs.get());
+        verifyNoInteractions(recordRepository);
+    }
+
+    @Test
+    void keysAreScopedPerCaller() {
+        AtomicInteger runs = new AtomicInteger();
+
+        store.execute("k1", "purchase:a", "1:2", Integer.class, runs::incrementAndGet);
+        store.execute("k1", "purchase:b", "1:2", Integer.class, runs::incrementAndGet);
+
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    void reusingAKeyForADifferentRequestIsRejected() {
+        store.execute("k1", "purchase:a", "1:2", String.class, () -> "ok");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> store.execute("k1", "purchase:a", "1:3", String.class, () -> "ok"));
+    }
+
+    @Test
+    void failedRequestReleasesItsKey() {
+        assertThrows(RuntimeException.class, () -> store.execute("k1", "purchase:a", "1:2", String.class, () -> {
+            throw new RuntimeException("Insufficient stock");
+        }));
+
+        IdempotencyStore.Outcome<String> retry = store.execute("k1", "purchase:a", "1:2", String.class, () -> "ok");
+        assertEquals("ok", retry.body());
+        assertFalse(retry.replayed());
+    }
+
+    @Test
+    void concurrentDuplicateWaitsForTheFirstExecution() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        Future<IdempotencyStore.Outcome<Integer>> first = executor.submit(() -> store.execute("k1", "restock:a",
+                "1:5", Integer.class, () -> {
+                    running.countDown();
+                    await(release);
+                    return runs.incrementAndGet();
+                }));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        Future<IdempotencyStore.Outcome<Integer>> duplicate = executor.submit(() -> store.execute("k1",
+                "restock:a", "1:5", Integer.class, runs::incrementAndGet));
+
+        Thread.sleep(100);
+        assertFalse(duplicate.isDone(), "duplicate should wait for the first request");
+        release.countDown();
+
+        assertEquals(1, first.get(5, TimeUnit.SECONDS).body());
+        IdempotencyStore.Outcome<Integer> replay = duplicate.get(5, TimeUnit.SECONDS);
+        assertEquals(1, replay.body());
+        assertTrue(replay.replayed());
+        assertEquals(1, runs.get());
+        executor.shutdown();
+    }
+
+    @Test
+    void overlongKeyIsRejected() {
+        String key = "k".repeat(IdempotencyStore.MAX_KEY_LENGTH + 1);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> store.execute(key, "purchase:a", "1:2", String.class, () -> "ok"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.assignment.sweet.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpaceSavingTest {
+
+    @Test
+    void add_ShouldCountExactlyWhileUnderCapacity() {
+        SpaceSaving sketch = new SpaceSaving(4);
+        sketch.add(1, 3);
+        sketch.add(2, 1);
+        sketch.add(1, 2);
+
+        List<SpaceSaving.Counter> top = sketch.top(10);
+        assertEquals(List.of(new SpaceSaving.Counter(1, 5, 0), new SpaceSaving.Counter(2, 1, 0)), top);
+        assertEquals(6, sketch.total());
+    }
+
+    @Test
+    void add_ShouldKeepHeavyHittersOfALongTailWithinTheErrorBound() {
+        SpaceSaving sketch = new SpaceSaving(20);
+        long[] truth = new long[1000];
+        Random random = new Random(7);
+        for (int i = 0; i < 50_000; i++) {
+            // Ids 0-4 take half the sales, the other 995 share the rest
+            int id = random.nextBoolean() ? random.nextInt(5) : 5 + random.nextInt(995);
+            sketch.add(id, 1);
+            truth[id]++;
+        }
+
+        List<SpaceSaving.Counter> top = sketch.top(5);
+        assertEquals(List.of(0L, 1L, 2L, 3L, 4L), top.stream().map(SpaceSaving.Counter::id).sorted().toList());
+        for (SpaceSaving.Counter counter : top) {
+            assertTrue(counter.count() >= truth[(int) counter.id()]);
+            assertTrue(counter.count() - counter.error() <= truth[(int) counter.id()]);
+        }
+        assertEquals(20, sketch.size());
+    }
+
+    @Test
+    void add_ShouldReplaceTheSmallestCounterWhenFull() {
+        SpaceSaving sketch = new SpaceSaving(2);
+        sketch.add(1, 5);
+        sketch.add(2, 2);
+        sketch.add(3, 1);
+
+        assertEquals(List.of(new SpaceSaving.Counter(1, 5, 0), new SpaceSaving.Counter(3, 3, 2)), sketch.top(2));
+    }
+
+    @Test
+    void writeAndRead_ShouldRoundTripAndShrinkToCapacity() throws Exception {
+        SpaceSaving sketch = new SpaceSaving(3);
+        sketch.add(1, 4);
+        sketch.add(2, 2);
+        sketch.add(3, 1);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        sketch.write(new DataOutputStream(bytes));
+
+        SpaceSaving same = new SpaceSaving(3);
+        same.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(sketch.top(3), same.top(3));
+        assertEquals(7, same.total());
+
+        SpaceSaving smaller = new SpaceSaving(2);
+        smaller.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(List.of(1L, 2L), smaller.top(3).stream().map(SpaceSaving.Counter::id).toList());
+    }
+}
@@ -0,0 +1,108 @@
+package com.assignment.sweet.service;
+
+import com.assignment.sweet.dto.PriceBucketCount;
+import com.assignment.sweet.dto.SweetFacetCounts;
+import com.assignment.sweet.dto.SweetFacetFilter;
+import com.assignment.sweet.dto.SweetSummary;
+import com.assignment.sweet.model.Sweet;
+import com.assignment.sweet.repository.SweetRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SweetFacetIndexTest {
+
+    @Mock
+    private SweetRepository sweetRepository;
+
+    private SweetFacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SweetFacetIndex(sweetRepository);
+        when(sweetRepository.findAllSummaries()).thenReturn(Stream.of(
+                sweet(1L, "Chocolate", "2.50", 10),
+                sweet(2L, "Chocolate", "5.00", 0),
+                sweet(3L, "Candy", "7.25", 4),
+                sweet(4L, "candy", "12.00", 0),
+                sweet(5L, "Mint", "60.00", 1)).map(SweetSummary::of).toList());
+        index.rebuild();
+    }
+
+    @Test
+    void filter_ShouldCombineCategoryPriceAndStock() {
+        assertArrayEquals(new int[] { 1, 2 }, index.filter(filter("chocolate", null, null, null)).toArray());
+        assertArrayEquals(new int[] { 3, 4 }, index.filter(filter("CANDY", null, null, null)).toArray());
+        assertArrayEquals(new int[] { 1, 3, 5 }, index.filter(filter("all", null, null, true)).toArray());
+        assertArrayEquals(new int[] { 2, 4 }, index.filter(filter(null, null, null, false)).toArray());
+        assertArrayEquals(new int[0], index.filter(filter("Licorice", null, null, null)).toArray());
+    }
+
+    @Test
+    void filter_ShouldApplyExactPriceBoundsInsideBuckets() {
+        // 5.00 sits in the [5, 10) bucket but is still within "under 5"
+        assertArrayEquals(new int[] { 1, 2 }, index.filter(filter(null, null, "5", null)).toArray());
+        assertArrayEquals(new int[] { 2, 3 }, index.filter(filter(null, "3", "10", null)).toArray());
+        assertArrayEquals(new int[] { 5 }, index.filter(filter(null, "50", null, null)).toArray());
+        assertArrayEquals(new int[] { 3 }, index.filter(filter("candy", null, "10", true)).toArray());
+    }
+
+    @Test
+    void counts_ShouldCountEachFacetWithoutItsOwnFilter() {
+        SweetFacetCounts counts = index.counts(filter("candy", null, null, true));
+
+        assertEquals(1, counts.getTotal());
+        assertEquals(Map.of("Chocolate", 1, "candy", 1, "Mint", 1), counts.getCategories());
+        assertEquals(List.of(0, 1, 0, 0, 0),
+                counts.getPriceBuckets().stream().map(PriceBucketCount::getCount).toList());
+        assertEquals(1, counts.getInStock());
+        assertEquals(1, counts.getSoldOut());
+    }
+
+    @Test
+    void index_ShouldMoveSweetBetweenBitmapsOnChange() {
+        index.index(Sweet.builder().id(2L).name("Praline").category("Candy").price(new BigDecimal("25.00"))
+                .quantity(8).catalogVersion(5L).build());
+
+        assertArrayEquals(new int[] { 1 }, index.filter(filter("chocolate", null, null, null)).toArray());
+        assertArrayEquals(new int[] { 2, 3, 4 }, index.filter(filter("candy", null, null, null)).toArray());
+        assertArrayEquals(new int[] { 1, 2, 3, 5 }, index.filter(filter(null, null, null, true)).toArray());
+        assertArrayEquals(new int[] { 2 }, index.filter(filter(null, "20", "50", null)).toArray());
+
+        // a late event carrying an older version is ignored
+        index.index(Sweet.builder().id(2L).name("Praline").category("Chocolate").price(new BigDecimal("5.00"))
+                .catalogVersion(4L).build());
+        assertArrayEquals(new int[] { 1 }, index.filter(filter("chocolate", null, null, null)).toArray());
+    }
+
+    @Test
+    void remove_ShouldDropSweetAndEmptyCategories() {
+        index.remove(5L);
+
+        SweetFacetCounts counts = index.counts(new SweetFacetFilter());
+        assertEquals(4, counts.getTotal());
+        assertFalse(counts.getCategories().containsKey("Mint"));
+        assertEquals(2, counts.getInStock());
+    }
+
+    private static SweetFacetFilter filter(String category, String minPrice, String maxPrice, Boolean inStock) {
+        return new SweetFacetFilter(category, minPrice != null ? new BigDecimal(minPrice) : null,
+                maxPrice != null ? new BigDecimal(maxPrice) : null, inStock);
+    }
+
+    private static Sweet sweet(Long id, String category, String price, int quantity) {
+        return Sweet.builder().id(id).name("Sweet " + id).category(category).price(new BigDecimal(price))
+                .quantity(quantity).catalogVersion(1L).build();
+    }
+}
@@ -1,19 +1,30 @@
 package com.assignment.sweet.service;
 
+import com.assignment.sweet.exception.ConflictException;
+import com.assignment.sweet.model.Purchase;
 import com.assignment.sweet.model.Sweet;
 import com.assignment.sweet.repository.SweetRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -23,7 +34,20 @@ class SweetServiceTest {
     private SweetRepository sweetRepository;
 
     @Mock
-    private com.assignment.sweet.repository.PurchaseRepository purchaseRepository;
+    private InventoryEngine inventoryEngine;
+
+    @Mock
+    private org.springframework.context.ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CatalogVersionClock versionClock;
+
+    @Mock
+    private FlashSaleGate flashSaleGate;
+
+    @Spy
+    private SweetUpdateRetry updateRetry = new SweetUpdateRetry(mock(PlatformTransactionManager.class),
+            new SimpleMeterRegistry(), 3, Duration.ZERO, Duration.ZERO);
 
     @InjectMocks
     private SweetService sweetService;
@@ -31,8 +55,9 @@ class SweetServiceTest {
     @Test
     void getAllSweets_ShouldReturnListOfSweets() {
         // Arrange
-        Sweet sweet = new Sweet(1L, "Ladoo", "Traditional", BigDecimal.valueOf(10.0), 100, "Delicious Ladoo",
-                "http://image.url");
+        Sweet sweet = Sweet.builder().id(1L).name("Ladoo").category("Traditional")
+                .price(BigDecimal.valueOf(10.0)).quantity(100).description("Delicious Ladoo")
+                .imageUrl("http://image.url").build();
         when(sweetRepository.findAll()).thenReturn(List.of(sweet));
 
         // Act
@@ -43,10 +68,23 @@ class SweetServiceTest {
         assertEquals("Ladoo", result.get(0).getName());
     }
 
+    @Test
+    void purchaseJoinsTransaction_ShouldBeFalseBehindAGateOrForAnEngineCommittingElsewhere() {
+        when(inventoryEngine.joinsCallerTransaction()).thenReturn(true);
+        when(flashSaleGate.isActive(1L)).thenReturn(false);
+        when(flashSaleGate.isActive(2L)).thenReturn(true);
+        assertTrue(sweetService.purchaseJoinsTransaction(1L));
+        assertFalse(sweetService.purchaseJoinsTransaction(2L));
+
+        when(inventoryEngine.joinsCallerTransaction()).thenReturn(false);
+        assertFalse(sweetService.purchaseJoinsTransaction(1L));
+    }
+
     @Test
     void addSweet_ShouldSaveSweet() {
         // Arrange
-        Sweet sweet = new Sweet(null, "Barfi", "Milk", BigDecimal.valueOf(15.0), 50, "Tasty Barfi", "http://image.url");
+        Sweet sweet = Sweet.builder().name("Barfi").category("Milk").price(BigDecimal.valueOf(15.0))
+                .quantity(50).description("Tasty Barfi").imageUrl("http://image.url").build();
         when(sweetRepository.save(any(Sweet.class))).thenAnswer(invocation -> {
             Sweet s = invocation.getArgument(0);
             s.setId(1L);
@@ -62,37 +100,33 @@ class SweetServiceTest {
     }
 
     @Test
-    void purchaseSweet_ShouldDecreaseQuantity_WhenStockIsAvailable() {
+    void purchaseSweet_ShouldDelegateToInventoryEngine() {
         // Arrange
-        Sweet sweet = new Sweet(1L, "Ladoo", "Traditional", BigDecimal.valueOf(10.0), 10, "Delicious Ladoo",
-                "http://image.url");
-        when(sweetRepository.findById(1L)).thenReturn(Optional.of(sweet));
-        when(sweetRepository.save(any(Sweet.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        Sweet afterPurchase = Sweet.builder().id(1L).name("Ladoo").category("Traditional")
+                .price(BigDecimal.valueOf(10.0)).quantity(9).description("Delicious Ladoo")
+                .imageUrl("http://image.url").catalogVersion(2L).build();
+        when(inventoryEngine.purchase(1L, 1, "test@example.com")).thenReturn(afterPurchase);
 
         // Act
         Sweet result = sweetService.purchaseSweet(1L, 1, "test@example.com");
 
         // Assert
         assertEquals(9, result.getQuantity());
-        verify(purchaseRepository, times(1)).save(any(com.assignment.sweet.model.Purchase.class));
+        verify(sweetRepository, never()).save(any(Sweet.class));
     }
 
     @Test
-    void purchaseSweet_ShouldThrowException_WhenStockIsInsufficient() {
-        // Arrange
-        Sweet sweet = new Sweet(1L, "Ladoo", "Traditional", BigDecimal.valueOf(10.0), 0, "Delicious Ladoo",
-                "http://image.url");
-        when(sweetRepository.findById(1L)).thenReturn(Optional.of(sweet));
-
-        // Act & Assert
-        assertThrows(RuntimeException.class, () -> sweetService.purchaseSweet(1L, 1, "test@example.com"));
+    void purchaseSweet_ShouldRejectNonPositiveQuantity() {
+        assertThrows(IllegalArgumentException.class, () -> sweetService.purchaseSweet(1L, 0, "test@example.com"));
+        verify(inventoryEngine, never()).purchase(anyLong(), anyInt(), any());
     }
 
     @Test
     void restockSweet_ShouldIncreaseQuantity() {
         // Arrange
-        Sweet sweet = new Sweet(1L, "Ladoo", "Traditional", BigDecimal.valueOf(10.0), 10, "Delicious Ladoo",
-                "http://image.url");
+        Sweet sweet = Sweet.builder().id(1L).name("Ladoo").category("Traditional")
+                .price(BigDecimal.valueOf(10.0)).quantity(10).description("Delicious Ladoo")
+                .imageUrl("http://image.url").build();
         when(sweetRepository.findById(1L)).thenReturn(Optional.of(sweet));
         when(sweetRepository.save(any(Sweet.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
@@ -102,4 +136,53 @@ class SweetServiceTest {
         // Assert
         assertEquals(15, result.getQuantity());
     }
+
+    @Test
+    void updateSweet_ShouldRejectEditOfStaleVersion() {
+        // Arrange
+        Sweet current = Sweet.builder().id(1L).name("Ladoo").category("Traditional")
+                .price(BigDecimal.valueOf(10.0)).quantity(9).description("Delicious Ladoo")
+                .imageUrl("http://image.url").catalogVersion(5L).version(4L).build();
+        when(sweetRepository.findById(1L)).thenReturn(Optional.of(current));
+        Sweet edited = Sweet.builder().id(1L).name("Ladoo").category("Traditional")
+                .price(BigDecimal.valueOf(12.0)).quantity(10).description("Delicious Ladoo")
+                .imageUrl("http://image.url").catalogVersion(4L).version(3L).build();
+
+        // Act & Assert
+        assertThrows(ConflictException.class, () -> sweetService.updateSweet(1L, edited, null));
+        verify(sweetRepository, never()).save(any());
+    }
+
+    @Test
+    void checkout_ShouldMergeLinesInIdOrderAndTotalPurchases() {
+        // Arrange
+        when(inventoryEngine.checkout(any(), eq("test@example.com"))).thenReturn(List.of(
+                new Purchase(null, 2L, "Barfi", 1, BigDecimal.valueOf(15), BigDecimal.valueOf(15),
+                        "test@example.com", null),
+                new Purchase(null, 5L, "Ladoo", 3, BigDecimal.valueOf(10), BigDecimal.valueOf(30),
+                        "test@example.com", null)));
+
+        // Act
+        com.assignment.sweet.dto.CheckoutResult result = sweetService.checkout(List.of(
+                new com.assignment.sweet.dto.CheckoutLine(5L, 2),
+                new com.assignment.sweet.dto.CheckoutLine(2L, 1),
+                new com.assignment.sweet.dto.CheckoutLine(5L, 1)), "test@example.com");
+
+        // Assert
+        verify(inventoryEngine).checkout(eq(new TreeMap<>(Map.of(2L, 1, 5L, 3))), eq("test@example.com"));
+        assertEquals(2, result.getPurchases().size());
+        assertEquals(4, result.getTotalQuantity());
+        assertEquals(0, BigDecimal.valueOf(45).compareTo(result.getTotalPrice()));
+    }
+
+    @Test
+    void checkout_ShouldRejectTooManyDistinctSweets() {
+        List<com.assignment.sweet.dto.CheckoutLine> lines = new java.util.ArrayList<>();
+        for (long id = 1; id <= SweetService.MAX_CHECKOUT_LINES + 1; id++) {
+            lines.add(new com.assignment.sweet.dto.CheckoutLine(id, 1));
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> sweetService.checkout(lines, "test@example.com"));
+        verify(inventoryEngine, never()).checkout(any(), any());
+    }
 }
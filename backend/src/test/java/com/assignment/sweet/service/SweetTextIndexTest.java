@@ -0,0 +1,97 @@
+package com.assignment.sweet.service;
+
+import com.assignment.sweet.dto.SweetSearchHit;
+import com.assignment.sweet.model.Sweet;
+import com.assignment.sweet.repository.SweetRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SweetTextIndexTest {
+
+    @Mock
+    private SweetRepository sweetRepository;
+
+    private SweetTextIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SweetTextIndex(sweetRepository);
+        when(sweetRepository.findAll()).thenReturn(List.of(
+                sweet(1L, "Dark Chocolate Truffle", "Chocolate", "Rich cocoa ganache"),
+                sweet(2L, "Kaju Katli", "Traditional", "Cashew fudge with silver leaf"),
+                sweet(3L, "Mint Candy", "Candy", "Cool peppermint, pairs well with chocolate"),
+                sweet(4L, "Crème Brûlée Fudge", "Caramel", "Burnt sugar crust")));
+        index.rebuild();
+    }
+
+    @Test
+    void search_ShouldRankNameMatchAboveDescriptionMatch() {
+        List<SweetSearchHit> hits = index.search("chocolate", 10);
+
+        assertEquals(List.of(1L, 3L), hits.stream().map(SweetSearchHit::getId).toList());
+        assertTrue(hits.get(0).getScore() > hits.get(1).getScore());
+    }
+
+    @Test
+    void search_ShouldMatchPrefixesAndRequireEveryToken() {
+        assertEquals(List.of(2L), ids(index.search("kaj fud", 10)));
+        assertEquals(List.of(2L, 4L), ids(index.search("fudge", 10)).stream().sorted().toList());
+    }
+
+    @Test
+    void search_ShouldTolerateSingleTypoAndFoldAccents() {
+        assertEquals(List.of(1L), ids(index.search("trufle", 10)));
+        assertEquals(List.of(4L), ids(index.search("creme brulee", 10)));
+        assertEquals(List.of(3L), ids(index.search("pepermint", 10)));
+    }
+
+    @Test
+    void index_ShouldReplaceAndRemoveDocumentsIncrementally() {
+        index.index(Sweet.builder().id(2L).name("Kaju Roll").category("Traditional").price(BigDecimal.ONE)
+                .quantity(5).description("Cashew roll").catalogVersion(10L).build());
+        assertTrue(index.search("katli", 10).isEmpty());
+        assertEquals(List.of(2L), ids(index.search("roll", 10)));
+
+        index.remove(1L);
+        assertEquals(List.of(3L), ids(index.search("chocolate", 10)));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void index_ShouldIgnoreOlderVersionOfADocument() {
+        index.index(Sweet.builder().id(2L).name("Kaju Roll").category("Traditional").price(BigDecimal.ONE)
+                .quantity(5).description("Cashew roll").catalogVersion(10L).build());
+        index.index(Sweet.builder().id(2L).name("Kaju Katli").category("Traditional").price(BigDecimal.ONE)
+                .quantity(5).description("Cashew fudge").catalogVersion(9L).build());
+
+        assertEquals(List.of(2L), ids(index.search("roll", 10)));
+    }
+
+    @Test
+    void withinOneEdit_ShouldCoverInsertDeleteSubstituteAndTranspose() {
+        assertTrue(SweetTextIndex.withinOneEdit("candy", "cand"));
+        assertTrue(SweetTextIndex.withinOneEdit("cand", "candy"));
+        assertTrue(SweetTextIndex.withinOneEdit("candy", "cendy"));
+        assertTrue(SweetTextIndex.withinOneEdit("candy", "cnady"));
+        assertFalse(SweetTextIndex.withinOneEdit("candy", "cnaddy"));
+    }
+
+    private static List<Long> ids(List<SweetSearchHit> hits) {
+        return hits.stream().map(SweetSearchHit::getId).toList();
+    }
+
+    private static Sweet sweet(Long id, String name, String category, String description) {
+        return Sweet.builder().id(id).name(name).category(category).price(BigDecimal.TEN).quantity(10)
+                .description(description).catalogVersion(1L).build();
+    }
+}
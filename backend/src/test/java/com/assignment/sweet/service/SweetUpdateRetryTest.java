@@ -0,0 +1,96 @@
+package com.assignment.sweet.service;
+
+import com.assignment.sweet.exception.ConflictException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class SweetUpdateRetryTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SweetUpdateRetry retry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        retry = new SweetUpdateRetry(mock(PlatformTransactionManager.class), meterRegistry, 3, Duration.ofMillis(1),
+                Duration.ofMillis(2));
+    }
+
+    @Test
+    void conflictingAttemptIsRetriedAndCounted() {
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = retry.inTransaction("restock", 7L, () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException("Sweet", 7L);
+            }
+            return "done";
+        });
+
+        assertEquals("done", result);
+        assertEquals(2, meterRegistry.get("sweet.update.conflicts").tag("sweet", "7").counter().count());
+        assertEquals(2, meterRegistry.get("sweet.update.retries").tag("operation", "restock").counter().count());
+        assertEquals(3, meterRegistry.get("sweet.update.attempts").tag("operation", "restock").summary().max());
+    }
+
+    @Test
+    void firstTimeSuccessRegistersNoMeters() {
+        assertEquals("done", retry.inTransaction("purchase", 7L, () -> "done"));
+
+        assertTrue(meterRegistry.getMeters().isEmpty());
+    }
+
+    @Test
+    void givesUpWithConflictAfterMaxAttempts() {
+        AtomicInteger calls = new AtomicInteger();
+
+        ConflictException ex = assertThrows(ConflictException.class, () -> retry.run("purchase", 7L, () -> {
+            calls.incrementAndGet();
+            throw new CannotAcquireLockException("row lock timeout");
+        }));
+
+        assertEquals("Sweet is busy, please try again", ex.getMessage());
+        assertEquals(3, calls.get());
+        assertEquals(1, meterRegistry.get("sweet.update.exhausted").tag("operation", "purchase").counter().count());
+    }
+
+    @Test
+    void runInsideCallersTransactionIsNotRetried() {
+        AtomicInteger calls = new AtomicInteger();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            assertThrows(CannotAcquireLockException.class, () -> retry.run("purchase", 7L, () -> {
+                calls.incrementAndGet();
+                throw new CannotAcquireLockException("row lock timeout");
+            }));
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void otherFailuresAreNotRetried() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> retry.run("restock", 7L, () -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("Sweet not found");
+        }));
+
+        assertEquals(1, calls.get());
+        assertTrue(meterRegistry.find("sweet.update.conflicts").counters().isEmpty());
+    }
+}
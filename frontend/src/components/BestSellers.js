@@ -0,0 +1,80 @@
+import React from "react";
+import { Card, CardContent, CardHeader, CardTitle } from "./ui/card";
+import { Flame, Trophy, Package } from "lucide-react";
+import { motion } from "framer-motion";
+import { getImageUrl } from "../lib/utils";
+
+function SellerList({ title, icon: Icon, sellers, onSelect }) {
+  return (
+    <Card className="border-gray-100">
+      <CardHeader className="pb-3">
+        <CardTitle className="flex items-center gap-2 text-lg text-gray-900">
+          <Icon className="w-5 h-5 text-rose-500" />
+          {title}
+        </CardTitle>
+      </CardHeader>
+      <CardContent>
+        {sellers.length === 0 ? (
+          <p className="text-sm text-gray-500">No sales yet</p>
+        ) : (
+          <ol className="space-y-2">
+            {sellers.map((seller, index) => (
+              <li key={seller.sweetId}>
+                <button
+                  type="button"
+                  onClick={() => onSelect(seller.sweetId)}
+                  className="w-full flex items-center gap-3 rounded-lg p-2 text-left hover:bg-rose-50 transition-colors"
+                >
+                  <span className="w-5 text-sm font-semibold text-gray-400">
+                    {index + 1}
+                  </span>
+                  {seller.imageUrl ? (
+                    <img
+                      src={getImageUrl(seller.imageUrl)}
+                      alt={seller.name}
+                      className="w-10 h-10 rounded-md object-cover"
+                    />
+                  ) : (
+                    <div className="w-10 h-10 rounded-md bg-rose-50 flex items-center justify-center">
+                      <Package className="w-5 h-5 text-rose-300" />
+                    </div>
+                  )}
+                  <span className="flex-1 font-medium text-gray-900">
+                    {seller.name}
+                  </span>
+                  <span className="text-sm text-gray-500">
+                    ${Number(seller.price).toFixed(2)}
+                  </span>
+                </button>
+              </li>
+            ))}
+          </ol>
+        )}
+      </CardContent>
+    </Card>
+  );
+}
+
+// Rankings are estimates from fixed-size sketches, so only the order is shown
+export default function BestSellers({ bestSellers, trending, onSelect }) {
+  return (
+    <motion.div
+      initial={{ opacity: 0, y: 20 }}
+      animate={{ opacity: 1, y: 0 }}
+      className="grid grid-cols-1 md:grid-cols-2 gap-6 mb-8"
+    >
+      <SellerList
+        title="Best Sellers"
+        icon={Trophy}
+        sellers={bestSellers}
+        onSelect={onSelect}
+      />
+      <SellerList
+        title="Trending Now"
+        icon={Flame}
+        sellers={trending}
+        onSelect={onSelect}
+      />
+    </motion.div>
+  );
+}
@@ -3,11 +3,11 @@ import { Card, CardContent, CardHeader, CardTitle } from "./ui/card";
 import { Package, DollarSign, ShoppingCart, AlertTriangle } from "lucide-react";
 import { motion } from "framer-motion";
 
-export default function StatsCards({ sweets, purchases = [] }) {
+export default function StatsCards({ sweets, sales = [] }) {
   const totalSweets = sweets.length;
   const totalValue = sweets.reduce((sum, s) => sum + s.price * s.quantity, 0);
-  const totalPurchases = purchases.length;
-  const revenue = purchases.reduce((sum, p) => sum + p.totalPrice, 0);
+  const totalPurchases = sales.reduce((sum, s) => sum + s.orderCount, 0);
+  const revenue = sales.reduce((sum, s) => sum + s.revenue, 0);
   const lowStock = sweets.filter(
     (s) => s.quantity < 10 && s.quantity > 0
   ).length;
@@ -8,6 +8,7 @@ import {
   Pencil,
   Trash2,
   PackagePlus,
+  Zap,
 } from "lucide-react";
 import { motion } from "framer-motion";
 import { cn, getImageUrl } from "../lib/utils";
@@ -30,6 +31,7 @@ export default function SweetCard({
   onEdit,
   onDelete,
   onRestock,
+  onToggleFlashSale,
   isAdmin,
 }) {
   const isOutOfStock = sweet.quantity === 0;
@@ -62,6 +64,12 @@ export default function SweetCard({
               </Badge>
             </div>
           )}
+          {sweet.flashSale && (
+            <Badge className="absolute top-3 left-3 border bg-yellow-100 text-yellow-800 border-yellow-200">
+              <Zap className="w-3 h-3 mr-1" />
+              Flash sale
+            </Badge>
+          )}
           <Badge
             className={cn(
               "absolute top-3 right-3 border",
@@ -127,6 +135,21 @@ export default function SweetCard({
                   <PackagePlus className="w-4 h-4 mr-2" />
                   Restock
                 </Button>
+                {onToggleFlashSale && (
+                  <Button
+                    onClick={() => onToggleFlashSale(sweet)}
+                    variant="outline"
+                    size="icon"
+                    className={cn(
+                      "border-yellow-200 hover:bg-yellow-50",
+                      sweet.flashSale ? "bg-yellow-100 text-yellow-700" : "text-gray-500"
+                    )}
+                    title={sweet.flashSale ? "End flash sale" : "Start flash sale"}
+                    aria-label={`${sweet.flashSale ? "End" : "Start"} flash sale for ${sweet.name}`}
+                  >
+                    <Zap className="w-4 h-4" />
+                  </Button>
+                )}
                 <Button
                   onClick={() => onEdit(sweet)}
                   variant="outline"
@@ -54,6 +54,8 @@ export default function SweetForm({
         description: sweet.description || "",
         image_url: sweet.imageUrl || "",
         imageFile: null,
+        // Lets the server refuse the edit if the sweet changed meanwhile
+        version: sweet.version,
       });
       setSearchQuery(sweet.name || "");
     } else {
@@ -0,0 +1,66 @@
+import React from "react";
+import { Card, CardContent, CardHeader, CardTitle } from "./ui/card";
+import { Users } from "lucide-react";
+
+// Counts are HyperLogLog estimates (about 2% off at scale, exact for small numbers)
+export default function UniqueBuyers({ bySweet = [], daily = [] }) {
+  const maxDaily = Math.max(1, ...daily.map((d) => d.buyers));
+
+  return (
+    <Card className="border-gray-100">
+      <CardHeader className="pb-3">
+        <CardTitle className="flex items-center gap-2 text-lg text-gray-900">
+          <Users className="w-5 h-5 text-rose-500" />
+          Unique Buyers (last 30 days)
+        </CardTitle>
+      </CardHeader>
+      <CardContent className="grid grid-cols-1 md:grid-cols-2 gap-8">
+        <div>
+          <h3 className="text-sm font-medium text-gray-600 mb-3">Per sweet</h3>
+          {bySweet.length === 0 ? (
+            <p className="text-sm text-gray-500">No sales yet</p>
+          ) : (
+            <ul className="space-y-2">
+              {bySweet.slice(0, 8).map((row) => (
+                <li
+                  key={row.sweetId}
+                  className="flex items-center justify-between text-sm"
+                >
+                  <span className="text-gray-900">
+                    {row.sweetName || `Sweet #${row.sweetId}`}
+                  </span>
+                  <span className="font-semibold text-gray-700">
+                    {row.buyers}
+                  </span>
+                </li>
+              ))}
+            </ul>
+          )}
+        </div>
+        <div>
+          <h3 className="text-sm font-medium text-gray-600 mb-3">Per day</h3>
+          {daily.length === 0 ? (
+            <p className="text-sm text-gray-500">No sales yet</p>
+          ) : (
+            <ul className="space-y-1">
+              {daily.slice(-14).map((row) => (
+                <li key={row.day} className="flex items-center gap-2 text-xs">
+                  <span className="w-20 text-gray-500">{row.day}</span>
+                  <div className="flex-1 h-3 bg-rose-50 rounded">
+                    <div
+                      className="h-3 bg-gradient-to-r from-rose-500 to-pink-600 rounded"
+                      style={{ width: `${(row.buyers / maxDaily) * 100}%` }}
+                    />
+                  </div>
+                  <span className="w-8 text-right font-semibold text-gray-700">
+                    {row.buyers}
+                  </span>
+                </li>
+              ))}
+            </ul>
+          )}
+        </div>
+      </CardContent>
+    </Card>
+  );
+}
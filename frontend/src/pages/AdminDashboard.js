@@ -5,6 +5,7 @@ import SweetCard from "../components/SweetCard";
 import SearchFilters from "../components/SearchFilters";
 import SweetForm from "../components/SweetForm";
 import StatsCards from "../components/StatsCards";
+import UniqueBuyers from "../components/UniqueBuyers";
 import { Button } from "../components/ui/button";
 import { Candy, Store, Plus } from "lucide-react";
 import { Link, useNavigate } from "react-router-dom";
@@ -33,7 +34,8 @@ const AdminDashboard = () => {
   useEffect(() => {
     fetchSweets();
     if (user?.role === "ADMIN") {
-      fetchPurchases();
+      fetchSales();
+      fetchBuyers();
     }
   }, [user]);
 
@@ -48,14 +50,32 @@ const AdminDashboard = () => {
     }
   };
 
-  const [purchases, setPurchases] = useState([]);
+  const [sales, setSales] = useState([]);
 
-  const fetchPurchases = async () => {
+  const fetchSales = async () => {
     try {
-      const response = await api.get("/purchases/all");
-      setPurchases(response.data);
+      // All-time totals per category, merged from pre-aggregated sales buckets
+      const response = await api.get("/sales/totals", {
+        params: { groupBy: "CATEGORY" },
+      });
+      setSales(response.data);
     } catch (error) {
-      console.error("Error fetching purchases", error);
+      console.error("Error fetching sales", error);
+    }
+  };
+
+  const [buyers, setBuyers] = useState({ bySweet: [], daily: [] });
+
+  const fetchBuyers = async () => {
+    try {
+      // Unions of per-sweet, per-day HyperLogLog sketches; defaults to the last 30 days
+      const [bySweet, daily] = await Promise.all([
+        api.get("/sales/buyers"),
+        api.get("/sales/buyers/daily"),
+      ]);
+      setBuyers({ bySweet: bySweet.data, daily: daily.data });
+    } catch (error) {
+      console.error("Error fetching unique buyers", error);
     }
   };
 
@@ -84,6 +104,8 @@ const AdminDashboard = () => {
         await api.post(`/sweets/${id}/restock`, quantity, {
           headers: {
             "Content-Type": "application/json",
+            // Lets the server drop a duplicate if this request is retried
+            "Idempotency-Key": crypto.randomUUID(),
           },
         });
         fetchSweets();
@@ -98,6 +120,21 @@ const AdminDashboard = () => {
     }
   };
 
+  const handleToggleFlashSale = async (sweet) => {
+    try {
+      await api.put(`/sweets/${sweet.id}/flash-sale`, !sweet.flashSale, {
+        headers: { "Content-Type": "application/json" },
+      });
+      fetchSweets();
+    } catch (error) {
+      Swal.fire(
+        "Error",
+        "Could not change flash sale: " + (error.response?.data?.error || error.message),
+        "error"
+      );
+    }
+  };
+
   const handleSaveSweet = async (formData) => {
     setIsProcessingForm(true);
     try {
@@ -129,6 +166,19 @@ const AdminDashboard = () => {
       setIsEditing(false);
       fetchSweets();
     } catch (error) {
+      if (error.response?.status === 409) {
+        // Changed by someone else (an edit, restock or purchase) since it was loaded
+        setShowForm(false);
+        setEditSweet(null);
+        setIsEditing(false);
+        fetchSweets();
+        Swal.fire(
+          "Sweet changed",
+          "This sweet was updated while you were editing. Open it again to edit the latest values.",
+          "warning"
+        );
+        return;
+      }
       Swal.fire(
         "Error",
         "Failed to save sweet: " +
@@ -162,8 +212,17 @@ const AdminDashboard = () => {
     }
   };
 
-  const handleEdit = (sweet) => {
-    setEditSweet(sweet);
+  const handleEdit = async (sweet) => {
+    // List views omit the description; load the full record before editing
+    try {
+      const response = await api.get(`/sweets/${sweet.id}`);
+      setEditSweet(response.data);
+    } catch (error) {
+      // Editing the summary would save a blank description over the real one
+      console.error("Error fetching sweet details", error);
+      Swal.fire("Error", "Failed to load sweet details, please try again", "error");
+      return;
+    }
     setIsEditing(true);
     setShowForm(true);
   };
@@ -247,7 +306,8 @@ const AdminDashboard = () => {
 
         {user?.role === "ADMIN" && (
           <div className="mb-8">
-            <StatsCards sweets={sweets} purchases={purchases} />
+            <StatsCards sweets={sweets} sales={sales} />
+            <UniqueBuyers bySweet={buyers.bySweet} daily={buyers.daily} />
           </div>
         )}
 
@@ -267,6 +327,7 @@ const AdminDashboard = () => {
                 onEdit={handleEdit}
                 onDelete={handleDelete}
                 onRestock={handleRestock}
+                onToggleFlashSale={handleToggleFlashSale}
                 isAdmin={user?.role === "ADMIN"}
               />
             ))}
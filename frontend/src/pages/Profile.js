@@ -24,8 +24,11 @@ export default function Profile() {
   const { user } = useAuth();
   const navigate = useNavigate();
   const [purchases, setPurchases] = useState([]);
+  const [summary, setSummary] = useState(null);
+  const [nextCursor, setNextCursor] = useState(null);
   const [loading, setLoading] = useState(true);
   const [refreshing, setRefreshing] = useState(false);
+  const [loadingMore, setLoadingMore] = useState(false);
 
   useEffect(() => {
     if (!user) {
@@ -38,8 +41,13 @@ export default function Profile() {
   const fetchPurchases = async () => {
     setRefreshing(true);
     try {
-      const response = await api.get("/purchases/my");
-      setPurchases(response.data);
+      const [response, summaryResponse] = await Promise.all([
+        api.get("/purchases/my"),
+        api.get("/purchases/my/summary"),
+      ]);
+      setPurchases(response.data.items);
+      setNextCursor(response.data.nextCursor);
+      setSummary(summaryResponse.data);
     } catch (error) {
       console.error("Error fetching purchases", error);
     } finally {
@@ -48,8 +56,25 @@ export default function Profile() {
     }
   };
 
-  const totalSpent = purchases.reduce((sum, p) => sum + p.totalPrice, 0);
-  const totalItems = purchases.reduce((sum, p) => sum + p.quantity, 0);
+  // History is paged newest first; each page continues from the last one's cursor
+  const fetchMorePurchases = async () => {
+    setLoadingMore(true);
+    try {
+      const response = await api.get("/purchases/my", {
+        params: { cursor: nextCursor },
+      });
+      setPurchases((loaded) => [...loaded, ...response.data.items]);
+      setNextCursor(response.data.nextCursor);
+    } catch (error) {
+      console.error("Error fetching purchases", error);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
+  const orderCount = summary?.orderCount ?? 0;
+  const totalSpent = summary?.totalSpent ?? 0;
+  const totalItems = summary?.totalItems ?? 0;
 
   if (!user) return null;
 
@@ -130,7 +155,7 @@ export default function Profile() {
                       Total Purchases
                     </p>
                     <p className="text-3xl font-bold text-gray-900">
-                      {purchases.length}
+                      {orderCount}
                     </p>
                   </div>
                   <div className="p-3 bg-gradient-to-br from-purple-100 to-purple-200 rounded-xl">
@@ -256,6 +281,17 @@ export default function Profile() {
                       </div>
                     </motion.div>
                   ))}
+                  {nextCursor && (
+                    <div className="text-center pt-2">
+                      <Button
+                        variant="outline"
+                        onClick={fetchMorePurchases}
+                        disabled={loadingMore}
+                      >
+                        {loadingMore ? "Loading..." : "Load more"}
+                      </Button>
+                    </div>
+                  )}
                 </div>
               )}
             </CardContent>
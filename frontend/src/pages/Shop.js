@@ -11,6 +11,7 @@ import Swal from "sweetalert2";
 import SweetCard from "../components/SweetCard";
 import SearchFilters from "../components/SearchFilters";
 import PurchaseModal from "../components/PurchaseModal";
+import BestSellers from "../components/BestSellers";
 
 export default function Shop() {
   const { user, logout } = useAuth();
@@ -25,14 +26,21 @@ export default function Shop() {
   const [selectedSweet, setSelectedSweet] = useState(null);
   const [isPurchasing, setIsPurchasing] = useState(false);
   const [isPurchaseModalOpen, setIsPurchaseModalOpen] = useState(false);
+  const [bestSellers, setBestSellers] = useState([]);
+  const [trending, setTrending] = useState([]);
 
   useEffect(() => {
     fetchSweets();
-  }, []);
+    // eslint-disable-next-line react-hooks/exhaustive-deps
+  }, [filters.category, filters.maxPrice]);
 
   const fetchSweets = async () => {
     try {
-      const response = await api.get("/sweets");
+      // Category and price are resolved server-side on the facet indexes
+      const params = {};
+      if (filters.category !== "all") params.category = filters.category;
+      if (filters.maxPrice !== "all") params.maxPrice = filters.maxPrice;
+      const response = await api.get("/sweets/filter", { params });
       setSweets(response.data);
     } catch (error) {
       console.error("Error fetching sweets", error);
@@ -41,17 +49,28 @@ export default function Shop() {
     }
   };
 
-  const filteredSweets = sweets.filter((sweet) => {
-    const matchesSearch = sweet.name
-      .toLowerCase()
-      .includes(filters.search.toLowerCase());
-    const matchesCategory =
-      filters.category === "all" ||
-      sweet.category.toLowerCase() === filters.category.toLowerCase();
-    const matchesPrice =
-      filters.maxPrice === "all" || sweet.price <= parseFloat(filters.maxPrice);
-    return matchesSearch && matchesCategory && matchesPrice;
-  });
+  useEffect(() => {
+    fetchBestSellers();
+  }, []);
+
+  const fetchBestSellers = async () => {
+    try {
+      const [allTime, recent] = await Promise.all([
+        api.get("/sweets/best-sellers", { params: { limit: 5 } }),
+        api.get("/sweets/best-sellers", {
+          params: { view: "TRENDING", limit: 5 },
+        }),
+      ]);
+      setBestSellers(allTime.data);
+      setTrending(recent.data);
+    } catch (error) {
+      console.error("Error fetching best sellers", error);
+    }
+  };
+
+  const filteredSweets = sweets.filter((sweet) =>
+    sweet.name.toLowerCase().includes(filters.search.toLowerCase())
+  );
 
   const handlePurchaseClick = (id) => {
     if (!user) {
@@ -74,10 +93,13 @@ export default function Shop() {
       await api.post(`/sweets/${selectedSweet.id}/purchase`, quantity, {
         headers: {
           "Content-Type": "application/json",
+          // Lets the server drop a duplicate if this request is retried
+          "Idempotency-Key": crypto.randomUUID(),
         },
       });
 
       fetchSweets();
+      fetchBestSellers();
       setIsPurchaseModalOpen(false);
       Swal.fire({
         icon: "success",
@@ -178,6 +200,13 @@ export default function Shop() {
           </p>
         </motion.div>
 
+        {/* Best sellers and trending */}
+        <BestSellers
+          bestSellers={bestSellers}
+          trending={trending}
+          onSelect={handlePurchaseClick}
+        />
+
         {/* Filters */}
         <div className="mb-8">
           <SearchFilters filters={filters} onFilterChange={setFilters} />